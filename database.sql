@@ -33,6 +33,7 @@ CREATE TABLE REFERRAL (
     referred_client_id INT NOT NULL,
     status ENUM('PENDING', 'APPROVED', 'REJECTED') NOT NULL DEFAULT 'PENDING',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version INT NOT NULL DEFAULT 0,
     FOREIGN KEY (referrer_user_id) REFERENCES USERS(id),
     FOREIGN KEY (referred_client_id) REFERENCES REFERRED_CLIENT(id) ON DELETE CASCADE
 );
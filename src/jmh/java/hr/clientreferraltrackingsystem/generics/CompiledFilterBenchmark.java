@@ -0,0 +1,102 @@
+package hr.clientreferraltrackingsystem.generics;
+
+import hr.clientreferraltrackingsystem.controller.admin.helper.AdminDashboardRewardsHelper;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filters admin reward rows with the full filter form, once with {@link CompiledFilter} and once
+ * with the chained {@code filterBy*} filters it replaced, which built one list per criterion.
+ * The row counts include both sides of {@link CompiledFilter#PARALLEL_THRESHOLD}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CompiledFilterBenchmark {
+    private static final String[] FIRST_NAMES = {"Ana", "Ivan", "Marija", "Luka", "Petra", "Marko"};
+    private static final String[] LAST_NAMES = {"Horvat", "Kovačić", "Babić", "Marić", "Novak"};
+    private static final String[] DESCRIPTIONS = {"Referral bonus", "Gift card", "Loyalty points", "Cash bonus"};
+    private static final String CLIENT_NAME = "an";
+    private static final String DESCRIPTION = "bonus";
+    private static final String VALUE_FROM = "50";
+    private static final String VALUE_TO = "400";
+    private static final LocalDateTime DATE_FROM = LocalDateTime.of(2025, 2, 1, 0, 0);
+    private static final LocalDateTime DATE_TO = LocalDateTime.of(2025, 11, 30, 0, 0);
+
+    @Param({"1000", "5000", "9999", "10000", "20000", "100000"})
+    private int rows;
+
+    private List<RewardRow> rewards;
+    private CompiledFilter<RewardRow> filter;
+    private CompiledFilter<RewardRow> sequentialFilter;
+
+    @Setup(Level.Trial)
+    public void createRows() {
+        Random random = new Random(42);
+        rewards = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            BigDecimal value = BigDecimal.valueOf(random.nextInt(50_000), 2);
+            LocalDateTime date = LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(random.nextInt(365));
+            rewards.add(new RewardRow(i, String.valueOf(i),
+                    FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)],
+                    DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)], value, value.toPlainString(), date, date.toString()));
+        }
+        filter = AdminDashboardRewardsHelper.compileRowFilter(CLIENT_NAME, DESCRIPTION, VALUE_FROM, VALUE_TO, DATE_FROM, DATE_TO);
+        sequentialFilter = new CompiledFilter.Builder<RewardRow>()
+                .contains(RewardRow::clientFullName, CLIENT_NAME)
+                .contains(RewardRow::description, DESCRIPTION)
+                .atLeast(RewardRow::value, new BigDecimal(VALUE_FROM))
+                .atMost(RewardRow::value, new BigDecimal(VALUE_TO))
+                .atLeast(RewardRow::rewardDate, DATE_FROM)
+                .atMost(RewardRow::rewardDate, DATE_TO)
+                .build();
+    }
+
+    @Benchmark
+    public List<RewardRow> compiled() {
+        return filter.apply(rewards);
+    }
+
+    @Benchmark
+    public List<RewardRow> compiledSequential() {
+        return sequentialFilter.apply(rewards);
+    }
+
+    /**
+     * The six {@code filterBy*} calls the rewards dashboard chained before the filter was compiled.
+     */
+    @Benchmark
+    public List<RewardRow> chained() {
+        List<RewardRow> result = rewards;
+        String lowerName = CLIENT_NAME.toLowerCase();
+        result = result.stream()
+                .filter(r -> r.clientFullName() != null && r.clientFullName().toLowerCase().contains(lowerName))
+                .toList();
+        String lowerDescription = DESCRIPTION.toLowerCase();
+        result = result.stream()
+                .filter(r -> r.description() != null && r.description().toLowerCase().contains(lowerDescription))
+                .toList();
+        BigDecimal valueFrom = new BigDecimal(VALUE_FROM.trim());
+        result = result.stream().filter(r -> r.value() != null && r.value().compareTo(valueFrom) >= 0).toList();
+        BigDecimal valueTo = new BigDecimal(VALUE_TO.trim());
+        result = result.stream().filter(r -> r.value() != null && r.value().compareTo(valueTo) <= 0).toList();
+        result = result.stream().filter(r -> r.rewardDate() != null && !r.rewardDate().isBefore(DATE_FROM)).toList();
+        result = result.stream().filter(r -> r.rewardDate() != null && !r.rewardDate().isAfter(DATE_TO)).toList();
+        return result;
+    }
+}
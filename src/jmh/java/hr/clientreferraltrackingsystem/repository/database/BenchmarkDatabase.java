@@ -0,0 +1,84 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import org.h2.tools.Server;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Fills a fresh in-memory test database with generated clients, referrals and rewards for the
+ * seeded users, one of each per row, and analyzes it so that H2 plans with realistic statistics.
+ * <p>
+ * An embedded in-memory database hands out the strings it stores, so loaded entities share them
+ * with the database. Benchmarks of the heap held by loaded objects therefore reach the database
+ * through an in-process TCP server, as the application does by default.
+ */
+public class BenchmarkDatabase {
+    private static Server tcpServer;
+
+    private BenchmarkDatabase() {}
+
+    /**
+     * Starts a new in-memory database and seeds it.
+     *
+     * @param rows the number of clients, referrals and rewards to insert
+     * @throws IOException  if the schema script or a migration script cannot be read
+     * @throws SQLException if the database cannot be created or filled
+     */
+    public static void start(int rows) throws IOException, SQLException {
+        TestDatabase.start();
+        seed(rows);
+    }
+
+    /**
+     * Starts a new in-memory database behind an in-process TCP server, connects to it over TCP
+     * and seeds it.
+     *
+     * @param rows the number of clients, referrals and rewards to insert
+     * @throws IOException  if the schema script or a migration script cannot be read
+     * @throws SQLException if the server or the database cannot be started, or the database cannot be filled
+     */
+    public static void startOverTcp(int rows) throws IOException, SQLException {
+        tcpServer = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        String url = "jdbc:h2:tcp://localhost:" + tcpServer.getPort() + "/mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DatabaseManager.useConfig(new DatabaseConfig(DatabaseMode.TCP, url, 0, "database.sql",
+                "sa", "", 20, 5000L, 0L, 2, 5000L));
+        DatabaseManager.initializeDatabase();
+        seed(rows);
+    }
+
+    /**
+     * Drops the database and stops the TCP server, if one was started.
+     *
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the database cannot be shut down
+     */
+    public static void stop() throws IOException, SQLException {
+        try {
+            TestDatabase.stop();
+        } finally {
+            if (tcpServer != null) {
+                tcpServer.stop();
+                tcpServer = null;
+            }
+        }
+    }
+
+    private static void seed(int rows) throws IOException, SQLException {
+        try (Connection connection = TestDatabase.connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO referred_client (first_name, last_name, email, phone_number, created_by) " +
+                    "SELECT 'First' || x, 'Last' || x, 'c' || x || '@example.com', '091' || x, 1 + MOD(x, 5) " +
+                    "FROM SYSTEM_RANGE(1, " + rows + ")");
+            statement.execute("INSERT INTO referral (referrer_user_id, referred_client_id, status, created_at) " +
+                    "SELECT 1 + MOD(x, 5), x, CASE MOD(x, 3) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'APPROVED' ELSE 'REJECTED' END, " +
+                    "DATEADD(MINUTE, x, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + rows + ")");
+            statement.execute("INSERT INTO reward (referral_id, description, issued_date, amount) " +
+                    "SELECT x, 'Reward ' || x, DATEADD(DAY, MOD(x, 365), DATE '2024-01-01'), MOD(x, 500) " +
+                    "FROM SYSTEM_RANGE(1, " + rows + ")");
+            statement.execute("ANALYZE");
+        }
+    }
+}
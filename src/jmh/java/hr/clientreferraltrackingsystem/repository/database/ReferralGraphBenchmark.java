@@ -0,0 +1,71 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads the referral graphs, each referral with its referrer, client and the client's creator,
+ * through the single joined query of {@link ReferralDatabaseRepository}.
+ * <p>
+ * The cold benchmarks clear the entity caches before every call, so that every user and client
+ * is materialized from the result set; the warm ones reuse the cached instances.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReferralGraphBenchmark {
+
+    @Param({"10000"})
+    private int referrals;
+
+    private final ReferralDatabaseRepository referralRepository = new ReferralDatabaseRepository();
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        BenchmarkDatabase.start(referrals);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        TestDatabase.stop();
+    }
+
+    /**
+     * Clears the entity caches before each call of a cold benchmark.
+     */
+    @State(Scope.Thread)
+    public static class ColdCaches {
+        @Setup(Level.Invocation)
+        public void clear() {
+            EntityCaches.clear();
+        }
+    }
+
+    @Benchmark
+    public Set<Referral> findAllCold(ColdCaches caches) {
+        return referralRepository.findAll();
+    }
+
+    @Benchmark
+    public Set<Referral> findAllWarm() {
+        return referralRepository.findAll();
+    }
+
+    @Benchmark
+    public Set<Referral> findAllByReferralCold(ColdCaches caches) {
+        return referralRepository.findAllByReferral(1);
+    }
+}
@@ -0,0 +1,77 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads rewards together with their referrals through {@link RewardDatabaseRepository}, which
+ * resolves the referrals of all rewards at once instead of looking them up one reward at a time.
+ * <p>
+ * The cold benchmarks clear the entity caches before every call, so that every referral, user
+ * and client is materialized from the result set; the warm ones reuse the cached instances,
+ * and the warm lookup by referrer is answered from the referrer's reward index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RewardLoadingBenchmark {
+
+    @Param({"10000"})
+    private int rewards;
+
+    private final RewardDatabaseRepository rewardRepository = new RewardDatabaseRepository();
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        BenchmarkDatabase.start(rewards);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        TestDatabase.stop();
+    }
+
+    /**
+     * Clears the entity caches before each call of a cold benchmark.
+     */
+    @State(Scope.Thread)
+    public static class ColdCaches {
+        @Setup(Level.Invocation)
+        public void clear() {
+            EntityCaches.clear();
+        }
+    }
+
+    @Benchmark
+    public List<Reward> findAllCold(ColdCaches caches) {
+        return rewardRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Reward> findAllWarm() {
+        return rewardRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Reward> findAllByIdCold(ColdCaches caches) {
+        return rewardRepository.findAllById(1);
+    }
+
+    @Benchmark
+    public List<Reward> findAllByIdWarm() {
+        return rewardRepository.findAllById(1);
+    }
+}
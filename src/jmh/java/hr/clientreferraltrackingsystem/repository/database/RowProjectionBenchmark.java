@@ -0,0 +1,137 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.database.query.Page;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.ReferralRow;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Loads the admin referral and reward tables as full entities and as row projections.
+ * <p>
+ * The database is reached over TCP, as in the application's default mode. Entities are loaded
+ * with cleared entity caches before every call, as on a first visit of the table. Run with {@code -prof gc} for the allocation per load; the setup prints the heap
+ * retained per row by a loaded table, including what the entity caches keep of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RowProjectionBenchmark {
+    private static final int PAGE_SIZE = 50;
+    private static final int RETAINED_COPIES = 4;
+
+    @Param({"100000"})
+    private int rows;
+
+    private final ReferralDatabaseRepository referralRepository = new ReferralDatabaseRepository();
+    private final RewardDatabaseRepository rewardRepository = new RewardDatabaseRepository();
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        BenchmarkDatabase.startOverTcp(rows);
+        System.out.printf("%nRetained bytes per row: referral entities %d, referral rows %d, reward entities %d, reward rows %d%n",
+                retainedPerRow(this::referralEntities), retainedPerRow(this::referralRows),
+                retainedPerRow(this::rewardEntities), retainedPerRow(this::rewardRows));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        BenchmarkDatabase.stop();
+    }
+
+    /**
+     * Clears the entity caches before each call of an entity benchmark.
+     */
+    @State(Scope.Thread)
+    public static class ColdCaches {
+        @Setup(Level.Invocation)
+        public void clear() {
+            EntityCaches.clear();
+        }
+    }
+
+    @Benchmark
+    public List<Referral> referralEntities(ColdCaches caches) {
+        return referralEntities();
+    }
+
+    @Benchmark
+    public List<ReferralRow> referralRows() {
+        return referralRepository.findRowPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC, null, rows).items();
+    }
+
+    @Benchmark
+    public Page<Referral> referralEntityPage(ColdCaches caches) {
+        return referralRepository.findPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public Page<ReferralRow> referralRowPage() {
+        return referralRepository.findRowPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<Reward> rewardEntities(ColdCaches caches) {
+        return rewardEntities();
+    }
+
+    @Benchmark
+    public List<RewardRow> rewardRows() {
+        return rewardRepository.findAllRows();
+    }
+
+    private List<Referral> referralEntities() {
+        return referralRepository.findPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC, null, rows).items();
+    }
+
+    private List<Reward> rewardEntities() {
+        return rewardRepository.findAll();
+    }
+
+    /**
+     * Measures the heap retained per row by several copies of a table, each loaded with cleared
+     * caches, so that one-off allocations of the database are spread over many rows.
+     */
+    private long retainedPerRow(Supplier<List<?>> load) {
+        List<List<?>> tables = new ArrayList<>();
+        load.get();
+        EntityCaches.clear();
+        long before = usedHeap();
+        for (int i = 0; i < RETAINED_COPIES; i++) {
+            EntityCaches.clear();
+            tables.add(load.get());
+        }
+        long retained = usedHeap() - before;
+        if (tables.getLast().size() != rows) {
+            throw new IllegalStateException("Loaded " + tables.getLast().size() + " of " + rows + " rows");
+        }
+        EntityCaches.clear();
+        return retained / ((long) RETAINED_COPIES * rows);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
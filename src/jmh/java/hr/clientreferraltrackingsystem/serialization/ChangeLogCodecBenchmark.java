@@ -0,0 +1,106 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes and decodes a file's worth of change log entries with {@link ChangeLogCodec} and with
+ * Java serialization, one entry at a time into one stream, as the journal writes them.
+ * Scores are per entry; the setup prints the encoded bytes per entry of both formats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChangeLogCodecBenchmark {
+    private static final int ENTRIES = 1_000;
+    private static final String[] FIELDS = {"Status", "Email", "Phone number", "First name", "Last name"};
+    private static final String[] ROLES = {"ADMIN", "USER"};
+
+    private final List<ChangeLogHolder> changes = new ArrayList<>();
+    private final List<byte[]> encoded = new ArrayList<>();
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void createEntries() throws IOException {
+        LocalDateTime time = LocalDateTime.of(2025, 7, 6, 9, 0);
+        for (int i = 0; i < ENTRIES; i++) {
+            changes.add(new ChangeLogHolder(FIELDS[i % FIELDS.length], "old value " + i, "new value " + i,
+                    ROLES[i % ROLES.length], time.plusSeconds(37L * i)));
+        }
+        ChangeLogCodec codec = new ChangeLogCodec();
+        long codecBytes = 0;
+        for (ChangeLogHolder change : changes) {
+            int length = codec.encode(change);
+            encoded.add(Arrays.copyOf(codec.buffer(), length));
+            codecBytes += length;
+        }
+        serialized = serialize(changes);
+        System.out.printf("%nBytes per entry: codec %.1f, serialization %.1f%n",
+                (double) codecBytes / ENTRIES, (double) serialized.length / ENTRIES);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public long encodeWithCodec() {
+        ChangeLogCodec codec = new ChangeLogCodec();
+        long bytes = 0;
+        for (ChangeLogHolder change : changes) {
+            bytes += codec.encode(change);
+        }
+        return bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void decodeWithCodec(Blackhole blackhole) throws IOException {
+        ChangeLogCodec codec = new ChangeLogCodec();
+        for (byte[] body : encoded) {
+            blackhole.consume(codec.decode(body, body.length));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public byte[] encodeWithSerialization() throws IOException {
+        return serialize(changes);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ENTRIES)
+    public void decodeWithSerialization(Blackhole blackhole) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                blackhole.consume(in.readObject());
+            }
+        }
+    }
+
+    private static byte[] serialize(List<ChangeLogHolder> changes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (ChangeLogHolder change : changes) {
+                out.writeObject(change);
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
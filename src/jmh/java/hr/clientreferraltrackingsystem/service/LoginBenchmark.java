@@ -0,0 +1,86 @@
+package hr.clientreferraltrackingsystem.service;
+
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.database.TestDatabase;
+import hr.clientreferraltrackingsystem.repository.database.UserCredentials;
+import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
+import org.mindrot.jbcrypt.BCrypt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs in against an in-memory database seeded with many users, all sharing one password hash
+ * of the production BCrypt cost.
+ * <p>
+ * {@code login} is timed for a known and an unknown username, which should take equally long,
+ * and the credentials lookup is timed on its own to show that it does not grow with the number
+ * of users.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LoginBenchmark {
+    private static final String PASSWORD = "Bench123!";
+
+    @Param({"100000"})
+    private int users;
+
+    private final AuthService authService = new AuthService();
+    private final UserDatabaseRepository userRepository = new UserDatabaseRepository();
+    private String knownUsername;
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        TestDatabase.start();
+        try (Connection connection = TestDatabase.connect();
+             Statement analyze = connection.createStatement();
+             PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO users (username, password, email, first_name, last_name, phone_number, role) " +
+                     "SELECT 'bench' || x, ?, 'bench' || x || '@example.com', 'First' || x, 'Last' || x, '091' || x, 'USER' " +
+                     "FROM SYSTEM_RANGE(1, " + users + ")")) {
+            statement.setString(1, BCrypt.hashpw(PASSWORD, BCrypt.gensalt(12)));
+            statement.executeUpdate();
+            analyze.execute("ANALYZE");
+        }
+        knownUsername = "bench" + (users / 2);
+        AuthService.warmUp();
+        EntityCaches.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Optional<User> loginKnownUser() {
+        return authService.login(knownUsername, PASSWORD);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Optional<User> loginUnknownUser() {
+        return authService.login("nobody", PASSWORD);
+    }
+
+    @Benchmark
+    public Optional<UserCredentials> findCredentials() {
+        return userRepository.findCredentialsByUsername(knownUsername);
+    }
+}
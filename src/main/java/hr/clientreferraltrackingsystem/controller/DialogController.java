@@ -2,8 +2,6 @@ package hr.clientreferraltrackingsystem.controller;
 
 import hr.clientreferraltrackingsystem.model.Referral;
 import hr.clientreferraltrackingsystem.model.Reward;
-import hr.clientreferraltrackingsystem.repository.dat.AbstractRepository;
-import hr.clientreferraltrackingsystem.repository.dat.RewardRepository;
 import hr.clientreferraltrackingsystem.utils.Message;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
@@ -27,8 +25,6 @@ public class DialogController {
         this.referral = referral;
     }
 
-    private final AbstractRepository<Reward> rewardRepository = new RewardRepository<>();
-
     @FXML
     private void onSave() {
         try {
@@ -41,8 +37,6 @@ public class DialogController {
                     .value(value)
                     .rewardDate(LocalDateTime.now())
                     .build();
-            rewardRepository.save(reward);
-
 
             ((Stage) descriptionField.getScene().getWindow()).close();
 
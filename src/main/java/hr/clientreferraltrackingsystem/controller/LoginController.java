@@ -1,18 +1,18 @@
 package hr.clientreferraltrackingsystem.controller;
 
 import hr.clientreferraltrackingsystem.enumeration.Role;
-import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.service.AuthService;
 import hr.clientreferraltrackingsystem.service.SessionManager;
 import hr.clientreferraltrackingsystem.utils.Message;
 import hr.clientreferraltrackingsystem.utils.SceneLoader;
 import javafx.fxml.FXML;
 import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
 import javafx.scene.control.PasswordField;
+import javafx.scene.control.ProgressIndicator;
 import javafx.scene.control.TextField;
 
-import java.util.Optional;
-
 public class LoginController {
     @FXML
     private TextField usernameTextField;
@@ -20,7 +20,13 @@ public class LoginController {
     @FXML
     private PasswordField passwordField;
 
-    private final AuthService authService = new AuthService();
+    @FXML
+    private Button loginButton;
+
+    @FXML
+    private ProgressIndicator loginProgressIndicator;
+
+    private final AsyncRepository<AuthService> authService = new AsyncRepository<>(new AuthService());
 
     public void login() {
         String username = usernameTextField.getText().trim();
@@ -34,24 +40,43 @@ public class LoginController {
                     "Please enter both username and password."
             );
         } else {
-            Optional<User> user = authService.login(username, password);
-
-            if (user.isPresent()) {
-                SessionManager.instance.setLoggedUser(user.get());
-
-                Role role = user.get().getRole();
-                SceneLoader.loadDashboard(role);
-            } else {
-                Message.showAlert(
-                        Alert.AlertType.ERROR,
-                        "Loggin failed",
-                        "Wrong credentials!",
-                        "Username or password is incorrect!"
-                );
-            }
+            setLoggingIn(true);
+            authService.query(service -> service.login(username, password)).whenComplete((user, throwable) -> {
+                setLoggingIn(false);
+                if (throwable != null) {
+                    Message.showAlert(
+                            Alert.AlertType.ERROR,
+                            "Loggin failed",
+                            "Login unavailable!",
+                            "Could not verify your credentials, please try again."
+                    );
+                } else if (user.isPresent()) {
+                    SessionManager.instance.setLoggedUser(user.get());
 
+                    Role role = user.get().getRole();
+                    SceneLoader.loadDashboard(role);
+                } else {
+                    Message.showAlert(
+                            Alert.AlertType.ERROR,
+                            "Loggin failed",
+                            "Wrong credentials!",
+                            "Username or password is incorrect!"
+                    );
+                }
+            });
         }
 
     }
 
+    /**
+     * Shows the progress indicator and locks the form while the password is being verified,
+     * so the login cannot be submitted twice.
+     */
+    private void setLoggingIn(boolean loggingIn) {
+        usernameTextField.setDisable(loggingIn);
+        passwordField.setDisable(loggingIn);
+        loginButton.setDisable(loggingIn);
+        loginProgressIndicator.setVisible(loggingIn);
+    }
+
 }
\ No newline at end of file
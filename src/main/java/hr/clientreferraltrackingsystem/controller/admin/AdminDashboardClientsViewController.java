@@ -4,16 +4,19 @@ import hr.clientreferraltrackingsystem.controller.admin.helper.AdminDashboardCli
 import hr.clientreferraltrackingsystem.enumeration.Role;
 import hr.clientreferraltrackingsystem.model.Client;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
-import javafx.beans.property.SimpleStringProperty;
+import hr.clientreferraltrackingsystem.repository.database.query.ClientQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ClientSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.ClientRow;
+import hr.clientreferraltrackingsystem.utils.TableCells;
+import hr.clientreferraltrackingsystem.utils.TablePager;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Controller class for the admin dashboard clients view.
@@ -25,19 +28,19 @@ import java.util.Set;
 public class AdminDashboardClientsViewController {
 
     @FXML
-    private TableView<Client> clientsTable;
+    private TableView<ClientRow> clientsTable;
     @FXML
-    private TableColumn<Client, String> clientIdColumn;
+    private TableColumn<ClientRow, String> clientIdColumn;
     @FXML
-    private TableColumn<Client, String> clientFirstNameColumn;
+    private TableColumn<ClientRow, String> clientFirstNameColumn;
     @FXML
-    private TableColumn<Client, String> clientLastNameColumn;
+    private TableColumn<ClientRow, String> clientLastNameColumn;
     @FXML
-    private TableColumn<Client, String> clientEmailColumn;
+    private TableColumn<ClientRow, String> clientEmailColumn;
     @FXML
-    private TableColumn<Client, String> clientPhoneNumberColumn;
+    private TableColumn<ClientRow, String> clientPhoneNumberColumn;
     @FXML
-    private TableColumn<Client, String> clientCreatedByColumn;
+    private TableColumn<ClientRow, String> clientCreatedByColumn;
 
     @FXML
     private TextField clientFirstNameTextField;
@@ -50,48 +53,48 @@ public class AdminDashboardClientsViewController {
     @FXML
     private ComboBox<String> createdByComboBox;
 
-    private final ClientsDatabaseRepository clientsDatabaseRepository =
-            new ClientsDatabaseRepository();
-    private final UserDatabaseRepository userDatabaseRepository =
-            new UserDatabaseRepository();
+    private static final int PAGE_SIZE = 50;
+
+    private final AsyncRepository<ClientsDatabaseRepository> asyncClientsRepository =
+            new AsyncRepository<>(new ClientsDatabaseRepository());
+    private final AsyncRepository<UserDatabaseRepository> asyncUserRepository =
+            new AsyncRepository<>(new UserDatabaseRepository());
+    private TablePager<ClientRow> clientsPager;
 
     /**
      * Initializes the controller by setting up table columns,
      * loading all non-recommended clients, and configuring row actions.
      */
     public void initialize() {
-        clientIdColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getId())));
-        clientFirstNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getFirstName())));
-        clientLastNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getLastName())));
-        clientEmailColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getEmail())));
-        clientPhoneNumberColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getPhoneNumber())));
-        clientCreatedByColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getCreatedBy().getUserFullName())));
-
-        List<String> allUsers = userDatabaseRepository.findAll()
-                .stream()
-                .filter(u -> u.getRole() != Role.ADMIN)
-                .map(User::getUserFullName)
-                .toList();
-        createdByComboBox.setItems(FXCollections.observableArrayList(allUsers));
+        TableCells.bindText(clientIdColumn, ClientRow::idText);
+        TableCells.bindText(clientFirstNameColumn, ClientRow::firstName);
+        TableCells.bindText(clientLastNameColumn, ClientRow::lastName);
+        TableCells.bindText(clientEmailColumn, ClientRow::email);
+        TableCells.bindText(clientPhoneNumberColumn, ClientRow::phoneNumber);
+        TableCells.bindText(clientCreatedByColumn, ClientRow::createdByFullName);
+
+        asyncUserRepository.query(UserDatabaseRepository::findAll).thenAccept(users -> {
+            List<String> allUsers = users.stream()
+                    .filter(u -> u.getRole() != Role.ADMIN)
+                    .map(User::getUserFullName)
+                    .toList();
+            createdByComboBox.setItems(FXCollections.observableArrayList(allUsers));
+        });
 
+        clientsPager = new TablePager<>(clientsTable);
         showClients();
 
         clientsTable.setRowFactory(tv -> {
-            TableRow<Client> row = new TableRow<>();
+            TableRow<ClientRow> row = new TableRow<>();
 
             ContextMenu contextMenu = new ContextMenu();
             MenuItem deleteItem = new MenuItem("Delete");
 
             deleteItem.setOnAction(event -> {
-                Client client = row.getItem();
+                ClientRow client = row.getItem();
                 if (client != null) {
-                    delete(client);
+                    asyncClientsRepository.query(repository -> repository.findById(client.id()))
+                            .thenAccept(loaded -> loaded.ifPresent(this::delete));
                 }
             });
 
@@ -114,56 +117,21 @@ public class AdminDashboardClientsViewController {
 
     /**
      * Filters the clients displayed in the table based on the entered
-     * filter criteria in the form fields. Only non-recommended clients
-     * are considered.
+     * filter criteria in the form fields. The criteria are applied in the
+     * database and the matching clients are loaded page by page.
      */
     public void filterClients() {
-        List<Client> clientsList = clientsDatabaseRepository
-                .findAll().stream()
-                .filter(client -> Boolean.FALSE.equals(client.getCurrentlyRecommended()))
-                .toList();
-
-        String firstNameFilter = clientFirstNameTextField.getText().trim();
-        String lastNameFilter = clientLastNameTextField.getText().trim();
-        String emailFilter = clientEmailTextField.getText().trim();
-        String phoneFilter = clientPhoneNumberTextField.getText().trim();
-        String createdByFilter = createdByComboBox.getValue();
-
-        if (!firstNameFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getFirstName().toLowerCase().contains(firstNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!lastNameFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getLastName().toLowerCase().contains(lastNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!emailFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getEmail().toLowerCase().contains(emailFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!phoneFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getPhoneNumber().toLowerCase().contains(phoneFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (createdByFilter != null && !createdByFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getCreatedBy() != null && createdByFilter.equals(c.getCreatedBy().getUserFullName()))
-                    .toList();
-        }
-
-        clientsList = clientsList.stream()
-                .sorted(Comparator.comparing(Client::getLastName))
-                .toList();
-
-        clientsTable.setItems(FXCollections.observableList(clientsList));
+        ClientQuery query = new ClientQuery.Builder()
+                .firstName(clientFirstNameTextField.getText().trim())
+                .lastName(clientLastNameTextField.getText().trim())
+                .email(clientEmailTextField.getText().trim())
+                .phoneNumber(clientPhoneNumberTextField.getText().trim())
+                .createdByFullName(createdByComboBox.getValue() == null || createdByComboBox.getValue().isEmpty()
+                        ? null : createdByComboBox.getValue())
+                .build();
+
+        clientsPager.load(cursor -> asyncClientsRepository.query(repository -> repository.findRowPage(
+                query, ClientSortKey.LAST_NAME_ASC, cursor, PAGE_SIZE)));
         clearForm();
     }
 
@@ -175,7 +143,7 @@ public class AdminDashboardClientsViewController {
     public void delete(Client client) {
         AdminDashboardClientsHelper.handleDelete(
                 client,
-                clientsDatabaseRepository,
+                asyncClientsRepository,
                 () -> {
                     showClients();
                     clearForm();
@@ -196,15 +164,11 @@ public class AdminDashboardClientsViewController {
     }
 
     /**
-     * Loads all clients that are not currently recommended and displays
-     * them sorted by last name in the table.
+     * Displays clients sorted by last name in the table, loading further
+     * pages as the table is scrolled.
      */
     private void showClients() {
-        Set<Client> clients = clientsDatabaseRepository.findAll();
-        List<Client> clientsList = clients.stream()
-                .filter(client -> Boolean.FALSE.equals(client.getCurrentlyRecommended()))
-                .sorted(Comparator.comparing(Client::getLastName))
-                .toList();
-        clientsTable.setItems(FXCollections.observableList(clientsList));
+        clientsPager.load(cursor -> asyncClientsRepository.query(repository -> repository.findRowPage(
+                ClientQuery.all(), ClientSortKey.LAST_NAME_ASC, cursor, PAGE_SIZE)));
     }
 }
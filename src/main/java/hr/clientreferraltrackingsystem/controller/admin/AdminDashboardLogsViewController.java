@@ -1,22 +1,34 @@
 package hr.clientreferraltrackingsystem.controller.admin;
 
+import hr.clientreferraltrackingsystem.enumeration.Role;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
+import hr.clientreferraltrackingsystem.repository.database.query.OffsetPage;
 import hr.clientreferraltrackingsystem.serialization.ChangeLogHolder;
 import hr.clientreferraltrackingsystem.serialization.ChangeLogManager;
+import hr.clientreferraltrackingsystem.serialization.ChangeLogPage;
+import hr.clientreferraltrackingsystem.utils.TablePager;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.DatePicker;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 /**
  * Controller class for the admin dashboard logs view.
  * <p>
  * Responsible for displaying a list of change logs (field changes, old/new values, etc.)
- * in a JavaFX TableView. The data is deserialized using {@link ChangeLogManager}.
+ * in a JavaFX TableView. The logs are queried page by page through {@link ChangeLogManager#query},
+ * optionally filtered by date range, field and role, and each page is only read and decoded
+ * once the user scrolls to it.
  */
 public class AdminDashboardLogsViewController {
+    private static final int PAGE_SIZE = 100;
 
     @FXML
     private TableView<ChangeLogHolder> changesTable;
@@ -36,8 +48,22 @@ public class AdminDashboardLogsViewController {
     @FXML
     private TableColumn<ChangeLogHolder, String> logChangeRole;
 
+    @FXML
+    private DatePicker logDatePickerFrom;
+
+    @FXML
+    private DatePicker logDatePickerTo;
+
+    @FXML
+    private TextField logFieldTextField;
+
+    @FXML
+    private ComboBox<Role> logRoleComboBox;
+
+    private TablePager<ChangeLogHolder> logsPager;
+
     /**
-     * Initializes the controller by setting up column value factories and loading the log data.
+     * Initializes the controller by setting up column value factories and loading the first page of log data.
      */
     public void initialize() {
         logFieldChange.setCellValueFactory(cellData ->
@@ -55,14 +81,27 @@ public class AdminDashboardLogsViewController {
         logChangeRole.setCellValueFactory(cellData ->
                 new SimpleStringProperty(cellData.getValue().getFormattedDateTime())); // Might be misnamed (shows date)
 
+        logRoleComboBox.setItems(FXCollections.observableArrayList(Role.values()));
+
+        logsPager = new TablePager<>(changesTable);
         showLogs();
     }
 
     /**
-     * Loads the list of change logs from storage and populates the TableView.
+     * Loads the change logs matching the selected date range, field and role into the TableView,
+     * page by page as the user scrolls. Every criterion is optional; the date range is inclusive.
      */
     public void showLogs() {
-        List<ChangeLogHolder> listData = ChangeLogManager.deserializeChanges();
-        changesTable.setItems(FXCollections.observableArrayList(listData));
+        LocalDateTime dateFrom = logDatePickerFrom.getValue() != null
+                ? logDatePickerFrom.getValue().atStartOfDay() : null;
+        LocalDateTime dateTo = logDatePickerTo.getValue() != null
+                ? logDatePickerTo.getValue().atTime(LocalTime.MAX) : null;
+        String field = logFieldTextField.getText().trim().isEmpty() ? null : logFieldTextField.getText().trim();
+        String role = logRoleComboBox.getValue() != null ? logRoleComboBox.getValue().name() : null;
+
+        logsPager.loadByOffset(offset -> AsyncRepository.supply(() -> {
+            ChangeLogPage page = ChangeLogManager.query(dateFrom, dateTo, field, role, offset, PAGE_SIZE);
+            return new OffsetPage<>(page.items(), page.totalCount());
+        }));
     }
 }
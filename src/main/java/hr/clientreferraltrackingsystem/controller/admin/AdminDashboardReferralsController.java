@@ -5,20 +5,21 @@ import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
 import hr.clientreferraltrackingsystem.enumeration.Role;
 import hr.clientreferraltrackingsystem.model.Referral;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
-import javafx.animation.Animation;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.beans.property.SimpleStringProperty;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.ReferralRow;
+import hr.clientreferraltrackingsystem.threads.DisplayLatestReferral;
+import hr.clientreferraltrackingsystem.utils.TableCells;
+import hr.clientreferraltrackingsystem.utils.TablePager;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
-import javafx.util.Duration;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.*;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Controller class for managing referrals in the admin dashboard.
@@ -28,15 +29,15 @@ import java.util.*;
  */
 public class AdminDashboardReferralsController {
 
-    @FXML private TableView<Referral> referralsTable;
-    @FXML private TableColumn<Referral, String> referralClientIdColumn;
-    @FXML private TableColumn<Referral, String> referralFirstNameColumn;
-    @FXML private TableColumn<Referral, String> referralLastNameColumn;
-    @FXML private TableColumn<Referral, String> referralEmailColumn;
-    @FXML private TableColumn<Referral, String> referralPhoneNumberColumn;
-    @FXML private TableColumn<Referral, String> referralStatusColumn;
-    @FXML private TableColumn<Referral, String> referralDateColumn;
-    @FXML private TableColumn<Referral, String> referralReferredByColumn;
+    @FXML private TableView<ReferralRow> referralsTable;
+    @FXML private TableColumn<ReferralRow, String> referralClientIdColumn;
+    @FXML private TableColumn<ReferralRow, String> referralFirstNameColumn;
+    @FXML private TableColumn<ReferralRow, String> referralLastNameColumn;
+    @FXML private TableColumn<ReferralRow, String> referralEmailColumn;
+    @FXML private TableColumn<ReferralRow, String> referralPhoneNumberColumn;
+    @FXML private TableColumn<ReferralRow, String> referralStatusColumn;
+    @FXML private TableColumn<ReferralRow, String> referralDateColumn;
+    @FXML private TableColumn<ReferralRow, String> referralReferredByColumn;
 
     @FXML private TextField referralFirstNameTextField;
     @FXML private TextField referralLastNameTextField;
@@ -50,44 +51,41 @@ public class AdminDashboardReferralsController {
 
     @FXML private Label latestReferral;
 
-    private final ReferralDatabaseRepository referralDatabaseRepository = new ReferralDatabaseRepository();
-    private final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
-    private Referral selectedReferral;
+    private static final int PAGE_SIZE = 50;
+
+    private final AsyncRepository<ReferralDatabaseRepository> asyncReferralRepository =
+            new AsyncRepository<>(new ReferralDatabaseRepository());
+    private final AsyncRepository<UserDatabaseRepository> asyncUserRepository =
+            new AsyncRepository<>(new UserDatabaseRepository());
+    private TablePager<ReferralRow> referralsPager;
 
     /**
      * Initializes the controller after the FXML fields are loaded.
      * Sets up the table columns, filters, and real-time display of the latest referral.
      */
     public void initialize() {
-        referralClientIdColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getId())));
-        referralFirstNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getRefferedClient().getFirstName()));
-        referralLastNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getRefferedClient().getLastName()));
-        referralEmailColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getRefferedClient().getEmail()));
-        referralPhoneNumberColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getRefferedClient().getPhoneNumber()));
-        referralStatusColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getReferralStatus().toString()));
-        referralDateColumn.setCellValueFactory(cellData -> {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy.");
-            return new SimpleStringProperty(cellData.getValue().getRefferalDate().format(formatter));
+        TableCells.bindText(referralClientIdColumn, ReferralRow::idText);
+        TableCells.bindText(referralFirstNameColumn, ReferralRow::clientFirstName);
+        TableCells.bindText(referralLastNameColumn, ReferralRow::clientLastName);
+        TableCells.bindText(referralEmailColumn, ReferralRow::clientEmail);
+        TableCells.bindText(referralPhoneNumberColumn, ReferralRow::clientPhoneNumber);
+        TableCells.bindText(referralStatusColumn, ReferralRow::status);
+        TableCells.bindText(referralDateColumn, ReferralRow::referralDate);
+        TableCells.bindText(referralReferredByColumn, ReferralRow::referrerFullName);
+
+        asyncUserRepository.query(UserDatabaseRepository::findAll).thenAccept(users -> {
+            List<String> allUsers = users.stream()
+                    .filter(u -> u.getRole() != Role.ADMIN)
+                    .map(User::getUserFullName)
+                    .toList();
+            referralReferredByComboBox.setItems(FXCollections.observableList(allUsers));
         });
-        referralReferredByColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getRefferer().getUserFullName()));
-
-        List<String> allUsers = userDatabaseRepository.findAll().stream()
-                .filter(u -> u.getRole() != Role.ADMIN)
-                .map(User::getUserFullName)
-                .toList();
-        referralReferredByComboBox.setItems(FXCollections.observableList(allUsers));
         referralStatusComboBox.setItems(FXCollections.observableArrayList(ReferralStatus.values()));
 
+        referralsPager = new TablePager<>(referralsTable);
         showReferrals();
         setupRowContextMenu();
-        setupLatestReferralTimer();
+        new DisplayLatestReferral(latestReferral).start();
     }
 
     /**
@@ -95,26 +93,14 @@ public class AdminDashboardReferralsController {
      */
     private void setupRowContextMenu() {
         referralsTable.setRowFactory(tv -> {
-            TableRow<Referral> row = new TableRow<>();
+            TableRow<ReferralRow> row = new TableRow<>();
             ContextMenu contextMenu = new ContextMenu();
 
             MenuItem approveItem = new MenuItem("Approve");
-            approveItem.setOnAction(event -> {
-                Referral referral = row.getItem();
-                if (referral != null) {
-                    selectedReferral = referral;
-                    approveReferral(selectedReferral);
-                }
-            });
+            approveItem.setOnAction(event -> withReferral(row.getItem(), this::approveReferral));
 
             MenuItem rejectItem = new MenuItem("Reject");
-            rejectItem.setOnAction(event -> {
-                Referral referral = row.getItem();
-                if (referral != null) {
-                    selectedReferral = referral;
-                    rejectReferral(selectedReferral);
-                }
-            });
+            rejectItem.setOnAction(event -> withReferral(row.getItem(), this::rejectReferral));
 
             contextMenu.getItems().addAll(approveItem, rejectItem);
 
@@ -130,51 +116,55 @@ public class AdminDashboardReferralsController {
     }
 
     /**
-     * Starts a timeline that updates the latest referral every second.
+     * Loads the referral shown in a table row and passes it to the given action.
+     * The table only holds display rows, so the referral is read with its current version.
+     *
+     * @param row    the table row, or null if the row is empty
+     * @param action the action to run with the loaded referral
      */
-    private void setupLatestReferralTimer() {
-        Timeline latestReferralTimeline = new Timeline(
-                new KeyFrame(Duration.ZERO, event -> {
-                    Optional<Referral> latestReferralOpt = referralDatabaseRepository.findLatestReferralFromDb();
-                    latestReferralOpt.ifPresent(r -> latestReferral.setText(r.threadPrint()));
-                }),
-                new KeyFrame(Duration.seconds(1))
-        );
-        latestReferralTimeline.setCycleCount(Animation.INDEFINITE);
-        latestReferralTimeline.play();
+    private void withReferral(ReferralRow row, Consumer<Referral> action) {
+        if (row == null) {
+            return;
+        }
+        asyncReferralRepository.query(repository -> repository.findById(row.id())).thenAccept(referral -> {
+            if (referral != null) {
+                action.accept(referral);
+            }
+        });
     }
 
     /**
-     * Approves a given referral using the referral helper.
+     * Approves a given referral using the referral helper and reloads the table once it is stored.
      *
      * @param referral the referral to approve
      */
     public void approveReferral(Referral referral) {
-        AdminDashboardReferralHelper.handleApproveReferral(referral, referralDatabaseRepository);
-        showReferrals();
-        referralsTable.refresh();
+        AdminDashboardReferralHelper.handleApproveReferral(referral, asyncReferralRepository, this::reloadReferrals);
     }
 
     /**
-     * Rejects a given referral using the referral helper.
+     * Rejects a given referral using the referral helper and reloads the table once it is stored.
      *
      * @param referral the referral to reject
      */
     public void rejectReferral(Referral referral) {
-        AdminDashboardReferralHelper.handleRejectReferral(referral, referralDatabaseRepository);
+        AdminDashboardReferralHelper.handleRejectReferral(referral, asyncReferralRepository, this::reloadReferrals);
+    }
+
+    /**
+     * Reloads the referrals after a status change.
+     */
+    private void reloadReferrals() {
         showReferrals();
         referralsTable.refresh();
     }
 
     /**
-     * Loads and displays all referrals sorted by referral date.
+     * Displays all referrals sorted by referral date, loading further pages as the table is scrolled.
      */
     private void showReferrals() {
-        Set<Referral> referrals = referralDatabaseRepository.findAll();
-        List<Referral> referralList = referrals.stream()
-                .sorted(Comparator.comparing(Referral::getRefferalDate))
-                .toList();
-        referralsTable.setItems(FXCollections.observableArrayList(referralList));
+        referralsPager.load(cursor -> asyncReferralRepository.query(repository -> repository.findRowPage(
+                ReferralQuery.all(), ReferralSortKey.CREATED_AT_ASC, cursor, PAGE_SIZE)));
     }
 
     /**
@@ -193,66 +183,23 @@ public class AdminDashboardReferralsController {
 
     /**
      * Filters the referral list based on the input fields and selection criteria.
-     * Applies filtering by first name, last name, email, phone, status, date range, and referrer.
+     * Applies filtering by first name, last name, email, phone, status, date range, and referrer
+     * in the database, loading the matching referrals page by page.
      */
     public void filterReferrals() {
-        List<Referral> referralList = referralDatabaseRepository.findAll().stream().toList();
-
-        String firstNameFilter = referralFirstNameTextField.getText().trim();
-        String lastNameFilter = referralLastNameTextField.getText().trim();
-        String emailFilter = referralEmailTextField.getText().trim();
-        String phoneFilter = referralPhoneNumberTextField.getText().trim();
-        ReferralStatus statusFilter = referralStatusComboBox.getValue();
-        LocalDateTime dateFrom = referralDatePickerFrom.getValue() != null ? referralDatePickerFrom.getValue().atStartOfDay() : null;
-        LocalDateTime dateTo = referralDatePickerTo.getValue() != null ? referralDatePickerTo.getValue().atStartOfDay() : null;
-        String referredByFilter = referralReferredByComboBox.getValue();
-
-        if (!firstNameFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getFirstName().toLowerCase().contains(firstNameFilter.toLowerCase()))
-                    .toList();
-        }
-        if (!lastNameFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getLastName().toLowerCase().contains(lastNameFilter.toLowerCase()))
-                    .toList();
-        }
-        if (!emailFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getEmail().toLowerCase().contains(emailFilter.toLowerCase()))
-                    .toList();
-        }
-        if (!phoneFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getPhoneNumber().toLowerCase().contains(phoneFilter.toLowerCase()))
-                    .toList();
-        }
-        if (statusFilter != null) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getReferralStatus().equals(statusFilter))
-                    .toList();
-        }
-        if (dateFrom != null) {
-            referralList = referralList.stream()
-                    .filter(r -> !r.getRefferalDate().isBefore(dateFrom))
-                    .toList();
-        }
-        if (dateTo != null) {
-            referralList = referralList.stream()
-                    .filter(r -> !r.getRefferalDate().isAfter(dateTo))
-                    .toList();
-        }
-        if (referredByFilter != null) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferer().getUserFullName().equalsIgnoreCase(referredByFilter))
-                    .toList();
-        }
-
-        referralList = referralList.stream()
-                .sorted(Comparator.comparing(Referral::getRefferalDate))
-                .toList();
-
-        referralsTable.setItems(FXCollections.observableList(referralList));
+        ReferralQuery query = new ReferralQuery.Builder()
+                .clientFirstName(referralFirstNameTextField.getText().trim())
+                .clientLastName(referralLastNameTextField.getText().trim())
+                .clientEmail(referralEmailTextField.getText().trim())
+                .clientPhoneNumber(referralPhoneNumberTextField.getText().trim())
+                .status(referralStatusComboBox.getValue())
+                .createdFrom(referralDatePickerFrom.getValue())
+                .createdTo(referralDatePickerTo.getValue())
+                .referrerFullName(referralReferredByComboBox.getValue())
+                .build();
+
+        referralsPager.load(cursor -> asyncReferralRepository.query(repository -> repository.findRowPage(
+                query, ReferralSortKey.CREATED_AT_ASC, cursor, PAGE_SIZE)));
         clearForm();
     }
 }
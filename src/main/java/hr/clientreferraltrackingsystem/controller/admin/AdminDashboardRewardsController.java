@@ -1,20 +1,19 @@
 package hr.clientreferraltrackingsystem.controller.admin;
 
 import hr.clientreferraltrackingsystem.controller.admin.helper.AdminDashboardRewardsHelper;
+import hr.clientreferraltrackingsystem.generics.CompiledFilter;
 import hr.clientreferraltrackingsystem.model.Reward;
-import hr.clientreferraltrackingsystem.repository.dat.AbstractRepository;
-import hr.clientreferraltrackingsystem.repository.dat.RewardRepository;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
+import hr.clientreferraltrackingsystem.repository.database.RewardDatabaseRepository;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
-import javafx.beans.property.SimpleStringProperty;
+import hr.clientreferraltrackingsystem.utils.TableCells;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
-import java.util.List;
 
 import static hr.clientreferraltrackingsystem.utils.Message.showAlert;
 
@@ -25,22 +24,22 @@ import static hr.clientreferraltrackingsystem.utils.Message.showAlert;
 public class AdminDashboardRewardsController {
 
     @FXML
-    private TableView<Reward> rewardsTable;
+    private TableView<RewardRow> rewardsTable;
 
     @FXML
-    private TableColumn<Reward, String> rewardIdColumn;
+    private TableColumn<RewardRow, String> rewardIdColumn;
 
     @FXML
-    private TableColumn<Reward, String> rewardReferredClientColumn;
+    private TableColumn<RewardRow, String> rewardReferredClientColumn;
 
     @FXML
-    private TableColumn<Reward, String> rewardDescriptionColumn;
+    private TableColumn<RewardRow, String> rewardDescriptionColumn;
 
     @FXML
-    private TableColumn<Reward, String> rewardValueColumn;
+    private TableColumn<RewardRow, String> rewardValueColumn;
 
     @FXML
-    private TableColumn<Reward, String> rewardDateColumn;
+    private TableColumn<RewardRow, String> rewardDateColumn;
 
     @FXML
     private TextField rewardClientTextField;
@@ -66,7 +65,8 @@ public class AdminDashboardRewardsController {
     @FXML
     private TextField rewardValueEditTextField;
 
-    private final AbstractRepository<Reward> rewardRepository = new RewardRepository<>();
+    private final AsyncRepository<RewardDatabaseRepository> asyncRewardRepository =
+            new AsyncRepository<>(new RewardDatabaseRepository());
     private Reward selectedReward;
 
     /**
@@ -74,26 +74,21 @@ public class AdminDashboardRewardsController {
      * Sets up column bindings, selection listener, and loads initial reward data.
      */
     public void initialize() {
-        rewardIdColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getId())));
-        rewardReferredClientColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getReferral().getRefferedClient().getFullName())));
-        rewardDescriptionColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getDescription())));
-        rewardValueColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getValue())));
-        rewardDateColumn.setCellValueFactory(cellData -> {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy.");
-            String formattedDate = cellData.getValue().getRewardDate().format(formatter);
-            return new SimpleStringProperty(formattedDate);
-        });
+        TableCells.bindText(rewardIdColumn, RewardRow::idText);
+        TableCells.bindText(rewardReferredClientColumn, RewardRow::clientFullName);
+        TableCells.bindText(rewardDescriptionColumn, RewardRow::description);
+        TableCells.bindText(rewardValueColumn, RewardRow::valueText);
+        TableCells.bindText(rewardDateColumn, RewardRow::rewardDateText);
 
         rewardsTable.setOnMouseClicked(event -> {
-            Reward reward = rewardsTable.getSelectionModel().getSelectedItem();
-            if (reward != null) {
-                selectedReward = reward;
-                rewardDescriptionEditTextField.setText(selectedReward.getDescription());
-                rewardValueEditTextField.setText(selectedReward.getValue().toString());
+            RewardRow row = rewardsTable.getSelectionModel().getSelectedItem();
+            if (row != null) {
+                asyncRewardRepository.query(repository -> repository.findById(row.id()))
+                        .thenAccept(reward -> reward.ifPresent(loaded -> {
+                            selectedReward = loaded;
+                            rewardDescriptionEditTextField.setText(loaded.getDescription());
+                            rewardValueEditTextField.setText(loaded.getValue().toString());
+                        }));
             }
         });
 
@@ -124,11 +119,12 @@ public class AdminDashboardRewardsController {
         }
 
         BigDecimal value = new BigDecimal(valueText);
-        AdminDashboardRewardsHelper.handleEdit(description, value, selectedReward);
+        AdminDashboardRewardsHelper.handleEdit(description, value, selectedReward, asyncRewardRepository, () -> {
+            showRewards();
+            rewardsTable.refresh();
+        });
 
         clearForm();
-        showRewards();
-        rewardsTable.refresh();
         rewardsTable.getSelectionModel().clearSelection();
     }
 
@@ -136,11 +132,8 @@ public class AdminDashboardRewardsController {
      * Loads and displays all rewards sorted by reward date.
      */
     private void showRewards() {
-        List<Reward> rewards = rewardRepository.findAll();
-        List<Reward> referralList = rewards.stream()
-                .sorted(Comparator.comparing(Reward::getRewardDate))
-                .toList();
-        rewardsTable.setItems(FXCollections.observableArrayList(referralList));
+        asyncRewardRepository.query(RewardDatabaseRepository::findAllRows).thenAccept(rows ->
+                rewardsTable.setItems(FXCollections.observableArrayList(rows)));
     }
 
     /**
@@ -149,8 +142,6 @@ public class AdminDashboardRewardsController {
      * Displays the filtered list in the table.
      */
     public void filterRewards() {
-        List<Reward> rewardList = rewardRepository.findAll();
-
         String clientNameFilter = rewardClientTextField.getText().trim();
         String descriptionFilter = rewardDescriptionTextField.getText().trim();
         String valueFromText = rewardValueFromTextField.getText().trim();
@@ -161,19 +152,12 @@ public class AdminDashboardRewardsController {
         LocalDateTime dateTo = rewardDatePickerTo.getValue() != null
                 ? rewardDatePickerTo.getValue().atStartOfDay() : null;
 
-        rewardList = AdminDashboardRewardsHelper.filterByClientName(rewardList, clientNameFilter);
-        rewardList = AdminDashboardRewardsHelper.filterByDescription(rewardList, descriptionFilter);
-        rewardList = AdminDashboardRewardsHelper.filterByValueFrom(rewardList, valueFromText);
-        rewardList = AdminDashboardRewardsHelper.filterByValueTo(rewardList, valueToText);
-        rewardList = AdminDashboardRewardsHelper.filterByDateFrom(rewardList, dateFrom);
-        rewardList = AdminDashboardRewardsHelper.filterByDateTo(rewardList, dateTo);
-
-        rewardList = rewardList.stream()
-                .sorted(Comparator.comparing(Reward::getRewardDate))
-                .toList();
+        CompiledFilter<RewardRow> filter = AdminDashboardRewardsHelper.compileRowFilter(
+                clientNameFilter, descriptionFilter, valueFromText, valueToText, dateFrom, dateTo);
 
         clearForm();
-        rewardsTable.setItems(FXCollections.observableArrayList(rewardList));
+        asyncRewardRepository.query(RewardDatabaseRepository::findAllRows).thenAccept(rows ->
+                rewardsTable.setItems(FXCollections.observableArrayList(filter.apply(rows))));
     }
 
     /**
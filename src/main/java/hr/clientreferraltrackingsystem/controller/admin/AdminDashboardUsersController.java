@@ -4,15 +4,18 @@ import hr.clientreferraltrackingsystem.controller.admin.dto.AdminUsersFormData;
 import hr.clientreferraltrackingsystem.controller.admin.helper.AdminDashboardUserHelper;
 import hr.clientreferraltrackingsystem.enumeration.Role;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
-import javafx.beans.property.SimpleStringProperty;
+import hr.clientreferraltrackingsystem.repository.database.query.UserQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.UserSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.UserRow;
+import hr.clientreferraltrackingsystem.utils.TableCells;
+import hr.clientreferraltrackingsystem.utils.TablePager;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Set;
+import java.util.function.Consumer;
 
 
 /**
@@ -31,22 +34,22 @@ public class AdminDashboardUsersController {
      * Table displaying users.
      */
     @FXML
-    private TableView<User> usersTable;
+    private TableView<UserRow> usersTable;
 
     @FXML
-    private TableColumn<User, String> userIdColumn;
+    private TableColumn<UserRow, String> userIdColumn;
     @FXML
-    private TableColumn<User, String> userFirstNameColumn;
+    private TableColumn<UserRow, String> userFirstNameColumn;
     @FXML
-    private TableColumn<User, String> userLastNameColumn;
+    private TableColumn<UserRow, String> userLastNameColumn;
     @FXML
-    private TableColumn<User, String> userEmailColumn;
+    private TableColumn<UserRow, String> userEmailColumn;
     @FXML
-    private TableColumn<User, String> userPhoneNumberColumn;
+    private TableColumn<UserRow, String> userPhoneNumberColumn;
     @FXML
-    private TableColumn<User, String> userUsernameColumn;
+    private TableColumn<UserRow, String> userUsernameColumn;
     @FXML
-    private TableColumn<User, String> userRoleColumn;
+    private TableColumn<UserRow, String> userRoleColumn;
     @FXML
     private TextField userFirstNameTextField;
     @FXML
@@ -66,57 +69,47 @@ public class AdminDashboardUsersController {
     @FXML
     private Button saveButton;
 
-    private final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
+    private static final int PAGE_SIZE = 50;
+
+    private final AsyncRepository<UserDatabaseRepository> asyncUserRepository =
+            new AsyncRepository<>(new UserDatabaseRepository());
     private User selectedUser;
+    private TablePager<UserRow> usersPager;
 
     /**
      * Initializes the controller, sets up table columns, loads users,
      * and configures selection and context menu behavior.
      */
     public void initialize() {
-        userIdColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getId())));
-        userFirstNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getFirstName()));
-        userLastNameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getLastName()));
-        userEmailColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getEmail()));
-        userPhoneNumberColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getPhoneNumber()));
-        userUsernameColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getUsername()));
-        userRoleColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(String.valueOf(cellData.getValue().getRole())));
+        TableCells.bindText(userIdColumn, UserRow::idText);
+        TableCells.bindText(userFirstNameColumn, UserRow::firstName);
+        TableCells.bindText(userLastNameColumn, UserRow::lastName);
+        TableCells.bindText(userEmailColumn, UserRow::email);
+        TableCells.bindText(userPhoneNumberColumn, UserRow::phoneNumber);
+        TableCells.bindText(userUsernameColumn, UserRow::username);
+        TableCells.bindText(userRoleColumn, UserRow::role);
 
         userRoleComboBox.setItems(FXCollections.observableArrayList(Role.values()));
 
+        usersPager = new TablePager<>(usersTable);
         showUsers();
 
-        usersTable.setOnMouseClicked(event -> {
-            User user = usersTable.getSelectionModel().getSelectedItem();
-            if (user != null) {
-                selectedUser = user;
-                userFirstNameTextField.setText(user.getFirstName());
-                userLastNameTextField.setText(user.getLastName());
-                userEmailTextField.setText(user.getEmail());
-                userPhoneNumberTextField.setText(user.getPhoneNumber());
-                userUsernameTextField.setText(user.getUsername());
-                userRoleComboBox.setValue(user.getRole());
-            }
-        });
+        usersTable.setOnMouseClicked(event -> withUser(usersTable.getSelectionModel().getSelectedItem(), user -> {
+            selectedUser = user;
+            userFirstNameTextField.setText(user.getFirstName());
+            userLastNameTextField.setText(user.getLastName());
+            userEmailTextField.setText(user.getEmail());
+            userPhoneNumberTextField.setText(user.getPhoneNumber());
+            userUsernameTextField.setText(user.getUsername());
+            userRoleComboBox.setValue(user.getRole());
+        }));
 
         usersTable.setRowFactory(tv -> {
-            TableRow<User> row = new TableRow<>();
+            TableRow<UserRow> row = new TableRow<>();
             ContextMenu contextMenu = new ContextMenu();
             MenuItem deleteItem = new MenuItem("Delete");
 
-            deleteItem.setOnAction(event -> {
-                User user = row.getItem();
-                if (user != null) {
-                    delete(user);
-                }
-            });
+            deleteItem.setOnAction(event -> withUser(row.getItem(), this::delete));
 
             contextMenu.getItems().add(deleteItem);
 
@@ -135,58 +128,43 @@ public class AdminDashboardUsersController {
         });
     }
 
+    /**
+     * Loads the user shown in a table row and passes it to the given action.
+     * The table only holds display rows without credentials, so the user is read in full.
+     *
+     * @param row    the table row, or null if no row is selected
+     * @param action the action to run with the loaded user
+     */
+    private void withUser(UserRow row, Consumer<User> action) {
+        if (row == null) {
+            return;
+        }
+        asyncUserRepository.query(repository -> repository.findById(row.id()))
+                .thenAccept(user -> user.ifPresent(action));
+    }
+
     /**
      * Filters the users displayed in the table based on input form fields.
+     * Only users with the role {@code USER} are listed; the criteria are applied in the database.
      */
     public void filterUsers() {
-        List<User> userList = userDatabaseRepository.findAll().stream()
-                .filter(u -> u.getRole() == Role.USER)
-                .toList();
-
-        String firstNameFilter = userFirstNameTextField.getText().trim();
-        String lastNameFilter = userLastNameTextField.getText().trim();
-        String emailFilter = userEmailTextField.getText().trim();
-        String phoneFilter = userPhoneNumberTextField.getText().trim();
-        String usernameFilter = userUsernameTextField.getText().trim();
         Role selectedRole = userRoleComboBox.getValue();
-
-        if (!firstNameFilter.isEmpty()) {
-            userList = userList.stream()
-                    .filter(user -> user.getFirstName().toLowerCase().contains(firstNameFilter.toLowerCase()))
-                    .toList();
+        if (selectedRole != null && selectedRole != Role.USER) {
+            usersTable.setItems(FXCollections.observableArrayList());
+            return;
         }
 
-        if (!lastNameFilter.isEmpty()) {
-            userList = userList.stream()
-                    .filter(user -> user.getLastName().toLowerCase().contains(lastNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!emailFilter.isEmpty()) {
-            userList = userList.stream()
-                    .filter(user -> user.getEmail().toLowerCase().contains(emailFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!phoneFilter.isEmpty()) {
-            userList = userList.stream()
-                    .filter(user -> user.getPhoneNumber().toLowerCase().contains(phoneFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!usernameFilter.isEmpty()) {
-            userList = userList.stream()
-                    .filter(user -> user.getUsername().toLowerCase().contains(usernameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (selectedRole != null) {
-            userList = userList.stream()
-                    .filter(user -> user.getRole() == selectedRole)
-                    .toList();
-        }
-
-        usersTable.setItems(FXCollections.observableList(userList));
+        UserQuery query = new UserQuery.Builder()
+                .role(Role.USER)
+                .firstName(userFirstNameTextField.getText().trim())
+                .lastName(userLastNameTextField.getText().trim())
+                .email(userEmailTextField.getText().trim())
+                .phoneNumber(userPhoneNumberTextField.getText().trim())
+                .username(userUsernameTextField.getText().trim())
+                .build();
+
+        usersPager.load(cursor -> asyncUserRepository.query(repository -> repository.findRowPage(
+                query, UserSortKey.LAST_NAME_ASC, cursor, PAGE_SIZE)));
     }
 
     /**
@@ -201,10 +179,9 @@ public class AdminDashboardUsersController {
                 userPasswordTextField.getText(), userRePasswordTextField.getText()
         );
 
-        AdminDashboardUserHelper.handleSaveOrEdit(formData, userDatabaseRepository, selectedUser);
+        AdminDashboardUserHelper.handleSaveOrEdit(formData, asyncUserRepository, selectedUser, this::showUsers);
 
         clearForm();
-        showUsers();
         usersTable.getSelectionModel().clearSelection();
     }
 
@@ -216,7 +193,7 @@ public class AdminDashboardUsersController {
     public void delete(User user) {
         AdminDashboardUserHelper.handleDelete(
                 user,
-                userDatabaseRepository,
+                asyncUserRepository,
                 () -> {
                     showUsers();
                     clearForm();
@@ -241,15 +218,12 @@ public class AdminDashboardUsersController {
     }
 
     /**
-     * Loads all users with the role {@code USER} from the repository
-     * and displays them in the table, sorted by last name.
+     * Loads users with the role {@code USER} from the repository
+     * and displays them in the table sorted by last name, page by page.
      */
     private void showUsers() {
-        Set<User> users = userDatabaseRepository.findAll();
-        List<User> userList = users.stream()
-                .filter(u -> u.getRole() == Role.USER)
-                .sorted(Comparator.comparing(User::getLastName))
-                .toList();
-        usersTable.setItems(FXCollections.observableList(userList));
+        UserQuery query = new UserQuery.Builder().role(Role.USER).build();
+        usersPager.load(cursor -> asyncUserRepository.query(repository -> repository.findRowPage(
+                query, UserSortKey.LAST_NAME_ASC, cursor, PAGE_SIZE)));
     }
 }
@@ -1,6 +1,7 @@
 package hr.clientreferraltrackingsystem.controller.admin.helper;
 
 import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
 import hr.clientreferraltrackingsystem.utils.Message;
@@ -23,14 +24,14 @@ public class AdminDashboardClientsHelper {
      * Handles the deletion of a client from the system, including user confirmation and logging.
      * <p>
      * Prompts the user with a confirmation dialog. If confirmed, logs the deletion of the client's
-     * data using the {@link InputValidator}, removes the client from the database, and executes a
-     * post-deletion callback.
+     * data using the {@link InputValidator}, removes the client from the database in the background,
+     * and executes a post-deletion callback once the removal has finished.
      *
-     * @param client                 the client to be deleted
-     * @param clientDatabaseRepository the repository used to perform the delete operation
-     * @param afterDelete            a {@link Runnable} to be executed after successful deletion
+     * @param client           the client to be deleted
+     * @param clientRepository the repository used to perform the delete operation
+     * @param afterDelete      a {@link Runnable} to be executed after the deletion
      */
-    public static void handleDelete(Client client, ClientsDatabaseRepository clientDatabaseRepository,
+    public static void handleDelete(Client client, AsyncRepository<ClientsDatabaseRepository> clientRepository,
                                     Runnable afterDelete) {
         boolean confirmed = Message.showConfirmation(
                 "Confirm Delete of Client",
@@ -45,8 +46,8 @@ public class AdminDashboardClientsHelper {
             InputValidator.serializeSave("Client - delete: Email", client.getEmail(), "none");
             InputValidator.serializeSave("Client - delete: Phone Number", client.getPhoneNumber(), "none");
 
-            clientDatabaseRepository.delete(client.getId());
-            afterDelete.run();
+            clientRepository.execute(repository -> repository.delete(client.getId()))
+                    .whenComplete((ignored, throwable) -> afterDelete.run());
         }
     }
 }
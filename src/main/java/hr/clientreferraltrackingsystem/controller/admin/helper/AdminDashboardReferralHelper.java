@@ -2,8 +2,10 @@ package hr.clientreferraltrackingsystem.controller.admin.helper;
 
 import hr.clientreferraltrackingsystem.controller.DialogController;
 import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.enumeration.UpdateResult;
 import hr.clientreferraltrackingsystem.model.Referral;
 import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
 import hr.clientreferraltrackingsystem.utils.Message;
@@ -32,13 +34,16 @@ public class AdminDashboardReferralHelper {
     /**
      * Handles the approval of a referral.
      * <p>
-     * Displays a reward input dialog and updates the referral status
-     * to {@link ReferralStatus#APPROVED} if applicable.
+     * Displays a reward input dialog, then updates the referral status
+     * to {@link ReferralStatus#APPROVED} and stores the reward in one transaction if applicable.
+     * The update runs in the background.
      *
      * @param referral the referral to be approved
-     * @param referralDatabaseRepository the repository used to update the referral status
+     * @param referralRepository the repository used to update the referral status
+     * @param afterUpdate a {@link Runnable} executed once the update has finished, successfully or not
      */
-    public static void handleApproveReferral(Referral referral, ReferralDatabaseRepository referralDatabaseRepository) {
+    public static void handleApproveReferral(Referral referral, AsyncRepository<ReferralDatabaseRepository> referralRepository,
+                                             Runnable afterUpdate) {
         if (referral.getReferralStatus() == ReferralStatus.APPROVED) {
             Message.showAlert(Alert.AlertType.ERROR,
                     "Already Approved",
@@ -61,26 +66,32 @@ public class AdminDashboardReferralHelper {
             return;
         }
 
-        referral.setReferralStatus(ReferralStatus.APPROVED);
-        InputValidator.serializeSave("Referral approved", referral.getId(), referral.getRefferedClient().getEmail());
-        referralDatabaseRepository.updateStatus(referral.getId(), ReferralStatus.APPROVED);
-
-        Message.showAlert(Alert.AlertType.INFORMATION,
-                "Success",
-                "Referral Approved",
-                "You have successfully approved the referral.");
+        referralRepository.query(repository -> repository.approveWithReward(referral, reward)).thenAccept(result -> {
+            if (result != UpdateResult.UPDATED) {
+                showUpdateFailedAlert(result);
+                return;
+            }
+            InputValidator.serializeSave("Referral approved", referral.getId(), referral.getRefferedClient().getEmail());
+
+            Message.showAlert(Alert.AlertType.INFORMATION,
+                    "Success",
+                    "Referral Approved",
+                    "You have successfully approved the referral.");
+        }).whenComplete((ignored, throwable) -> afterUpdate.run());
     }
 
     /**
      * Handles the rejection of a referral.
      * <p>
      * Updates the referral status to {@link ReferralStatus#REJECTED}
-     * if it has not already been approved or rejected.
+     * if it has not already been approved or rejected. The update runs in the background.
      *
      * @param referral the referral to be rejected
-     * @param referralDatabaseRepository the repository used to update the referral status
+     * @param referralRepository the repository used to update the referral status
+     * @param afterUpdate a {@link Runnable} executed once the update has finished, successfully or not
      */
-    public static void handleRejectReferral(Referral referral, ReferralDatabaseRepository referralDatabaseRepository) {
+    public static void handleRejectReferral(Referral referral, AsyncRepository<ReferralDatabaseRepository> referralRepository,
+                                            Runnable afterUpdate) {
         if (referral.getReferralStatus() == ReferralStatus.REJECTED) {
             Message.showAlert(Alert.AlertType.ERROR,
                     "Already Rejected",
@@ -97,14 +108,38 @@ public class AdminDashboardReferralHelper {
             return;
         }
 
-        referral.setReferralStatus(ReferralStatus.REJECTED);
-        InputValidator.serializeSave("Referral rejected", referral.getId(), referral.getRefferedClient().getEmail());
-        referralDatabaseRepository.updateStatus(referral.getId(), ReferralStatus.REJECTED);
+        referralRepository.query(repository -> repository.updateStatus(referral, ReferralStatus.REJECTED)).thenAccept(result -> {
+            if (result != UpdateResult.UPDATED) {
+                showUpdateFailedAlert(result);
+                return;
+            }
+            InputValidator.serializeSave("Referral rejected", referral.getId(), referral.getRefferedClient().getEmail());
+
+            Message.showAlert(Alert.AlertType.INFORMATION,
+                    "Rejected",
+                    "Referral Rejected",
+                    "You have successfully rejected the referral.");
+        }).whenComplete((ignored, throwable) -> afterUpdate.run());
+    }
 
-        Message.showAlert(Alert.AlertType.INFORMATION,
-                "Rejected",
-                "Referral Rejected",
-                "You have successfully rejected the referral.");
+    /**
+     * Informs the admin that the referral was changed by someone else since it was loaded,
+     * or that the update failed in the database.
+     *
+     * @param result the result of the failed update
+     */
+    private static void showUpdateFailedAlert(UpdateResult result) {
+        if (result == UpdateResult.CONFLICT) {
+            Message.showAlert(Alert.AlertType.WARNING,
+                    "Referral Changed",
+                    null,
+                    "This referral was changed by someone else. The list has been refreshed, please try again.");
+        } else {
+            Message.showAlert(Alert.AlertType.ERROR,
+                    "Update Failed",
+                    null,
+                    "The referral could not be updated because of a database error. Please try again later.");
+        }
     }
 
     /**
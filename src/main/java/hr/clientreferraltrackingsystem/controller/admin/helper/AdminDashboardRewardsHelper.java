@@ -1,18 +1,20 @@
 package hr.clientreferraltrackingsystem.controller.admin.helper;
 
+import hr.clientreferraltrackingsystem.generics.CompiledFilter;
 import hr.clientreferraltrackingsystem.model.Reward;
-import hr.clientreferraltrackingsystem.repository.dat.RewardRepository;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
+import hr.clientreferraltrackingsystem.repository.database.RewardDatabaseRepository;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
 
 /**
  * Utility helper class for managing reward-related operations in the admin dashboard.
  * <p>
- * Provides methods for editing rewards and filtering reward lists by various criteria
- * such as client name, description, value range, and date range.
+ * Provides methods for editing rewards and for compiling the reward filter form, covering
+ * client name, description, value range, and date range, into a single filter.
  */
 public class AdminDashboardRewardsHelper {
 
@@ -23,13 +25,16 @@ public class AdminDashboardRewardsHelper {
 
     /**
      * Updates the given reward with a new description and value,
-     * saves a serialized log entry, and updates the reward in the repository.
+     * saves a serialized log entry, and updates the reward in the repository in the background.
      *
      * @param description the new description for the reward
      * @param value the new value for the reward
      * @param selectedReward the reward to be updated
+     * @param rewardRepository the repository used to update the reward
+     * @param afterEdit a {@link Runnable} executed once the update has finished, successfully or not
      */
-    public static void handleEdit(String description, BigDecimal value, Reward selectedReward) {
+    public static void handleEdit(String description, BigDecimal value, Reward selectedReward,
+                                  AsyncRepository<RewardDatabaseRepository> rewardRepository, Runnable afterEdit) {
         selectedReward.setDescription(description);
         selectedReward.setValue(value);
 
@@ -39,117 +44,71 @@ public class AdminDashboardRewardsHelper {
                 selectedReward.getReferral().getRefferedClient().getEmail()
         );
 
-        RewardRepository<Reward> rewardRepository = new RewardRepository<>();
-        rewardRepository.update(selectedReward);
+        rewardRepository.execute(repository -> repository.update(selectedReward))
+                .whenComplete((ignored, throwable) -> afterEdit.run());
     }
 
     /**
-     * Filters a list of rewards by client full name containing the given filter text (case-insensitive).
+     * Compiles the reward filter form into a single filter over client name, description,
+     * value range and date range. Text criteria match case-insensitively, bounds are inclusive,
+     * and empty criteria as well as value bounds that are not valid numbers are ignored.
      *
-     * @param rewards the list of rewards to filter
-     * @param clientNameFilter the client name filter text
-     * @return a filtered list of rewards matching the client name criteria;
-     *         returns the original list if the filter is null or empty
+     * @param clientNameFilter the text the client's full name must contain
+     * @param descriptionFilter the text the description must contain
+     * @param valueFromText the lower bound for the value as a string
+     * @param valueToText the upper bound for the value as a string
+     * @param dateFrom the lower bound for the reward date
+     * @param dateTo the upper bound for the reward date
+     * @return the compiled filter
      */
-    public static List<Reward> filterByClientName(List<Reward> rewards, String clientNameFilter) {
-        if (clientNameFilter == null || clientNameFilter.isEmpty()) {
-            return rewards;
-        }
-        String lowerFilter = clientNameFilter.toLowerCase();
-        return rewards.stream()
-                .filter(r -> r.getReferral() != null &&
-                        r.getReferral().getRefferedClient() != null &&
-                        r.getReferral().getRefferedClient().getFullName() != null &&
-                        r.getReferral().getRefferedClient().getFullName().toLowerCase().contains(lowerFilter))
-                .toList();
+    public static CompiledFilter<Reward> compileFilter(String clientNameFilter, String descriptionFilter,
+                                                       String valueFromText, String valueToText,
+                                                       LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return new CompiledFilter.Builder<Reward>()
+                .contains(AdminDashboardRewardsHelper::clientFullName, clientNameFilter)
+                .contains(Reward::getDescription, descriptionFilter)
+                .atLeast(Reward::getValue, parseValue(valueFromText))
+                .atMost(Reward::getValue, parseValue(valueToText))
+                .atLeast(Reward::getRewardDate, dateFrom)
+                .atMost(Reward::getRewardDate, dateTo)
+                .parallel(true)
+                .build();
     }
 
     /**
-     * Filters a list of rewards by description containing the given filter text (case-insensitive).
+     * Compiles the reward filter form into a single filter over reward display rows, with the
+     * same criteria as {@link #compileFilter(String, String, String, String, LocalDateTime, LocalDateTime)}.
      *
-     * @param rewards the list of rewards to filter
-     * @param descriptionFilter the description filter text
-     * @return a filtered list of rewards matching the description criteria;
-     *         returns the original list if the filter is null or empty
+     * @param clientNameFilter the text the client's full name must contain
+     * @param descriptionFilter the text the description must contain
+     * @param valueFromText the lower bound for the value as a string
+     * @param valueToText the upper bound for the value as a string
+     * @param dateFrom the lower bound for the reward date
+     * @param dateTo the upper bound for the reward date
+     * @return the compiled filter
      */
-    public static List<Reward> filterByDescription(List<Reward> rewards, String descriptionFilter) {
-        if (descriptionFilter == null || descriptionFilter.isEmpty()) {
-            return rewards;
-        }
-        String lowerFilter = descriptionFilter.toLowerCase();
-        return rewards.stream()
-                .filter(r -> r.getDescription() != null &&
-                        r.getDescription().toLowerCase().contains(lowerFilter))
-                .toList();
+    public static CompiledFilter<RewardRow> compileRowFilter(String clientNameFilter, String descriptionFilter,
+                                                             String valueFromText, String valueToText,
+                                                             LocalDateTime dateFrom, LocalDateTime dateTo) {
+        return new CompiledFilter.Builder<RewardRow>()
+                .contains(RewardRow::clientFullName, clientNameFilter)
+                .contains(RewardRow::description, descriptionFilter)
+                .atLeast(RewardRow::value, parseValue(valueFromText))
+                .atMost(RewardRow::value, parseValue(valueToText))
+                .atLeast(RewardRow::rewardDate, dateFrom)
+                .atMost(RewardRow::rewardDate, dateTo)
+                .parallel(true)
+                .build();
     }
 
-    /**
-     * Filters a list of rewards with value greater than or equal to the specified lower bound.
-     *
-     * @param rewards the list of rewards to filter
-     * @param valueFromText the lower bound for value filter as a string
-     * @return a filtered list of rewards with value >= valueFromText;
-     *         returns the original list if the valueFromText is invalid or null
-     */
-    public static List<Reward> filterByValueFrom(List<Reward> rewards, String valueFromText) {
-        if (!InputValidator.isValidBigDecimal(valueFromText)) {
-            return rewards;
-        }
-        BigDecimal valueFrom = new BigDecimal(valueFromText.trim());
-        return rewards.stream()
-                .filter(r -> r.getValue() != null && r.getValue().compareTo(valueFrom) >= 0)
-                .toList();
-    }
-
-    /**
-     * Filters a list of rewards with value less than or equal to the specified upper bound.
-     *
-     * @param rewards the list of rewards to filter
-     * @param valueToText the upper bound for value filter as a string
-     * @return a filtered list of rewards with value <= valueToText;
-     *         returns the original list if the valueToText is invalid or null
-     */
-    public static List<Reward> filterByValueTo(List<Reward> rewards, String valueToText) {
-        if (!InputValidator.isValidBigDecimal(valueToText)) {
-            return rewards;
+    private static String clientFullName(Reward reward) {
+        if (reward.getReferral() == null || reward.getReferral().getRefferedClient() == null) {
+            return null;
         }
-        BigDecimal valueTo = new BigDecimal(valueToText.trim());
-        return rewards.stream()
-                .filter(r -> r.getValue() != null && r.getValue().compareTo(valueTo) <= 0)
-                .toList();
+        return reward.getReferral().getRefferedClient().getFullName();
     }
 
-    /**
-     * Filters a list of rewards with reward dates on or after the specified start date.
-     *
-     * @param rewards the list of rewards to filter
-     * @param dateFrom the lower bound date (inclusive)
-     * @return a filtered list of rewards with rewardDate >= dateFrom;
-     *         returns the original list if dateFrom is null
-     */
-    public static List<Reward> filterByDateFrom(List<Reward> rewards, LocalDateTime dateFrom) {
-        if (dateFrom == null) {
-            return rewards;
-        }
-        return rewards.stream()
-                .filter(r -> r.getRewardDate() != null && !r.getRewardDate().isBefore(dateFrom))
-                .toList();
-    }
-
-    /**
-     * Filters a list of rewards with reward dates on or before the specified end date.
-     *
-     * @param rewards the list of rewards to filter
-     * @param dateTo the upper bound date (inclusive)
-     * @return a filtered list of rewards with rewardDate <= dateTo;
-     *         returns the original list if dateTo is null
-     */
-    public static List<Reward> filterByDateTo(List<Reward> rewards, LocalDateTime dateTo) {
-        if (dateTo == null) {
-            return rewards;
-        }
-        return rewards.stream()
-                .filter(r -> r.getRewardDate() != null && !r.getRewardDate().isAfter(dateTo))
-                .toList();
+    private static BigDecimal parseValue(String valueText) {
+        return InputValidator.isValidBigDecimal(valueText) ? new BigDecimal(valueText.trim()) : null;
     }
 }
@@ -6,6 +6,7 @@ import hr.clientreferraltrackingsystem.exception.InvalidEmailException;
 import hr.clientreferraltrackingsystem.exception.InvalidPasswordException;
 import hr.clientreferraltrackingsystem.exception.PasswordsDoNotMatchException;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
 import hr.clientreferraltrackingsystem.service.AuthService;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
@@ -33,15 +34,18 @@ public class AdminDashboardUserHelper {
      *     <li>If {@code selectedUser} is not null, updates the user.</li>
      *     <li>If {@code selectedUser} is null, creates a new user.</li>
      * </ul>
+     * The user is stored in the background.
      *
      * @param adminUsersFormData the form data submitted by the admin
-     * @param userDatabaseRepository repository for database operations
+     * @param userRepository repository for database operations
      * @param selectedUser user being edited, or null if creating a new one
+     * @param afterSave callback to run once the user has been stored, successfully or not
      */
     public static void handleSaveOrEdit(
             AdminUsersFormData adminUsersFormData,
-            UserDatabaseRepository userDatabaseRepository,
-            User selectedUser
+            AsyncRepository<UserDatabaseRepository> userRepository,
+            User selectedUser,
+            Runnable afterSave
     ) {
         boolean confirmed = Message.showConfirmation(
                 "Confirm Delete",
@@ -68,8 +72,9 @@ public class AdminDashboardUserHelper {
                         .role(adminUsersFormData.role())
                         .build();
 
-                userDatabaseRepository.update(updatedUser);
-                Message.showAlert(Alert.AlertType.INFORMATION, "Success", null, "User updated successfully!");
+                userRepository.execute(repository -> repository.update(updatedUser))
+                        .thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Success", null, "User updated successfully!"))
+                        .whenComplete((ignored, throwable) -> afterSave.run());
             } else {
                 if (adminUsersFormData.password().isEmpty()) {
                     Message.showAlert(Alert.AlertType.ERROR, "Error while creating new account!",
@@ -87,8 +92,9 @@ public class AdminDashboardUserHelper {
                         .role(adminUsersFormData.role())
                         .build();
 
-                userDatabaseRepository.save(newUser);
-                Message.showAlert(Alert.AlertType.INFORMATION, "Success", null, "User added successfully!");
+                userRepository.execute(repository -> repository.save(newUser))
+                        .thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Success", null, "User added successfully!"))
+                        .whenComplete((ignored, throwable) -> afterSave.run());
             }
         }
     }
@@ -139,13 +145,13 @@ public class AdminDashboardUserHelper {
     }
 
     /**
-     * Handles deletion of a user after confirmation.
+     * Handles deletion of a user after confirmation. The user is deleted in the background.
      *
      * @param user the user to delete
-     * @param userDatabaseRepository repository for database operations
-     * @param afterDelete callback to run after successful deletion
+     * @param userRepository repository for database operations
+     * @param afterDelete callback to run once the deletion has finished
      */
-    public static void handleDelete(User user, UserDatabaseRepository userDatabaseRepository, Runnable afterDelete) {
+    public static void handleDelete(User user, AsyncRepository<UserDatabaseRepository> userRepository, Runnable afterDelete) {
         boolean confirmed = Message.showConfirmation(
                 "Confirm Delete",
                 null,
@@ -153,8 +159,8 @@ public class AdminDashboardUserHelper {
         );
 
         if (confirmed) {
-            userDatabaseRepository.delete(user.getId());
-            afterDelete.run();
+            userRepository.execute(repository -> repository.delete(user.getId()))
+                    .whenComplete((ignored, throwable) -> afterDelete.run());
         }
     }
 
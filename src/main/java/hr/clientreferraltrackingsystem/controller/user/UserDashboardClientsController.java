@@ -2,7 +2,9 @@ package hr.clientreferraltrackingsystem.controller.user;
 
 import hr.clientreferraltrackingsystem.controller.user.dto.ReferredClientsFormData;
 import hr.clientreferraltrackingsystem.controller.user.helper.UserDashboardClientsHelper;
+import hr.clientreferraltrackingsystem.generics.CompiledFilter;
 import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
 import hr.clientreferraltrackingsystem.service.SessionManager;
@@ -13,7 +15,6 @@ import javafx.scene.control.*;
 
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 
 public class UserDashboardClientsController {
     @FXML
@@ -38,11 +39,11 @@ public class UserDashboardClientsController {
     @FXML
     private TextField clientPhoneNumberTextField;
 
-    private final ClientsDatabaseRepository clientsDatabaseRepository =
-            new ClientsDatabaseRepository();
+    private final AsyncRepository<ClientsDatabaseRepository> asyncClientsRepository =
+            new AsyncRepository<>(new ClientsDatabaseRepository());
 
-    private final ReferralDatabaseRepository referralDatabaseRepository =
-            new ReferralDatabaseRepository();
+    private final AsyncRepository<ReferralDatabaseRepository> asyncReferralRepository =
+            new AsyncRepository<>(new ReferralDatabaseRepository());
 
     private Client selectedClient;
 
@@ -110,46 +111,23 @@ public class UserDashboardClientsController {
     }
 
     public void filterClients() {
-        List<Client> clientsList = clientsDatabaseRepository
-                .findAllByCreatedUser(SessionManager.instance.getLoggedUser().getId())
-                .stream()
-                .filter(client -> Boolean.FALSE.equals(client.getCurrentlyRecommended()))
-                .toList();
-
-        String firstNameFilter = clientFirstNameTextField.getText().trim();
-        String lastNameFilter = clientLastNameTextField.getText().trim();
-        String emailFilter = clientEmailTextField.getText().trim();
-        String phoneFilter = clientPhoneNumberTextField.getText().trim();
-
-        if (!firstNameFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getFirstName().toLowerCase().contains(firstNameFilter.toLowerCase()))
+        CompiledFilter<Client> filter = new CompiledFilter.Builder<Client>()
+                .equalTo(Client::getCurrentlyRecommended, Boolean.FALSE)
+                .contains(Client::getFirstName, clientFirstNameTextField.getText().trim())
+                .contains(Client::getLastName, clientLastNameTextField.getText().trim())
+                .contains(Client::getEmail, clientEmailTextField.getText().trim())
+                .contains(Client::getPhoneNumber, clientPhoneNumberTextField.getText().trim())
+                .parallel(true)
+                .build();
+
+        Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+        asyncClientsRepository.query(repository -> repository.findAllByCreatedUser(loggedUserId)).thenAccept(clients -> {
+            List<Client> clientsList = filter.apply(clients).stream()
+                    .sorted(Comparator.comparing(Client::getLastName))
                     .toList();
-        }
 
-        if (!lastNameFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getLastName().toLowerCase().contains(lastNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!emailFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getEmail().toLowerCase().contains(emailFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!phoneFilter.isEmpty()) {
-            clientsList = clientsList.stream()
-                    .filter(c -> c.getPhoneNumber().toLowerCase().contains(phoneFilter.toLowerCase()))
-                    .toList();
-        }
-
-        clientsList = clientsList.stream()
-                .sorted(Comparator.comparing(Client::getLastName))
-                .toList();
-
-        clientsTable.setItems(FXCollections.observableList(clientsList));
+            clientsTable.setItems(FXCollections.observableList(clientsList));
+        });
     }
 
 
@@ -160,17 +138,16 @@ public class UserDashboardClientsController {
                 clientEmailTextField.getText().trim(), clientPhoneNumberTextField.getText().trim()
         );
 
-        UserDashboardClientsHelper.handleSaveOrEdit(formData, clientsDatabaseRepository, selectedClient);
+        UserDashboardClientsHelper.handleSaveOrEdit(formData, asyncClientsRepository, selectedClient, this::showClients);
 
         clearForm();
-        showClients();
         clientsTable.getSelectionModel().clearSelection();
     }
 
     public void delete(Client client) {
         UserDashboardClientsHelper.handleDelete(
                 client,
-                clientsDatabaseRepository,
+                asyncClientsRepository,
                 () -> {
                     showClients();
                     clearForm();
@@ -181,8 +158,8 @@ public class UserDashboardClientsController {
 
     public void recommendClient() {
         UserDashboardClientsHelper.handleRecommendClient(
-                referralDatabaseRepository,
-                clientsDatabaseRepository,
+                asyncReferralRepository,
+                asyncClientsRepository,
                 selectedClient,
                 () -> {
                     showClients();
@@ -200,12 +177,14 @@ public class UserDashboardClientsController {
     }
 
     private void showClients() {
-        Set<Client> clients = clientsDatabaseRepository.findAllByCreatedUser(SessionManager.instance.getLoggedUser().getId());
-        List<Client> clientsList = clients.stream()
-                .filter(client -> Boolean.FALSE.equals(client.getCurrentlyRecommended()))
-                .sorted(Comparator.comparing(Client::getLastName))
-                .toList();
-        clientsTable.setItems(FXCollections.observableList(clientsList));
+        Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+        asyncClientsRepository.query(repository -> repository.findAllByCreatedUser(loggedUserId)).thenAccept(clients -> {
+            List<Client> clientsList = clients.stream()
+                    .filter(client -> Boolean.FALSE.equals(client.getCurrentlyRecommended()))
+                    .sorted(Comparator.comparing(Client::getLastName))
+                    .toList();
+            clientsTable.setItems(FXCollections.observableList(clientsList));
+        });
     }
 }
 
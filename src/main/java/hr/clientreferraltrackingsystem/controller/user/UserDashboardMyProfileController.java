@@ -3,6 +3,7 @@
     import hr.clientreferraltrackingsystem.controller.user.dto.UserFormData;
     import hr.clientreferraltrackingsystem.controller.user.helper.UserDashboardMyProfileHelper;
     import hr.clientreferraltrackingsystem.model.User;
+    import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
     import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
     import hr.clientreferraltrackingsystem.service.AuthService;
     import hr.clientreferraltrackingsystem.service.SessionManager;
@@ -28,7 +29,8 @@
         @FXML
         public PasswordField rePasswordPasswordField;
 
-        private final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
+        private final AsyncRepository<UserDatabaseRepository> asyncUserRepository =
+                new AsyncRepository<>(new UserDatabaseRepository());
 
         public void initialize() {
             setFields();
@@ -54,7 +56,7 @@
                 InputValidator.serializeSave("password", currUser.getPassword(), hashedNewPassword);
             }
 
-            UserDashboardMyProfileHelper.changeDataHandle(userFormData, userDatabaseRepository, this::setFields);
+            UserDashboardMyProfileHelper.changeDataHandle(userFormData, asyncUserRepository, this::setFields);
         }
 
         public void setFields() {
@@ -2,7 +2,9 @@ package hr.clientreferraltrackingsystem.controller.user;
 
 import hr.clientreferraltrackingsystem.controller.user.helper.UserDashboardReferralsHelper;
 import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.generics.CompiledFilter;
 import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
 import hr.clientreferraltrackingsystem.service.SessionManager;
@@ -15,7 +17,6 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Set;
 
 public class UserDashboardReferralsController {
     @FXML
@@ -49,8 +50,10 @@ public class UserDashboardReferralsController {
     @FXML
     private DatePicker referralDatePickerTo;
 
-    private final ReferralDatabaseRepository referralDatabaseRepository = new ReferralDatabaseRepository();
-    private final ClientsDatabaseRepository clientsDatabaseRepository = new ClientsDatabaseRepository();
+    private final AsyncRepository<ReferralDatabaseRepository> asyncReferralRepository =
+            new AsyncRepository<>(new ReferralDatabaseRepository());
+    private final AsyncRepository<ClientsDatabaseRepository> asyncClientsRepository =
+            new AsyncRepository<>(new ClientsDatabaseRepository());
     private Referral selectedReferral;
 
     public void initialize() {
@@ -105,8 +108,8 @@ public class UserDashboardReferralsController {
 
     private void removeRecommendation() {
         UserDashboardReferralsHelper.removeRecommendationHandler(
-                referralDatabaseRepository,
-                clientsDatabaseRepository,
+                asyncReferralRepository,
+                asyncClientsRepository,
                 selectedReferral,
                 () -> {
                     showReferrals();
@@ -116,26 +119,17 @@ public class UserDashboardReferralsController {
     }
 
     private void showReferrals() {
-        Set<Referral> referrals = referralDatabaseRepository.findAllByReferral(SessionManager.instance.getLoggedUser().getId());
-
-        List<Referral> referralList = referrals.stream()
-                .sorted(Comparator.comparing(Referral::getRefferalDate))
-                .toList();
+        Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+        asyncReferralRepository.query(repository -> repository.findAllByReferral(loggedUserId)).thenAccept(referrals -> {
+            List<Referral> referralList = referrals.stream()
+                    .sorted(Comparator.comparing(Referral::getRefferalDate))
+                    .toList();
 
-        referralsTable.setItems(FXCollections.observableList(referralList));
+            referralsTable.setItems(FXCollections.observableList(referralList));
+        });
     }
 
     public void filterReferrals() {
-        List<Referral> referralList = referralDatabaseRepository
-                .findAllByReferral(SessionManager.instance.getLoggedUser().getId())
-                .stream()
-                .toList();
-
-        String firstNameFilter = referralFirstNameTextField.getText().trim();
-        String lastNameFilter = referralLastNameTextField.getText().trim();
-        String emailFilter = referralEmailTextField.getText().trim();
-        String phoneFilter = referralPhoneNumberTextField.getText().trim();
-        ReferralStatus statusFilter = referralStatusComboBox.getValue();
         LocalDateTime dateFrom = referralDatePickerFrom.getValue() != null
                 ? referralDatePickerFrom.getValue().atStartOfDay()
                 : null;
@@ -143,53 +137,24 @@ public class UserDashboardReferralsController {
                 ? referralDatePickerTo.getValue().atStartOfDay()
                 : null;
 
-
-        if (!firstNameFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getFirstName().toLowerCase().contains(firstNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!lastNameFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getLastName().toLowerCase().contains(lastNameFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!emailFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getEmail().toLowerCase().contains(emailFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (!phoneFilter.isEmpty()) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getRefferedClient().getPhoneNumber().toLowerCase().contains(phoneFilter.toLowerCase()))
-                    .toList();
-        }
-
-        if (statusFilter != null) {
-            referralList = referralList.stream()
-                    .filter(r -> r.getReferralStatus().toString().toLowerCase().contains(statusFilter.toString().toLowerCase()))
-                    .toList();
-        }
-
-        if (dateFrom != null) {
-            referralList = referralList.stream()
-                    .filter(r -> !r.getRefferalDate().isBefore(dateFrom))
+        CompiledFilter<Referral> filter = new CompiledFilter.Builder<Referral>()
+                .contains(r -> r.getRefferedClient().getFirstName(), referralFirstNameTextField.getText().trim())
+                .contains(r -> r.getRefferedClient().getLastName(), referralLastNameTextField.getText().trim())
+                .contains(r -> r.getRefferedClient().getEmail(), referralEmailTextField.getText().trim())
+                .contains(r -> r.getRefferedClient().getPhoneNumber(), referralPhoneNumberTextField.getText().trim())
+                .equalTo(Referral::getReferralStatus, referralStatusComboBox.getValue())
+                .atLeast(Referral::getRefferalDate, dateFrom)
+                .atMost(Referral::getRefferalDate, dateTo)
+                .parallel(true)
+                .build();
+
+        Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+        asyncReferralRepository.query(repository -> repository.findAllByReferral(loggedUserId)).thenAccept(referrals -> {
+            List<Referral> referralList = filter.apply(referrals).stream()
+                    .sorted(Comparator.comparing(Referral::getRefferalDate))
                     .toList();
-        }
 
-        if (dateTo != null) {
-            referralList = referralList.stream()
-                    .filter(r -> !r.getRefferalDate().isAfter(dateTo))
-                    .toList();
-        }
-
-        referralList = referralList.stream()
-                .sorted(Comparator.comparing(Referral::getRefferalDate))
-                .toList();
-
-        referralsTable.setItems(FXCollections.observableList(referralList));
+            referralsTable.setItems(FXCollections.observableList(referralList));
+        });
     }
 }
@@ -1,7 +1,10 @@
 package hr.clientreferraltrackingsystem.controller.user;
 
 import hr.clientreferraltrackingsystem.controller.admin.helper.AdminDashboardRewardsHelper;
+import hr.clientreferraltrackingsystem.generics.CompiledFilter;
 import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.service.SessionManager;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.collections.FXCollections;
@@ -53,6 +56,8 @@ public class UserDashboardRewardsController {
     @FXML
     private DatePicker rewardDatePickerTo;
 
+    private final AsyncRepository<User> loggedUser = new AsyncRepository<>(SessionManager.instance.getLoggedUser());
+
     public void initialize() {
         rewardIdColumn.setCellValueFactory(cellData ->
                 new SimpleStringProperty(String.valueOf(cellData.getValue().getId())));
@@ -73,14 +78,13 @@ public class UserDashboardRewardsController {
 
 
     private void showRewards() {
-        List<Reward> rewards = SessionManager.instance.getLoggedUser().getRewards();
-        List<Reward> referralList = rewards.stream().sorted(Comparator.comparing(Reward::getRewardDate)).toList();
-        rewardsTable.setItems(FXCollections.observableArrayList(referralList));
+        loggedUser.query(User::getRewards).thenAccept(rewards -> {
+            List<Reward> referralList = rewards.stream().sorted(Comparator.comparing(Reward::getRewardDate)).toList();
+            rewardsTable.setItems(FXCollections.observableArrayList(referralList));
+        });
     }
 
     public void filterRewards() {
-        List<Reward> rewardList = SessionManager.instance.getLoggedUser().getRewards();
-
         String clientNameFilter = rewardClientTextField.getText().trim();
         String descriptionFilter = rewardDescriptionTextField.getText().trim();
         String valueFromText = rewardValueFromTextField.getText().trim();
@@ -89,19 +93,17 @@ public class UserDashboardRewardsController {
         LocalDateTime dateFrom = rewardDatePickerFrom.getValue() != null ? rewardDatePickerFrom.getValue().atStartOfDay() : null;
         LocalDateTime dateTo = rewardDatePickerTo.getValue() != null ? rewardDatePickerTo.getValue().atStartOfDay() : null;
 
-        rewardList = AdminDashboardRewardsHelper.filterByClientName(rewardList, clientNameFilter);
-        rewardList = AdminDashboardRewardsHelper.filterByDescription(rewardList, descriptionFilter);
-        rewardList = AdminDashboardRewardsHelper.filterByValueFrom(rewardList, valueFromText);
-        rewardList = AdminDashboardRewardsHelper.filterByValueTo(rewardList, valueToText);
-        rewardList = AdminDashboardRewardsHelper.filterByDateFrom(rewardList, dateFrom);
-        rewardList = AdminDashboardRewardsHelper.filterByDateTo(rewardList, dateTo);
-
-        rewardList = rewardList.stream()
-                .sorted(Comparator.comparing(Reward::getRewardDate))
-                .toList();
+        CompiledFilter<Reward> filter = AdminDashboardRewardsHelper.compileFilter(
+                clientNameFilter, descriptionFilter, valueFromText, valueToText, dateFrom, dateTo);
 
         clearForm();
-        rewardsTable.setItems(FXCollections.observableArrayList(rewardList));
+        loggedUser.query(User::getRewards).thenAccept(rewards -> {
+            List<Reward> rewardList = filter.apply(rewards).stream()
+                    .sorted(Comparator.comparing(Reward::getRewardDate))
+                    .toList();
+
+            rewardsTable.setItems(FXCollections.observableArrayList(rewardList));
+        });
     }
 
 
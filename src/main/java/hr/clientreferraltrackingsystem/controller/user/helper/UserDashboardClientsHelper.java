@@ -7,6 +7,7 @@ import hr.clientreferraltrackingsystem.exception.InvalidEmailException;
 import hr.clientreferraltrackingsystem.generics.PairData;
 import hr.clientreferraltrackingsystem.model.Referral;
 import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
 import hr.clientreferraltrackingsystem.service.SessionManager;
@@ -26,8 +27,9 @@ public class UserDashboardClientsHelper {
 
     public static void handleSaveOrEdit(
             ReferredClientsFormData clientFormData,
-            ClientsDatabaseRepository clientsDatabaseRepository,
-            Client selectedClient
+            AsyncRepository<ClientsDatabaseRepository> clientsRepository,
+            Client selectedClient,
+            Runnable afterSave
     ) {
 
         boolean confirmed = Message.showConfirmation(
@@ -52,9 +54,11 @@ public class UserDashboardClientsHelper {
                         clientFormData.lastName(), clientFormData.email(), clientFormData.phoneNumber(), SessionManager.instance.getLoggedUser());
 
 
-                clientsDatabaseRepository.update(updatedClient, SessionManager.instance.getLoggedUser().getId());
-                Message.showAlert(Alert.AlertType.INFORMATION, "Update success",
-                        null, "Client updated successfully!");
+                Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+                clientsRepository.execute(repository -> repository.update(updatedClient, loggedUserId))
+                        .thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Update success",
+                                null, "Client updated successfully!"))
+                        .whenComplete((ignored, throwable) -> afterSave.run());
             } else {
 
                 InputValidator.serializeSave("Client - insert: firstName", "None", clientFormData.firstName());
@@ -65,15 +69,17 @@ public class UserDashboardClientsHelper {
                         clientFormData.lastName(), clientFormData.email(), clientFormData.phoneNumber(), SessionManager.instance.getLoggedUser());
 
 
-                clientsDatabaseRepository.save(newClient, SessionManager.instance.getLoggedUser().getId());
-                Message.showAlert(Alert.AlertType.INFORMATION, "Adding successful",
-                        null, "Client added successfully!");
+                Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
+                clientsRepository.execute(repository -> repository.save(newClient, loggedUserId))
+                        .thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Adding successful",
+                                null, "Client added successfully!"))
+                        .whenComplete((ignored, throwable) -> afterSave.run());
             }
         }
     }
 
-    public static void handleRecommendClient(ReferralDatabaseRepository referralDatabaseRepository,
-                                             ClientsDatabaseRepository clientsDatabaseRepository,
+    public static void handleRecommendClient(AsyncRepository<ReferralDatabaseRepository> referralRepository,
+                                             AsyncRepository<ClientsDatabaseRepository> clientsRepository,
                                              Client selectedClient,
                                              Runnable afterRecommedation) {
         if (selectedClient != null) {
@@ -86,20 +92,19 @@ public class UserDashboardClientsHelper {
             );
 
             selectedClient.setCurrentlyRecommended(true);
-            clientsDatabaseRepository.update(selectedClient, SessionManager.instance.getLoggedUser().getId());
+            Integer loggedUserId = SessionManager.instance.getLoggedUser().getId();
 
-            referralDatabaseRepository.save(newReferral);
-
-            Message.showAlert(Alert.AlertType.INFORMATION, "Recommendation successful",
-                    null, "You successfully recommend client " + selectedClient.getFirstName() + "!");
-
-            afterRecommedation.run();
+            clientsRepository.execute(repository -> repository.update(selectedClient, loggedUserId))
+                    .thenCompose(ignored -> referralRepository.execute(repository -> repository.save(newReferral)))
+                    .thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Recommendation successful",
+                            null, "You successfully recommend client " + selectedClient.getFirstName() + "!"))
+                    .whenComplete((ignored, throwable) -> afterRecommedation.run());
         }
 
     }
 
 
-    public static void handleDelete(Client client, ClientsDatabaseRepository clientDatabaseRepository,
+    public static void handleDelete(Client client, AsyncRepository<ClientsDatabaseRepository> clientsRepository,
                                     Runnable afterDelete) {
         boolean confirmed = Message.showConfirmation(
                 "Confirm Delete",
@@ -113,8 +118,8 @@ public class UserDashboardClientsHelper {
         InputValidator.serializeSave("Client - delete: phoneNumber", client.getPhoneNumber(), "none");
 
         if (confirmed) {
-            clientDatabaseRepository.delete(client.getId());
-            afterDelete.run();
+            clientsRepository.execute(repository -> repository.delete(client.getId()))
+                    .whenComplete((ignored, throwable) -> afterDelete.run());
         }
 
     }
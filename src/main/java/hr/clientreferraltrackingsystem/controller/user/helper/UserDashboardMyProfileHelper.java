@@ -5,6 +5,7 @@ import hr.clientreferraltrackingsystem.exception.InvalidEmailException;
 import hr.clientreferraltrackingsystem.exception.InvalidPasswordException;
 import hr.clientreferraltrackingsystem.exception.PasswordsDoNotMatchException;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
 import hr.clientreferraltrackingsystem.service.AuthService;
 import hr.clientreferraltrackingsystem.service.SessionManager;
@@ -20,7 +21,7 @@ public class UserDashboardMyProfileHelper {
 
     private UserDashboardMyProfileHelper() {}
 
-    public static void changeDataHandle(UserFormData userFormData, UserDatabaseRepository userDatabaseRepository, Runnable after) {
+    public static void changeDataHandle(UserFormData userFormData, AsyncRepository<UserDatabaseRepository> userRepository, Runnable after) {
         User user = SessionManager.instance.getLoggedUser();
 
         boolean confirmed = Message.showConfirmation(
@@ -43,10 +44,11 @@ public class UserDashboardMyProfileHelper {
         }
 
         User updatedUser = userBuilder.build();
-        userDatabaseRepository.update(updatedUser);
-        SessionManager.instance.setLoggedUser(updatedUser);
+        userRepository.execute(repository -> repository.update(updatedUser)).thenRun(() -> {
+            SessionManager.instance.setLoggedUser(updatedUser);
 
-        Message.showAlert(Alert.AlertType.CONFIRMATION, "Success!", null, "Successfully changed your data!");
+            Message.showAlert(Alert.AlertType.CONFIRMATION, "Success!", null, "Successfully changed your data!");
+        });
     }
 
     private static boolean applyChanges(UserFormData userFormData, User user, User.UserBuilder userBuilder) {
@@ -2,22 +2,21 @@ package hr.clientreferraltrackingsystem.controller.user.helper;
 
 import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
 import hr.clientreferraltrackingsystem.model.Referral;
-import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.repository.async.AsyncRepository;
 import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
 import hr.clientreferraltrackingsystem.repository.database.ClientsDatabaseRepository;
-import hr.clientreferraltrackingsystem.service.SessionManager;
 import hr.clientreferraltrackingsystem.utils.InputValidator;
 import hr.clientreferraltrackingsystem.utils.Message;
 import javafx.scene.control.Alert;
 
-import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 public class UserDashboardReferralsHelper {
     private UserDashboardReferralsHelper() {}
 
-    public static void removeRecommendationHandler(ReferralDatabaseRepository referralDatabaseRepository,
-                                             ClientsDatabaseRepository clientsDatabaseRepository,
+    public static void removeRecommendationHandler(AsyncRepository<ReferralDatabaseRepository> referralRepository,
+                                             AsyncRepository<ClientsDatabaseRepository> clientsRepository,
                                              Referral selectedReferral,
                                              Runnable afterRemoveRecommendation) {
         if (selectedReferral != null) {
@@ -43,19 +42,16 @@ public class UserDashboardReferralsHelper {
             }
 
             if (confirmed) {
-                Optional<Client> referredClient = clientsDatabaseRepository.findById(
-                        selectedReferral.getRefferedClient().getId());
-
-                if (referredClient.isPresent()) {
-                    referredClient.get().setCurrentlyRecommended(false);
-                    clientsDatabaseRepository.update(referredClient.get(), SessionManager.instance.getLoggedUser().getId());
-                    referralDatabaseRepository.delete(selectedReferral.getId());
-                }
-
-                Message.showAlert(Alert.AlertType.INFORMATION, "Successful removing",
-                        null, "You successfully removed recommendation!");
-
-                afterRemoveRecommendation.run();
+                Integer referredClientId = selectedReferral.getRefferedClient().getId();
+                Integer referralId = selectedReferral.getId();
+
+                clientsRepository.query(repository -> repository.updateCurrentlyRecommended(referredClientId, false))
+                        .thenCompose(found -> found
+                                ? referralRepository.execute(repository -> repository.delete(referralId))
+                                : CompletableFuture.<Void>completedFuture(null)
+                        ).thenRun(() -> Message.showAlert(Alert.AlertType.INFORMATION, "Successful removing",
+                                null, "You successfully removed recommendation!")
+                        ).whenComplete((ignored, throwable) -> afterRemoveRecommendation.run());
             }
         }
     }
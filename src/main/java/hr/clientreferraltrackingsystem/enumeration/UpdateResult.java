@@ -0,0 +1,10 @@
+package hr.clientreferraltrackingsystem.enumeration;
+
+/**
+ * Enumeration representing the outcome of an update guarded by an entity's version.
+ */
+public enum UpdateResult {
+    UPDATED,
+    CONFLICT,
+    ERROR
+}
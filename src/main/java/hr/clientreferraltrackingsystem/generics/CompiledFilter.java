@@ -0,0 +1,178 @@
+package hr.clientreferraltrackingsystem.generics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * A filter over rows of type {@code T}, compiled once from the criteria of a filter form.
+ * <p>
+ * Every criterion is turned into a clause when the filter is built: filter texts are lowercased
+ * and bounds are parsed once, and empty criteria are left out. The clauses are ordered so that
+ * cheap comparisons run before text matching, which lowercases the field, and longer filter
+ * texts, which match fewer rows, before shorter ones. {@link #apply(Collection)} evaluates all
+ * of them in a single pass over the rows instead of building an intermediate list per criterion.
+ *
+ * @param <T> the type of the filtered rows
+ */
+public class CompiledFilter<T> implements Predicate<T> {
+
+    /**
+     * The number of rows from which a filter built with {@link Builder#parallel(boolean)}
+     * evaluates its clauses in parallel. Below it, splitting the work costs more than it saves.
+     */
+    public static final int PARALLEL_THRESHOLD = 10_000;
+
+    private static final int EQUALITY_RANK = 0;
+    private static final int RANGE_RANK = 1;
+    private static final int CONTAINS_RANK = 1_000;
+
+    private final List<Predicate<? super T>> clauses;
+    private final boolean parallel;
+
+    private CompiledFilter(Builder<T> builder) {
+        this.clauses = builder.clauses.stream()
+                .sorted(Comparator.comparingInt(Clause::rank))
+                .<Predicate<? super T>>map(Clause::predicate)
+                .toList();
+        this.parallel = builder.parallel;
+    }
+
+    /**
+     * Tests a row against every clause, stopping at the first one it fails.
+     *
+     * @param row the row to test
+     * @return true if the row matches all criteria
+     */
+    @Override
+    public boolean test(T row) {
+        for (Predicate<? super T> clause : clauses) {
+            if (!clause.test(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the rows matching all criteria, in their iteration order.
+     *
+     * @param rows the rows to filter
+     * @return the matching rows; the given rows themselves if they are a list and the filter has no criteria
+     */
+    public List<T> apply(Collection<T> rows) {
+        if (clauses.isEmpty() && rows instanceof List<T> list) {
+            return list;
+        }
+        Stream<T> stream = parallel && rows.size() >= PARALLEL_THRESHOLD ? rows.parallelStream() : rows.stream();
+        return stream.filter(this).toList();
+    }
+
+    private record Clause<T>(Predicate<? super T> predicate, int rank) {
+    }
+
+    /**
+     * Builder for {@link CompiledFilter}. Criteria with a null or blank value are ignored.
+     *
+     * @param <T> the type of the filtered rows
+     */
+    public static class Builder<T> {
+        private final List<Clause<T>> clauses = new ArrayList<>();
+        private boolean parallel;
+
+        /**
+         * Matches rows whose field contains the given text, ignoring case.
+         *
+         * @param field the getter of the field
+         * @param text  the text to look for
+         * @return this builder
+         */
+        public Builder<T> contains(Function<? super T, String> field, String text) {
+            if (text != null && !text.isBlank()) {
+                String needle = text.toLowerCase();
+                clauses.add(new Clause<>(row -> {
+                    String value = field.apply(row);
+                    return value != null && value.toLowerCase().contains(needle);
+                },
+                        CONTAINS_RANK - Math.min(needle.length(), CONTAINS_RANK - 1)));
+            }
+            return this;
+        }
+
+        /**
+         * Matches rows whose field equals the given value.
+         *
+         * @param field the getter of the field
+         * @param value the required value
+         * @param <V>   the type of the field
+         * @return this builder
+         */
+        public <V> Builder<T> equalTo(Function<? super T, V> field, V value) {
+            if (value != null) {
+                clauses.add(new Clause<>(row -> Objects.equals(field.apply(row), value), EQUALITY_RANK));
+            }
+            return this;
+        }
+
+        /**
+         * Matches rows whose field is not null and not less than the given bound.
+         *
+         * @param field the getter of the field
+         * @param bound the inclusive lower bound
+         * @param <V>   the type of the field
+         * @return this builder
+         */
+        public <V extends Comparable<? super V>> Builder<T> atLeast(Function<? super T, V> field, V bound) {
+            if (bound != null) {
+                clauses.add(new Clause<>(row -> {
+                    V value = field.apply(row);
+                    return value != null && value.compareTo(bound) >= 0;
+                }, RANGE_RANK));
+            }
+            return this;
+        }
+
+        /**
+         * Matches rows whose field is not null and not greater than the given bound.
+         *
+         * @param field the getter of the field
+         * @param bound the inclusive upper bound
+         * @param <V>   the type of the field
+         * @return this builder
+         */
+        public <V extends Comparable<? super V>> Builder<T> atMost(Function<? super T, V> field, V bound) {
+            if (bound != null) {
+                clauses.add(new Clause<>(row -> {
+                    V value = field.apply(row);
+                    return value != null && value.compareTo(bound) <= 0;
+                }, RANGE_RANK));
+            }
+            return this;
+        }
+
+        /**
+         * Lets the filter evaluate lists of at least {@link #PARALLEL_THRESHOLD} rows in parallel.
+         *
+         * @param parallel whether large lists may be filtered in parallel
+         * @return this builder
+         */
+        public Builder<T> parallel(boolean parallel) {
+            this.parallel = parallel;
+            return this;
+        }
+
+        /**
+         * Compiles the criteria into a filter.
+         *
+         * @return the compiled filter
+         */
+        public CompiledFilter<T> build() {
+            return new CompiledFilter<>(this);
+        }
+    }
+}
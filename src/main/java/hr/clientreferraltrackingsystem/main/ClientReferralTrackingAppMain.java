@@ -1,5 +1,12 @@
 package hr.clientreferraltrackingsystem.main;
 
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.dat.RewardFileMigrator;
+import hr.clientreferraltrackingsystem.repository.database.DatabaseManager;
+import hr.clientreferraltrackingsystem.repository.database.ReferralFeed;
+import hr.clientreferraltrackingsystem.repository.database.SearchIndexRefresher;
+import hr.clientreferraltrackingsystem.serialization.ChangeLogManager;
+import hr.clientreferraltrackingsystem.service.AuthService;
 import hr.clientreferraltrackingsystem.utils.SceneLoader;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
@@ -10,6 +17,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.sql.SQLException;
 
 /**
  * Main application class for the Client Referral Tracking System.
@@ -27,6 +35,15 @@ public class ClientReferralTrackingAppMain extends Application {
     @Override
     public void start(Stage stage) throws IOException {
         log.info("Starting ClientReferralTrackingAppMain");
+        Thread.ofVirtual().name("auth-warm-up").start(AuthService::warmUp);
+        try {
+            DatabaseManager.initializeDatabase();
+            RewardFileMigrator.migrateIfNeeded();
+            SearchIndexRefresher.start();
+        } catch (IOException | SQLException e) {
+            log.error("Error occurred while initializing the database", e);
+        }
+
         FXMLLoader fxmlLoader = new FXMLLoader(
                 getClass().getResource("/hr/clientreferraltrackingsystem/login/loginView.fxml")
         );
@@ -46,6 +63,20 @@ public class ClientReferralTrackingAppMain extends Application {
         stage.show();
     }
 
+    /**
+     * Stops the JavaFX application, writes the queued audit entries and releases the pooled database connections.
+     */
+    @Override
+    public void stop() {
+        log.info("Stopping ClientReferralTrackingAppMain, pool stats: {}", DatabaseManager.getPoolStats());
+        EntityCaches.stats().forEach(stats -> log.info("Entity cache stats: {}, hit ratio {}", stats, stats.hitRatio()));
+        ReferralFeed.shutdown();
+        SearchIndexRefresher.shutdown();
+        ChangeLogManager.shutdown();
+        log.info("Audit writer stats: {}", ChangeLogManager.getWriterStats());
+        DatabaseManager.shutdown();
+    }
+
     /**
      * The main entry point for the application.
      *
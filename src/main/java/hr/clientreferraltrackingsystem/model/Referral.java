@@ -16,6 +16,7 @@ public class Referral extends Entity implements Trackable {
     private Client client;
     private LocalDateTime refferalDate;
     private ReferralStatus status;
+    private Integer version = 0;
 
     /**
      * Constructs a Referral without an ID.
@@ -104,6 +105,25 @@ public class Referral extends Entity implements Trackable {
         this.refferalDate = refferalDate;
     }
 
+    /**
+     * Returns the version of the referral row this object was loaded from.
+     * The version is increased by every status change and is used to detect concurrent updates.
+     *
+     * @return the referral version
+     */
+    public Integer getVersion() {
+        return version;
+    }
+
+    /**
+     * Sets the version of the referral row this object represents.
+     *
+     * @param version the referral version
+     */
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
     /**
      * Returns a formatted string with referral details.
      *
@@ -3,7 +3,7 @@ package hr.clientreferraltrackingsystem.model;
 import hr.clientreferraltrackingsystem.enumeration.Role;
 import hr.clientreferraltrackingsystem.interfaces.Rewardable;
 import hr.clientreferraltrackingsystem.repository.dat.AbstractRepository;
-import hr.clientreferraltrackingsystem.repository.dat.RewardRepository;
+import hr.clientreferraltrackingsystem.repository.database.RewardDatabaseRepository;
 
 import java.util.List;
 import java.util.Objects;
@@ -107,7 +107,7 @@ public non-sealed class User extends Entity implements Rewardable {
      */
     @Override
     public List<Reward> getRewards() {
-        AbstractRepository<Reward> repos = new RewardRepository<>();
+        AbstractRepository<Reward> repos = new RewardDatabaseRepository();
         return repos.findAllById(super.getId());
     }
 
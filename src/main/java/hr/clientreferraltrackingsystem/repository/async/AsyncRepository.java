@@ -0,0 +1,99 @@
+package hr.clientreferraltrackingsystem.repository.async;
+
+import javafx.application.Platform;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over a repository or a repository-backed service.
+ * <p>
+ * Every call runs on its own virtual thread, so the JavaFX Application Thread never waits
+ * for the database or the file system. The returned futures complete on the JavaFX
+ * Application Thread, which means callbacks chained with {@code thenAccept} and similar
+ * methods may update controls directly.
+ *
+ * @param <R> the type of the wrapped repository
+ */
+public class AsyncRepository<R> {
+    private static final Logger log = LoggerFactory.getLogger(AsyncRepository.class);
+
+    private static final ExecutorService IO_EXECUTOR = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Executor that runs tasks on the JavaFX Application Thread.
+     */
+    public static final Executor FX_EXECUTOR = Platform::runLater;
+
+    private final R repository;
+
+    /**
+     * Wraps the given repository.
+     *
+     * @param repository the repository whose calls are run asynchronously
+     */
+    public AsyncRepository(R repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Runs a read against the repository on a virtual thread.
+     *
+     * @param call the repository call producing the result
+     * @param <T>  the type of the result
+     * @return a future completed with the result on the JavaFX Application Thread
+     */
+    public <T> CompletableFuture<T> query(Function<R, T> call) {
+        return onFxThread(CompletableFuture.supplyAsync(() -> call.apply(repository), IO_EXECUTOR));
+    }
+
+    /**
+     * Runs a write against the repository on a virtual thread.
+     *
+     * @param call the repository call
+     * @return a future completed on the JavaFX Application Thread once the call has finished
+     */
+    public CompletableFuture<Void> execute(Consumer<R> call) {
+        return onFxThread(CompletableFuture.runAsync(() -> call.accept(repository), IO_EXECUTOR));
+    }
+
+    /**
+     * Runs a read that is not bound to a repository instance, such as a static storage utility,
+     * on a virtual thread.
+     *
+     * @param call the call producing the result
+     * @param <T>  the type of the result
+     * @return a future completed with the result on the JavaFX Application Thread
+     */
+    public static <T> CompletableFuture<T> supply(Supplier<T> call) {
+        return onFxThread(CompletableFuture.supplyAsync(call, IO_EXECUTOR));
+    }
+
+    /**
+     * Returns a future that completes on the JavaFX Application Thread, successfully or not,
+     * once the given background future has completed. Failures are logged.
+     */
+    private static <T> CompletableFuture<T> onFxThread(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                log.error("Asynchronous repository call failed", throwable);
+            }
+            FX_EXECUTOR.execute(() -> {
+                if (throwable != null) {
+                    result.completeExceptionally(throwable);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+}
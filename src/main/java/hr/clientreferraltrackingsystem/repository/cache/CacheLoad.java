@@ -0,0 +1,86 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.model.User;
+
+/**
+ * Populates the shared entity caches with the entities read by one query.
+ * <p>
+ * The modification count of every cache is read when the load starts, before the query runs.
+ * A cache that has been invalidated since then is not populated, because the loaded entities
+ * may predate the write that invalidated it and would otherwise stay cached indefinitely.
+ * Obtain an instance through {@link EntityCaches#startLoad()}.
+ */
+public class CacheLoad {
+    private final long usersModificationCount;
+    private final long clientsModificationCount;
+    private final long referralsModificationCount;
+    private final long rewardsModificationCount;
+
+    CacheLoad() {
+        this.usersModificationCount = EntityCaches.users().modificationCount();
+        this.clientsModificationCount = EntityCaches.clients().modificationCount();
+        this.referralsModificationCount = EntityCaches.referrals().modificationCount();
+        this.rewardsModificationCount = EntityCaches.rewards().modificationCount();
+    }
+
+    /**
+     * Caches a loaded user, replacing any cached instance.
+     *
+     * @param user the loaded user
+     */
+    public void putUser(User user) {
+        EntityCaches.users().put(user, usersModificationCount);
+    }
+
+    /**
+     * Returns the cached instance of a loaded user, caching the loaded one if there is none
+     * or the cached one is outdated.
+     *
+     * @param user the loaded user
+     * @return the instance to use for the user
+     */
+    public User internUser(User user) {
+        return EntityCaches.users().intern(user, usersModificationCount);
+    }
+
+    /**
+     * Caches a loaded client, replacing any cached instance.
+     *
+     * @param client the loaded client
+     */
+    public void putClient(Client client) {
+        EntityCaches.clients().put(client, clientsModificationCount);
+    }
+
+    /**
+     * Returns the cached instance of a loaded client, caching the loaded one if there is none
+     * or the cached one is outdated.
+     *
+     * @param client the loaded client
+     * @return the instance to use for the client
+     */
+    public Client internClient(Client client) {
+        return EntityCaches.clients().intern(client, clientsModificationCount);
+    }
+
+    /**
+     * Caches a loaded referral, replacing any cached instance.
+     *
+     * @param referral the loaded referral
+     */
+    public void putReferral(Referral referral) {
+        EntityCaches.referrals().put(referral, referralsModificationCount);
+    }
+
+    /**
+     * Caches a loaded reward, replacing any cached instance.
+     *
+     * @param reward the loaded reward
+     */
+    public void putReward(Reward reward) {
+        EntityCaches.rewards().put(reward, rewardsModificationCount);
+    }
+}
@@ -0,0 +1,24 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+/**
+ * Snapshot of an entity cache's counters.
+ *
+ * @param name      the name of the cache
+ * @param size      the number of cached entities
+ * @param capacity  the maximum number of cached entities
+ * @param hits      lookups answered from the cache
+ * @param misses    lookups that had to go to the database
+ * @param evictions entities dropped because the cache was full
+ */
+public record CacheStats(String name, int size, int capacity, long hits, long misses, long evictions) {
+
+    /**
+     * Returns the share of lookups answered from the cache.
+     *
+     * @return the hit ratio between 0 and 1, or 0 if there were no lookups
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,219 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import hr.clientreferraltrackingsystem.model.Entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiPredicate;
+
+/**
+ * Bounded identity map of entities keyed by their ID.
+ * <p>
+ * Entries are evicted in least-recently-used order once the capacity is reached.
+ * The repositories that own the entity type keep the cache current by invalidating
+ * entries from their own save, update and delete methods.
+ * <p>
+ * A read races with concurrent writes, so loaders populate the cache through
+ * {@link #put(Entity, long)} and {@link #intern(Entity, long)}, which only store the loaded
+ * entity if nothing has been invalidated since the caller read {@link #modificationCount()}
+ * before querying the database. Other processes sharing the database do not invalidate the cache,
+ * so {@link #intern(Entity, long)} replaces a cached entity whose freshly read row differs from it.
+ *
+ * @param <T> the type of entity held by the cache
+ */
+public class EntityCache<T extends Entity> {
+    private final String name;
+    private final int capacity;
+    private final BiPredicate<T, T> sameState;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Integer, T> entries;
+    private long modificationCount;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates an empty cache that compares entities with {@link Object#equals(Object)}.
+     *
+     * @param name     the name used in statistics
+     * @param capacity the maximum number of cached entities
+     */
+    public EntityCache(String name, int capacity) {
+        this(name, capacity, Objects::equals);
+    }
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param name      the name used in statistics
+     * @param capacity  the maximum number of cached entities
+     * @param sameState tells whether a cached entity and a freshly loaded one with the same ID hold the same data
+     */
+    public EntityCache(String name, int capacity, BiPredicate<T, T> sameState) {
+        this.name = name;
+        this.capacity = capacity;
+        this.sameState = sameState;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, T> eldest) {
+                if (size() > EntityCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Looks up an entity and records a hit or a miss.
+     *
+     * @param id the entity ID
+     * @return an Optional containing the cached entity, or empty on a miss
+     */
+    public Optional<T> get(Integer id) {
+        lock.lock();
+        try {
+            T entity = entries.get(id);
+            if (entity != null) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+            return Optional.ofNullable(entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores an entity under its ID, replacing any cached instance.
+     * Entities without an ID are ignored. Used for entities just written by the caller.
+     *
+     * @param entity the entity to cache
+     */
+    public void put(T entity) {
+        if (entity == null || entity.getId() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            entries.put(entity.getId(), entity);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores a loaded entity under its ID, replacing any cached instance, unless the cache was
+     * invalidated since the load started, in which case the entity may be missing a concurrent change.
+     *
+     * @param entity                    the loaded entity
+     * @param expectedModificationCount the modification count read before the load
+     */
+    public void put(T entity, long expectedModificationCount) {
+        if (entity == null || entity.getId() == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (modificationCount == expectedModificationCount) {
+                entries.put(entity.getId(), entity);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the cached instance for the given ID if it holds the same data as the supplied one,
+     * or otherwise caches and returns the supplied one, replacing an outdated cached instance.
+     * Used by loaders so that every row referring to the same entity shares one object, while rows
+     * changed by another process replace what this process had cached.
+     * The supplied entity is returned without being cached if the cache was invalidated
+     * since the load started.
+     *
+     * @param entity                    the freshly loaded entity
+     * @param expectedModificationCount the modification count read before the load
+     * @return the cached instance if it is up to date, or the supplied entity
+     */
+    public T intern(T entity, long expectedModificationCount) {
+        lock.lock();
+        try {
+            T cached = entries.get(entity.getId());
+            if (cached != null && sameState.test(cached, entity)) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            if (modificationCount == expectedModificationCount) {
+                entries.put(entity.getId(), entity);
+            }
+            return entity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of invalidations made so far. Read it before querying the database
+     * and pass it to {@link #put(Entity, long)} or {@link #intern(Entity, long)}.
+     *
+     * @return the modification count
+     */
+    public long modificationCount() {
+        lock.lock();
+        try {
+            return modificationCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the entity with the given ID from the cache.
+     *
+     * @param id the entity ID
+     */
+    public void invalidate(Integer id) {
+        lock.lock();
+        try {
+            modificationCount++;
+            entries.remove(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entity from the cache.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            modificationCount++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current cache statistics.
+     *
+     * @return a snapshot of the cache counters
+     */
+    public CacheStats stats() {
+        lock.lock();
+        try {
+            return new CacheStats(name, entries.size(), capacity, hits.sum(), misses.sum(), evictions.sum());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.model.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Process-wide entity caches shared by every repository instance.
+ * <p>
+ * Referrals hold their referrer and client, and clients hold their creator, so a change
+ * to a user or client also drops the cached entities that point to it. Rewards hold their
+ * referral, so any of these changes also drops the cached rewards; the index of reward IDs
+ * by referrer stays valid, because a referral's referrer never changes.
+ */
+public class EntityCaches {
+    private static final EntityCache<User> USERS = new EntityCache<>("users", 1_000);
+    private static final EntityCache<Client> CLIENTS = new EntityCache<>("clients", 10_000, EntityCaches::sameClient);
+    private static final EntityCache<Referral> REFERRALS = new EntityCache<>("referrals", 10_000);
+    private static final EntityCache<Reward> REWARDS = new EntityCache<>("rewards", 10_000);
+    private static final RewardReferrerIndex REWARDS_BY_REFERRER = new RewardReferrerIndex(1_000, Duration.ofSeconds(30));
+
+    private EntityCaches() {}
+
+    /**
+     * Compares the fields of two clients that {@link Client#equals(Object)} leaves out as well.
+     */
+    private static boolean sameClient(Client cached, Client loaded) {
+        return cached.equals(loaded)
+                && Objects.equals(cached.getCurrentlyRecommended(), loaded.getCurrentlyRecommended())
+                && Objects.equals(createdById(cached), createdById(loaded));
+    }
+
+    private static Integer createdById(Client client) {
+        return client.getCreatedBy() != null ? client.getCreatedBy().getId() : null;
+    }
+
+    /**
+     * Returns the shared user cache.
+     *
+     * @return the user cache
+     */
+    public static EntityCache<User> users() {
+        return USERS;
+    }
+
+    /**
+     * Returns the shared client cache.
+     *
+     * @return the client cache
+     */
+    public static EntityCache<Client> clients() {
+        return CLIENTS;
+    }
+
+    /**
+     * Returns the shared referral cache.
+     *
+     * @return the referral cache
+     */
+    public static EntityCache<Referral> referrals() {
+        return REFERRALS;
+    }
+
+    /**
+     * Returns the shared reward cache.
+     *
+     * @return the reward cache
+     */
+    public static EntityCache<Reward> rewards() {
+        return REWARDS;
+    }
+
+    /**
+     * Returns the shared index of reward IDs by referrer.
+     *
+     * @return the reward index
+     */
+    public static RewardReferrerIndex rewardsByReferrer() {
+        return REWARDS_BY_REFERRER;
+    }
+
+    /**
+     * Starts loading entities from the database. Call it before running the query and
+     * populate the caches with the loaded entities through the returned load.
+     *
+     * @return the load
+     */
+    public static CacheLoad startLoad() {
+        return new CacheLoad();
+    }
+
+    /**
+     * Invalidates a user together with every cached client and referral that may reference it.
+     *
+     * @param userId the ID of the changed user
+     */
+    public static void userChanged(Integer userId) {
+        USERS.invalidate(userId);
+        CLIENTS.clear();
+        REFERRALS.clear();
+        REWARDS.clear();
+    }
+
+    /**
+     * Invalidates a client together with every cached referral that may reference it.
+     *
+     * @param clientId the ID of the changed client
+     */
+    public static void clientChanged(Integer clientId) {
+        CLIENTS.invalidate(clientId);
+        REFERRALS.clear();
+        REWARDS.clear();
+    }
+
+    /**
+     * Invalidates a referral together with every cached reward that may reference it.
+     *
+     * @param referralId the ID of the changed referral
+     */
+    public static void referralChanged(Integer referralId) {
+        REFERRALS.invalidate(referralId);
+        REWARDS.clear();
+    }
+
+    /**
+     * Caches a newly stored reward and adds it to its referrer's reward IDs.
+     *
+     * @param reward the stored reward, with its generated ID and its referral
+     */
+    public static void rewardAdded(Reward reward) {
+        REWARDS.put(reward);
+        REWARDS_BY_REFERRER.add(reward.getReferral().getRefferer().getId(), reward.getId());
+    }
+
+    /**
+     * Invalidates an updated reward. Its referral, and with it its referrer, cannot change.
+     *
+     * @param rewardId the ID of the changed reward
+     */
+    public static void rewardChanged(Integer rewardId) {
+        REWARDS.invalidate(rewardId);
+    }
+
+    /**
+     * Invalidates a deleted reward and removes it from its referrer's reward IDs.
+     *
+     * @param rewardId the ID of the deleted reward
+     */
+    public static void rewardDeleted(Integer rewardId) {
+        REWARDS.invalidate(rewardId);
+        REWARDS_BY_REFERRER.remove(rewardId);
+    }
+
+    /**
+     * Drops every cached reward and the whole reward index, for example after a bulk import.
+     */
+    public static void rewardsReplaced() {
+        REWARDS.clear();
+        REWARDS_BY_REFERRER.clear();
+    }
+
+    /**
+     * Drops every cached entity and the whole reward index, for example after switching to another database.
+     */
+    public static void clear() {
+        USERS.clear();
+        CLIENTS.clear();
+        REFERRALS.clear();
+        rewardsReplaced();
+    }
+
+    /**
+     * Returns the statistics of every shared cache.
+     *
+     * @return one snapshot per cache
+     */
+    public static List<CacheStats> stats() {
+        return List.of(USERS.stats(), CLIENTS.stats(), REFERRALS.stats(), REWARDS.stats());
+    }
+}
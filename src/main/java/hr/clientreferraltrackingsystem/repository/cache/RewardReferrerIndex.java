@@ -0,0 +1,199 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Secondary index of reward IDs keyed by the referrer of the rewarded referral.
+ * <p>
+ * A referrer's entry is loaded from the database the first time their rewards are read and
+ * is kept current afterwards by the reward repository: new rewards are added and deleted ones
+ * removed. Referrers whose rewards have not been read have no entry, and adding a reward to
+ * them is a no-op. Entries are evicted in least-recently-used order once the capacity is reached.
+ * <p>
+ * Rewards written by other instances of the application never reach the index, so an entry
+ * expires once it is older than the maximum age. The next read of the referrer's rewards then
+ * queries the database again, which bounds how long such rewards stay invisible.
+ * <p>
+ * A load races with concurrent writes, so {@link #load(Integer, Collection, long)} only stores
+ * the loaded IDs if the index has not been modified since the caller read
+ * {@link #modificationCount()} before querying the database.
+ */
+public class RewardReferrerIndex {
+    private final int capacity;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<Integer, IndexEntry> rewardIdsByReferrer;
+    private final Map<Integer, Integer> referrerByRewardId = new HashMap<>();
+    private long modificationCount;
+
+    /**
+     * Creates an empty index.
+     *
+     * @param capacity the maximum number of referrers whose reward IDs are kept
+     * @param maxAge   how long a referrer's loaded reward IDs are used before they are loaded again
+     */
+    public RewardReferrerIndex(int capacity, Duration maxAge) {
+        this(capacity, maxAge, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty index that reads the time from the given clock.
+     *
+     * @param capacity  the maximum number of referrers whose reward IDs are kept
+     * @param maxAge    how long a referrer's loaded reward IDs are used before they are loaded again
+     * @param nanoClock the source of {@link System#nanoTime()}-like timestamps
+     */
+    RewardReferrerIndex(int capacity, Duration maxAge, LongSupplier nanoClock) {
+        this.capacity = capacity;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+        this.rewardIdsByReferrer = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, IndexEntry> eldest) {
+                if (size() > RewardReferrerIndex.this.capacity) {
+                    eldest.getValue().rewardIds().forEach(referrerByRewardId::remove);
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the reward IDs of a referrer.
+     *
+     * @param referrerId the ID of the referrer
+     * @return an Optional containing the referrer's reward IDs, or empty if they have not been
+     *         loaded or were loaded longer than the maximum age ago
+     */
+    public Optional<List<Integer>> get(Integer referrerId) {
+        lock.lock();
+        try {
+            IndexEntry entry = rewardIdsByReferrer.get(referrerId);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (nanoClock.getAsLong() - entry.loadedAtNanos() > maxAgeNanos) {
+                rewardIdsByReferrer.remove(referrerId);
+                entry.rewardIds().forEach(referrerByRewardId::remove);
+                return Optional.empty();
+            }
+            return Optional.of(new ArrayList<>(entry.rewardIds()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of modifications made to the index so far. Read it before querying
+     * the database for a referrer's rewards and pass it to {@link #load(Integer, Collection, long)}.
+     *
+     * @return the modification count
+     */
+    public long modificationCount() {
+        lock.lock();
+        try {
+            return modificationCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stores the reward IDs loaded for a referrer, unless the index was modified since the
+     * load started, in which case the loaded IDs may be missing a concurrent change.
+     *
+     * @param referrerId                the ID of the referrer
+     * @param rewardIds                 all of the referrer's reward IDs
+     * @param expectedModificationCount the modification count read before the load
+     */
+    public void load(Integer referrerId, Collection<Integer> rewardIds, long expectedModificationCount) {
+        lock.lock();
+        try {
+            if (modificationCount != expectedModificationCount) {
+                return;
+            }
+            IndexEntry previous = rewardIdsByReferrer.put(referrerId,
+                    new IndexEntry(new LinkedHashSet<>(rewardIds), nanoClock.getAsLong()));
+            if (previous != null) {
+                previous.rewardIds().forEach(referrerByRewardId::remove);
+            }
+            rewardIds.forEach(rewardId -> referrerByRewardId.put(rewardId, referrerId));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new reward to its referrer's entry, if the referrer's rewards have been loaded.
+     *
+     * @param referrerId the ID of the referrer
+     * @param rewardId   the ID of the new reward
+     */
+    public void add(Integer referrerId, Integer rewardId) {
+        lock.lock();
+        try {
+            modificationCount++;
+            IndexEntry entry = rewardIdsByReferrer.get(referrerId);
+            if (entry != null) {
+                entry.rewardIds().add(rewardId);
+                referrerByRewardId.put(rewardId, referrerId);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes a deleted reward from its referrer's entry.
+     *
+     * @param rewardId the ID of the deleted reward
+     */
+    public void remove(Integer rewardId) {
+        lock.lock();
+        try {
+            modificationCount++;
+            Integer referrerId = referrerByRewardId.remove(rewardId);
+            if (referrerId != null) {
+                IndexEntry entry = rewardIdsByReferrer.get(referrerId);
+                if (entry != null) {
+                    entry.rewardIds().remove(rewardId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes every entry from the index.
+     */
+    public void clear() {
+        lock.lock();
+        try {
+            modificationCount++;
+            rewardIdsByReferrer.clear();
+            referrerByRewardId.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The reward IDs of one referrer and the time they were loaded from the database.
+     */
+    private record IndexEntry(Set<Integer> rewardIds, long loadedAtNanos) {
+    }
+}
@@ -0,0 +1,60 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import java.time.Duration;
+
+/**
+ * Process-wide substring search indexes shared by every repository instance.
+ * <p>
+ * The indexes are loaded and refreshed in the background by the search index refresher and
+ * kept current by the repositories' save, update and delete methods. The field constants give
+ * the position of each column in the indexed rows.
+ */
+public class SearchIndexes {
+    public static final int CLIENT_FIRST_NAME = 0;
+    public static final int CLIENT_LAST_NAME = 1;
+    public static final int CLIENT_EMAIL = 2;
+    public static final int CLIENT_PHONE_NUMBER = 3;
+
+    public static final int USER_FIRST_NAME = 0;
+    public static final int USER_LAST_NAME = 1;
+    public static final int USER_EMAIL = 2;
+    public static final int USER_PHONE_NUMBER = 3;
+    public static final int USER_USERNAME = 4;
+
+    /**
+     * Searches scan instead of using an index that has not been refreshed for this long, which
+     * allows for a few missed refreshes before changes by other instances are missed.
+     */
+    private static final Duration MAX_AGE = Duration.ofSeconds(15);
+
+    private static final TrigramIndex CLIENTS = new TrigramIndex("clients", 4, MAX_AGE);
+    private static final TrigramIndex USERS = new TrigramIndex("users", 5, MAX_AGE);
+
+    private SearchIndexes() {}
+
+    /**
+     * Returns the index over the first name, last name, e-mail and phone number of referred clients.
+     *
+     * @return the client search index
+     */
+    public static TrigramIndex clients() {
+        return CLIENTS;
+    }
+
+    /**
+     * Returns the index over the first name, last name, e-mail, phone number and username of users.
+     *
+     * @return the user search index
+     */
+    public static TrigramIndex users() {
+        return USERS;
+    }
+
+    /**
+     * Drops every index, so that the next refresh loads them from the current database.
+     */
+    public static void clear() {
+        CLIENTS.clear();
+        USERS.clear();
+    }
+}
@@ -0,0 +1,540 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory trigram inverted index over the text fields of one entity type, used to answer
+ * case-insensitive substring searches without scanning every row.
+ * <p>
+ * Every field value is lowercased and split into overlapping three-character sequences, and
+ * each trigram maps to the sorted IDs of the rows whose value contains it. A search for a text
+ * of at least three characters intersects the posting lists of the text's trigrams, starting
+ * with the shortest one. The result is a superset of the matching rows; callers verify the
+ * candidates, for example with the original {@code LIKE} condition restricted to their IDs.
+ * <p>
+ * The index is kept current by calling {@link #refresh(Loader)} periodically from a background
+ * thread. The first refresh loads every row; later ones read the rows whose search version,
+ * which the database advances on every insert and update, is above the highest one read so far.
+ * Rows inserted or updated by another instance of the application are therefore found by the
+ * next refresh. The database is read without holding the lock: a full load is built into a new
+ * posting map that is swapped in when done, and the changed rows are indexed once they have all
+ * been read. Rows written by this instance are indexed at once through {@link #add}, {@link #update}
+ * and {@link #remove}, also while the index loads.
+ * <p>
+ * Searches return no candidates, and callers scan instead, while the index is not loaded or has
+ * not been refreshed for longer than its maximum age. Updated and deleted rows are not removed
+ * from the posting lists, since that would mean keeping every row's old values; their stale
+ * entries only add candidates that fail verification. Once too many rows have gone stale the
+ * index is dropped and the next refresh loads it again.
+ */
+public class TrigramIndex {
+    private static final Logger log = LoggerFactory.getLogger(TrigramIndex.class);
+
+    /**
+     * Looking candidates up by ID costs far more per row than scanning, and a scan in sort order
+     * fills a page quickly when many rows match. Candidate sets above this share of the rows, or
+     * above the minimum for small tables, are therefore left to the scan.
+     */
+    private static final int ROWS_PER_CANDIDATE = 1_000;
+    private static final int MIN_MAX_CANDIDATES = 100;
+    private static final int MIN_STALE_BEFORE_RELOAD = 1_000;
+
+    private final String name;
+    private final int fieldCount;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<PendingRow> pendingRows = new ArrayList<>();
+    private final BitSet indexedIds = new BitSet();
+    private final Set<Integer> writtenLocally = new HashSet<>();
+    private PostingsMap postings;
+    private boolean loading;
+    private long loadedUpToVersion;
+    private long refreshedAtNanos;
+    private int rowCount;
+    private int staleCount;
+
+    /**
+     * Creates an empty, unloaded index.
+     *
+     * @param name       the name of the index, used in log messages
+     * @param fieldCount the number of text fields indexed per row
+     * @param maxAge     how long after its last refresh the index is still used for searches
+     */
+    public TrigramIndex(String name, int fieldCount, Duration maxAge) {
+        this(name, fieldCount, maxAge, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty, unloaded index that reads the time from the given clock.
+     *
+     * @param name       the name of the index, used in log messages
+     * @param fieldCount the number of text fields indexed per row
+     * @param maxAge     how long after its last refresh the index is still used for searches
+     * @param nanoClock  the source of {@link System#nanoTime()}-like timestamps
+     */
+    TrigramIndex(String name, int fieldCount, Duration maxAge, LongSupplier nanoClock) {
+        this.name = name;
+        this.fieldCount = fieldCount;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Brings the index up to date: loads every row if the index is not loaded, and otherwise
+     * indexes the rows inserted or updated since the previous refresh. Blocks while the database
+     * is read, but searches and local writes only wait while the rows read are applied.
+     * Concurrent refreshes run one after the other.
+     *
+     * @param loader the loader reading the rows above a given search version
+     * @throws IOException  if the loader cannot read the database configuration
+     * @throws SQLException if the loader's query fails
+     */
+    public void refresh(Loader loader) throws IOException, SQLException {
+        refreshLock.lock();
+        try {
+            long start = nanoClock.getAsLong();
+            PostingsMap current;
+            long afterVersion;
+            lock.writeLock().lock();
+            try {
+                current = postings;
+                afterVersion = loadedUpToVersion;
+                loading = current == null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (current == null) {
+                load(loader, start);
+            } else {
+                applyChanges(loader, current, afterVersion, start);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    /**
+     * Adds a new row.
+     *
+     * @param id     the ID of the row
+     * @param values the row's field values in field order; null values are not indexed
+     */
+    public void add(int id, String... values) {
+        lock.writeLock().lock();
+        try {
+            if (postings != null) {
+                index(postings, id, values);
+                countRow(id);
+                writtenLocally.add(id);
+            } else if (loading) {
+                pendingRows.add(new PendingRow(id, values, false));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indexes the new values of an updated row. The old values stay in the index as stale entries.
+     *
+     * @param id     the ID of the row
+     * @param values the row's new field values in field order
+     */
+    public void update(int id, String... values) {
+        lock.writeLock().lock();
+        try {
+            if (postings != null) {
+                index(postings, id, values);
+                writtenLocally.add(id);
+                markStale();
+            } else if (loading) {
+                pendingRows.add(new PendingRow(id, values, true));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Records that a row was deleted. Its entries stay in the index as stale entries.
+     *
+     * @param id the ID of the deleted row
+     */
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (postings != null) {
+                writtenLocally.remove(id);
+                markStale();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops the index, for example after switching to another database. The next refresh loads it again.
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            drop();
+            loading = false;
+            pendingRows.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the rows whose field may contain the given text, ignoring case.
+     *
+     * @param field the index of the field to search
+     * @param text  the text to look for
+     * @return the sorted IDs of the candidate rows, or empty if the index cannot narrow the
+     *         search down: it is not loaded or out of date, the text is shorter than three
+     *         characters or too many rows match
+     */
+    public Optional<int[]> search(int field, String text) {
+        if (text == null || text.length() < 3) {
+            return Optional.empty();
+        }
+        String lowerCase = text.toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            if (postings == null || nanoClock.getAsLong() - refreshedAtNanos > maxAgeNanos) {
+                return Optional.empty();
+            }
+            Postings[] lists = new Postings[lowerCase.length() - 2];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(key(field, lowerCase, i));
+                if (lists[i] == null) {
+                    return Optional.of(new int[0]);
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+            int[] ids = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int count = ids.length;
+            for (int i = 1; i < lists.length && count > 0; i++) {
+                count = retainAll(ids, count, lists[i]);
+            }
+            if (count > Math.max(MIN_MAX_CANDIDATES, rowCount / ROWS_PER_CANDIDATE)) {
+                return Optional.empty();
+            }
+            return Optional.of(Arrays.copyOf(ids, count));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Describes the size of the index.
+     *
+     * @return the name, row count, stale row count and trigram count, for log messages
+     */
+    public String describe() {
+        lock.readLock().lock();
+        try {
+            return name + ": " + (postings != null ? rowCount + " rows, " + staleCount + " stale, "
+                    + postings.size + " trigrams" : "not loaded");
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads all rows into a new posting map without holding the lock, then applies the rows
+     * written in the meantime and publishes the map.
+     */
+    private void load(Loader loader, long start) throws IOException, SQLException {
+        PostingsMap loaded = new PostingsMap();
+        BitSet loadedIds = new BitSet();
+        long[] maxVersion = new long[1];
+        try {
+            loader.load((id, version, values) -> {
+                index(loaded, id, values);
+                loadedIds.set(id);
+                maxVersion[0] = Math.max(maxVersion[0], version);
+            }, 0);
+        } catch (IOException | SQLException | RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                loading = false;
+                pendingRows.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!loading) {
+                return;
+            }
+            postings = loaded;
+            indexedIds.or(loadedIds);
+            rowCount = loadedIds.cardinality();
+            for (PendingRow row : pendingRows) {
+                index(loaded, row.id(), row.values());
+                countRow(row.id());
+                writtenLocally.add(row.id());
+                if (row.updated()) {
+                    staleCount++;
+                }
+            }
+            pendingRows.clear();
+            loadedUpToVersion = maxVersion[0];
+            refreshedAtNanos = start;
+            loading = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded search index {} in {} ms", describe(), (nanoClock.getAsLong() - start) / 1_000_000);
+    }
+
+    /**
+     * Reads the rows changed since the given search version without holding the lock, then
+     * indexes them unless the index was dropped in the meantime. Rows this instance has already
+     * indexed through {@link #add} or {@link #update} are not counted again.
+     */
+    private void applyChanges(Loader loader, PostingsMap current, long afterVersion, long start)
+            throws IOException, SQLException {
+        List<PendingRow> changedRows = new ArrayList<>();
+        long[] maxVersion = {afterVersion};
+        loader.load((id, version, values) -> {
+            changedRows.add(new PendingRow(id, values, false));
+            maxVersion[0] = Math.max(maxVersion[0], version);
+        }, afterVersion);
+
+        lock.writeLock().lock();
+        try {
+            if (postings != current) {
+                return;
+            }
+            for (PendingRow row : changedRows) {
+                index(current, row.id(), row.values());
+                if (writtenLocally.remove(row.id())) {
+                    continue;
+                }
+                if (!countRow(row.id()) && markStale()) {
+                    return;
+                }
+            }
+            loadedUpToVersion = maxVersion[0];
+            refreshedAtNanos = start;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(PostingsMap target, int id, String[] values) {
+        for (int field = 0; field < fieldCount; field++) {
+            String value = values[field];
+            if (value == null) {
+                continue;
+            }
+            String lowerCase = value.toLowerCase(Locale.ROOT);
+            for (int i = 0; i + 3 <= lowerCase.length(); i++) {
+                target.getOrCreate(key(field, lowerCase, i)).add(id);
+            }
+        }
+    }
+
+    /**
+     * Records that the row is indexed.
+     *
+     * @return whether the row is new to the index
+     */
+    private boolean countRow(int id) {
+        if (indexedIds.get(id)) {
+            return false;
+        }
+        indexedIds.set(id);
+        rowCount++;
+        return true;
+    }
+
+    /**
+     * Counts a row whose old values stay in the index and drops the index once too many have.
+     *
+     * @return whether the index was dropped
+     */
+    private boolean markStale() {
+        staleCount++;
+        if (staleCount > Math.max(MIN_STALE_BEFORE_RELOAD, rowCount / 4)) {
+            drop();
+            return true;
+        }
+        return false;
+    }
+
+    private void drop() {
+        postings = null;
+        indexedIds.clear();
+        writtenLocally.clear();
+        loadedUpToVersion = 0;
+        rowCount = 0;
+        staleCount = 0;
+    }
+
+    /**
+     * Keeps the first {@code count} IDs that also occur in the posting list, in order.
+     */
+    private static int retainAll(int[] ids, int count, Postings postings) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (Arrays.binarySearch(postings.ids, 0, postings.size, ids[i]) >= 0) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    private static long key(int field, String text, int offset) {
+        return (long) field << 48 | (long) text.charAt(offset) << 32
+                | (long) text.charAt(offset + 1) << 16 | text.charAt(offset + 2);
+    }
+
+    /**
+     * Receives the rows read by a {@link Loader}.
+     */
+    @FunctionalInterface
+    public interface RowSink {
+        /**
+         * Indexes a row.
+         *
+         * @param id      the ID of the row
+         * @param version the row's search version
+         * @param values  the row's field values in field order; null values are not indexed
+         */
+        void add(int id, long version, String... values);
+    }
+
+    /**
+     * Reads rows into an index.
+     */
+    @FunctionalInterface
+    public interface Loader {
+        /**
+         * Passes every row whose search version is above the given one to the sink.
+         *
+         * @param rows         the sink indexing the rows
+         * @param afterVersion the highest search version already read; 0 to read all rows
+         * @throws IOException  if the database configuration cannot be read
+         * @throws SQLException if the rows cannot be read
+         */
+        void load(RowSink rows, long afterVersion) throws IOException, SQLException;
+    }
+
+    private record PendingRow(int id, String[] values, boolean updated) {
+    }
+
+    /**
+     * Open-addressing hash map from packed trigram keys to posting lists, without boxing the keys.
+     */
+    private static final class PostingsMap {
+        private long[] keys = new long[1024];
+        private Postings[] values = new Postings[1024];
+        private int size;
+
+        private Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        private Postings getOrCreate(long key) {
+            Postings existing = get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            Postings created = new Postings();
+            put(key, created);
+            size++;
+            return created;
+        }
+
+        private void put(long key, Postings postings) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = postings;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldValues[slot] != null) {
+                    put(oldKeys[slot], oldValues[slot]);
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            return (int) (key * 0x9E3779B97F4A7C15L >>> 32);
+        }
+    }
+
+    /**
+     * Sorted, growable list of row IDs.
+     */
+    private static final class Postings {
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int position = Arrays.binarySearch(ids, 0, size, id);
+                if (position >= 0) {
+                    return;
+                }
+                insertAt(-position - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        private void insertAt(int position, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+    }
+}
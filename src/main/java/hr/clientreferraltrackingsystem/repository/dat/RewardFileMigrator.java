@@ -0,0 +1,72 @@
+package hr.clientreferraltrackingsystem.repository.dat;
+
+import hr.clientreferraltrackingsystem.repository.database.RewardDatabaseRepository;
+import hr.clientreferraltrackingsystem.repository.database.RewardImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+
+/**
+ * One-shot import of the file-based reward store into the {@code reward} table.
+ * <p>
+ * The rewards are read from the reward log, or from {@code dat/rewards.txt} when there is no log,
+ * and streamed into the database record by record in a single transaction, keeping their IDs. Once the import has
+ * been committed the log is renamed to {@code rewards.log.migrated}, or that file is created empty
+ * when only the text file existed, which marks the migration as done. The import is skipped when
+ * the reward table already holds rewards.
+ */
+public class RewardFileMigrator {
+    private static final Logger log = LoggerFactory.getLogger(RewardFileMigrator.class);
+
+    private static final Path LOG_PATH = Path.of("dat/rewards.log");
+    private static final Path TEXT_PATH = Path.of("dat/rewards.txt");
+    private static final Path MIGRATED_PATH = Path.of("dat/rewards.log.migrated");
+
+    private RewardFileMigrator() {}
+
+    /**
+     * Imports the file-based rewards into the database unless that has already happened.
+     *
+     * @throws IOException  if the reward files cannot be read or renamed
+     * @throws SQLException if the import fails; nothing is imported in that case
+     */
+    public static void migrateIfNeeded() throws IOException, SQLException {
+        if (Files.exists(MIGRATED_PATH) || (Files.notExists(LOG_PATH) && Files.notExists(TEXT_PATH))) {
+            return;
+        }
+        RewardDatabaseRepository rewardDatabaseRepository = new RewardDatabaseRepository();
+        if (!rewardDatabaseRepository.isEmpty()) {
+            log.warn("Reward table already contains rewards, not importing {}", LOG_PATH);
+            return;
+        }
+
+        boolean fromLog = Files.exists(LOG_PATH);
+        try (RewardImporter importer = rewardDatabaseRepository.openImporter()) {
+            RewardLogReader.readAll(LOG_PATH, TEXT_PATH, new RewardLogReader.RecordSink() {
+                @Override
+                public void put(RewardLogReader.RewardRecord rewardRecord) throws SQLException {
+                    importer.put(rewardRecord.id(), rewardRecord.referralId(),
+                            rewardRecord.description(), rewardRecord.rewardDate(), rewardRecord.value());
+                }
+
+                @Override
+                public void delete(int id) throws SQLException {
+                    importer.delete(id);
+                }
+            });
+            int imported = importer.commit();
+            log.info("Imported {} rewards from {} into the database, skipped {} without a referral",
+                    imported, fromLog ? LOG_PATH : TEXT_PATH, importer.getSkipped());
+        }
+        if (fromLog) {
+            Files.move(LOG_PATH, MIGRATED_PATH, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.createFile(MIGRATED_PATH);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package hr.clientreferraltrackingsystem.repository.dat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads the reward files written before rewards were stored in the {@code reward} table.
+ * <p>
+ * The reward log holds one checksummed record per save, update or delete; the last record of
+ * a reward wins and a tombstone removes it. Reading stops at the first incomplete or corrupt
+ * record, such as one torn by a crash. Without a log the legacy five-line text file is read.
+ * Records are passed to a {@link RecordSink} one at a time as they are read, so neither file
+ * is ever held in memory as a whole.
+ */
+class RewardLogReader {
+    private static final Logger log = LoggerFactory.getLogger(RewardLogReader.class);
+
+    private static final int MAGIC = 0x52574C32;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final String LEGACY_DATE_FORMAT = "dd.MM.yyyy.";
+
+    private RewardLogReader() {}
+
+    /**
+     * Passes every record to the sink in file order, read from the log if it exists
+     * and from the legacy text file otherwise.
+     *
+     * @param logPath        the path of the reward log
+     * @param legacyTextPath the path of the legacy text file
+     * @param sink           the receiver of the records
+     * @throws IOException  if the file cannot be read or is not a reward log
+     * @throws SQLException if the sink fails
+     */
+    static void readAll(Path logPath, Path legacyTextPath, RecordSink sink) throws IOException, SQLException {
+        if (Files.exists(logPath)) {
+            readLog(logPath, sink);
+        } else {
+            readLegacyTextFile(legacyTextPath, sink);
+        }
+    }
+
+    private static void readLog(Path logPath, RecordSink sink) throws IOException, SQLException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a reward log: " + logPath);
+            }
+            in.readInt();
+            CRC32C crc = new CRC32C();
+            while (true) {
+                int bodyLength = in.readInt();
+                int checksum = in.readInt();
+                if (bodyLength <= Integer.BYTES || bodyLength > MAX_RECORD_BYTES) {
+                    log.warn("Ignoring corrupt records at the end of {}", logPath);
+                    break;
+                }
+                byte[] body = new byte[bodyLength];
+                in.readFully(body);
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) {
+                    log.warn("Ignoring corrupt records at the end of {}", logPath);
+                    break;
+                }
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                byte type = record.readByte();
+                int id = record.readInt();
+                if (type == PUT) {
+                    sink.put(new RewardRecord(id, record.readInt(), record.readUTF(),
+                            LocalDate.ofEpochDay(record.readLong()), new BigDecimal(record.readUTF())));
+                } else if (type == DELETE) {
+                    sink.delete(id);
+                } else {
+                    log.warn("Ignoring corrupt records at the end of {}", logPath);
+                    break;
+                }
+            }
+        } catch (EOFException _) {
+            // End of the log, possibly with a torn last record that is dropped.
+        }
+    }
+
+    private static void readLegacyTextFile(Path legacyTextPath, RecordSink sink) throws IOException, SQLException {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(LEGACY_DATE_FORMAT);
+        try (BufferedReader reader = Files.newBufferedReader(legacyTextPath)) {
+            String[] lines = new String[5];
+            while (readLines(reader, lines)) {
+                sink.put(new RewardRecord(
+                        Integer.parseInt(lines[0]),
+                        Integer.parseInt(lines[1]),
+                        lines[2],
+                        LocalDate.parse(lines[3], formatter),
+                        new BigDecimal(lines[4])));
+            }
+        }
+    }
+
+    /**
+     * Fills the array with the next lines of the reader.
+     *
+     * @return true if every element was filled, false at the end of the file
+     */
+    private static boolean readLines(BufferedReader reader, String[] lines) throws IOException {
+        for (int i = 0; i < lines.length; i++) {
+            if ((lines[i] = reader.readLine()) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Receives the records of a reward file in the order they were written.
+     */
+    interface RecordSink {
+
+        /**
+         * Receives a saved or updated reward, replacing any earlier record with the same ID.
+         *
+         * @param rewardRecord the reward
+         * @throws SQLException if the reward cannot be stored
+         */
+        void put(RewardRecord rewardRecord) throws SQLException;
+
+        /**
+         * Receives a tombstone removing the reward with the given ID.
+         *
+         * @param id the ID of the deleted reward
+         * @throws SQLException if the reward cannot be removed
+         */
+        void delete(int id) throws SQLException;
+    }
+
+    /**
+     * Reward as stored in the files, with the referral referenced by ID.
+     *
+     * @param id          the reward ID
+     * @param referralId  the ID of the rewarded referral
+     * @param description the reward description
+     * @param rewardDate  the date the reward was issued
+     * @param value       the reward value
+     */
+    record RewardRecord(Integer id, Integer referralId, String description, LocalDate rewardDate, BigDecimal value) {
+    }
+}
@@ -2,38 +2,130 @@ package hr.clientreferraltrackingsystem.repository.database;
 
 import hr.clientreferraltrackingsystem.model.Client;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.CacheLoad;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.cache.SearchIndexes;
+import hr.clientreferraltrackingsystem.repository.cache.TrigramIndex;
+import hr.clientreferraltrackingsystem.repository.database.query.ClientQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ClientSortKey;
+import hr.clientreferraltrackingsystem.repository.database.query.KeysetCursor;
+import hr.clientreferraltrackingsystem.repository.database.query.Page;
+import hr.clientreferraltrackingsystem.repository.database.row.ClientRow;
+import hr.clientreferraltrackingsystem.repository.database.row.DisplayStrings;
 import hr.clientreferraltrackingsystem.service.SessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * Repository class for managing Client entities in the database.
+ * <p>
+ * Substring filters on the client's name, e-mail and phone number are narrowed down by the
+ * shared client search index, which {@link SearchIndexRefresher} loads and refreshes through
+ * {@link #loadSearchRows} and this repository keeps current on save, update and delete.
  */
 public class ClientsDatabaseRepository {
     private static Logger logger = LoggerFactory.getLogger(ClientsDatabaseRepository.class);
+    static final String SEARCH_ROWS_QUERY =
+            "SELECT id, search_version, first_name, last_name, email, phone_number " +
+            "FROM referred_client WHERE search_version > ?";
+    static final String CLIENTS_WITH_CREATOR_SELECT =
+            "SELECT c.id, c.first_name, c.last_name, c.email, c.phone_number, c.created_by, c.is_currently_recommended, " +
+            "u.id AS u_id, u.username AS u_username, u.password AS u_password, u.email AS u_email, " +
+            "u.first_name AS u_first_name, u.last_name AS u_last_name, u.phone_number AS u_phone_number, u.role AS u_role " +
+            "FROM referred_client c LEFT JOIN users u ON u.id = c.created_by";
+    private static final String CLIENT_ROW_SELECT =
+            "SELECT c.id, c.first_name, c.last_name, c.email, c.phone_number, " +
+            "u.first_name AS u_first_name, u.last_name AS u_last_name " +
+            "FROM referred_client c LEFT JOIN users u ON u.id = c.created_by";
 
     private final DatabaseManager databaseManager;
 
-    private final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
-
     public ClientsDatabaseRepository() {
         this.databaseManager = new DatabaseManager();
     }
 
     /**
-     * Finds a client by their ID.
+     * Finds a client by their ID, answering from the shared entity cache when possible
+     * and otherwise using the primary key.
      *
      * @param id the client ID
      * @return an Optional containing the found Client or empty if not found
      */
     public Optional<Client> findById(Integer id) {
-        return findAll().stream().filter(reffered -> reffered.getId().equals(id)).findFirst();
+        Optional<Client> cached = EntityCaches.clients().get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        String clientsQueryFindById = CLIENTS_WITH_CREATOR_SELECT + " WHERE c.id = ?";
+        CacheLoad load = EntityCaches.startLoad();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement clientsStatement = connection.prepareStatement(clientsQueryFindById)) {
+
+            clientsStatement.setInt(1, id);
+
+            try (ResultSet resultSet = clientsStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    Client client = extractClientFromResultSetAdmin(resultSet, load);
+                    load.putClient(client);
+                    return Optional.of(client);
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading referred client by id from database", e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Finds all clients with the given IDs. Cached clients are returned directly and the
+     * remaining IDs are resolved in a single query.
+     *
+     * @param ids the client IDs to look up
+     * @return a Set of the clients that exist; missing IDs are skipped
+     */
+    public Set<Client> findAllByIds(Collection<Integer> ids) {
+        Set<Client> clients = new HashSet<>();
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            EntityCaches.clients().get(id).ifPresentOrElse(clients::add, () -> missingIds.add(id));
+        }
+        if (missingIds.isEmpty()) {
+            return clients;
+        }
+        String clientsQueryFindAllByIds = CLIENTS_WITH_CREATOR_SELECT + " WHERE c.id = ANY(?)";
+        CacheLoad load = EntityCaches.startLoad();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement clientsStatement = connection.prepareStatement(clientsQueryFindAllByIds)) {
+
+            clientsStatement.setArray(1, connection.createArrayOf("INTEGER", missingIds.toArray()));
+
+            try (ResultSet resultSet = clientsStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    Client client = extractClientFromResultSetAdmin(resultSet, load);
+                    load.putClient(client);
+                    clients.add(client);
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading referred clients by ids from database", e);
+        }
+
+        return clients;
     }
 
     /**
@@ -43,14 +135,16 @@ public class ClientsDatabaseRepository {
      */
     public Set<Client> findAll() {
         Set<Client> clients = new HashSet<>();
-        String clientsQueryFindAll = "SELECT id, first_name, last_name, email, phone_number, created_by FROM referred_client";
+        String clientsQueryFindAll = CLIENTS_WITH_CREATOR_SELECT;
+        CacheLoad load = EntityCaches.startLoad();
 
         try (Connection connection = databaseManager.connectToDatabase();
              Statement clientsStatement = connection.createStatement();
              ResultSet resultSet = clientsStatement.executeQuery(clientsQueryFindAll)) {
 
             while (resultSet.next()) {
-                Client client = extractClientFromResultSetAdmin(resultSet);
+                Client client = extractClientFromResultSetAdmin(resultSet, load);
+                load.putClient(client);
                 clients.add(client);
             }
 
@@ -61,6 +155,142 @@ public class ClientsDatabaseRepository {
         return clients;
     }
 
+    /**
+     * Retrieves one page of clients matching the filter, using keyset pagination.
+     * The page starts directly after the given cursor, so the cost of a page does not
+     * grow with the number of pages already read.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the clients
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of clients on the page
+     * @return the page of clients and the cursor for the next page
+     */
+    public Page<Client> findPage(ClientQuery filter, ClientSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        CacheLoad load = EntityCaches.startLoad();
+        return readPage(CLIENTS_WITH_CREATOR_SELECT, filter, sortKey, afterCursor, limit, resultSet -> {
+            Client client = extractClientFromResultSetAdmin(resultSet, load);
+            load.putClient(client);
+            return client;
+        });
+    }
+
+    /**
+     * Retrieves one page of client display rows matching the filter, using keyset pagination.
+     * Only the displayed columns are read, and no client or user objects are built.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @return the page of rows and the cursor for the next page
+     */
+    public Page<ClientRow> findRowPage(ClientQuery filter, ClientSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        DisplayStrings strings = new DisplayStrings();
+        return readPage(CLIENT_ROW_SELECT, filter, sortKey, afterCursor, limit, resultSet -> ClientRow.of(strings,
+                resultSet.getInt("id"),
+                resultSet.getString("first_name"),
+                resultSet.getString("last_name"),
+                resultSet.getString("email"),
+                resultSet.getString("phone_number"),
+                resultSet.getString("u_first_name"),
+                resultSet.getString("u_last_name")));
+    }
+
+    /**
+     * Reads one page of the given client query, keyed on the sort column and the client's ID.
+     *
+     * @param select      the select statement joining the client {@code c} and its creator {@code u}
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @param mapper      maps a result row to a page item
+     * @param <T>         the type of the page items
+     * @return the page and the cursor for the next page
+     */
+    private <T> Page<T> readPage(String select, ClientQuery filter, ClientSortKey sortKey,
+                                 KeysetCursor afterCursor, int limit, RowMapper<T> mapper) {
+        List<T> items = new ArrayList<>();
+        KeysetCursor nextCursor = null;
+
+        SqlConditions conditions = clientConditions(filter)
+                .addAfter(sortKey.getSortColumn(), "c.id", sortKey.isDescending(), afterCursor);
+        String direction = sortKey.isDescending() ? " DESC" : " ASC";
+        String clientsQueryFindPage = select + conditions.toWhereClause() +
+                " ORDER BY " + sortKey.getSortColumn() + direction + ", c.id" + direction + " LIMIT ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement clientsStatement = connection.prepareStatement(clientsQueryFindPage)) {
+
+            int limitIndex = conditions.bind(clientsStatement);
+            clientsStatement.setInt(limitIndex, limit + 1);
+
+            try (ResultSet resultSet = clientsStatement.executeQuery()) {
+                KeysetCursor lastRow = null;
+                while (resultSet.next()) {
+                    if (items.size() == limit) {
+                        nextCursor = lastRow;
+                        break;
+                    }
+                    items.add(mapper.map(resultSet));
+                    lastRow = new KeysetCursor(resultSet.getObject(sortKey.getColumnLabel()), resultSet.getInt("id"));
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading page of referred clients from database", e);
+        }
+
+        return new Page<>(items, nextCursor);
+    }
+
+    /**
+     * Translates the client filter criteria to SQL conditions on the client query.
+     *
+     * @param filter the filter criteria
+     * @return the conditions matching the filter
+     */
+    private SqlConditions clientConditions(ClientQuery filter) {
+        SqlConditions conditions = new SqlConditions();
+        if (filter.getCreatedByUserId() != null) {
+            conditions.add("c.created_by = ?", filter.getCreatedByUserId());
+        }
+        if (filter.getCurrentlyRecommended() != null) {
+            conditions.add("c.is_currently_recommended = ?", filter.getCurrentlyRecommended());
+        }
+        conditions.addContains("c.first_name", filter.getFirstName(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_FIRST_NAME)
+                .addContains("c.last_name", filter.getLastName(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_LAST_NAME)
+                .addContains("c.email", filter.getEmail(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_EMAIL)
+                .addContains("c.phone_number", filter.getPhoneNumber(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_PHONE_NUMBER);
+        if (filter.getCreatedByFullName() != null) {
+            conditions.add("CONCAT(u.first_name, ' ', u.last_name) = ?", filter.getCreatedByFullName());
+        }
+        return conditions;
+    }
+
+    /**
+     * Reads the referred clients for the shared client search index.
+     *
+     * @param rows         the sink indexing the rows
+     * @param afterVersion the highest search version already indexed; 0 to read all clients
+     * @throws IOException  if the database configuration cannot be read
+     * @throws SQLException if the clients cannot be read
+     */
+    static void loadSearchRows(TrigramIndex.RowSink rows, long afterVersion) throws IOException, SQLException {
+        try (Connection connection = new DatabaseManager().connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement(SEARCH_ROWS_QUERY)) {
+            statement.setLong(1, afterVersion);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(resultSet.getInt("id"), resultSet.getLong("search_version"),
+                            resultSet.getString("first_name"), resultSet.getString("last_name"),
+                            resultSet.getString("email"), resultSet.getString("phone_number"));
+                }
+            }
+        }
+    }
+
     /**
      * Retrieves all clients created by a specific user.
      *
@@ -103,7 +333,7 @@ public class ClientsDatabaseRepository {
                         "VALUES (?, ?, ?, ?, ?)";
 
         try (Connection connection = databaseManager.connectToDatabase();
-             PreparedStatement clientsPreparedStatement = connection.prepareStatement(clientsQuerySave)) {
+             PreparedStatement clientsPreparedStatement = connection.prepareStatement(clientsQuerySave, Statement.RETURN_GENERATED_KEYS)) {
 
             clientsPreparedStatement.setString(1, entity.getFirstName());
             clientsPreparedStatement.setString(2, entity.getLastName());
@@ -112,6 +342,13 @@ public class ClientsDatabaseRepository {
             clientsPreparedStatement.setInt(5, loggedUserId);
 
             clientsPreparedStatement.executeUpdate();
+
+            try (ResultSet generatedKeys = clientsPreparedStatement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    SearchIndexes.clients().add(generatedKeys.getInt(1), entity.getFirstName(),
+                            entity.getLastName(), entity.getEmail(), entity.getPhoneNumber());
+                }
+            }
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while saving referred client to database", e);
         }
@@ -132,6 +369,8 @@ public class ClientsDatabaseRepository {
             clientsPreparedStatement.setInt(1, id);
 
             clientsPreparedStatement.executeUpdate();
+            EntityCaches.clientChanged(id);
+            SearchIndexes.clients().remove(id);
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while deleting referred client from database", e);
         }
@@ -160,11 +399,41 @@ public class ClientsDatabaseRepository {
             clientsPreparedStatement.setInt(7, entity.getId());
 
             clientsPreparedStatement.executeUpdate();
+            EntityCaches.clientChanged(entity.getId());
+            SearchIndexes.clients().update(entity.getId(), entity.getFirstName(),
+                    entity.getLastName(), entity.getEmail(), entity.getPhoneNumber());
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while updating referred client in database", e);
         }
     }
 
+    /**
+     * Sets whether a client is currently recommended without changing its other columns.
+     * Cached instances of the client are invalidated rather than modified, because they may be
+     * shared with tables that are showing them.
+     *
+     * @param id                   the ID of the client to update
+     * @param currentlyRecommended the new recommendation flag
+     * @return true if the client exists and was updated
+     */
+    public boolean updateCurrentlyRecommended(Integer id, boolean currentlyRecommended) {
+        String clientsQueryUpdate = "UPDATE referred_client SET is_currently_recommended = ? WHERE id = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement clientsPreparedStatement = connection.prepareStatement(clientsQueryUpdate)) {
+
+            clientsPreparedStatement.setBoolean(1, currentlyRecommended);
+            clientsPreparedStatement.setInt(2, id);
+
+            boolean updated = clientsPreparedStatement.executeUpdate() == 1;
+            EntityCaches.clientChanged(id);
+            return updated;
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while updating referred client recommendation in database", e);
+        }
+        return false;
+    }
+
     /**
      * Constructs a Client object from a ResultSet for the currently logged-in user.
      *
@@ -186,20 +455,40 @@ public class ClientsDatabaseRepository {
 
     /**
      * Constructs a Client object from a ResultSet for admin view.
+     * The creating user is read from the joined {@code u_} columns and shared through the user cache.
      *
      * @param resultSet the ResultSet containing client data
+     * @param load      the cache load started before the query ran
      * @return a Client object populated with data from the ResultSet
      * @throws SQLException if an SQL error occurs while reading from the ResultSet
      */
 
-    private Client extractClientFromResultSetAdmin(ResultSet resultSet) throws SQLException {
-        Integer id = resultSet.getInt("id");
-        String firstName = resultSet.getString("first_name");
-        String lastName = resultSet.getString("last_name");
-        String email = resultSet.getString("email");
-        String phoneNumber = resultSet.getString("phone_number");
-        User user = userDatabaseRepository.findById(resultSet.getInt("created_by")).orElse(null);
+    private Client extractClientFromResultSetAdmin(ResultSet resultSet, CacheLoad load) throws SQLException {
+        User user = resultSet.getObject("u_id") != null
+                ? load.internUser(UserDatabaseRepository.extractUserFromResultSet(resultSet, "u_"))
+                : null;
 
-        return new Client(id, firstName, lastName, email, phoneNumber, user);
+        return extractClientFromResultSet(resultSet, "", user);
+    }
+
+    /**
+     * Constructs a Client object from the current row, reading columns whose labels
+     * start with the given prefix.
+     *
+     * @param resultSet    the ResultSet containing client data
+     * @param columnPrefix the prefix of the client column labels
+     * @param createdBy    the user who created the client
+     * @return a Client object populated with data from the ResultSet
+     * @throws SQLException if an SQL error occurs while reading from the ResultSet
+     */
+    static Client extractClientFromResultSet(ResultSet resultSet, String columnPrefix, User createdBy) throws SQLException {
+        Integer id = resultSet.getInt(columnPrefix + "id");
+        String firstName = resultSet.getString(columnPrefix + "first_name");
+        String lastName = resultSet.getString(columnPrefix + "last_name");
+        String email = resultSet.getString(columnPrefix + "email");
+        String phoneNumber = resultSet.getString(columnPrefix + "phone_number");
+        boolean isCurrentlyRecommended = resultSet.getBoolean(columnPrefix + "is_currently_recommended");
+
+        return new Client(id, firstName, lastName, email, phoneNumber, createdBy, isCurrentlyRecommended);
     }
 }
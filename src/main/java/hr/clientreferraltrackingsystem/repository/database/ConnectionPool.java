@@ -0,0 +1,282 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool of reusable JDBC connections.
+ * <p>
+ * Callers receive a proxy whose {@link Connection#close()} returns the physical
+ * connection to the pool instead of closing it, so the existing
+ * try-with-resources blocks in the repositories keep working unchanged.
+ */
+class ConnectionPool {
+    private static final Logger log = LoggerFactory.getLogger(ConnectionPool.class);
+
+    private final DatabaseConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leakDetector;
+
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Creates a pool for the given configuration. No connection is opened until the first request.
+     *
+     * @param config the parsed database configuration
+     */
+    ConnectionPool(DatabaseConfig config) {
+        this.config = config;
+        this.permits = new Semaphore(config.poolMaxSize(), true);
+
+        if (config.poolLeakDetectionMillis() > 0) {
+            leakDetector = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "connection-leak-detector");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1000L, config.poolLeakDetectionMillis() / 2);
+            leakDetector.scheduleAtFixedRate(this::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            leakDetector = null;
+        }
+    }
+
+    /**
+     * Borrows a connection from the pool, opening a new one if no idle connection is available
+     * and the pool has not reached its maximum size.
+     *
+     * @return a pooled connection; closing it returns it to the pool
+     * @throws SQLException if the pool is exhausted for longer than the acquire timeout
+     *                      or a new connection cannot be opened
+     */
+    Connection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(config.poolAcquireTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLTimeoutException("Timed out after " + config.poolAcquireTimeoutMillis()
+                        + " ms waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+
+        Connection physical;
+        try {
+            physical = takeIdleOrCreate();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+
+        long waited = System.nanoTime() - start;
+        acquireCount.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        Throwable origin = config.poolLeakDetectionMillis() > 0
+                ? new Throwable("Connection acquired by " + Thread.currentThread().getName())
+                : null;
+        leased.put(physical, new Lease(System.nanoTime(), origin));
+
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new PooledConnectionHandler(physical));
+    }
+
+    /**
+     * Returns the current pool statistics.
+     *
+     * @return a snapshot of the pool state
+     */
+    PoolStats stats() {
+        long acquired = acquireCount.sum();
+        return new PoolStats(
+                leased.size(),
+                idle.size(),
+                config.poolMaxSize(),
+                createdCount.sum(),
+                acquired,
+                timeoutCount.sum(),
+                leakCount.sum(),
+                acquired == 0 ? 0 : totalWaitNanos.sum() / 1_000_000.0 / acquired,
+                maxWaitNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Closes every idle connection and stops the leak detector.
+     * Connections still in use are closed when their holders release them.
+     */
+    void close() {
+        closed = true;
+        if (leakDetector != null) {
+            leakDetector.shutdownNow();
+        }
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            closeQuietly(entry.connection());
+        }
+    }
+
+    private Connection takeIdleOrCreate() throws SQLException {
+        IdleConnection entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) {
+                return entry.connection();
+            }
+            closeQuietly(entry.connection());
+        }
+
+        Connection connection = DriverManager.getConnection(
+                config.connectionUrl(), config.username(), config.password());
+        createdCount.increment();
+        return connection;
+    }
+
+    private boolean isUsable(IdleConnection entry) {
+        long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - entry.idleSince());
+        if (idleMillis < config.poolValidationIntervalMillis()) {
+            return true;
+        }
+        try {
+            return entry.connection().isValid(config.poolValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that failed validation", e);
+            return false;
+        }
+    }
+
+    private void release(Connection physical) {
+        leased.remove(physical);
+        try {
+            if (closed || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            physical.clearWarnings();
+            idle.offerFirst(new IdleConnection(physical, System.nanoTime()));
+        } catch (SQLException e) {
+            log.warn("Discarding pooled connection that could not be reset", e);
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void detectLeaks() {
+        long now = System.nanoTime();
+        for (Lease lease : leased.values()) {
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - lease.acquiredAt());
+            if (heldMillis >= config.poolLeakDetectionMillis() && lease.reported().compareAndSet(false, true)) {
+                leakCount.increment();
+                log.warn("Possible connection leak: connection held for {} ms", heldMillis, lease.origin());
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Error occurred while closing pooled connection", e);
+        }
+    }
+
+    /**
+     * An idle physical connection together with the time it was returned to the pool.
+     */
+    private record IdleConnection(Connection connection, long idleSince) {
+    }
+
+    /**
+     * Bookkeeping for a connection that is currently handed out.
+     */
+    private record Lease(long acquiredAt, Throwable origin, AtomicBoolean reported) {
+        Lease(long acquiredAt, Throwable origin) {
+            this(acquiredAt, origin, new AtomicBoolean());
+        }
+    }
+
+    /**
+     * Forwards calls to the physical connection and turns {@code close()} into a release.
+     */
+    private final class PooledConnectionHandler implements InvocationHandler {
+        private final Connection physical;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PooledConnectionHandler(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (released.compareAndSet(false, true)) {
+                        release(physical);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return released.get() || physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + physical + "]";
+                }
+                default -> {
+                    if (released.get()) {
+                        throw new SQLException("Connection has already been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Immutable view of the settings stored in {@code database.properties}.
+ * <p>
+ * The file is parsed once when the connection pool is created; every later
+ * connection request reuses the parsed values.
+ *
+ * @param databaseMode                 how the database is reached
+ * @param databaseUrl                  the JDBC URL of the database
+ * @param serverPort                   the port of the in-process TCP server in {@link DatabaseMode#SERVER} mode
+ * @param schemaScript                 the SQL script that creates the schema of a new database
+ * @param username                     the database user
+ * @param password                     the database password
+ * @param poolMaxSize                  the maximum number of open connections
+ * @param poolAcquireTimeoutMillis     how long a caller may wait for a free connection
+ * @param poolLeakDetectionMillis      how long a connection may be held before it is reported as leaked,
+ *                                     or {@code 0} to disable leak detection
+ * @param poolValidationTimeoutSeconds the timeout used when validating an idle connection
+ * @param poolValidationIntervalMillis how long a connection may stay idle before it is validated again
+ */
+record DatabaseConfig(
+        DatabaseMode databaseMode,
+        String databaseUrl,
+        int serverPort,
+        String schemaScript,
+        String username,
+        String password,
+        int poolMaxSize,
+        long poolAcquireTimeoutMillis,
+        long poolLeakDetectionMillis,
+        int poolValidationTimeoutSeconds,
+        long poolValidationIntervalMillis
+) {
+    static final String PROPERTIES_FILE = "database.properties";
+
+    /**
+     * Reads and parses the database configuration file.
+     *
+     * @return the parsed configuration
+     * @throws IOException if the properties file cannot be read
+     */
+    static DatabaseConfig load() throws IOException {
+        Properties props = new Properties();
+        try (FileReader reader = new FileReader(PROPERTIES_FILE)) {
+            props.load(reader);
+        }
+
+        return new DatabaseConfig(
+                DatabaseMode.fromProperty(props.getProperty("databaseMode")),
+                props.getProperty("databaseUrl"),
+                intProperty(props, "serverPort", 9092),
+                props.getProperty("schemaScript", "database.sql"),
+                props.getProperty("username"),
+                props.getProperty("password"),
+                intProperty(props, "poolMaxSize", 10),
+                longProperty(props, "poolAcquireTimeoutMillis", 5000L),
+                longProperty(props, "poolLeakDetectionMillis", 30000L),
+                intProperty(props, "poolValidationTimeoutSeconds", 2),
+                longProperty(props, "poolValidationIntervalMillis", 5000L));
+    }
+
+    /**
+     * Returns the JDBC URL used to open connections in the configured mode.
+     * In the in-process modes a TCP URL such as {@code jdbc:h2:tcp://localhost/~/db}
+     * is turned into the equivalent embedded URL {@code jdbc:h2:~/db}.
+     *
+     * @return the JDBC URL to connect with
+     */
+    String connectionUrl() {
+        String tcpPrefix = "jdbc:h2:tcp://";
+        if (databaseMode == DatabaseMode.TCP || !databaseUrl.startsWith(tcpPrefix)) {
+            return databaseUrl;
+        }
+        String hostAndPath = databaseUrl.substring(tcpPrefix.length());
+        return "jdbc:h2:" + hostAndPath.substring(hostAndPath.indexOf('/') + 1);
+    }
+
+    /**
+     * Returns a copy of this configuration with a different database mode.
+     *
+     * @param mode the database mode of the copy
+     * @return the copied configuration
+     */
+    DatabaseConfig withDatabaseMode(DatabaseMode mode) {
+        return new DatabaseConfig(mode, databaseUrl, serverPort, schemaScript, username, password, poolMaxSize,
+                poolAcquireTimeoutMillis, poolLeakDetectionMillis, poolValidationTimeoutSeconds, poolValidationIntervalMillis);
+    }
+
+    private static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    private static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.isBlank() ? defaultValue : Long.parseLong(value.trim());
+    }
+}
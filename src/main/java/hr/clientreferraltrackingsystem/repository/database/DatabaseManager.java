@@ -1,16 +1,28 @@
 package hr.clientreferraltrackingsystem.repository.database;
 
-import java.io.FileReader;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.cache.SearchIndexes;
+import org.h2.tools.Server;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.IOException;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
-import java.util.Properties;
 
 /**
- * Manages database connections by reading configuration properties and establishing connections.
+ * Manages database connections through a process-wide connection pool.
+ * <p>
+ * The configuration file is read once, on the first connection request, and the
+ * resulting pool is shared by every repository instance. In {@link DatabaseMode#SERVER}
+ * mode the in-process H2 TCP server is started together with the pool.
  */
 public class DatabaseManager {
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseManager.class);
+
+    private static DatabaseConfig config;
+    private static ConnectionPool pool;
+    private static Server tcpServer;
 
     /**
      * Default constructor for DatabaseManager.
@@ -18,20 +30,91 @@ public class DatabaseManager {
     DatabaseManager() {}
 
     /**
-     * Establishes and returns a connection to the database using properties from the configuration file.
+     * Borrows a connection from the shared pool. Closing the returned connection
+     * gives it back to the pool.
      *
      * @return a Connection object to the database
      * @throws IOException  if an error occurs while reading the properties file
-     * @throws SQLException if a database access error occurs
+     * @throws SQLException if a database access error occurs or no connection becomes available in time
      */
     public Connection connectToDatabase() throws IOException, SQLException {
-        Properties props = new Properties();
-        try (FileReader reader = new FileReader("database.properties")) {
-            props.load(reader);
+        return getPool().acquire();
+    }
+
+    /**
+     * Prepares the database for use: creates the schema of a new database from the
+     * configured schema script and applies any pending migration scripts.
+     *
+     * @throws IOException  if the configuration, the schema script or a migration script cannot be read
+     * @throws SQLException if the schema cannot be created or a migration fails
+     */
+    public static void initializeDatabase() throws IOException, SQLException {
+        new MigrationRunner(new DatabaseManager(), getConfig().schemaScript()).migrate();
+    }
+
+    /**
+     * Returns the current statistics of the shared connection pool.
+     *
+     * @return the pool statistics, or an empty snapshot if the pool has not been created yet
+     */
+    public static synchronized PoolStats getPoolStats() {
+        if (pool == null) {
+            return new PoolStats(0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+        return pool.stats();
+    }
+
+    /**
+     * Closes the shared connection pool and stops the in-process TCP server, if one was started.
+     * The next connection request creates them again.
+     */
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        if (tcpServer != null) {
+            tcpServer.stop();
+            tcpServer = null;
+        }
+    }
+
+    /**
+     * Replaces the configuration read from {@code database.properties}, for example to run
+     * against an in-memory database. The current pool is closed and the shared caches and
+     * search indexes are cleared, so the next connection request opens the configured database.
+     *
+     * @param databaseConfig the configuration to use instead of the properties file
+     */
+    static synchronized void useConfig(DatabaseConfig databaseConfig) {
+        shutdown();
+        config = databaseConfig;
+        EntityCaches.clear();
+        SearchIndexes.clear();
+    }
+
+    private static synchronized DatabaseConfig getConfig() throws IOException {
+        if (config == null) {
+            config = DatabaseConfig.load();
+        }
+        return config;
+    }
+
+    private static synchronized ConnectionPool getPool() throws IOException, SQLException {
+        if (pool == null) {
+            DatabaseConfig databaseConfig = getConfig();
+            if (databaseConfig.databaseMode() == DatabaseMode.SERVER && tcpServer == null) {
+                try {
+                    tcpServer = Server.createTcpServer("-tcpPort", String.valueOf(databaseConfig.serverPort())).start();
+                    logger.info("Started in-process H2 TCP server at {}", tcpServer.getURL());
+                } catch (SQLException e) {
+                    logger.warn("Could not start H2 TCP server on port {}, connecting to the running server instead",
+                            databaseConfig.serverPort(), e);
+                    databaseConfig = databaseConfig.withDatabaseMode(DatabaseMode.TCP);
+                }
+            }
+            pool = new ConnectionPool(databaseConfig);
         }
-        return DriverManager.getConnection(
-                props.getProperty("databaseUrl"),
-                props.getProperty("username"),
-                props.getProperty("password"));
+        return pool;
     }
 }
@@ -0,0 +1,35 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import java.util.Locale;
+
+/**
+ * How the application reaches its H2 database, selected with the {@code databaseMode} property.
+ */
+enum DatabaseMode {
+    /**
+     * Connects to a separately started H2 server over TCP.
+     */
+    TCP,
+    /**
+     * Opens the database file in-process, without any network round trips.
+     */
+    EMBEDDED,
+    /**
+     * Opens the database file in-process and also starts an H2 TCP server inside the
+     * application so that other instances can connect to the same database.
+     */
+    SERVER;
+
+    /**
+     * Parses a mode name, ignoring case.
+     *
+     * @param value the property value, or null for the default mode
+     * @return the matching mode, or {@link #TCP} if no value is given
+     */
+    static DatabaseMode fromProperty(String value) {
+        if (value == null || value.isBlank()) {
+            return TCP;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,185 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Applies the numbered SQL migration scripts that have not yet been applied to the database.
+ * <p>
+ * A database without the {@code USERS} table is treated as new and is first created from the
+ * schema script ({@code database.sql} by default).
+ * <p>
+ * Scripts are named {@code V<version>__<description>.sql}, live under {@link #MIGRATION_PATH}
+ * and are applied in version order. Every applied script is recorded in the
+ * {@code schema_version} table so that it runs only once per database.
+ */
+class MigrationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(MigrationRunner.class);
+
+    static final String MIGRATION_PATH = "/hr/clientreferraltrackingsystem/db/migration/";
+
+    /**
+     * Migration scripts in the order they are applied. New scripts are appended with the next version.
+     */
+    static final List<String> MIGRATIONS = List.of(
+            "V1__add_referral_version.sql",
+            "V2__add_query_indexes.sql",
+            "V3__add_reward_indexes.sql",
+            "V4__add_search_versions.sql"
+    );
+
+    private final DatabaseManager databaseManager;
+    private final String schemaScript;
+
+    /**
+     * Constructs a MigrationRunner that applies migrations through the given manager's connections.
+     *
+     * @param databaseManager the manager providing database connections
+     * @param schemaScript    the path of the script that creates the schema of a new database
+     */
+    MigrationRunner(DatabaseManager databaseManager, String schemaScript) {
+        this.databaseManager = databaseManager;
+        this.schemaScript = schemaScript;
+    }
+
+    /**
+     * Creates the schema if the database is new, then applies every migration script whose
+     * version is not yet recorded in {@code schema_version}.
+     *
+     * @throws IOException  if the configuration, the schema script or a migration script cannot be read
+     * @throws SQLException if the schema cannot be created or a migration fails; the failed script is not recorded
+     */
+    void migrate() throws IOException, SQLException {
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            if (!tableExists(connection, "USERS")) {
+                createSchema(connection);
+            }
+            createSchemaVersionTable(connection);
+            Set<Integer> appliedVersions = findAppliedVersions(connection);
+
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                if (!appliedVersions.contains(version)) {
+                    apply(connection, version, script);
+                }
+            }
+        }
+    }
+
+    private boolean tableExists(Connection connection, String tableName) throws SQLException {
+        try (ResultSet tables = connection.getMetaData().getTables(null, connection.getSchema(), tableName, null)) {
+            return tables.next();
+        }
+    }
+
+    /**
+     * Runs the schema script against a new database in a single transaction.
+     */
+    private void createSchema(Connection connection) throws IOException, SQLException {
+        logger.info("Creating database schema from {}", schemaScript);
+        String sql = Files.readString(Path.of(schemaScript), StandardCharsets.UTF_8);
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String command : splitStatements(sql)) {
+                statement.execute(command);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void createSchemaVersionTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "script VARCHAR(255) NOT NULL, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+    }
+
+    private Set<Integer> findAppliedVersions(Connection connection) throws SQLException {
+        Set<Integer> versions = new HashSet<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT version FROM schema_version")) {
+            while (resultSet.next()) {
+                versions.add(resultSet.getInt("version"));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Runs one script and records its version in the same transaction.
+     */
+    private void apply(Connection connection, int version, String script) throws IOException, SQLException {
+        logger.info("Applying database migration {}", script);
+        String sql = readScript(script);
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement();
+             PreparedStatement record = connection.prepareStatement(
+                     "INSERT INTO schema_version (version, script) VALUES (?, ?)")) {
+            for (String command : splitStatements(sql)) {
+                statement.execute(command);
+            }
+            record.setInt(1, version);
+            record.setString(2, script);
+            record.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private String readScript(String script) throws IOException {
+        try (InputStream inputStream = MigrationRunner.class.getResourceAsStream(MIGRATION_PATH + script)) {
+            if (inputStream == null) {
+                throw new IOException("Migration script not found: " + script);
+            }
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Splits a script into statements on semicolons, dropping {@code --} comment lines.
+     */
+    static List<String> splitStatements(String sql) {
+        StringBuilder withoutComments = new StringBuilder();
+        for (String line : sql.split("\\R")) {
+            if (!line.trim().startsWith("--")) {
+                withoutComments.append(line).append('\n');
+            }
+        }
+        return Arrays.stream(withoutComments.toString().split(";"))
+                .map(String::trim)
+                .filter(command -> !command.isEmpty())
+                .toList();
+    }
+
+    private static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+}
@@ -0,0 +1,27 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+/**
+ * Snapshot of the connection pool state.
+ *
+ * @param active             connections currently handed out to callers
+ * @param idle               open connections waiting in the pool
+ * @param maxSize            the configured upper bound of open connections
+ * @param createdCount       physical connections opened since startup
+ * @param acquireCount       successful connection requests since startup
+ * @param timeoutCount       connection requests that gave up waiting
+ * @param leakCount          connections reported as leaked
+ * @param averageWaitMillis  average time a caller waited for a connection
+ * @param maxWaitMillis      longest time a caller waited for a connection
+ */
+public record PoolStats(
+        int active,
+        int idle,
+        int maxSize,
+        long createdCount,
+        long acquireCount,
+        long timeoutCount,
+        long leakCount,
+        double averageWaitMillis,
+        double maxWaitMillis
+) {
+}
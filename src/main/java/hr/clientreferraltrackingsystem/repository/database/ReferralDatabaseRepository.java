@@ -1,29 +1,49 @@
 package hr.clientreferraltrackingsystem.repository.database;
 
 import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.enumeration.UpdateResult;
 import hr.clientreferraltrackingsystem.model.Referral;
-import hr.clientreferraltrackingsystem.model.Client;
-import hr.clientreferraltrackingsystem.model.User;
-import hr.clientreferraltrackingsystem.service.SessionManager;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.cache.CacheLoad;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.cache.SearchIndexes;
+import hr.clientreferraltrackingsystem.repository.database.query.KeysetCursor;
+import hr.clientreferraltrackingsystem.repository.database.query.Page;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.ReferralRow;
+import hr.clientreferraltrackingsystem.repository.database.row.DisplayStrings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * Repository class for performing CRUD operations on Referral entities in the database.
  * It supports saving, updating, deleting, and querying referrals.
- * Access to database operations is synchronized to prevent concurrent modification.
+ * Referrals are loaded together with their referrer and client from a single joined query.
+ * <p>
+ * Reads run concurrently on pooled connections. Writes run in database transactions and
+ * status changes are guarded by the referral's {@code version} column, so concurrent
+ * writers from any thread or process never silently overwrite each other.
  */
 public class ReferralDatabaseRepository {
     private static Logger logger = LoggerFactory.getLogger(ReferralDatabaseRepository.class);
-    final ClientsDatabaseRepository clientsDatabaseRepository = new ClientsDatabaseRepository();
-    final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
-    private static Boolean databaseAccessInProgress = false;
+    private static final String REFERRAL_ROW_COLUMNS = "r.id, r.status, r.created_at, " +
+            "u.first_name AS u_first_name, u.last_name AS u_last_name, " +
+            "c.first_name AS c_first_name, c.last_name AS c_last_name, c.email AS c_email, c.phone_number AS c_phone_number";
+    private static final String REFERRAL_ROW_JOINS =
+            "JOIN users u ON u.id = r.referrer_user_id JOIN referred_client c ON c.id = r.referred_client_id";
+    static final String LATEST_REFERRAL_QUERY = "SELECT " + ReferralGraphMapper.REFERRAL_GRAPH_COLUMNS +
+            " FROM " + referralsFrom(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC) + " " +
+            ReferralGraphMapper.REFERRAL_GRAPH_JOINS + " ORDER BY r.created_at DESC, r.id DESC LIMIT 1";
     private final DatabaseManager databaseManager;
 
     /**
@@ -34,101 +54,155 @@ public class ReferralDatabaseRepository {
     }
 
     /**
-     * Saves a new Referral entity to the database.
+     * Saves a new Referral entity to the database and assigns the generated ID to it.
      *
      * @param entity the Referral to be saved
      */
-    public synchronized void save(Referral entity) {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database access", e);
-            }
-        }
-        databaseAccessInProgress = true;
-
+    public void save(Referral entity) {
         String referralQuerySave = "INSERT INTO referral (referrer_user_id, referred_client_id, status) VALUES (?, ?, ?)";
-        try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement referralsPreparedStatement = connection.prepareStatement(referralQuerySave);) {
-            referralsPreparedStatement.setInt(1, entity.getRefferer().getId());
-            referralsPreparedStatement.setInt(2, entity.getRefferedClient().getId());
-            referralsPreparedStatement.setString(3, String.valueOf(entity.getReferralStatus()));
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement referralsPreparedStatement =
+                         connection.prepareStatement(referralQuerySave, Statement.RETURN_GENERATED_KEYS)) {
+                referralsPreparedStatement.setInt(1, entity.getRefferer().getId());
+                referralsPreparedStatement.setInt(2, entity.getRefferedClient().getId());
+                referralsPreparedStatement.setString(3, String.valueOf(entity.getReferralStatus()));
 
-            referralsPreparedStatement.executeUpdate();
+                referralsPreparedStatement.executeUpdate();
+
+                try (ResultSet generatedKeys = referralsPreparedStatement.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        entity.setId(generatedKeys.getInt(1));
+                        entity.setVersion(0);
+                    }
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            ReferralFeed.publish(entity);
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while saving referral to database in save", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
         }
     }
 
     /**
-     * Updates the status of an existing referral by its ID.
+     * Updates the status of an existing referral by its ID regardless of its current version.
      *
      * @param referralId the ID of the referral to update
      * @param newStatus  the new ReferralStatus to set
      */
-    public synchronized void updateStatus(Integer referralId, ReferralStatus newStatus) {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database access in updateStatus", e);
-            }
-        }
-        databaseAccessInProgress = true;
-
-        String updateStatusQuery = "UPDATE referral SET status = ? WHERE id = ?";
+    public void updateStatus(Integer referralId, ReferralStatus newStatus) {
+        String updateStatusQuery = "UPDATE referral SET status = ?, version = version + 1 WHERE id = ?";
         try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement statement = connection.prepareStatement(updateStatusQuery)) {
             statement.setString(1, newStatus.name());
             statement.setInt(2, referralId);
             statement.executeUpdate();
+            EntityCaches.referralChanged(referralId);
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while updating referral status", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
         }
     }
 
     /**
-     * Retrieves all referrals made by a specific user.
+     * Updates the status of a referral only if it has not been modified since it was loaded.
+     * On success the referral's status and version are updated to match the database.
      *
-     * @param loggedUserId the ID of the logged-in user (referrer)
-     * @return a set of Referral objects made by the user
+     * @param referral  the referral as it was loaded, including its version
+     * @param newStatus the new ReferralStatus to set
+     * @return {@link UpdateResult#UPDATED} if the status was updated, {@link UpdateResult#CONFLICT} if the
+     *         referral was changed or deleted concurrently, or {@link UpdateResult#ERROR} if the database failed
      */
-    public synchronized Set<Referral> findAllByReferral(Integer loggedUserId) {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database  in findAllByReferral", e);
+    public UpdateResult updateStatus(Referral referral, ReferralStatus newStatus) {
+        String updateStatusQuery = "UPDATE referral SET status = ?, version = version + 1 WHERE id = ? AND version = ?";
+        try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement statement = connection.prepareStatement(updateStatusQuery)) {
+            statement.setString(1, newStatus.name());
+            statement.setInt(2, referral.getId());
+            statement.setInt(3, referral.getVersion());
+
+            if (statement.executeUpdate() == 1) {
+                referral.setReferralStatus(newStatus);
+                referral.setVersion(referral.getVersion() + 1);
+                EntityCaches.referralChanged(referral.getId());
+                return UpdateResult.UPDATED;
             }
+            EntityCaches.referralChanged(referral.getId());
+            logger.info("Referral {} was modified concurrently, status not changed to {}", referral.getId(), newStatus);
+            return UpdateResult.CONFLICT;
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while updating referral status", e);
+            return UpdateResult.ERROR;
         }
-        databaseAccessInProgress = true;
+    }
+
+    /**
+     * Approves a referral and stores its reward in one transaction, so a referral is never
+     * approved without its reward or rewarded without being approved. The status change is
+     * guarded by the referral's version like {@link #updateStatus(Referral, ReferralStatus)}.
+     * On success the reward receives its generated ID.
+     *
+     * @param referral the referral as it was loaded, including its version
+     * @param reward   the reward granted for the referral
+     * @return {@link UpdateResult#UPDATED} if the referral was approved, {@link UpdateResult#CONFLICT} if it was
+     *         changed or deleted concurrently, or {@link UpdateResult#ERROR} if the database failed and nothing was stored
+     */
+    public UpdateResult approveWithReward(Referral referral, Reward reward) {
+        String approveQuery = "UPDATE referral SET status = ?, version = version + 1 WHERE id = ? AND version = ?";
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(approveQuery)) {
+                statement.setString(1, ReferralStatus.APPROVED.name());
+                statement.setInt(2, referral.getId());
+                statement.setInt(3, referral.getVersion());
 
+                if (statement.executeUpdate() != 1) {
+                    connection.rollback();
+                    EntityCaches.referralChanged(referral.getId());
+                    logger.info("Referral {} was modified concurrently, not approved", referral.getId());
+                    return UpdateResult.CONFLICT;
+                }
+                RewardDatabaseRepository.insert(connection, reward);
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            }
+            referral.setReferralStatus(ReferralStatus.APPROVED);
+            referral.setVersion(referral.getVersion() + 1);
+            EntityCaches.referralChanged(referral.getId());
+            EntityCaches.rewardAdded(reward);
+            return UpdateResult.UPDATED;
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while approving referral", e);
+            return UpdateResult.ERROR;
+        }
+    }
+
+    /**
+     * Retrieves all referrals made by a specific user.
+     *
+     * @param loggedUserId the ID of the logged-in user (referrer)
+     * @return a set of Referral objects made by the user
+     */
+    public Set<Referral> findAllByReferral(Integer loggedUserId) {
         Set<Referral> referrals = new HashSet<>();
-        String referralsQueryFindAll = "SELECT id, referred_client_id, status, created_at " +
-                "FROM referral WHERE referrer_user_id = ?";
+        String referralsQueryFindAll = ReferralGraphMapper.REFERRAL_GRAPH_SELECT + " WHERE r.referrer_user_id = ?";
+        CacheLoad load = EntityCaches.startLoad();
+        ReferralGraphMapper mapper = new ReferralGraphMapper(load);
 
         try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement referralsStatement = connection.prepareStatement(referralsQueryFindAll)) {
             referralsStatement.setInt(1, loggedUserId);
 
             try (ResultSet resultSet = referralsStatement.executeQuery()) {
                 while (resultSet.next()) {
-                    Referral referral = extractClientFromResultSetForCurrentUser(resultSet);
+                    Referral referral = mapper.map(resultSet);
+                    load.putReferral(referral);
                     referrals.add(referral);
                 }
             }
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while reading referrals from database", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
         }
         return referrals;
     }
@@ -138,132 +212,284 @@ public class ReferralDatabaseRepository {
      *
      * @return a set of all Referral objects
      */
-    public synchronized Set<Referral> findAll() {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database access in findAll", e);
-            }
-        }
-        databaseAccessInProgress = true;
-
+    public Set<Referral> findAll() {
         Set<Referral> referrals = new HashSet<>();
-        String referralsQueryFindAll = "SELECT id, referrer_user_id, referred_client_id, status, created_at FROM referral";
+        String referralsQueryFindAll = ReferralGraphMapper.REFERRAL_GRAPH_SELECT;
+        CacheLoad load = EntityCaches.startLoad();
+        ReferralGraphMapper mapper = new ReferralGraphMapper(load);
         try (Connection connection = databaseManager.connectToDatabase(); Statement referralsStatement = connection.createStatement()) {
             try (ResultSet resultSet = referralsStatement.executeQuery(referralsQueryFindAll)) {
                 while (resultSet.next()) {
-                    Referral referral = extractClientFromResultSetForAdmin(resultSet);
+                    Referral referral = mapper.map(resultSet);
+                    load.putReferral(referral);
                     referrals.add(referral);
                 }
             }
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while reading referrals from database", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
         }
         return referrals;
     }
 
     /**
-     * Finds a referral by its ID.
+     * Retrieves one page of referrals matching the filter, using keyset pagination.
+     * The page starts directly after the given cursor, so the cost of a page does not
+     * grow with the number of pages already read.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the referrals
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of referrals on the page
+     * @return the page of referrals and the cursor for the next page
+     */
+    public Page<Referral> findPage(ReferralQuery filter, ReferralSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        CacheLoad load = EntityCaches.startLoad();
+        ReferralGraphMapper mapper = new ReferralGraphMapper(load);
+        return readPage(ReferralGraphMapper.REFERRAL_GRAPH_COLUMNS, ReferralGraphMapper.REFERRAL_GRAPH_JOINS,
+                filter, sortKey, afterCursor, limit, resultSet -> {
+                    Referral referral = mapper.map(resultSet);
+                    load.putReferral(referral);
+                    return referral;
+                });
+    }
+
+    /**
+     * Retrieves one page of referral display rows matching the filter, using keyset pagination.
+     * Only the displayed columns are read, and no referral, user or client objects are built.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @return the page of rows and the cursor for the next page
+     */
+    public Page<ReferralRow> findRowPage(ReferralQuery filter, ReferralSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        DisplayStrings strings = new DisplayStrings();
+        return readPage(REFERRAL_ROW_COLUMNS, REFERRAL_ROW_JOINS, filter, sortKey, afterCursor, limit, resultSet -> ReferralRow.of(strings,
+                resultSet.getInt("id"),
+                resultSet.getString("c_first_name"),
+                resultSet.getString("c_last_name"),
+                resultSet.getString("c_email"),
+                resultSet.getString("c_phone_number"),
+                ReferralStatus.valueOf(resultSet.getString("status")),
+                resultSet.getDate("created_at").toLocalDate(),
+                resultSet.getString("u_first_name"),
+                resultSet.getString("u_last_name")));
+    }
+
+    /**
+     * Reads one page of the given referral query, keyed on the referral's creation time and ID.
+     *
+     * @param columns     the selected columns
+     * @param joins       the joins from the referral {@code r} to its referrer {@code u} and its client {@code c}
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @param mapper      maps a result row to a page item
+     * @param <T>         the type of the page items
+     * @return the page and the cursor for the next page
+     */
+    private <T> Page<T> readPage(String columns, String joins, ReferralQuery filter, ReferralSortKey sortKey,
+                                 KeysetCursor afterCursor, int limit, RowMapper<T> mapper) {
+        List<T> items = new ArrayList<>();
+        KeysetCursor nextCursor = null;
+
+        SqlConditions conditions = referralConditions(filter)
+                .addAfter(sortKey.getSortColumn(), "r.id", sortKey.isDescending(), afterCursor);
+        String direction = sortKey.isDescending() ? " DESC" : " ASC";
+        String referralsQueryFindPage = "SELECT " + columns + " FROM " + referralsFrom(filter, sortKey) + " " + joins +
+                conditions.toWhereClause() +
+                " ORDER BY " + sortKey.getSortColumn() + direction + ", r.id" + direction + " LIMIT ?";
+
+        try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement statement = connection.prepareStatement(referralsQueryFindPage)) {
+            int limitIndex = conditions.bind(statement);
+            statement.setInt(limitIndex, limit + 1);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                KeysetCursor lastRow = null;
+                while (resultSet.next()) {
+                    if (items.size() == limit) {
+                        nextCursor = lastRow;
+                        break;
+                    }
+                    items.add(mapper.map(resultSet));
+                    lastRow = new KeysetCursor(resultSet.getObject(sortKey.getColumnLabel()), resultSet.getInt("id"));
+                }
+            }
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading page of referrals from database", e);
+        }
+        return new Page<>(items, nextCursor);
+    }
+
+    /**
+     * Returns the referral table of a page query, read through the index of the page order
+     * unless the page is restricted to one referrer.
+     * <p>
+     * With few users and many referrals, H2's cost model prefers to scan the users and join
+     * each user's referrals through the referrer foreign key, which reads and sorts every
+     * referral just to return one page. Reading the sort index instead stops after the page.
+     * A single referrer's referrals are found faster through the foreign key index.
+     *
+     * @param filter  the filter criteria
+     * @param sortKey the order of the page
+     * @return the table reference of the referral {@code r}
+     */
+    static String referralsFrom(ReferralQuery filter, ReferralSortKey sortKey) {
+        if (filter.getReferrerUserId() != null) {
+            return "referral r";
+        }
+        return "referral r USE INDEX (" + sortKey.getIndexName() + ")";
+    }
+
+    /**
+     * Translates the referral filter criteria to SQL conditions on the referral graph query.
+     *
+     * @param filter the filter criteria
+     * @return the conditions matching the filter
+     */
+    private SqlConditions referralConditions(ReferralQuery filter) {
+        SqlConditions conditions = new SqlConditions();
+        if (filter.getReferrerUserId() != null) {
+            conditions.add("r.referrer_user_id = ?", filter.getReferrerUserId());
+        }
+        if (filter.getStatus() != null) {
+            conditions.add("r.status = ?", filter.getStatus().name());
+        }
+        conditions.addContains("c.first_name", filter.getClientFirstName(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_FIRST_NAME)
+                .addContains("c.last_name", filter.getClientLastName(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_LAST_NAME)
+                .addContains("c.email", filter.getClientEmail(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_EMAIL)
+                .addContains("c.phone_number", filter.getClientPhoneNumber(), "c.id", SearchIndexes.clients(), SearchIndexes.CLIENT_PHONE_NUMBER);
+        if (filter.getCreatedFrom() != null) {
+            conditions.add("r.created_at >= ?", Timestamp.valueOf(filter.getCreatedFrom().atStartOfDay()));
+        }
+        if (filter.getCreatedTo() != null) {
+            conditions.add("r.created_at < ?", Timestamp.valueOf(filter.getCreatedTo().plusDays(1).atStartOfDay()));
+        }
+        if (filter.getReferrerFullName() != null) {
+            conditions.add("LOWER(CONCAT(u.first_name, ' ', u.last_name)) = ?", filter.getReferrerFullName().toLowerCase());
+        }
+        return conditions;
+    }
+
+    /**
+     * Finds a referral by its ID, answering from the shared entity cache when possible
+     * and otherwise using the primary key.
      *
      * @param id the ID of the referral to find
      * @return the Referral if found, or null otherwise
      */
     public Referral findById(Integer id) {
-        return findAll().stream().filter(referral -> referral.getId().equals(id)).findAny().orElse(null);
+        Optional<Referral> cached = EntityCaches.referrals().get(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String referralQueryFindById = ReferralGraphMapper.REFERRAL_GRAPH_SELECT + " WHERE r.id = ?";
+        CacheLoad load = EntityCaches.startLoad();
+        try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement statement = connection.prepareStatement(referralQueryFindById)) {
+            statement.setInt(1, id);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    Referral referral = new ReferralGraphMapper(load).map(resultSet);
+                    load.putReferral(referral);
+                    return referral;
+                }
+            }
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading referral by id from database", e);
+        }
+        return null;
     }
 
     /**
-     * Deletes a referral from the database by its ID.
+     * Finds all referrals with the given IDs. Cached referrals are returned directly and
+     * the remaining IDs are resolved in a single query.
      *
-     * @param id the ID of the referral to delete
+     * @param ids the referral IDs to look up
+     * @return a set of the referrals that exist; missing IDs are skipped
      */
-    public synchronized void delete(Integer id) {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database access in delete", e);
+    public Set<Referral> findAllByIds(Collection<Integer> ids) {
+        Set<Referral> referrals = new HashSet<>();
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            EntityCaches.referrals().get(id).ifPresentOrElse(referrals::add, () -> missingIds.add(id));
+        }
+        if (missingIds.isEmpty()) {
+            return referrals;
+        }
+
+        String referralsQueryFindAllByIds = ReferralGraphMapper.REFERRAL_GRAPH_SELECT + " WHERE r.id = ANY(?)";
+        CacheLoad load = EntityCaches.startLoad();
+        ReferralGraphMapper mapper = new ReferralGraphMapper(load);
+        try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement statement = connection.prepareStatement(referralsQueryFindAllByIds)) {
+            statement.setArray(1, connection.createArrayOf("INTEGER", missingIds.toArray()));
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    Referral referral = mapper.map(resultSet);
+                    load.putReferral(referral);
+                    referrals.add(referral);
+                }
             }
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading referrals by ids from database", e);
         }
-        databaseAccessInProgress = true;
+        return referrals;
+    }
 
+    /**
+     * Deletes a referral from the database by its ID.
+     *
+     * @param id the ID of the referral to delete
+     */
+    public void delete(Integer id) {
         String referralsQueryDelete = "DELETE FROM referral WHERE id = ?";
         try (Connection connection = databaseManager.connectToDatabase(); PreparedStatement referralsPreparedStatement = connection.prepareStatement(referralsQueryDelete);) {
             referralsPreparedStatement.setInt(1, id);
             referralsPreparedStatement.executeUpdate();
+            EntityCaches.referralChanged(id);
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while deleting referrals from database", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
         }
     }
 
     /**
-     * Finds the most recently created referral from the database.
+     * Returns the highest referral ID, answered from the primary key index.
      *
-     * @return an Optional containing the latest Referral, or empty if none found
+     * @return the highest referral ID, or 0 if there are no referrals or the lookup fails
      */
-    public synchronized Optional<Referral> findLatestReferralFromDb() {
-        while (Boolean.TRUE.equals(databaseAccessInProgress)) {
-            try {
-                wait();
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                logger.error("Error occurred while waiting for database access findLatestReferralFromDb", e);
-            }
-        }
-        databaseAccessInProgress = true;
-
-        String query = "SELECT id, referrer_user_id, referred_client_id, status, created_at FROM referral ORDER BY created_at DESC LIMIT 1";
+    public int findMaxId() {
         try (Connection connection = databaseManager.connectToDatabase(); Statement statement = connection.createStatement();
-             ResultSet resultSet = statement.executeQuery(query)) {
+             ResultSet resultSet = statement.executeQuery("SELECT MAX(id) FROM referral")) {
             if (resultSet.next()) {
-                return Optional.of(extractClientFromResultSetForAdmin(resultSet));
+                return resultSet.getInt(1);
             }
         } catch (IOException | SQLException e) {
-            logger.error("Error occurred while fetching latest referral", e);
-        } finally {
-            databaseAccessInProgress = false;
-            notifyAll();
+            logger.error("Error occurred while fetching the highest referral ID", e);
         }
-        return Optional.empty();
-    }
-
-    /**
-     * Extracts a Referral object for the currently logged-in user from the ResultSet.
-     *
-     * @param resultSet the ResultSet containing referral data
-     * @return the constructed Referral object
-     * @throws SQLException if an SQL error occurs while reading from the ResultSet
-     */
-    private Referral extractClientFromResultSetForCurrentUser(ResultSet resultSet) throws SQLException {
-        Integer id = resultSet.getInt("id");
-        Client client = clientsDatabaseRepository.findById(resultSet.getInt("referred_client_id")).orElse(null);
-        ReferralStatus status = ReferralStatus.valueOf(resultSet.getString("status"));
-        Date createdAt = resultSet.getDate("created_at");
-        return new Referral(id, SessionManager.instance.getLoggedUser(), client, createdAt.toLocalDate().atStartOfDay(), status);
+        return 0;
     }
 
     /**
-     * Extracts a Referral object for admin view from the ResultSet.
+     * Finds the most recently created referral from the database.
      *
-     * @param resultSet the ResultSet containing referral data
-     * @return the constructed Referral object
-     * @throws SQLException if an SQL error occurs while reading from the ResultSet
+     * @return an Optional containing the latest Referral, or empty if none found
      */
-    private Referral extractClientFromResultSetForAdmin(ResultSet resultSet) throws SQLException {
-        Integer id = resultSet.getInt("id");
-        User user = userDatabaseRepository.findById(resultSet.getInt("referrer_user_id")).orElse(null);
-        Client client = clientsDatabaseRepository.findById(resultSet.getInt("referred_client_id")).orElse(null);
-        ReferralStatus status = ReferralStatus.valueOf(resultSet.getString("status"));
-        Date createdAt = resultSet.getDate("created_at");
-        return new Referral(id, user, client, createdAt.toLocalDate().atStartOfDay(), status);
+    public Optional<Referral> findLatestReferralFromDb() {
+        CacheLoad load = EntityCaches.startLoad();
+        try (Connection connection = databaseManager.connectToDatabase(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LATEST_REFERRAL_QUERY)) {
+            if (resultSet.next()) {
+                Referral referral = new ReferralGraphMapper(load).map(resultSet);
+                load.putReferral(referral);
+                return Optional.of(referral);
+            }
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while fetching latest referral", e);
+        }
+        return Optional.empty();
     }
 }
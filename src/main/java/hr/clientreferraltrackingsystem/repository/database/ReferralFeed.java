@@ -0,0 +1,112 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Referral;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide feed of newly created referrals.
+ * <p>
+ * Referrals saved through {@link ReferralDatabaseRepository} are published as soon as their
+ * transaction commits. Referrals inserted by other processes sharing the database are picked up
+ * by a single background watcher that compares the highest referral ID against the last
+ * published one, so the full referral is only loaded when a new row actually exists.
+ * The watcher runs only while there are subscribers.
+ */
+public class ReferralFeed {
+    private static final Logger logger = LoggerFactory.getLogger(ReferralFeed.class);
+
+    private static final long WATCH_INTERVAL_SECONDS = 1;
+
+    private static final List<Consumer<Referral>> subscribers = new CopyOnWriteArrayList<>();
+    private static final AtomicReference<Referral> latest = new AtomicReference<>();
+    private static ScheduledExecutorService watcher;
+
+    private ReferralFeed() {}
+
+    /**
+     * Registers a subscriber and starts the watcher if it is not running yet.
+     * The subscriber immediately receives the latest known referral, if any, on the subscribing thread.
+     * Later referrals are delivered on the publishing thread. Either may be the JavaFX Application Thread,
+     * so subscribers that touch the UI hand off with {@code Platform.runLater}.
+     *
+     * @param subscriber the consumer notified of every new referral
+     */
+    public static synchronized void subscribe(Consumer<Referral> subscriber) {
+        subscribers.add(subscriber);
+        Referral current = latest.get();
+        if (current != null) {
+            notify(subscriber, current);
+        }
+        if (watcher == null) {
+            watcher = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofVirtual().name("referral-feed-watcher").factory());
+            watcher.scheduleWithFixedDelay(ReferralFeed::checkForNewReferrals,
+                    0, WATCH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Removes a subscriber and stops the watcher once nobody is subscribed.
+     *
+     * @param subscriber the subscriber to remove
+     */
+    public static synchronized void unsubscribe(Consumer<Referral> subscriber) {
+        subscribers.remove(subscriber);
+        if (subscribers.isEmpty()) {
+            shutdown();
+        }
+    }
+
+    /**
+     * Stops the watcher. Subscribers registered later start it again.
+     */
+    public static synchronized void shutdown() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * Publishes a referral to every subscriber unless a newer one has already been published.
+     *
+     * @param referral the newly created referral
+     */
+    static void publish(Referral referral) {
+        if (referral == null || referral.getId() == null) {
+            return;
+        }
+        Referral previous = latest.getAndAccumulate(referral,
+                (current, candidate) -> current == null || candidate.getId() > current.getId() ? candidate : current);
+        if (previous != null && previous.getId() >= referral.getId()) {
+            return;
+        }
+        subscribers.forEach(subscriber -> notify(subscriber, referral));
+    }
+
+    private static void checkForNewReferrals() {
+        ReferralDatabaseRepository repository = new ReferralDatabaseRepository();
+        int maxId = repository.findMaxId();
+        Referral current = latest.get();
+        if (maxId > 0 && (current == null || maxId > current.getId())) {
+            publish(repository.findById(maxId));
+        }
+    }
+
+    private static void notify(Consumer<Referral> subscriber, Referral referral) {
+        try {
+            subscriber.accept(referral);
+        } catch (RuntimeException e) {
+            logger.error("Referral feed subscriber failed", e);
+        }
+    }
+}
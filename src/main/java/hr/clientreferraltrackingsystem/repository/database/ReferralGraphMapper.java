@@ -0,0 +1,106 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.CacheLoad;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds {@link Referral} objects together with their referrer and referred client
+ * from the rows of a single joined query.
+ * <p>
+ * Users and clients that appear in several rows are materialized once and shared
+ * between all referrals produced by the same mapper instance. Instances already held
+ * in the shared {@link EntityCaches} are reused when the row still matches them; new or
+ * changed ones are cached through the mapper's {@link CacheLoad}.
+ */
+class ReferralGraphMapper {
+
+    /**
+     * Columns of a referral, its referrer, its client and the client's creator.
+     */
+    static final String REFERRAL_GRAPH_COLUMNS = "r.id, r.status, r.created_at, r.version, " +
+            "u.id AS u_id, u.username AS u_username, u.password AS u_password, u.email AS u_email, " +
+            "u.first_name AS u_first_name, u.last_name AS u_last_name, u.phone_number AS u_phone_number, u.role AS u_role, " +
+            "c.id AS c_id, c.first_name AS c_first_name, c.last_name AS c_last_name, " +
+            "c.email AS c_email, c.phone_number AS c_phone_number, c.created_by AS c_created_by, " +
+            "c.is_currently_recommended AS c_is_currently_recommended, " +
+            "cu.id AS cu_id, cu.username AS cu_username, cu.password AS cu_password, cu.email AS cu_email, " +
+            "cu.first_name AS cu_first_name, cu.last_name AS cu_last_name, cu.phone_number AS cu_phone_number, cu.role AS cu_role";
+
+    /**
+     * Joins from the referral {@code r} to the tables read by {@link #REFERRAL_GRAPH_COLUMNS}.
+     */
+    static final String REFERRAL_GRAPH_JOINS = "JOIN users u ON u.id = r.referrer_user_id " +
+            "JOIN referred_client c ON c.id = r.referred_client_id " +
+            "LEFT JOIN users cu ON cu.id = c.created_by";
+
+    /**
+     * Column list and joins that load a referral with its referrer, its client and the client's creator.
+     */
+    static final String REFERRAL_GRAPH_SELECT =
+            "SELECT " + REFERRAL_GRAPH_COLUMNS + " FROM referral r " + REFERRAL_GRAPH_JOINS;
+
+    private final CacheLoad load;
+    private final Map<Integer, User> users = new HashMap<>();
+    private final Map<Integer, Client> clients = new HashMap<>();
+
+    /**
+     * Constructs a mapper for the rows of one query.
+     *
+     * @param load the cache load started before the query ran
+     */
+    ReferralGraphMapper(CacheLoad load) {
+        this.load = load;
+    }
+
+    /**
+     * Maps the current row of a {@link #REFERRAL_GRAPH_SELECT} result to a Referral.
+     *
+     * @param resultSet the ResultSet positioned at the current row
+     * @return the constructed Referral object
+     * @throws SQLException if an SQL error occurs while reading from the ResultSet
+     */
+    Referral map(ResultSet resultSet) throws SQLException {
+        Integer id = resultSet.getInt("id");
+        User referrer = user(resultSet, "u_");
+        Client client = client(resultSet);
+        ReferralStatus status = ReferralStatus.valueOf(resultSet.getString("status"));
+        Date createdAt = resultSet.getDate("created_at");
+        Referral referral = new Referral(id, referrer, client, createdAt.toLocalDate().atStartOfDay(), status);
+        referral.setVersion(resultSet.getInt("version"));
+        return referral;
+    }
+
+    private User user(ResultSet resultSet, String prefix) throws SQLException {
+        int userId = resultSet.getInt(prefix + "id");
+        if (resultSet.wasNull()) {
+            return null;
+        }
+        User user = users.get(userId);
+        if (user == null) {
+            user = load.internUser(UserDatabaseRepository.extractUserFromResultSet(resultSet, prefix));
+            users.put(userId, user);
+        }
+        return user;
+    }
+
+    private Client client(ResultSet resultSet) throws SQLException {
+        int clientId = resultSet.getInt("c_id");
+        Client client = clients.get(clientId);
+        if (client == null) {
+            client = load.internClient(
+                    ClientsDatabaseRepository.extractClientFromResultSet(resultSet, "c_", user(resultSet, "cu_")));
+            clients.put(clientId, client);
+        }
+        return client;
+    }
+}
@@ -0,0 +1,344 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.cache.CacheLoad;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.dat.AbstractRepository;
+import hr.clientreferraltrackingsystem.repository.database.row.DisplayStrings;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository class for managing Reward entities in the {@code reward} table.
+ * <p>
+ * Rewards are loaded together with their referral graph from a single joined query.
+ * Lookups by referrer use the referral's foreign key index, and the date and amount
+ * range queries use the indexes created by the {@code V3__add_reward_indexes} migration.
+ * <p>
+ * The rewards of one referrer are answered from the shared reward cache through the index of
+ * reward IDs by referrer, which this repository keeps current on save, update and delete.
+ */
+public class RewardDatabaseRepository extends AbstractRepository<Reward> {
+    private static Logger logger = LoggerFactory.getLogger(RewardDatabaseRepository.class);
+    static final String REWARD_SELECT = "SELECT w.id AS w_id, w.description AS w_description, " +
+            "w.issued_date AS w_issued_date, w.amount AS w_amount, " + ReferralGraphMapper.REFERRAL_GRAPH_COLUMNS +
+            " FROM reward w JOIN referral r ON r.id = w.referral_id " + ReferralGraphMapper.REFERRAL_GRAPH_JOINS;
+    private static final String REWARD_ROW_SELECT = "SELECT w.id AS w_id, w.description AS w_description, " +
+            "w.issued_date AS w_issued_date, w.amount AS w_amount, c.first_name AS c_first_name, c.last_name AS c_last_name " +
+            "FROM reward w JOIN referral r ON r.id = w.referral_id JOIN referred_client c ON c.id = r.referred_client_id";
+    private static final String REWARD_ORDER_BY = " ORDER BY w.issued_date, w.id";
+    private static final Comparator<Reward> REWARD_ORDER =
+            Comparator.comparing(Reward::getRewardDate).thenComparing(Reward::getId);
+
+    private final DatabaseManager databaseManager;
+
+    /**
+     * Constructs a RewardDatabaseRepository instance.
+     */
+    public RewardDatabaseRepository() {
+        this.databaseManager = new DatabaseManager();
+    }
+
+    /**
+     * Finds all rewards for referrals made by the given referrer. Once the referrer's reward IDs
+     * are indexed, the rewards are answered from the cache; the database is only queried when
+     * the referrer is not indexed yet, their index entry has expired, or one of their rewards has
+     * been dropped from the cache.
+     *
+     * @param id the ID of the referrer
+     * @return list of rewards associated with the referrer, ordered by issue date
+     */
+    @Override
+    public List<Reward> findAllById(Integer id) {
+        Optional<List<Reward>> cached = findCachedByReferrer(id);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        long modificationCount = EntityCaches.rewardsByReferrer().modificationCount();
+        CacheLoad load = EntityCaches.startLoad();
+        SqlConditions conditions = new SqlConditions();
+        conditions.add("r.referrer_user_id = ?", id);
+        try {
+            List<Reward> rewards = queryWhere(conditions, load);
+            rewards.forEach(load::putReward);
+            EntityCaches.rewardsByReferrer().load(id, rewards.stream().map(Reward::getId).toList(), modificationCount);
+            return rewards;
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading rewards by referrer from database", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Finds all rewards.
+     *
+     * @return list of all rewards, ordered by issue date
+     */
+    @Override
+    public List<Reward> findAll() {
+        return findWhere(new SqlConditions(), "Error occurred while reading rewards from database");
+    }
+
+    /**
+     * Finds a reward by its ID, answering from the shared reward cache when possible.
+     *
+     * @param id the ID of the reward
+     * @return an Optional containing the reward, or empty if it does not exist
+     */
+    public Optional<Reward> findById(Integer id) {
+        Optional<Reward> cached = EntityCaches.rewards().get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        CacheLoad load = EntityCaches.startLoad();
+        SqlConditions conditions = new SqlConditions();
+        conditions.add("w.id = ?", id);
+        List<Reward> rewards = findWhere(conditions, load, "Error occurred while reading reward by id from database");
+        rewards.forEach(load::putReward);
+        return rewards.stream().findFirst();
+    }
+
+    /**
+     * Finds the display rows of all rewards. Only the displayed columns are read, and no
+     * reward, referral, user or client objects are built.
+     *
+     * @return list of all reward rows, ordered by issue date
+     */
+    public List<RewardRow> findAllRows() {
+        List<RewardRow> rows = new ArrayList<>();
+        DisplayStrings strings = new DisplayStrings();
+        try (Connection connection = databaseManager.connectToDatabase(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REWARD_ROW_SELECT + REWARD_ORDER_BY)) {
+            while (resultSet.next()) {
+                rows.add(RewardRow.of(strings,
+                        resultSet.getInt("w_id"),
+                        resultSet.getString("c_first_name"),
+                        resultSet.getString("c_last_name"),
+                        resultSet.getString("w_description"),
+                        resultSet.getBigDecimal("w_amount"),
+                        resultSet.getDate("w_issued_date").toLocalDate().atStartOfDay()));
+            }
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading reward rows from database", e);
+        }
+        return rows;
+    }
+
+    /**
+     * Finds all rewards issued within the given date range.
+     *
+     * @param from the first issue date to include, or null for no lower bound
+     * @param to   the last issue date to include, or null for no upper bound
+     * @return list of matching rewards, ordered by issue date
+     */
+    public List<Reward> findAllByIssuedDateBetween(LocalDate from, LocalDate to) {
+        SqlConditions conditions = new SqlConditions();
+        if (from != null) {
+            conditions.add("w.issued_date >= ?", Date.valueOf(from));
+        }
+        if (to != null) {
+            conditions.add("w.issued_date <= ?", Date.valueOf(to));
+        }
+        return findWhere(conditions, "Error occurred while reading rewards by issue date from database");
+    }
+
+    /**
+     * Finds all rewards whose amount lies within the given range.
+     *
+     * @param min the smallest amount to include, or null for no lower bound
+     * @param max the largest amount to include, or null for no upper bound
+     * @return list of matching rewards, ordered by issue date
+     */
+    public List<Reward> findAllByAmountBetween(BigDecimal min, BigDecimal max) {
+        SqlConditions conditions = new SqlConditions();
+        if (min != null) {
+            conditions.add("w.amount >= ?", min);
+        }
+        if (max != null) {
+            conditions.add("w.amount <= ?", max);
+        }
+        return findWhere(conditions, "Error occurred while reading rewards by amount from database");
+    }
+
+    /**
+     * Saves a new reward and assigns the generated ID to it.
+     *
+     * @param entity the reward to save
+     */
+    @Override
+    public void save(Reward entity) {
+        try (Connection connection = databaseManager.connectToDatabase()) {
+            insert(connection, entity);
+            EntityCaches.rewardAdded(entity);
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while saving reward to database", e);
+        }
+    }
+
+    /**
+     * Updates the description, amount and issue date of an existing reward.
+     *
+     * @param entity the reward with updated data
+     */
+    @Override
+    public void update(Reward entity) {
+        String rewardQueryUpdate = "UPDATE reward SET description = ?, amount = ?, issued_date = ? WHERE id = ?";
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement(rewardQueryUpdate)) {
+            statement.setString(1, entity.getDescription());
+            statement.setBigDecimal(2, entity.getValue());
+            statement.setDate(3, Date.valueOf(entity.getRewardDate().toLocalDate()));
+            statement.setInt(4, entity.getId());
+            statement.executeUpdate();
+            EntityCaches.rewardChanged(entity.getId());
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while updating reward in database", e);
+        }
+    }
+
+    /**
+     * Deletes a reward.
+     *
+     * @param entity the reward to delete
+     */
+    @Override
+    public void delete(Reward entity) {
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement("DELETE FROM reward WHERE id = ?")) {
+            statement.setInt(1, entity.getId());
+            statement.executeUpdate();
+            EntityCaches.rewardDeleted(entity.getId());
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while deleting reward from database", e);
+        }
+    }
+
+    /**
+     * Checks whether the reward table holds any rows.
+     *
+     * @return true if there are no rewards
+     * @throws IOException  if the database configuration cannot be read
+     * @throws SQLException if the query fails
+     */
+    public boolean isEmpty() throws IOException, SQLException {
+        try (Connection connection = databaseManager.connectToDatabase(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT 1 FROM reward LIMIT 1")) {
+            return !resultSet.next();
+        }
+    }
+
+    /**
+     * Opens an importer that inserts rewards with their existing IDs in a single transaction.
+     *
+     * @return the importer; it must be closed
+     * @throws IOException  if the database configuration cannot be read
+     * @throws SQLException if the connection cannot be prepared
+     */
+    public RewardImporter openImporter() throws IOException, SQLException {
+        return new RewardImporter(databaseManager.connectToDatabase());
+    }
+
+    /**
+     * Inserts a reward on the given connection and assigns the generated ID to it.
+     * Used directly when the insert has to share a transaction with other statements.
+     *
+     * @param connection the connection to insert on
+     * @param reward     the reward to insert
+     * @throws SQLException if the insert fails
+     */
+    static void insert(Connection connection, Reward reward) throws SQLException {
+        String rewardQuerySave = "INSERT INTO reward (referral_id, description, issued_date, amount) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement statement = connection.prepareStatement(rewardQuerySave, Statement.RETURN_GENERATED_KEYS)) {
+            statement.setInt(1, reward.getReferral().getId());
+            statement.setString(2, reward.getDescription());
+            statement.setDate(3, Date.valueOf(reward.getRewardDate().toLocalDate()));
+            statement.setBigDecimal(4, reward.getValue());
+            statement.executeUpdate();
+
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    reward.setId(generatedKeys.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects a referrer's rewards from the cache through the reward index.
+     *
+     * @param referrerId the ID of the referrer
+     * @return the referrer's rewards ordered by issue date, or empty if the referrer is not
+     *         indexed or any of their rewards is no longer cached
+     */
+    private Optional<List<Reward>> findCachedByReferrer(Integer referrerId) {
+        Optional<List<Integer>> rewardIds = EntityCaches.rewardsByReferrer().get(referrerId);
+        if (rewardIds.isEmpty()) {
+            return Optional.empty();
+        }
+
+        List<Reward> rewards = new ArrayList<>(rewardIds.get().size());
+        for (Integer rewardId : rewardIds.get()) {
+            Optional<Reward> reward = EntityCaches.rewards().get(rewardId);
+            if (reward.isEmpty()) {
+                return Optional.empty();
+            }
+            rewards.add(reward.get());
+        }
+        rewards.sort(REWARD_ORDER);
+        return Optional.of(rewards);
+    }
+
+    private List<Reward> findWhere(SqlConditions conditions, String errorMessage) {
+        return findWhere(conditions, EntityCaches.startLoad(), errorMessage);
+    }
+
+    private List<Reward> findWhere(SqlConditions conditions, CacheLoad load, String errorMessage) {
+        try {
+            return queryWhere(conditions, load);
+        } catch (IOException | SQLException e) {
+            logger.error(errorMessage, e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads the rewards matching the conditions with their referral graphs.
+     *
+     * @param conditions the conditions on the reward query
+     * @param load       the cache load started before the query, which the referral graphs are interned through
+     * @return the matching rewards, ordered by issue date
+     */
+    private List<Reward> queryWhere(SqlConditions conditions, CacheLoad load) throws IOException, SQLException {
+        List<Reward> rewards = new ArrayList<>();
+        ReferralGraphMapper mapper = new ReferralGraphMapper(load);
+        String rewardQuery = REWARD_SELECT + conditions.toWhereClause() + REWARD_ORDER_BY;
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement(rewardQuery)) {
+            conditions.bind(statement);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rewards.add(new Reward.Builder()
+                            .id(resultSet.getInt("w_id"))
+                            .referral(mapper.map(resultSet))
+                            .description(resultSet.getString("w_description"))
+                            .rewardDate(resultSet.getDate("w_issued_date").toLocalDate().atStartOfDay())
+                            .value(resultSet.getBigDecimal("w_amount"))
+                            .build());
+                }
+            }
+        }
+        return rewards;
+    }
+}
@@ -0,0 +1,162 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+
+/**
+ * Streams rewards with their existing IDs into the {@code reward} table within one transaction.
+ * <p>
+ * The source is replayed record by record: a reward that is put again replaces its earlier
+ * row and a deleted reward is removed. Rows are sent in JDBC batches as they arrive, so the
+ * whole source never has to be held in memory; a batch of puts is executed before the first
+ * following delete and the other way round, keeping the records in order. Rewards whose
+ * referral no longer exists are skipped. Nothing becomes visible until {@link #commit()} is
+ * called; closing the importer without committing rolls back.
+ */
+public class RewardImporter implements AutoCloseable {
+    private static final int BATCH_SIZE = 500;
+    private static final String PUT_QUERY = "MERGE INTO reward (id, referral_id, description, issued_date, amount) KEY (id) " +
+            "SELECT ?, r.id, ?, ?, ? FROM referral r WHERE r.id = ?";
+    private static final String DELETE_QUERY = "DELETE FROM reward WHERE id = ?";
+
+    private final Connection connection;
+    private final PreparedStatement putStatement;
+    private final PreparedStatement deleteStatement;
+    private int pendingPuts;
+    private int pendingDeletes;
+    private int skipped;
+    private int maxId;
+    private boolean committed;
+
+    /**
+     * Starts an import on the given connection, which is closed together with the importer.
+     *
+     * @param connection the connection to import on
+     * @throws SQLException if the transaction or the statement cannot be prepared
+     */
+    RewardImporter(Connection connection) throws SQLException {
+        this.connection = connection;
+        try {
+            connection.setAutoCommit(false);
+            this.putStatement = connection.prepareStatement(PUT_QUERY);
+            this.deleteStatement = connection.prepareStatement(DELETE_QUERY);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Queues one reward for insertion, replacing an earlier reward with the same ID.
+     *
+     * @param id          the reward ID to keep
+     * @param referralId  the ID of the rewarded referral
+     * @param description the reward description
+     * @param issuedDate  the date the reward was issued
+     * @param amount      the reward value
+     * @throws SQLException if a batch cannot be executed
+     */
+    public void put(Integer id, Integer referralId, String description, LocalDate issuedDate, BigDecimal amount)
+            throws SQLException {
+        flushDeletes();
+        putStatement.setInt(1, id);
+        putStatement.setString(2, description);
+        putStatement.setDate(3, Date.valueOf(issuedDate));
+        putStatement.setBigDecimal(4, amount);
+        putStatement.setInt(5, referralId);
+        putStatement.addBatch();
+        maxId = Math.max(maxId, id);
+        if (++pendingPuts == BATCH_SIZE) {
+            flushPuts();
+        }
+    }
+
+    /**
+     * Queues the removal of a reward put earlier.
+     *
+     * @param id the ID of the deleted reward
+     * @throws SQLException if a batch cannot be executed
+     */
+    public void delete(int id) throws SQLException {
+        flushPuts();
+        deleteStatement.setInt(1, id);
+        deleteStatement.addBatch();
+        if (++pendingDeletes == BATCH_SIZE) {
+            flushDeletes();
+        }
+    }
+
+    /**
+     * Executes the remaining batches, moves the ID sequence past the imported IDs and commits.
+     *
+     * @return the number of imported rewards
+     * @throws SQLException if the import cannot be completed
+     */
+    public int commit() throws SQLException {
+        flushPuts();
+        flushDeletes();
+        int imported;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE reward ALTER COLUMN id RESTART WITH " + (maxId + 1));
+            try (ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM reward")) {
+                resultSet.next();
+                imported = resultSet.getInt(1);
+            }
+        }
+        connection.commit();
+        committed = true;
+        EntityCaches.rewardsReplaced();
+        return imported;
+    }
+
+    /**
+     * Returns the number of reward records skipped because their referral does not exist.
+     *
+     * @return the number of skipped records
+     */
+    public int getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Rolls back unless the import was committed and closes the connection.
+     *
+     * @throws SQLException if the rollback or the close fails
+     */
+    @Override
+    public void close() throws SQLException {
+        try (connection; putStatement; deleteStatement) {
+            if (!committed) {
+                connection.rollback();
+            }
+        }
+    }
+
+    private void flushPuts() throws SQLException {
+        if (pendingPuts == 0) {
+            return;
+        }
+        for (int count : putStatement.executeBatch()) {
+            if (count == 0) {
+                skipped++;
+            }
+        }
+        pendingPuts = 0;
+    }
+
+    private void flushDeletes() throws SQLException {
+        if (pendingDeletes == 0) {
+            return;
+        }
+        deleteStatement.executeBatch();
+        pendingDeletes = 0;
+    }
+}
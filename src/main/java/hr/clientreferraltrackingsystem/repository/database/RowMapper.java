@@ -0,0 +1,22 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a result set to an object.
+ *
+ * @param <T> the type of the mapped object
+ */
+@FunctionalInterface
+interface RowMapper<T> {
+
+    /**
+     * Maps the row the result set is positioned at.
+     *
+     * @param resultSet the result set positioned at the row to map
+     * @return the mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    T map(ResultSet resultSet) throws SQLException;
+}
@@ -0,0 +1,68 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.repository.cache.SearchIndexes;
+import hr.clientreferraltrackingsystem.repository.cache.TrigramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process-wide background refresh of the shared search indexes.
+ * <p>
+ * A single background thread loads each index on its first run and afterwards reads the rows
+ * whose {@code search_version} has advanced since, so rows inserted or updated by other
+ * processes sharing the database are found within a few seconds. Searches never wait for a
+ * refresh; they scan instead while an index is not loaded or has missed too many refreshes.
+ */
+public class SearchIndexRefresher {
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexRefresher.class);
+
+    private static final long REFRESH_INTERVAL_SECONDS = 5;
+
+    private static ScheduledExecutorService refresher;
+
+    private SearchIndexRefresher() {}
+
+    /**
+     * Starts refreshing the search indexes in the background, unless it is already running.
+     */
+    public static synchronized void start() {
+        if (refresher == null) {
+            refresher = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofVirtual().name("search-index-refresher").factory());
+            refresher.scheduleWithFixedDelay(SearchIndexRefresher::refreshAll,
+                    0, REFRESH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Stops the background refresh. The indexes stay in use until they are older than their maximum age.
+     */
+    public static synchronized void shutdown() {
+        if (refresher != null) {
+            refresher.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    /**
+     * Refreshes every search index once on the calling thread.
+     */
+    static void refreshAll() {
+        refresh(SearchIndexes.clients(), ClientsDatabaseRepository::loadSearchRows);
+        refresh(SearchIndexes.users(), UserDatabaseRepository::loadSearchRows);
+    }
+
+    private static void refresh(TrigramIndex index, TrigramIndex.Loader loader) {
+        try {
+            index.refresh(loader);
+        } catch (IOException | SQLException | RuntimeException e) {
+            logger.error("Error occurred while refreshing search index {}", index.describe(), e);
+        }
+    }
+}
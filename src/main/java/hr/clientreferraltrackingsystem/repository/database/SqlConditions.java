@@ -0,0 +1,115 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.repository.cache.TrigramIndex;
+import hr.clientreferraltrackingsystem.repository.database.query.KeysetCursor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Collects parameterized conditions for a WHERE clause together with their bind values.
+ */
+class SqlConditions {
+    private final List<String> conditions = new ArrayList<>();
+    private final List<Object> parameters = new ArrayList<>();
+
+    /**
+     * Adds a condition whose placeholders are bound to the given values, in order.
+     *
+     * @param condition  the SQL condition, using {@code ?} placeholders
+     * @param parameters the values bound to the placeholders
+     * @return this instance
+     */
+    SqlConditions add(String condition, Object... parameters) {
+        conditions.add(condition);
+        this.parameters.addAll(List.of(parameters));
+        return this;
+    }
+
+    /**
+     * Adds a condition matching rows where the column contains the given text, ignoring case.
+     * Null or blank text adds no condition. LIKE wildcards in the text are matched literally.
+     *
+     * @param column the column or expression to search
+     * @param text   the text to look for
+     * @return this instance
+     */
+    SqlConditions addContains(String column, String text) {
+        if (text == null || text.isBlank()) {
+            return this;
+        }
+        String escaped = text.toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return add("LOWER(" + column + ") LIKE ? ESCAPE '\\'", "%" + escaped + "%");
+    }
+
+    /**
+     * Adds a condition matching rows where the column contains the given text, ignoring case,
+     * and restricts the rows to the candidates found by the search index if it can narrow the
+     * search down.
+     *
+     * @param column   the column or expression to search
+     * @param text     the text to look for
+     * @param idColumn the ID column of the indexed rows
+     * @param index    the search index over the column
+     * @param field    the field of the column in the index
+     * @return this instance
+     */
+    SqlConditions addContains(String column, String text, String idColumn, TrigramIndex index, int field) {
+        if (text == null || text.isBlank()) {
+            return this;
+        }
+        Optional<int[]> candidates = index.search(field, text);
+        if (candidates.isPresent()) {
+            add(idColumn + " = ANY(?)", (Object) Arrays.stream(candidates.get()).boxed().toArray(Integer[]::new));
+        }
+        return addContains(column, text);
+    }
+
+    /**
+     * Adds a keyset condition that only matches rows positioned after the given cursor.
+     *
+     * @param sortColumn the column the rows are ordered by
+     * @param idColumn   the ID column that breaks ties between equal sort values
+     * @param descending whether the rows are ordered descending
+     * @param cursor     the position of the last row already read, or null to add no condition
+     * @return this instance
+     */
+    SqlConditions addAfter(String sortColumn, String idColumn, boolean descending, KeysetCursor cursor) {
+        if (cursor == null) {
+            return this;
+        }
+        return add("(" + sortColumn + ", " + idColumn + ") " + (descending ? "<" : ">") + " (?, ?)",
+                cursor.sortValue(), cursor.id());
+    }
+
+    /**
+     * Returns the WHERE clause joining all conditions with AND.
+     *
+     * @return the WHERE clause with a leading space, or an empty string if there are no conditions
+     */
+    String toWhereClause() {
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Binds the collected values to the statement, starting at the first parameter.
+     *
+     * @param statement the statement prepared from a query containing {@link #toWhereClause()}
+     * @return the index of the next unbound parameter
+     * @throws SQLException if a value cannot be bound
+     */
+    int bind(PreparedStatement statement) throws SQLException {
+        int index = 1;
+        for (Object parameter : parameters) {
+            statement.setObject(index++, parameter);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,10 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+/**
+ * The stored credentials of a user, loaded without the rest of the user's data.
+ *
+ * @param userId       the ID of the user
+ * @param passwordHash the user's BCrypt password hash
+ */
+public record UserCredentials(Integer userId, String passwordHash) {
+}
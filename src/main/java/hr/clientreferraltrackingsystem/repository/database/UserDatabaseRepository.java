@@ -2,12 +2,24 @@ package hr.clientreferraltrackingsystem.repository.database;
 
 import hr.clientreferraltrackingsystem.enumeration.Role;
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.CacheLoad;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.cache.SearchIndexes;
+import hr.clientreferraltrackingsystem.repository.cache.TrigramIndex;
+import hr.clientreferraltrackingsystem.repository.database.query.KeysetCursor;
+import hr.clientreferraltrackingsystem.repository.database.query.Page;
+import hr.clientreferraltrackingsystem.repository.database.query.UserQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.UserSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.UserRow;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -16,6 +28,13 @@ import java.util.Set;
  */
 public class UserDatabaseRepository {
     private static Logger logger = LoggerFactory.getLogger(UserDatabaseRepository.class);
+    static final String SEARCH_ROWS_QUERY =
+            "SELECT id, search_version, first_name, last_name, email, phone_number, username " +
+            "FROM users WHERE search_version > ?";
+    private static final String USERS_SELECT =
+            "SELECT id, username, password, email, first_name, last_name, phone_number, role FROM users";
+    private static final String USER_ROW_SELECT =
+            "SELECT id, username, email, first_name, last_name, phone_number, role FROM users";
 
     private final DatabaseManager databaseManager;
 
@@ -27,26 +46,134 @@ public class UserDatabaseRepository {
     }
 
     /**
-     * Finds a user by their username.
+     * Finds a user by their username using the unique username index.
      *
      * @param username the username to search for
      * @return an Optional containing the found User or empty if not found
      */
     public Optional<User> findByUsername(String username) {
-        return findAll()
-                .stream()
-                .filter(user -> user.getUsername().equals(username))
-                .findFirst();
+        String usersQueryFindByUsername = USERS_SELECT + " WHERE username = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement usersStatement = connection.prepareStatement(usersQueryFindByUsername)) {
+
+            usersStatement.setString(1, username);
+
+            try (ResultSet resultSet = usersStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(extractUserFromResultSet(resultSet));
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading user by username from database", e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Finds only the ID and password hash of the user with the given username, using the
+     * unique username index. Used for authentication, which needs nothing else until the
+     * password has been verified.
+     *
+     * @param username the username to search for
+     * @return an Optional containing the user's credentials or empty if there is no such user
+     */
+    public Optional<UserCredentials> findCredentialsByUsername(String username) {
+        String credentialsQuery = "SELECT id, password FROM users WHERE username = ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement(credentialsQuery)) {
+
+            statement.setString(1, username);
+
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (resultSet.next()) {
+                    return Optional.of(new UserCredentials(resultSet.getInt("id"), resultSet.getString("password")));
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading user credentials from database", e);
+        }
+
+        return Optional.empty();
     }
 
     /**
-     * Finds a user by their ID.
+     * Finds a user by their ID, answering from the shared entity cache when possible
+     * and otherwise using the primary key.
      *
      * @param id the user ID
      * @return an Optional containing the found User or empty if not found
      */
     public Optional<User> findById(Integer id) {
-        return findAll().stream().filter(user -> user.getId().equals(id)).findFirst();
+        Optional<User> cached = EntityCaches.users().get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+
+        String usersQueryFindById = USERS_SELECT + " WHERE id = ?";
+        CacheLoad load = EntityCaches.startLoad();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement usersStatement = connection.prepareStatement(usersQueryFindById)) {
+
+            usersStatement.setInt(1, id);
+
+            try (ResultSet resultSet = usersStatement.executeQuery()) {
+                if (resultSet.next()) {
+                    User user = extractUserFromResultSet(resultSet);
+                    load.putUser(user);
+                    return Optional.of(user);
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading user by id from database", e);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Finds all users with the given IDs. Cached users are returned directly and the
+     * remaining IDs are resolved in a single query.
+     *
+     * @param ids the user IDs to look up
+     * @return a Set of the users that exist; missing IDs are skipped
+     */
+    public Set<User> findAllByIds(Collection<Integer> ids) {
+        Set<User> users = new HashSet<>();
+        List<Integer> missingIds = new ArrayList<>();
+        for (Integer id : ids) {
+            EntityCaches.users().get(id).ifPresentOrElse(users::add, () -> missingIds.add(id));
+        }
+        if (missingIds.isEmpty()) {
+            return users;
+        }
+        String usersQueryFindAllByIds = USERS_SELECT + " WHERE id = ANY(?)";
+        CacheLoad load = EntityCaches.startLoad();
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement usersStatement = connection.prepareStatement(usersQueryFindAllByIds)) {
+
+            usersStatement.setArray(1, connection.createArrayOf("INTEGER", missingIds.toArray()));
+
+            try (ResultSet resultSet = usersStatement.executeQuery()) {
+                while (resultSet.next()) {
+                    User user = extractUserFromResultSet(resultSet);
+                    load.putUser(user);
+                    users.add(user);
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading users by ids from database", e);
+        }
+
+        return users;
     }
 
     /**
@@ -56,7 +183,8 @@ public class UserDatabaseRepository {
      */
     public Set<User> findAll() {
         Set<User> users = new HashSet<>();
-        String usersQueryFindAll = "SELECT id, username, password, email, first_name, last_name, phone_number, role FROM users";
+        String usersQueryFindAll = USERS_SELECT;
+        CacheLoad load = EntityCaches.startLoad();
 
         try (Connection connection = databaseManager.connectToDatabase();
              Statement usersStatement = connection.createStatement();
@@ -64,6 +192,7 @@ public class UserDatabaseRepository {
 
             while (resultSet.next()) {
                 User user = extractUserFromResultSet(resultSet);
+                load.putUser(user);
                 users.add(user);
             }
 
@@ -74,6 +203,124 @@ public class UserDatabaseRepository {
         return users;
     }
 
+    /**
+     * Retrieves one page of users matching the filter, using keyset pagination.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the users
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of users on the page
+     * @return the page of users and the cursor for the next page
+     */
+    public Page<User> findPage(UserQuery filter, UserSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        CacheLoad load = EntityCaches.startLoad();
+        return readPage(USERS_SELECT, filter, sortKey, afterCursor, limit, resultSet -> {
+            User user = extractUserFromResultSet(resultSet);
+            load.putUser(user);
+            return user;
+        });
+    }
+
+    /**
+     * Retrieves one page of user display rows matching the filter, using keyset pagination.
+     * Only the displayed columns are read; in particular, password hashes are not loaded.
+     *
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @return the page of rows and the cursor for the next page
+     */
+    public Page<UserRow> findRowPage(UserQuery filter, UserSortKey sortKey, KeysetCursor afterCursor, int limit) {
+        return readPage(USER_ROW_SELECT, filter, sortKey, afterCursor, limit, resultSet -> UserRow.of(
+                resultSet.getInt("id"),
+                resultSet.getString("first_name"),
+                resultSet.getString("last_name"),
+                resultSet.getString("email"),
+                resultSet.getString("phone_number"),
+                resultSet.getString("username"),
+                Role.valueOf(resultSet.getString("role"))));
+    }
+
+    /**
+     * Reads one page of the given user query, keyed on the sort column and the user's ID.
+     *
+     * @param select      the select statement reading from the {@code users} table
+     * @param filter      the filter criteria
+     * @param sortKey     the order of the rows
+     * @param afterCursor the cursor returned with the previous page, or null for the first page
+     * @param limit       the maximum number of rows on the page
+     * @param mapper      maps a result row to a page item
+     * @param <T>         the type of the page items
+     * @return the page and the cursor for the next page
+     */
+    private <T> Page<T> readPage(String select, UserQuery filter, UserSortKey sortKey,
+                                 KeysetCursor afterCursor, int limit, RowMapper<T> mapper) {
+        List<T> items = new ArrayList<>();
+        KeysetCursor nextCursor = null;
+
+        SqlConditions conditions = new SqlConditions();
+        if (filter.getRole() != null) {
+            conditions.add("role = ?", filter.getRole().name());
+        }
+        conditions.addContains("first_name", filter.getFirstName(), "id", SearchIndexes.users(), SearchIndexes.USER_FIRST_NAME)
+                .addContains("last_name", filter.getLastName(), "id", SearchIndexes.users(), SearchIndexes.USER_LAST_NAME)
+                .addContains("email", filter.getEmail(), "id", SearchIndexes.users(), SearchIndexes.USER_EMAIL)
+                .addContains("phone_number", filter.getPhoneNumber(), "id", SearchIndexes.users(), SearchIndexes.USER_PHONE_NUMBER)
+                .addContains("username", filter.getUsername(), "id", SearchIndexes.users(), SearchIndexes.USER_USERNAME)
+                .addAfter(sortKey.getSortColumn(), "id", sortKey.isDescending(), afterCursor);
+        String direction = sortKey.isDescending() ? " DESC" : " ASC";
+        String usersQueryFindPage = select + conditions.toWhereClause() +
+                " ORDER BY " + sortKey.getSortColumn() + direction + ", id" + direction + " LIMIT ?";
+
+        try (Connection connection = databaseManager.connectToDatabase();
+             PreparedStatement usersStatement = connection.prepareStatement(usersQueryFindPage)) {
+
+            int limitIndex = conditions.bind(usersStatement);
+            usersStatement.setInt(limitIndex, limit + 1);
+
+            try (ResultSet resultSet = usersStatement.executeQuery()) {
+                KeysetCursor lastRow = null;
+                while (resultSet.next()) {
+                    if (items.size() == limit) {
+                        nextCursor = lastRow;
+                        break;
+                    }
+                    items.add(mapper.map(resultSet));
+                    lastRow = new KeysetCursor(resultSet.getObject(sortKey.getColumnLabel()), resultSet.getInt("id"));
+                }
+            }
+
+        } catch (IOException | SQLException e) {
+            logger.error("Error occurred while reading page of users from database", e);
+        }
+
+        return new Page<>(items, nextCursor);
+    }
+
+    /**
+     * Reads the users for the shared user search index.
+     *
+     * @param rows         the sink indexing the rows
+     * @param afterVersion the highest search version already indexed; 0 to read all users
+     * @throws IOException  if the database configuration cannot be read
+     * @throws SQLException if the users cannot be read
+     */
+    static void loadSearchRows(TrigramIndex.RowSink rows, long afterVersion) throws IOException, SQLException {
+        try (Connection connection = new DatabaseManager().connectToDatabase();
+             PreparedStatement statement = connection.prepareStatement(SEARCH_ROWS_QUERY)) {
+            statement.setLong(1, afterVersion);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    rows.add(resultSet.getInt("id"), resultSet.getLong("search_version"),
+                            resultSet.getString("first_name"), resultSet.getString("last_name"),
+                            resultSet.getString("email"), resultSet.getString("phone_number"),
+                            resultSet.getString("username"));
+                }
+            }
+        }
+    }
+
     /**
      * Saves a new user to the database.
      *
@@ -84,7 +331,7 @@ public class UserDatabaseRepository {
                 "INSERT INTO users (username, password, email, first_name, last_name, phone_number, role) VALUES (?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection connection = databaseManager.connectToDatabase();
-             PreparedStatement usersPreparedStatement = connection.prepareStatement(usersQuerySave)) {
+             PreparedStatement usersPreparedStatement = connection.prepareStatement(usersQuerySave, Statement.RETURN_GENERATED_KEYS)) {
 
             usersPreparedStatement.setString(1, entity.getUsername());
             usersPreparedStatement.setString(2, entity.getPassword());
@@ -95,6 +342,13 @@ public class UserDatabaseRepository {
             usersPreparedStatement.setString(7, entity.getRole().toString());
 
             usersPreparedStatement.executeUpdate();
+
+            try (ResultSet generatedKeys = usersPreparedStatement.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    SearchIndexes.users().add(generatedKeys.getInt(1), entity.getFirstName(),
+                            entity.getLastName(), entity.getEmail(), entity.getPhoneNumber(), entity.getUsername());
+                }
+            }
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while saving users to database", e);
         }
@@ -114,6 +368,8 @@ public class UserDatabaseRepository {
             usersPreparedStatement.setInt(1, id);
 
             usersPreparedStatement.executeUpdate();
+            EntityCaches.userChanged(id);
+            SearchIndexes.users().remove(id);
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while deleting user from database", e);
         }
@@ -140,6 +396,9 @@ public class UserDatabaseRepository {
             usersPreparedStatement.setInt(8, entity.getId());
 
             usersPreparedStatement.executeUpdate();
+            EntityCaches.userChanged(entity.getId());
+            SearchIndexes.users().update(entity.getId(), entity.getFirstName(),
+                    entity.getLastName(), entity.getEmail(), entity.getPhoneNumber(), entity.getUsername());
 
         } catch (IOException | SQLException e) {
             logger.error("Error occurred while updating user in database", e);
@@ -154,14 +413,28 @@ public class UserDatabaseRepository {
      * @throws SQLException if a database access error occurs
      */
     private User extractUserFromResultSet(ResultSet resultSet) throws SQLException {
-        Integer id = resultSet.getInt("id");
-        String username = resultSet.getString("username");
-        String password = resultSet.getString("password");
-        String email = resultSet.getString("email");
-        String firstName = resultSet.getString("first_name");
-        String lastName = resultSet.getString("last_name");
-        String phoneNumber = resultSet.getString("phone_number");
-        Role role = Role.valueOf(resultSet.getString("role"));
+        return extractUserFromResultSet(resultSet, "");
+    }
+
+    /**
+     * Extracts a User entity from the current row of the given ResultSet, reading
+     * columns whose labels start with the given prefix. Used by joined queries that
+     * select user columns under an alias such as {@code u_first_name}.
+     *
+     * @param resultSet    the ResultSet positioned at the current row
+     * @param columnPrefix the prefix of the user column labels
+     * @return a User entity populated with data from the ResultSet
+     * @throws SQLException if a database access error occurs
+     */
+    static User extractUserFromResultSet(ResultSet resultSet, String columnPrefix) throws SQLException {
+        Integer id = resultSet.getInt(columnPrefix + "id");
+        String username = resultSet.getString(columnPrefix + "username");
+        String password = resultSet.getString(columnPrefix + "password");
+        String email = resultSet.getString(columnPrefix + "email");
+        String firstName = resultSet.getString(columnPrefix + "first_name");
+        String lastName = resultSet.getString(columnPrefix + "last_name");
+        String phoneNumber = resultSet.getString(columnPrefix + "phone_number");
+        Role role = Role.valueOf(resultSet.getString(columnPrefix + "role"));
 
         return new User.UserBuilder()
                 .id(id)
@@ -0,0 +1,200 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+/**
+ * Filter criteria for loading clients. Criteria that are not set do not restrict the result.
+ */
+public class ClientQuery {
+    private final Integer createdByUserId;
+    private final Boolean currentlyRecommended;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phoneNumber;
+    private final String createdByFullName;
+
+    /**
+     * Constructs a ClientQuery instance using the Builder pattern.
+     *
+     * @param builder the builder containing the filter criteria
+     */
+    private ClientQuery(Builder builder) {
+        this.createdByUserId = builder.createdByUserId;
+        this.currentlyRecommended = builder.currentlyRecommended;
+        this.firstName = builder.firstName;
+        this.lastName = builder.lastName;
+        this.email = builder.email;
+        this.phoneNumber = builder.phoneNumber;
+        this.createdByFullName = builder.createdByFullName;
+    }
+
+    /**
+     * Returns a query that matches every client.
+     *
+     * @return an empty query
+     */
+    public static ClientQuery all() {
+        return new Builder().build();
+    }
+
+    /**
+     * Builder class for constructing ClientQuery instances.
+     */
+    public static class Builder {
+        private Integer createdByUserId;
+        private Boolean currentlyRecommended;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private String phoneNumber;
+        private String createdByFullName;
+
+        /**
+         * Restricts the query to clients created by the given user.
+         *
+         * @param createdByUserId the ID of the creating user
+         * @return the builder instance
+         */
+        public Builder createdByUserId(Integer createdByUserId) {
+            this.createdByUserId = createdByUserId;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose recommendation flag has the given value.
+         *
+         * @param currentlyRecommended whether the client is currently recommended
+         * @return the builder instance
+         */
+        public Builder currentlyRecommended(Boolean currentlyRecommended) {
+            this.currentlyRecommended = currentlyRecommended;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose first name contains the given text, ignoring case.
+         *
+         * @param firstName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder firstName(String firstName) {
+            this.firstName = firstName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose last name contains the given text, ignoring case.
+         *
+         * @param lastName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder lastName(String lastName) {
+            this.lastName = lastName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose e-mail contains the given text, ignoring case.
+         *
+         * @param email the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose phone number contains the given text, ignoring case.
+         *
+         * @param phoneNumber the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder phoneNumber(String phoneNumber) {
+            this.phoneNumber = phoneNumber;
+            return this;
+        }
+
+        /**
+         * Restricts the query to clients whose creator has the given full name.
+         *
+         * @param createdByFullName the creator's first and last name separated by a space
+         * @return the builder instance
+         */
+        public Builder createdByFullName(String createdByFullName) {
+            this.createdByFullName = createdByFullName;
+            return this;
+        }
+
+        /**
+         * Builds the ClientQuery instance.
+         *
+         * @return the constructed ClientQuery
+         */
+        public ClientQuery build() {
+            return new ClientQuery(this);
+        }
+    }
+
+    /**
+     * Returns the ID of the user whose clients are matched.
+     *
+     * @return the ID of the creating user, or null if not restricted
+     */
+    public Integer getCreatedByUserId() {
+        return createdByUserId;
+    }
+
+    /**
+     * Returns the recommendation flag that matched clients must have.
+     *
+     * @return the required recommendation flag, or null if not restricted
+     */
+    public Boolean getCurrentlyRecommended() {
+        return currentlyRecommended;
+    }
+
+    /**
+     * Returns the text that the first name of matched clients must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Returns the text that the last name of matched clients must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Returns the text that the e-mail of matched clients must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Returns the text that the phone number of matched clients must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * Returns the full name that the creator of matched clients must have.
+     *
+     * @return the creator's full name, or null if not restricted
+     */
+    public String getCreatedByFullName() {
+        return createdByFullName;
+    }
+}
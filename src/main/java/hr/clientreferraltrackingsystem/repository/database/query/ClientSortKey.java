@@ -0,0 +1,53 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+/**
+ * Orders in which clients can be paged. Every order ends with the client ID
+ * so that rows with equal sort values still have a stable position.
+ */
+public enum ClientSortKey {
+    LAST_NAME_ASC("c.last_name", "last_name", false);
+
+    private final String sortColumn;
+    private final String columnLabel;
+    private final boolean descending;
+
+    /**
+     * Constructs a {@code ClientSortKey}.
+     *
+     * @param sortColumn  the qualified column the clients are sorted by
+     * @param columnLabel the label of the sort column in the result set
+     * @param descending  whether the order is descending
+     */
+    ClientSortKey(String sortColumn, String columnLabel, boolean descending) {
+        this.sortColumn = sortColumn;
+        this.columnLabel = columnLabel;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns the qualified column the clients are sorted by.
+     *
+     * @return the sort column
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Returns the label of the sort column in the result set.
+     *
+     * @return the column label
+     */
+    public String getColumnLabel() {
+        return columnLabel;
+    }
+
+    /**
+     * Returns whether the order is descending.
+     *
+     * @return true for a descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+}
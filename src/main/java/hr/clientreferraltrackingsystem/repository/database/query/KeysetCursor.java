@@ -0,0 +1,11 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+/**
+ * Position in a keyset-paginated result, given by the sort value and ID of the last row read.
+ * The next page starts strictly after this position.
+ *
+ * @param sortValue the raw database value of the sort column of the last row
+ * @param id        the ID of the last row, used to break ties between equal sort values
+ */
+public record KeysetCursor(Object sortValue, Integer id) {
+}
@@ -0,0 +1,13 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+import java.util.List;
+
+/**
+ * One page of a result paginated by position rather than by keyset.
+ *
+ * @param items      the items on this page, in result order
+ * @param totalCount the number of items in the whole result across all pages
+ * @param <T>        the type of item on the page
+ */
+public record OffsetPage<T>(List<T> items, int totalCount) {
+}
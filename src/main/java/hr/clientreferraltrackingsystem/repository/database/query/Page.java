@@ -0,0 +1,22 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated result.
+ *
+ * @param items      the entities on this page, in sort order
+ * @param nextCursor the cursor positioned after the last item, or null if this is the last page
+ * @param <T>        the type of entity on the page
+ */
+public record Page<T>(List<T> items, KeysetCursor nextCursor) {
+
+    /**
+     * Returns whether another page follows this one.
+     *
+     * @return true if there are more items after this page
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,250 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Filter criteria for loading referrals. Criteria that are not set do not restrict the result.
+ */
+public class ReferralQuery {
+    private final Integer referrerUserId;
+    private final ReferralStatus status;
+    private final String clientFirstName;
+    private final String clientLastName;
+    private final String clientEmail;
+    private final String clientPhoneNumber;
+    private final LocalDate createdFrom;
+    private final LocalDate createdTo;
+    private final String referrerFullName;
+
+    /**
+     * Constructs a ReferralQuery instance using the Builder pattern.
+     *
+     * @param builder the builder containing the filter criteria
+     */
+    private ReferralQuery(Builder builder) {
+        this.referrerUserId = builder.referrerUserId;
+        this.status = builder.status;
+        this.clientFirstName = builder.clientFirstName;
+        this.clientLastName = builder.clientLastName;
+        this.clientEmail = builder.clientEmail;
+        this.clientPhoneNumber = builder.clientPhoneNumber;
+        this.createdFrom = builder.createdFrom;
+        this.createdTo = builder.createdTo;
+        this.referrerFullName = builder.referrerFullName;
+    }
+
+    /**
+     * Returns a query that matches every referral.
+     *
+     * @return an empty query
+     */
+    public static ReferralQuery all() {
+        return new Builder().build();
+    }
+
+    /**
+     * Builder class for constructing ReferralQuery instances.
+     */
+    public static class Builder {
+        private Integer referrerUserId;
+        private ReferralStatus status;
+        private String clientFirstName;
+        private String clientLastName;
+        private String clientEmail;
+        private String clientPhoneNumber;
+        private LocalDate createdFrom;
+        private LocalDate createdTo;
+        private String referrerFullName;
+
+        /**
+         * Restricts the query to referrals made by the given user.
+         *
+         * @param referrerUserId the ID of the referring user
+         * @return the builder instance
+         */
+        public Builder referrerUserId(Integer referrerUserId) {
+            this.referrerUserId = referrerUserId;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals with the given status.
+         *
+         * @param status the referral status
+         * @return the builder instance
+         */
+        public Builder status(ReferralStatus status) {
+            this.status = status;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals whose client's first name contains the given text, ignoring case.
+         *
+         * @param clientFirstName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder clientFirstName(String clientFirstName) {
+            this.clientFirstName = clientFirstName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals whose client's last name contains the given text, ignoring case.
+         *
+         * @param clientLastName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder clientLastName(String clientLastName) {
+            this.clientLastName = clientLastName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals whose client's e-mail contains the given text, ignoring case.
+         *
+         * @param clientEmail the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder clientEmail(String clientEmail) {
+            this.clientEmail = clientEmail;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals whose client's phone number contains the given text, ignoring case.
+         *
+         * @param clientPhoneNumber the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder clientPhoneNumber(String clientPhoneNumber) {
+            this.clientPhoneNumber = clientPhoneNumber;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals created on or after the given day.
+         *
+         * @param createdFrom the first day to include
+         * @return the builder instance
+         */
+        public Builder createdFrom(LocalDate createdFrom) {
+            this.createdFrom = createdFrom;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals created on or before the given day.
+         *
+         * @param createdTo the last day to include
+         * @return the builder instance
+         */
+        public Builder createdTo(LocalDate createdTo) {
+            this.createdTo = createdTo;
+            return this;
+        }
+
+        /**
+         * Restricts the query to referrals whose referrer has the given full name, ignoring case.
+         *
+         * @param referrerFullName the referrer's first and last name separated by a space
+         * @return the builder instance
+         */
+        public Builder referrerFullName(String referrerFullName) {
+            this.referrerFullName = referrerFullName;
+            return this;
+        }
+
+        /**
+         * Builds the ReferralQuery instance.
+         *
+         * @return the constructed ReferralQuery
+         */
+        public ReferralQuery build() {
+            return new ReferralQuery(this);
+        }
+    }
+
+    /**
+     * Returns the ID of the user whose referrals are matched.
+     *
+     * @return the ID of the referring user, or null if not restricted
+     */
+    public Integer getReferrerUserId() {
+        return referrerUserId;
+    }
+
+    /**
+     * Returns the status that matched referrals must have.
+     *
+     * @return the referral status, or null if not restricted
+     */
+    public ReferralStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the text that the client's first name of matched referrals must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getClientFirstName() {
+        return clientFirstName;
+    }
+
+    /**
+     * Returns the text that the client's last name of matched referrals must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getClientLastName() {
+        return clientLastName;
+    }
+
+    /**
+     * Returns the text that the client's e-mail of matched referrals must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getClientEmail() {
+        return clientEmail;
+    }
+
+    /**
+     * Returns the text that the client's phone number of matched referrals must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getClientPhoneNumber() {
+        return clientPhoneNumber;
+    }
+
+    /**
+     * Returns the first day on which matched referrals may have been created.
+     *
+     * @return the first included day, or null if not restricted
+     */
+    public LocalDate getCreatedFrom() {
+        return createdFrom;
+    }
+
+    /**
+     * Returns the last day on which matched referrals may have been created.
+     *
+     * @return the last included day, or null if not restricted
+     */
+    public LocalDate getCreatedTo() {
+        return createdTo;
+    }
+
+    /**
+     * Returns the full name that the referrer of matched referrals must have.
+     *
+     * @return the referrer's full name, or null if not restricted
+     */
+    public String getReferrerFullName() {
+        return referrerFullName;
+    }
+}
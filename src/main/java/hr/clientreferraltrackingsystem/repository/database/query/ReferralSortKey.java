@@ -0,0 +1,67 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+/**
+ * Orders in which referrals can be paged. Every order ends with the referral ID
+ * so that rows with equal sort values still have a stable position.
+ */
+public enum ReferralSortKey {
+    CREATED_AT_ASC("r.created_at", "created_at", false, "idx_referral_created_at_desc"),
+    CREATED_AT_DESC("r.created_at", "created_at", true, "idx_referral_created_at_desc");
+
+    private final String sortColumn;
+    private final String columnLabel;
+    private final boolean descending;
+    private final String indexName;
+
+    /**
+     * Constructs a {@code ReferralSortKey}.
+     *
+     * @param sortColumn  the qualified column the referrals are sorted by
+     * @param columnLabel the label of the sort column in the result set
+     * @param descending  whether the order is descending
+     * @param indexName   the index that returns the referrals in this order
+     */
+    ReferralSortKey(String sortColumn, String columnLabel, boolean descending, String indexName) {
+        this.sortColumn = sortColumn;
+        this.columnLabel = columnLabel;
+        this.descending = descending;
+        this.indexName = indexName;
+    }
+
+    /**
+     * Returns the qualified column the referrals are sorted by.
+     *
+     * @return the sort column
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Returns the label of the sort column in the result set.
+     *
+     * @return the column label
+     */
+    public String getColumnLabel() {
+        return columnLabel;
+    }
+
+    /**
+     * Returns whether the order is descending.
+     *
+     * @return true for a descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+
+    /**
+     * Returns the index that returns the referrals in this order. H2 reads it backwards
+     * for the opposite direction.
+     *
+     * @return the index name
+     */
+    public String getIndexName() {
+        return indexName;
+    }
+}
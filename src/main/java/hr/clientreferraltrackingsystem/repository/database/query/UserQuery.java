@@ -0,0 +1,179 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+import hr.clientreferraltrackingsystem.enumeration.Role;
+
+/**
+ * Filter criteria for loading users. Criteria that are not set do not restrict the result.
+ */
+public class UserQuery {
+    private final Role role;
+    private final String firstName;
+    private final String lastName;
+    private final String email;
+    private final String phoneNumber;
+    private final String username;
+
+    /**
+     * Constructs a UserQuery instance using the Builder pattern.
+     *
+     * @param builder the builder containing the filter criteria
+     */
+    private UserQuery(Builder builder) {
+        this.role = builder.role;
+        this.firstName = builder.firstName;
+        this.lastName = builder.lastName;
+        this.email = builder.email;
+        this.phoneNumber = builder.phoneNumber;
+        this.username = builder.username;
+    }
+
+    /**
+     * Returns a query that matches every user.
+     *
+     * @return an empty query
+     */
+    public static UserQuery all() {
+        return new Builder().build();
+    }
+
+    /**
+     * Builder class for constructing UserQuery instances.
+     */
+    public static class Builder {
+        private Role role;
+        private String firstName;
+        private String lastName;
+        private String email;
+        private String phoneNumber;
+        private String username;
+
+        /**
+         * Restricts the query to users with the given role.
+         *
+         * @param role the user role
+         * @return the builder instance
+         */
+        public Builder role(Role role) {
+            this.role = role;
+            return this;
+        }
+
+        /**
+         * Restricts the query to users whose first name contains the given text, ignoring case.
+         *
+         * @param firstName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder firstName(String firstName) {
+            this.firstName = firstName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to users whose last name contains the given text, ignoring case.
+         *
+         * @param lastName the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder lastName(String lastName) {
+            this.lastName = lastName;
+            return this;
+        }
+
+        /**
+         * Restricts the query to users whose e-mail contains the given text, ignoring case.
+         *
+         * @param email the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder email(String email) {
+            this.email = email;
+            return this;
+        }
+
+        /**
+         * Restricts the query to users whose phone number contains the given text, ignoring case.
+         *
+         * @param phoneNumber the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder phoneNumber(String phoneNumber) {
+            this.phoneNumber = phoneNumber;
+            return this;
+        }
+
+        /**
+         * Restricts the query to users whose username contains the given text, ignoring case.
+         *
+         * @param username the text to look for; blank text does not restrict the query
+         * @return the builder instance
+         */
+        public Builder username(String username) {
+            this.username = username;
+            return this;
+        }
+
+        /**
+         * Builds the UserQuery instance.
+         *
+         * @return the constructed UserQuery
+         */
+        public UserQuery build() {
+            return new UserQuery(this);
+        }
+    }
+
+    /**
+     * Returns the role that matched users must have.
+     *
+     * @return the user role, or null if not restricted
+     */
+    public Role getRole() {
+        return role;
+    }
+
+    /**
+     * Returns the text that the first name of matched users must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getFirstName() {
+        return firstName;
+    }
+
+    /**
+     * Returns the text that the last name of matched users must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getLastName() {
+        return lastName;
+    }
+
+    /**
+     * Returns the text that the e-mail of matched users must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    /**
+     * Returns the text that the phone number of matched users must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    /**
+     * Returns the text that the username of matched users must contain.
+     *
+     * @return the text to look for, or null if not restricted
+     */
+    public String getUsername() {
+        return username;
+    }
+}
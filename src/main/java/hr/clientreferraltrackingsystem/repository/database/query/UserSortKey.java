@@ -0,0 +1,53 @@
+package hr.clientreferraltrackingsystem.repository.database.query;
+
+/**
+ * Orders in which users can be paged. Every order ends with the user ID
+ * so that rows with equal sort values still have a stable position.
+ */
+public enum UserSortKey {
+    LAST_NAME_ASC("last_name", "last_name", false);
+
+    private final String sortColumn;
+    private final String columnLabel;
+    private final boolean descending;
+
+    /**
+     * Constructs a {@code UserSortKey}.
+     *
+     * @param sortColumn  the column the users are sorted by
+     * @param columnLabel the label of the sort column in the result set
+     * @param descending  whether the order is descending
+     */
+    UserSortKey(String sortColumn, String columnLabel, boolean descending) {
+        this.sortColumn = sortColumn;
+        this.columnLabel = columnLabel;
+        this.descending = descending;
+    }
+
+    /**
+     * Returns the column the users are sorted by.
+     *
+     * @return the sort column
+     */
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    /**
+     * Returns the label of the sort column in the result set.
+     *
+     * @return the column label
+     */
+    public String getColumnLabel() {
+        return columnLabel;
+    }
+
+    /**
+     * Returns whether the order is descending.
+     *
+     * @return true for a descending order
+     */
+    public boolean isDescending() {
+        return descending;
+    }
+}
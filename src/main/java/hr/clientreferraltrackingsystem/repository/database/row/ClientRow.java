@@ -0,0 +1,37 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+/**
+ * Display row of the admin clients table: the client's contact details and the name of the
+ * user who created the client, formatted once when the row is loaded.
+ *
+ * @param id                the ID of the client
+ * @param idText            the ID as displayed
+ * @param firstName         the client's first name
+ * @param lastName          the client's last name
+ * @param email             the client's e-mail
+ * @param phoneNumber       the client's phone number
+ * @param createdByFullName the full name of the user who created the client, or an empty string
+ */
+public record ClientRow(int id, String idText, String firstName, String lastName, String email,
+                        String phoneNumber, String createdByFullName) {
+
+    /**
+     * Creates a row from the loaded column values, formatting them for display.
+     *
+     * @param strings            the display strings shared by the rows of the query
+     * @param id                 the ID of the client
+     * @param firstName          the client's first name
+     * @param lastName           the client's last name
+     * @param email              the client's e-mail
+     * @param phoneNumber        the client's phone number
+     * @param createdByFirstName the creator's first name, or null if the client has no creator
+     * @param createdByLastName  the creator's last name, or null if the client has no creator
+     * @return the row
+     */
+    public static ClientRow of(DisplayStrings strings, int id, String firstName, String lastName, String email, String phoneNumber,
+                               String createdByFirstName, String createdByLastName) {
+        return new ClientRow(id, String.valueOf(id), RowFormats.text(firstName), RowFormats.text(lastName),
+                RowFormats.text(email), RowFormats.text(phoneNumber),
+                strings.fullName(createdByFirstName, createdByLastName));
+    }
+}
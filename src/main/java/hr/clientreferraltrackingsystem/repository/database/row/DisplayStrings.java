@@ -0,0 +1,50 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares equal display strings between the rows loaded by one query.
+ * <p>
+ * Values such as the referrer's name or the referral date repeat across many rows of a page.
+ * Formatting them through one instance per query keeps a single copy of each distinct text
+ * instead of one per row. Instances are not thread-safe and should not outlive the query.
+ */
+public class DisplayStrings {
+    private final Map<LocalDate, String> dates = new HashMap<>();
+    private final Map<String, Map<String, String>> fullNames = new HashMap<>();
+
+    /**
+     * Formats a date for display, reusing the text of an equal date formatted before.
+     *
+     * @param date the date to format
+     * @return the formatted date, or an empty string for null
+     */
+    public String date(LocalDate date) {
+        return date == null ? "" : dates.computeIfAbsent(date, RowFormats::date);
+    }
+
+    /**
+     * Formats the date of a date-time for display, reusing the text of an equal date formatted before.
+     *
+     * @param dateTime the date-time whose date to format
+     * @return the formatted date, or an empty string for null
+     */
+    public String date(LocalDateTime dateTime) {
+        return dateTime == null ? "" : date(dateTime.toLocalDate());
+    }
+
+    /**
+     * Joins a first and last name for display, reusing the text of an equal name joined before.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return the full name, or an empty string if both parts are null
+     */
+    public String fullName(String firstName, String lastName) {
+        return fullNames.computeIfAbsent(firstName, _ -> new HashMap<>())
+                .computeIfAbsent(lastName, _ -> RowFormats.fullName(firstName, lastName));
+    }
+}
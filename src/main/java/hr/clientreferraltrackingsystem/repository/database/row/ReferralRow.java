@@ -0,0 +1,46 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Display row of the admin referrals table: the referral with its client's contact details
+ * and its referrer's name, formatted once when the row is loaded.
+ *
+ * @param id                the ID of the referral
+ * @param idText            the ID as displayed
+ * @param clientFirstName   the referred client's first name
+ * @param clientLastName    the referred client's last name
+ * @param clientEmail       the referred client's e-mail
+ * @param clientPhoneNumber the referred client's phone number
+ * @param status            the status as displayed
+ * @param referralDate      the referral date as displayed
+ * @param referrerFullName  the full name of the user who made the referral
+ */
+public record ReferralRow(int id, String idText, String clientFirstName, String clientLastName, String clientEmail,
+                          String clientPhoneNumber, String status, String referralDate, String referrerFullName) {
+
+    /**
+     * Creates a row from the loaded column values, formatting them for display.
+     *
+     * @param strings           the display strings shared by the rows of the query
+     * @param id                the ID of the referral
+     * @param clientFirstName   the referred client's first name
+     * @param clientLastName    the referred client's last name
+     * @param clientEmail       the referred client's e-mail
+     * @param clientPhoneNumber the referred client's phone number
+     * @param status            the status of the referral
+     * @param referralDate      the date the referral was created
+     * @param referrerFirstName the referrer's first name
+     * @param referrerLastName  the referrer's last name
+     * @return the row
+     */
+    public static ReferralRow of(DisplayStrings strings, int id, String clientFirstName, String clientLastName, String clientEmail,
+                                 String clientPhoneNumber, ReferralStatus status, LocalDate referralDate,
+                                 String referrerFirstName, String referrerLastName) {
+        return new ReferralRow(id, String.valueOf(id), RowFormats.text(clientFirstName), RowFormats.text(clientLastName),
+                RowFormats.text(clientEmail), RowFormats.text(clientPhoneNumber), RowFormats.text(status),
+                strings.date(referralDate), strings.fullName(referrerFirstName, referrerLastName));
+    }
+}
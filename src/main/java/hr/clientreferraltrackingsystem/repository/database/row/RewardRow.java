@@ -0,0 +1,39 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Display row of the admin rewards table, formatted once when the row is loaded.
+ * The value and date are also kept unformatted for filtering and sorting.
+ *
+ * @param id             the ID of the reward
+ * @param idText         the ID as displayed
+ * @param clientFullName the full name of the referred client the reward was issued for
+ * @param description    the reward's description
+ * @param value          the reward's value
+ * @param valueText      the value as displayed
+ * @param rewardDate     the date the reward was issued
+ * @param rewardDateText the date as displayed
+ */
+public record RewardRow(int id, String idText, String clientFullName, String description, BigDecimal value,
+                        String valueText, LocalDateTime rewardDate, String rewardDateText) {
+
+    /**
+     * Creates a row from the loaded column values, formatting them for display.
+     *
+     * @param strings         the display strings shared by the rows of the query
+     * @param id              the ID of the reward
+     * @param clientFirstName the referred client's first name
+     * @param clientLastName  the referred client's last name
+     * @param description     the reward's description
+     * @param value           the reward's value
+     * @param rewardDate      the date the reward was issued
+     * @return the row
+     */
+    public static RewardRow of(DisplayStrings strings, int id, String clientFirstName, String clientLastName, String description,
+                               BigDecimal value, LocalDateTime rewardDate) {
+        return new RewardRow(id, String.valueOf(id), strings.fullName(clientFirstName, clientLastName),
+                RowFormats.text(description), value, RowFormats.text(value), rewardDate, strings.date(rewardDate));
+    }
+}
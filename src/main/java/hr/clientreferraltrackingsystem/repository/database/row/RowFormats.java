@@ -0,0 +1,47 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+
+/**
+ * Display formats shared by the row projections, applied once when a row is loaded.
+ */
+final class RowFormats {
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yyyy.");
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private RowFormats() {}
+
+    /**
+     * Formats a value for display.
+     *
+     * @param value the value to format
+     * @return the value's string form, or an empty string for null
+     */
+    static String text(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    /**
+     * Formats a date for display in the pattern "dd.MM.yyyy.".
+     *
+     * @param date the date to format
+     * @return the formatted date, or an empty string for null
+     */
+    static String date(TemporalAccessor date) {
+        return date == null ? "" : DATE_FORMATTER.format(date);
+    }
+
+    /**
+     * Joins a first and last name for display.
+     *
+     * @param firstName the first name
+     * @param lastName  the last name
+     * @return the full name, or an empty string if both parts are null
+     */
+    static String fullName(String firstName, String lastName) {
+        return firstName == null && lastName == null ? "" : firstName + " " + lastName;
+    }
+}
@@ -0,0 +1,39 @@
+package hr.clientreferraltrackingsystem.repository.database.row;
+
+import hr.clientreferraltrackingsystem.enumeration.Role;
+
+/**
+ * Display row of the admin users table, formatted once when the row is loaded.
+ * It carries no credentials; the full user is loaded when a row is selected for editing.
+ *
+ * @param id          the ID of the user
+ * @param idText      the ID as displayed
+ * @param firstName   the user's first name
+ * @param lastName    the user's last name
+ * @param email       the user's e-mail
+ * @param phoneNumber the user's phone number
+ * @param username    the user's username
+ * @param role        the user's role as displayed
+ */
+public record UserRow(int id, String idText, String firstName, String lastName, String email,
+                      String phoneNumber, String username, String role) {
+
+    /**
+     * Creates a row from the loaded column values, formatting them for display.
+     *
+     * @param id          the ID of the user
+     * @param firstName   the user's first name
+     * @param lastName    the user's last name
+     * @param email       the user's e-mail
+     * @param phoneNumber the user's phone number
+     * @param username    the user's username
+     * @param role        the user's role
+     * @return the row
+     */
+    public static UserRow of(int id, String firstName, String lastName, String email, String phoneNumber,
+                             String username, Role role) {
+        return new UserRow(id, String.valueOf(id), RowFormats.text(firstName), RowFormats.text(lastName),
+                RowFormats.text(email), RowFormats.text(phoneNumber), RowFormats.text(username),
+                RowFormats.text(role));
+    }
+}
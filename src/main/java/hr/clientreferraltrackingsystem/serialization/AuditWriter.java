@@ -0,0 +1,326 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes audit entries to a {@link SegmentedChangeLog} in the background.
+ * <p>
+ * Callers only put the change on a bounded, lock-free queue and return. A single writer thread
+ * drains the queue in batches and appends each batch to the change log with one write and one
+ * flush. A batch is written once it is full or once its oldest change has waited for the
+ * configured maximum latency. When the queue is full, callers block until the writer has made
+ * room, which keeps memory bounded if the disk falls behind.
+ * <p>
+ * A change that cannot be encoded or written is logged and counted as failed without stopping
+ * the writer. Should the writer thread nevertheless end, callers write their changes directly
+ * instead of waiting for queue slots that are never freed; blocked callers notice this within
+ * a tenth of a second.
+ * <p>
+ * {@link #close()} writes whatever is still queued before the writer stops; changes submitted
+ * after that are written directly. Enqueueing and closing exclude each other, so no change is
+ * queued after the final drain.
+ */
+class AuditWriter implements AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+    private static final long SLOT_WAIT_MILLIS = 100;
+
+    private final SegmentedChangeLog changeLog;
+    private final int capacity;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+
+    private final ConcurrentLinkedQueue<ChangeLogHolder> queue = new ConcurrentLinkedQueue<>();
+    private final Semaphore freeSlots;
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private final Thread writer;
+
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong blockedCount = new AtomicLong();
+    private volatile long processedCount;
+    private volatile long writtenCount;
+    private volatile long failedCount;
+    private volatile long flushCount;
+    private volatile long totalFlushNanos;
+    private volatile long maxFlushNanos;
+    private volatile boolean flushRequested;
+    private volatile boolean closed;
+
+    private AuditWriter(Builder builder) {
+        this.changeLog = builder.changeLog;
+        this.capacity = builder.capacity;
+        this.maxBatchSize = builder.maxBatchSize;
+        this.maxLatencyNanos = builder.maxLatency.toNanos();
+        this.freeSlots = new Semaphore(capacity);
+        this.writer = Thread.ofVirtual().name("audit-writer").start(this::run);
+    }
+
+    /**
+     * Queues a change for writing. Blocks while the queue is full. Once the writer is closed or
+     * its thread has ended, the change is written directly.
+     *
+     * @param change the change to write
+     */
+    void submit(ChangeLogHolder change) {
+        if (!freeSlots.tryAcquire()) {
+            blockedCount.incrementAndGet();
+            if (!awaitFreeSlot()) {
+                writeDirectly(change);
+                return;
+            }
+        }
+        closeLock.readLock().lock();
+        try {
+            if (!closed && writer.isAlive()) {
+                queue.add(change);
+                submittedCount.incrementAndGet();
+                LockSupport.unpark(writer);
+                return;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        freeSlots.release();
+        writeDirectly(change);
+    }
+
+    /**
+     * Waits for a free queue slot while the writer is open and its thread is alive.
+     * An interrupt does not end the wait but is restored afterwards.
+     *
+     * @return true if a slot was acquired, false if the writer was closed or has ended
+     */
+    private boolean awaitFreeSlot() {
+        boolean interrupted = false;
+        try {
+            while (!closed && writer.isAlive()) {
+                try {
+                    if (freeSlots.tryAcquire(SLOT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            return false;
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits until every change submitted before this call has been written, without waiting
+     * for the rest of the maximum latency.
+     */
+    void flush() {
+        long target = submittedCount.get();
+        while (processedCount < target && writer.isAlive()) {
+            flushRequested = true;
+            LockSupport.unpark(writer);
+            synchronized (this) {
+                if (processedCount < target) {
+                    try {
+                        wait(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a snapshot of the queue and flush counters.
+     *
+     * @return the current writer statistics
+     */
+    AuditWriterStats stats() {
+        long flushes = flushCount;
+        return new AuditWriterStats(
+                capacity - freeSlots.availablePermits(),
+                capacity,
+                writtenCount,
+                failedCount,
+                blockedCount.get(),
+                flushes,
+                flushes == 0 ? 0 : totalFlushNanos / 1e6 / flushes,
+                maxFlushNanos / 1e6);
+    }
+
+    /**
+     * Writes the queued changes and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Changes left behind if the writer thread ended before it was closed
+        ChangeLogHolder change;
+        while ((change = queue.poll()) != null) {
+            writeDirectly(change);
+        }
+    }
+
+    private void run() {
+        List<ChangeLogHolder> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            if (queue.isEmpty()) {
+                LockSupport.park(this);
+                continue;
+            }
+            awaitBatch();
+            ChangeLogHolder change;
+            while (batch.size() < maxBatchSize && (change = queue.poll()) != null) {
+                batch.add(change);
+            }
+            write(batch);
+            freeSlots.release(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * Waits until a full batch is queued, the maximum latency has passed since the first
+     * change was seen, a flush is requested or the writer is closed.
+     */
+    private void awaitBatch() {
+        long deadline = System.nanoTime() + maxLatencyNanos;
+        long remaining;
+        while (!closed && !flushRequested && capacity - freeSlots.availablePermits() < maxBatchSize
+                && (remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(this, remaining);
+        }
+        flushRequested = false;
+    }
+
+    /**
+     * Writes a batch with one flush. If an entry in it makes the write fail with a runtime
+     * exception, the entries are written one at a time so that only the failing ones are lost.
+     */
+    private void write(List<ChangeLogHolder> batch) {
+        long start = System.nanoTime();
+        try {
+            changeLog.appendAll(batch);
+            writtenCount += batch.size();
+        } catch (IOException e) {
+            failedCount += batch.size();
+            log.error("Error occurred while writing {} audit entries", batch.size(), e);
+        } catch (RuntimeException e) {
+            log.error("Error occurred while writing {} audit entries, writing them one at a time", batch.size(), e);
+            for (ChangeLogHolder change : batch) {
+                if (writeDirectly(change)) {
+                    writtenCount++;
+                } else {
+                    failedCount++;
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        flushCount++;
+        totalFlushNanos += elapsed;
+        maxFlushNanos = Math.max(maxFlushNanos, elapsed);
+        synchronized (this) {
+            processedCount += batch.size();
+            notifyAll();
+        }
+    }
+
+    private boolean writeDirectly(ChangeLogHolder change) {
+        try {
+            changeLog.append(change);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.error("Error occurred while writing audit entry", e);
+            return false;
+        }
+    }
+
+    /**
+     * Builder class for creating an {@link AuditWriter} instance.
+     */
+    static class Builder {
+        private final SegmentedChangeLog changeLog;
+        private int capacity = 1024;
+        private int maxBatchSize = 256;
+        private Duration maxLatency = Duration.ofMillis(50);
+
+        /**
+         * Creates a builder for a writer that appends to the given change log.
+         *
+         * @param changeLog the change log to write to
+         */
+        Builder(SegmentedChangeLog changeLog) {
+            this.changeLog = changeLog;
+        }
+
+        /**
+         * Sets how many changes may wait in the queue before callers block.
+         *
+         * @param capacity the queue capacity
+         * @return the builder instance
+         */
+        Builder capacity(int capacity) {
+            this.capacity = capacity;
+            return this;
+        }
+
+        /**
+         * Sets the largest number of changes written with one flush.
+         *
+         * @param maxBatchSize the maximum batch size
+         * @return the builder instance
+         */
+        Builder maxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+            return this;
+        }
+
+        /**
+         * Sets how long a change may wait for its batch to fill up before it is written.
+         *
+         * @param maxLatency the maximum latency; zero writes as soon as the writer wakes up
+         * @return the builder instance
+         */
+        Builder maxLatency(Duration maxLatency) {
+            this.maxLatency = maxLatency;
+            return this;
+        }
+
+        /**
+         * Builds the writer and starts its writer thread.
+         *
+         * @return the new writer
+         */
+        AuditWriter build() {
+            if (capacity < 1 || maxBatchSize < 1 || maxLatency.isNegative()) {
+                throw new IllegalArgumentException("Capacity and batch size must be positive and latency not negative");
+            }
+            return new AuditWriter(this);
+        }
+    }
+}
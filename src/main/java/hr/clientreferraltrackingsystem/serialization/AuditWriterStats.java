@@ -0,0 +1,25 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+/**
+ * Snapshot of the audit writer's queue and flush counters.
+ *
+ * @param queueDepth           changes waiting to be written
+ * @param capacity             the maximum number of waiting changes
+ * @param writtenCount         changes written since startup
+ * @param failedCount          changes dropped because their batch could not be written
+ * @param blockedCount         submissions that had to wait for free space in the queue
+ * @param flushCount           batches written since startup
+ * @param averageFlushMillis   average time a batch took to write and flush
+ * @param maxFlushMillis       longest time a batch took to write and flush
+ */
+public record AuditWriterStats(
+        int queueDepth,
+        int capacity,
+        long writtenCount,
+        long failedCount,
+        long blockedCount,
+        long flushCount,
+        double averageFlushMillis,
+        double maxFlushMillis
+) {
+}
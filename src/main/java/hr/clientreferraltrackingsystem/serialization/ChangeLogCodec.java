@@ -0,0 +1,325 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link ChangeLogHolder} entries.
+ * <p>
+ * An encoded entry consists of:
+ * <ul>
+ *     <li>a flags byte telling whether the entry has a change time,</li>
+ *     <li>the changed field and the role as dictionary references,</li>
+ *     <li>the old and new value as strings,</li>
+ *     <li>the change time as zigzag varint epoch milliseconds (UTC), if present.</li>
+ * </ul>
+ * Strings are written as a varint of their UTF-8 length plus one, followed by the bytes; zero
+ * stands for null. The field and role names repeat in almost every entry, so they are stored
+ * once per file: a dictionary reference is either zero for null, one followed by a new string,
+ * which receives the next dictionary ID, or two times the ID plus two of an earlier string.
+ * <p>
+ * The dictionary is built up while a file is encoded or decoded, so a codec instance belongs to
+ * one file and its entries must be decoded in the order they were encoded. Once a file has been
+ * read, {@link #readOnlyCopy()} decodes its entries in any order. The codec reuses its encoding
+ * buffer and decodes dictionary strings to shared instances.
+ */
+final class ChangeLogCodec {
+    private static final int HAS_TIME = 1;
+    private static final int NULL_REFERENCE = 0;
+    private static final int NEW_REFERENCE = 1;
+
+    private final Map<String, Integer> dictionaryIds;
+    private final List<String> dictionary;
+    private final boolean readOnly;
+
+    private byte[] buffer = new byte[256];
+    private int length;
+    private byte[] input;
+    private int position;
+    private int limit;
+
+    /**
+     * Creates a codec with an empty dictionary.
+     */
+    ChangeLogCodec() {
+        this(new HashMap<>(), new ArrayList<>(), false);
+    }
+
+    private ChangeLogCodec(Map<String, Integer> dictionaryIds, List<String> dictionary, boolean readOnly) {
+        this.dictionaryIds = dictionaryIds;
+        this.dictionary = dictionary;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Encodes an entry into the codec's buffer, adding new field and role names to the dictionary.
+     *
+     * @param change the entry to encode
+     * @return the number of encoded bytes at the start of {@link #buffer()}
+     */
+    int encode(ChangeLogHolder change) {
+        length = 0;
+        LocalDateTime changeDateTime = change.getChangeDateTime();
+        writeByte(changeDateTime != null ? HAS_TIME : 0);
+        writeReference(change.getFieldChanged());
+        writeReference(change.getRole());
+        writeString(change.getOldValue());
+        writeString(change.getNewValue());
+        if (changeDateTime != null) {
+            long epochMillis = changeDateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+            writeVarLong((epochMillis << 1) ^ (epochMillis >> 63));
+        }
+        return length;
+    }
+
+    /**
+     * Returns the buffer holding the most recently encoded entry. It is overwritten by the next encode.
+     *
+     * @return the encoding buffer
+     */
+    byte[] buffer() {
+        return buffer;
+    }
+
+    /**
+     * Decodes an entry, adding the dictionary strings it defines.
+     *
+     * @param body   the array holding the encoded entry
+     * @param length the number of encoded bytes at the start of the array
+     * @return the decoded entry
+     * @throws IOException if the bytes are not a valid entry for this codec's dictionary
+     */
+    ChangeLogHolder decode(byte[] body, int length) throws IOException {
+        return decode(body, 0, length);
+    }
+
+    /**
+     * Decodes an entry stored in the middle of an array, adding the dictionary strings it defines.
+     *
+     * @param body   the array holding the encoded entry
+     * @param offset the index of the entry's first byte
+     * @param length the number of encoded bytes
+     * @return the decoded entry
+     * @throws IOException if the bytes are not a valid entry for this codec's dictionary
+     */
+    ChangeLogHolder decode(byte[] body, int offset, int length) throws IOException {
+        input = body;
+        position = offset;
+        limit = offset + length;
+        try {
+            int flags = readByte();
+            String fieldChanged = readReference();
+            String role = readReference();
+            String oldValue = readString();
+            String newValue = readString();
+            LocalDateTime changeDateTime = null;
+            if ((flags & HAS_TIME) != 0) {
+                long zigzag = readVarLong();
+                long epochMillis = (zigzag >>> 1) ^ -(zigzag & 1);
+                changeDateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                        Math.floorMod(epochMillis, 1000) * 1_000_000, ZoneOffset.UTC);
+            }
+            if (position != limit) {
+                throw new IOException("Unexpected trailing bytes in change log entry");
+            }
+            return new ChangeLogHolder(fieldChanged, oldValue, newValue, role, changeDateTime);
+        } finally {
+            input = null;
+        }
+    }
+
+    /**
+     * Returns a decoder that shares this codec's dictionary but never adds to it, so entries
+     * whose dictionary strings are already known can be decoded in any order.
+     *
+     * @return the read-only decoder
+     */
+    ChangeLogCodec readOnlyCopy() {
+        return new ChangeLogCodec(dictionaryIds, dictionary, true);
+    }
+
+    /**
+     * Returns the dictionary ID of a string.
+     *
+     * @param value the string to look up
+     * @return the dictionary ID, or -1 if the string is null or not in the dictionary
+     */
+    int idOf(String value) {
+        Integer id = value == null ? null : dictionaryIds.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the dictionary strings, indexed by their IDs.
+     *
+     * @return a live, unmodifiable view of the dictionary
+     */
+    List<String> dictionary() {
+        return Collections.unmodifiableList(dictionary);
+    }
+
+    /**
+     * Forgets the dictionary, for example after entries that defined strings failed to be written.
+     */
+    void reset() {
+        dictionaryIds.clear();
+        dictionary.clear();
+    }
+
+    private void writeReference(String value) {
+        if (value == null) {
+            writeVarLong(NULL_REFERENCE);
+            return;
+        }
+        Integer id = dictionaryIds.get(value);
+        if (id != null) {
+            writeVarLong(2L * id + 2);
+            return;
+        }
+        writeVarLong(NEW_REFERENCE);
+        writeString(value);
+        dictionaryIds.put(value, dictionary.size());
+        dictionary.add(value);
+    }
+
+    private String readReference() throws IOException {
+        long reference = readVarLong();
+        if (reference == NULL_REFERENCE) {
+            return null;
+        }
+        if (reference == NEW_REFERENCE) {
+            String value = readString();
+            if (value == null) {
+                throw new IOException("Null dictionary entry in change log entry");
+            }
+            if (readOnly) {
+                return value;
+            }
+            dictionaryIds.putIfAbsent(value, dictionary.size());
+            dictionary.add(value);
+            return value;
+        }
+        long id = reference / 2 - 1;
+        if ((reference & 1) != 0 || id >= dictionary.size()) {
+            throw new IOException("Unknown dictionary reference " + reference + " in change log entry");
+        }
+        return dictionary.get((int) id);
+    }
+
+    /**
+     * Writes the string as UTF-8 directly into the buffer, without an intermediate byte array.
+     * Unpaired surrogates are written as '?', as {@link String#getBytes} does.
+     */
+    private void writeString(String value) {
+        if (value == null) {
+            writeVarLong(0);
+            return;
+        }
+        int chars = value.length();
+        int utf8Length = 0;
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                utf8Length++;
+            } else if (c < 0x800) {
+                utf8Length += 2;
+            } else if (!Character.isSurrogate(c)) {
+                utf8Length += 3;
+            } else if (isSurrogatePair(value, i)) {
+                utf8Length += 4;
+                i++;
+            } else {
+                utf8Length++;
+            }
+        }
+        writeVarLong(utf8Length + 1L);
+        ensureCapacity(utf8Length);
+        for (int i = 0; i < chars; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                buffer[length++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[length++] = (byte) (0xC0 | c >> 6);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (!Character.isSurrogate(c)) {
+                buffer[length++] = (byte) (0xE0 | c >> 12);
+                buffer[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (isSurrogatePair(value, i)) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+                buffer[length++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                buffer[length++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                buffer[length++] = '?';
+            }
+        }
+    }
+
+    private static boolean isSurrogatePair(String value, int index) {
+        return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1));
+    }
+
+    private String readString() throws IOException {
+        long lengthPlusOne = readVarLong();
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        long stringLength = lengthPlusOne - 1;
+        if (stringLength > limit - position) {
+            throw new IOException("String exceeds change log entry");
+        }
+        String value = new String(input, position, (int) stringLength, StandardCharsets.UTF_8);
+        position += (int) stringLength;
+        return value;
+    }
+
+    private void writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private long readVarLong() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in change log entry");
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) value;
+    }
+
+    private int readByte() throws IOException {
+        if (position >= limit) {
+            throw new IOException("Truncated change log entry");
+        }
+        return input[position++] & 0xFF;
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Offset index of the records in one change log file.
+ * <p>
+ * For every record the index keeps its file offset, its change time in epoch milliseconds and
+ * the dictionary IDs of its field and role in primitive arrays, so queries can be matched and
+ * counted without decoding a single record. Only the records that end up on the requested page
+ * are then read from their offsets.
+ */
+final class ChangeLogIndex {
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final List<String> dictionary;
+    private long[] offsets = new long[64];
+    private long[] times = new long[64];
+    private int[] fieldIds = new int[64];
+    private int[] roleIds = new int[64];
+    private int size;
+
+    /**
+     * Creates an empty index over records whose field and role IDs refer to the given dictionary.
+     *
+     * @param dictionary the dictionary of the file's codec
+     */
+    ChangeLogIndex(List<String> dictionary) {
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * Adds a record to the index.
+     *
+     * @param offset   the file offset of the record's frame
+     * @param change   the decoded record
+     * @param fieldId  the dictionary ID of the changed field, or -1 if it has none
+     * @param roleId   the dictionary ID of the role, or -1 if it has none
+     */
+    void add(long offset, ChangeLogHolder change, int fieldId, int roleId) {
+        if (size == offsets.length) {
+            int capacity = size * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            times = Arrays.copyOf(times, capacity);
+            fieldIds = Arrays.copyOf(fieldIds, capacity);
+            roleIds = Arrays.copyOf(roleIds, capacity);
+        }
+        offsets[size] = offset;
+        times[size] = toMillis(change.getChangeDateTime());
+        fieldIds[size] = fieldId;
+        roleIds[size] = roleId;
+        size++;
+    }
+
+    /**
+     * Removes every record from the index.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of indexed records.
+     *
+     * @return the record count
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the file offset of a record.
+     *
+     * @param position the position of the record in the file, starting at 0
+     * @return the file offset of the record's frame
+     */
+    long offset(int position) {
+        return offsets[position];
+    }
+
+    /**
+     * Compiles the query criteria against this file's dictionary.
+     *
+     * @param from  the earliest change time to include, or null for no lower bound
+     * @param to    the latest change time to include, or null for no upper bound
+     * @param field the changed field to match ignoring case, or null for any field
+     * @param role  the role to match ignoring case, or null for any role
+     * @return the matcher for the records of this index
+     */
+    Matcher matcher(LocalDateTime from, LocalDateTime to, String field, String role) {
+        return new Matcher(
+                from == null && to == null,
+                from == null ? Long.MIN_VALUE : toMillis(from),
+                to == null ? Long.MAX_VALUE : toMillis(to),
+                field == null ? null : matchingIds(field),
+                role == null ? null : matchingIds(role));
+    }
+
+    private boolean[] matchingIds(String value) {
+        boolean[] matching = new boolean[dictionary.size()];
+        for (int id = 0; id < matching.length; id++) {
+            matching[id] = dictionary.get(id).equalsIgnoreCase(value);
+        }
+        return matching;
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime == null ? NO_TIME : dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static boolean contains(boolean[] ids, int id) {
+        return ids == null || (id >= 0 && id < ids.length && ids[id]);
+    }
+
+    /**
+     * Query criteria resolved to epoch milliseconds and dictionary IDs.
+     */
+    final class Matcher {
+        private final boolean includeUntimed;
+        private final long from;
+        private final long to;
+        private final boolean[] fieldIds;
+        private final boolean[] roleIds;
+
+        private Matcher(boolean includeUntimed, long from, long to, boolean[] fieldIds, boolean[] roleIds) {
+            this.includeUntimed = includeUntimed;
+            this.from = from;
+            this.to = to;
+            this.fieldIds = fieldIds;
+            this.roleIds = roleIds;
+        }
+
+        /**
+         * Tells whether the record at the given position matches the criteria.
+         *
+         * @param position the position of the record in the file
+         * @return true if the record matches
+         */
+        boolean matches(int position) {
+            long time = times[position];
+            boolean timeMatches = time == NO_TIME ? includeUntimed : time >= from && time <= to;
+            return timeMatches
+                    && contains(fieldIds, ChangeLogIndex.this.fieldIds[position])
+                    && contains(roleIds, ChangeLogIndex.this.roleIds[position]);
+        }
+    }
+}
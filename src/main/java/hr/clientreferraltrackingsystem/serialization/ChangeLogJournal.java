@@ -0,0 +1,493 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Append-only journal of {@link ChangeLogHolder} entries.
+ * <p>
+ * Each entry is stored as one record framed by its length and a CRC-32C checksum of its body,
+ * so adding an entry only writes that entry to the end of the file. Record bodies use the
+ * compact {@link ChangeLogCodec} format, whose dictionary is rebuilt by reading the file from
+ * the start. When the journal is opened it is scanned once and cut back to the last complete, intact record, which drops a record
+ * torn by a crash in the middle of a write.
+ * <p>
+ * When the journal does not exist yet, the entries of the legacy Java-serialized change list
+ * are copied into it; the legacy file is then renamed with a {@code .migrated} suffix.
+ * <p>
+ * The journal keeps a {@link ChangeLogIndex} of its records up to date, so single records can be
+ * read by offset. A journal that no longer receives entries can be stored as a gzip-compressed
+ * copy of the journal file, which is read with {@link #readCompressed(Path, Consumer)} or,
+ * with an index, {@link #loadCompressed(Path)}.
+ */
+class ChangeLogJournal implements IndexedChangeLog {
+    private static final Logger log = LoggerFactory.getLogger(ChangeLogJournal.class);
+
+    private static final int MAGIC = 0x43484A32;
+    private static final int HEADER_BYTES = Integer.BYTES;
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path journalPath;
+    private final Path legacyPath;
+    private final ChangeLogCodec codec = new ChangeLogCodec();
+    private final ChangeLogIndex index = new ChangeLogIndex(codec.dictionary());
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+
+    private FileChannel channel;
+    private long endOffset;
+
+    /**
+     * Creates a journal backed by the given file. The file is opened on first use.
+     *
+     * @param journalPath the path of the journal file
+     * @param legacyPath  the path of the serialized change list imported when the journal does not exist yet,
+     *                    or null if there is none
+     */
+    ChangeLogJournal(Path journalPath, Path legacyPath) {
+        this.journalPath = journalPath;
+        this.legacyPath = legacyPath;
+    }
+
+    /**
+     * Appends one entry to the journal and forces it to disk.
+     *
+     * @param change the entry to append
+     * @throws IOException if the entry cannot be written
+     */
+    void append(ChangeLogHolder change) throws IOException {
+        appendAll(List.of(change));
+    }
+
+    /**
+     * Appends the given entries to the journal with a single write and forces them to disk.
+     *
+     * @param changes the entries to append, in order
+     * @throws IOException if the entries cannot be written
+     */
+    synchronized void appendAll(Collection<ChangeLogHolder> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        open();
+        batch.reset();
+        DataOutputStream out = new DataOutputStream(batch);
+        long[] recordOffsets = new long[changes.size()];
+        int recordCount = 0;
+        for (ChangeLogHolder change : changes) {
+            recordOffsets[recordCount++] = endOffset + batch.size();
+            writeFrame(out, codec.buffer(), codec.encode(change));
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        long position = endOffset;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // The codec's dictionary now holds strings that may not have reached the file;
+            // reopening rescans the file and rebuilds it
+            close();
+            throw e;
+        }
+        endOffset = position;
+        recordCount = 0;
+        for (ChangeLogHolder change : changes) {
+            addToIndex(recordOffsets[recordCount++], change);
+        }
+    }
+
+    /**
+     * Returns the offset index of the journal's records. The index grows as entries are appended.
+     *
+     * @return the index
+     * @throws IOException if the journal cannot be opened
+     */
+    @Override
+    public synchronized ChangeLogIndex index() throws IOException {
+        open();
+        return index;
+    }
+
+    /**
+     * Reads and decodes the records at the given offsets with positional reads.
+     *
+     * @param offsets the file offsets of the records
+     * @param count   the number of offsets to read from the start of the array
+     * @return the decoded records in the order of the offsets
+     * @throws IOException if a record cannot be read
+     */
+    @Override
+    public synchronized List<ChangeLogHolder> read(long[] offsets, int count) throws IOException {
+        open();
+        ChangeLogCodec decoder = codec.readOnlyCopy();
+        List<ChangeLogHolder> changes = new ArrayList<>(count);
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES);
+        for (int i = 0; i < count; i++) {
+            frame.clear();
+            readFully(frame, offsets[i]);
+            ByteBuffer body = ByteBuffer.allocate(frame.getInt(0));
+            readFully(body, offsets[i] + FRAME_BYTES);
+            changes.add(decoder.decode(body.array(), body.capacity()));
+        }
+        return changes;
+    }
+
+    /**
+     * Reads every entry in the journal in the order they were appended.
+     *
+     * @return the journal entries
+     * @throws IOException if the journal cannot be read
+     */
+    List<ChangeLogHolder> readAll() throws IOException {
+        List<ChangeLogHolder> changes = new ArrayList<>();
+        forEach(changes::add);
+        return changes;
+    }
+
+    /**
+     * Passes every entry in the journal to the handler in the order they were appended,
+     * reading the file sequentially.
+     *
+     * @param handler the handler called for each entry
+     * @throws IOException if the journal cannot be read
+     */
+    synchronized void forEach(Consumer<ChangeLogHolder> handler) throws IOException {
+        open();
+        try (InputStream in = Files.newInputStream(journalPath)) {
+            in.skipNBytes(HEADER_BYTES);
+            scan(new DataInputStream(new BufferedInputStream(in)), endOffset - HEADER_BYTES,
+                    new ChangeLogCodec(), (_, change) -> handler.accept(change));
+        }
+    }
+
+    /**
+     * Writes a gzip-compressed copy of the journal to the target file, replacing it atomically.
+     *
+     * @param target the path of the compressed copy
+     * @throws IOException if the copy cannot be written
+     */
+    synchronized void writeCompressedCopy(Path target) throws IOException {
+        open();
+        writeAtomically(target, out -> {
+            GZIPOutputStream gzip = new GZIPOutputStream(out, 1 << 16);
+            try (InputStream in = Files.newInputStream(journalPath)) {
+                in.transferTo(gzip);
+            }
+            gzip.finish();
+        });
+    }
+
+    /**
+     * Passes every entry of a compressed journal copy to the handler.
+     *
+     * @param compressedPath the path of the compressed copy
+     * @param handler        the handler called for each entry
+     * @throws IOException if the copy cannot be read
+     */
+    static void readCompressed(Path compressedPath, Consumer<ChangeLogHolder> handler) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(Files.newInputStream(compressedPath), 1 << 16)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a compressed change log journal: " + compressedPath);
+            }
+            scan(in, Long.MAX_VALUE, new ChangeLogCodec(), (_, change) -> handler.accept(change));
+        }
+    }
+
+    /**
+     * Decompresses a compressed journal copy into memory and indexes its records.
+     *
+     * @param compressedPath the path of the compressed copy
+     * @return the indexed copy
+     * @throws IOException if the copy cannot be read
+     */
+    static IndexedChangeLog loadCompressed(Path compressedPath) throws IOException {
+        byte[] bytes;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(compressedPath), 1 << 16)) {
+            bytes = in.readAllBytes();
+        }
+        if (bytes.length < HEADER_BYTES || ByteBuffer.wrap(bytes).getInt(0) != MAGIC) {
+            throw new IOException("Not a compressed change log journal: " + compressedPath);
+        }
+        return new LoadedJournal(bytes);
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return the journal path
+     */
+    Path getPath() {
+        return journalPath;
+    }
+
+    /**
+     * Closes the journal file. The journal reopens it on next use.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        if (Files.notExists(journalPath)) {
+            create();
+        }
+        channel = FileChannel.open(journalPath, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            recover();
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Validates the header, rebuilds the codec's dictionary and the index and truncates the file after the last intact record.
+     */
+    private void recover() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        if (header.position() < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IOException("Not a change log journal: " + journalPath);
+        }
+        codec.reset();
+        index.clear();
+        long size = channel.size();
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(HEADER_BYTES))));
+        long intactBytes = scan(in, size - HEADER_BYTES, codec, this::addToIndex);
+        endOffset = HEADER_BYTES + intactBytes;
+        if (endOffset < size) {
+            log.warn("Dropping {} bytes of incomplete or corrupt records at the end of {}", size - endOffset, journalPath);
+            channel.truncate(endOffset);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Reads records until the limit, the end of the stream or the first damaged record.
+     * The record bodies are read into one reused buffer.
+     *
+     * @param in      the stream positioned at the first record
+     * @param limit   the number of bytes that may be read
+     * @param decoder the codec that decodes the record bodies; every intact record is decoded
+     * @param handler the handler for the decoded entries and their file offsets
+     * @return the number of bytes taken up by intact records
+     */
+    private static long scan(DataInputStream in, long limit, ChangeLogCodec decoder, RecordHandler handler)
+            throws IOException {
+        CRC32C crc = new CRC32C();
+        byte[] body = new byte[256];
+        long read = 0;
+        while (limit - read >= FRAME_BYTES) {
+            int length;
+            try {
+                length = in.readInt();
+                int checksum = in.readInt();
+                if (length < 0 || length > MAX_RECORD_BYTES || length > limit - read - FRAME_BYTES) {
+                    break;
+                }
+                if (length > body.length) {
+                    body = new byte[Math.max(length, body.length * 2)];
+                }
+                in.readFully(body, 0, length);
+                crc.reset();
+                crc.update(body, 0, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            handler.handle(HEADER_BYTES + read, decoder.decode(body, length));
+            read += FRAME_BYTES + length;
+        }
+        return read;
+    }
+
+    /**
+     * Writes a new journal holding the legacy entries and renames the legacy file.
+     */
+    private void create() throws IOException {
+        List<ChangeLogHolder> legacyChanges = readLegacy();
+        writeJournal(journalPath, legacyChanges);
+        if (legacyPath != null && Files.exists(legacyPath)) {
+            Files.move(legacyPath, legacyPath.resolveSibling(legacyPath.getFileName() + ".migrated"),
+                    StandardCopyOption.REPLACE_EXISTING);
+            log.info("Migrated {} change log entries from {} to {}", legacyChanges.size(), legacyPath, journalPath);
+        }
+    }
+
+    private void addToIndex(long offset, ChangeLogHolder change) {
+        index.add(offset, change, codec.idOf(change.getFieldChanged()), codec.idOf(change.getRole()));
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Change log record beyond the end of " + journalPath);
+            }
+        }
+    }
+
+    private static void writeJournal(Path target, Collection<ChangeLogHolder> changes) throws IOException {
+        ChangeLogCodec journalCodec = new ChangeLogCodec();
+        writeAtomically(target, stream -> {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            for (ChangeLogHolder change : changes) {
+                writeFrame(out, journalCodec.buffer(), journalCodec.encode(change));
+            }
+            out.flush();
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChangeLogHolder> readLegacy() throws IOException {
+        if (legacyPath == null || Files.notExists(legacyPath)) {
+            return List.of();
+        }
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacyPath)))) {
+            return (List<ChangeLogHolder>) ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unreadable change list " + legacyPath, e);
+        }
+    }
+
+    /**
+     * Writes a file through a temporary file that is fsynced and then atomically renamed
+     * over the target, so the target is always either the old or the complete new file.
+     *
+     * @param target the file to write
+     * @param writer writes the contents to the given stream
+     * @throws IOException if the file cannot be written
+     */
+    static void writeAtomically(Path target, StreamWriter writer) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tempPath = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel tempChannel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                OutputStream out = Channels.newOutputStream(tempChannel);
+                writer.write(out);
+                out.flush();
+                tempChannel.force(true);
+            }
+            Files.move(tempPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+        syncDirectory(directory);
+    }
+
+    /**
+     * Makes a rename durable. Not every platform allows opening a directory, which is tolerated.
+     */
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Could not sync directory {}", directory, e);
+        }
+    }
+
+    private static void writeFrame(DataOutputStream out, byte[] body, int length) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(body, 0, length);
+        out.writeInt(length);
+        out.writeInt((int) crc.getValue());
+        out.write(body, 0, length);
+    }
+
+    /**
+     * Receives each intact record found by a scan.
+     */
+    @FunctionalInterface
+    private interface RecordHandler {
+        void handle(long offset, ChangeLogHolder change);
+    }
+
+    /**
+     * Journal contents held in memory, used to read a compressed copy by offset.
+     */
+    private static final class LoadedJournal implements IndexedChangeLog {
+        private final byte[] bytes;
+        private final ChangeLogCodec codec = new ChangeLogCodec();
+        private final ChangeLogIndex index = new ChangeLogIndex(codec.dictionary());
+
+        private LoadedJournal(byte[] bytes) throws IOException {
+            this.bytes = bytes;
+            scan(new DataInputStream(new ByteArrayInputStream(bytes, HEADER_BYTES, bytes.length - HEADER_BYTES)),
+                    bytes.length - HEADER_BYTES, codec, (offset, change) -> index.add(offset, change,
+                            codec.idOf(change.getFieldChanged()), codec.idOf(change.getRole())));
+        }
+
+        @Override
+        public ChangeLogIndex index() {
+            return index;
+        }
+
+        @Override
+        public List<ChangeLogHolder> read(long[] offsets, int count) throws IOException {
+            ChangeLogCodec decoder = codec.readOnlyCopy();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            List<ChangeLogHolder> changes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int bodyOffset = (int) offsets[i] + FRAME_BYTES;
+                int length = buffer.getInt((int) offsets[i]);
+                changes.add(decoder.decode(bytes, bodyOffset, length));
+            }
+            return changes;
+        }
+    }
+
+    /**
+     * Writes the contents of a file.
+     */
+    @FunctionalInterface
+    interface StreamWriter {
+
+        /**
+         * Writes the contents to the stream. The stream must not be closed.
+         *
+         * @param out the stream to write to
+         * @throws IOException if writing fails
+         */
+        void write(OutputStream out) throws IOException;
+    }
+}
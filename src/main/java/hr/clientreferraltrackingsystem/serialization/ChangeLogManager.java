@@ -3,48 +3,157 @@ package hr.clientreferraltrackingsystem.serialization;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Utility class responsible for serializing and deserializing {@link ChangeLogHolder} objects
- * to and from a file.
+ * Utility class responsible for storing and reading {@link ChangeLogHolder} objects.
+ * <p>
+ * Changes are kept in a {@link SegmentedChangeLog}: one append-only journal per month, older
+ * months compressed and dropped after the retention period. Recording a change writes only that
+ * change instead of rewriting the whole history, and reading a date range opens only the months
+ * it covers. The retention period is read from the {@code changeLog.retention} system property
+ * as an ISO-8601 period and defaults to two years. The log takes over the entries of the former single-file journal and serialized
+ * change list on first use.
+ * <p>
+ * Recording a change does not touch the disk on the caller's thread: changes are handed to an
+ * {@link AuditWriter}, which writes them in batches in the background. {@link #shutdown()}
+ * writes the remaining changes and must be called before the application exits.
  */
 public class ChangeLogManager {
     private static final String FILE_PATH_LOG = "dat/changes.dat";
+    private static final String FILE_PATH_JOURNAL = "dat/changes.journal";
+    private static final String DIRECTORY_PATH_SEGMENTS = "dat/changes";
+    private static final String RETENTION_PROPERTY = "changeLog.retention";
+    private static final Period DEFAULT_RETENTION = Period.ofYears(2);
     private static final Logger log = LoggerFactory.getLogger(ChangeLogManager.class);
+    private static final Period RETENTION = retention(System.getProperty(RETENTION_PROPERTY));
+    private static final int WRITER_QUEUE_CAPACITY = 1024;
+    private static final int WRITER_MAX_BATCH_SIZE = 256;
+    private static final Duration WRITER_MAX_LATENCY = Duration.ofMillis(50);
+    private static final SegmentedChangeLog changeLog = new SegmentedChangeLog(Path.of(DIRECTORY_PATH_SEGMENTS),
+            Path.of(FILE_PATH_JOURNAL), Path.of(FILE_PATH_LOG), RETENTION);
+    private static final AuditWriter writer = new AuditWriter.Builder(changeLog)
+            .capacity(WRITER_QUEUE_CAPACITY)
+            .maxBatchSize(WRITER_MAX_BATCH_SIZE)
+            .maxLatency(WRITER_MAX_LATENCY)
+            .build();
 
     private ChangeLogManager() {}
 
     /**
-     * Serializes a new change by adding it to the existing list of changes and
-     * saving the updated list to the file.
+     * Parses the configured retention period, an ISO-8601 period such as {@code P2Y} or {@code P18M}.
      *
-     * @param change the {@link ChangeLogHolder} object to serialize
+     * @param value the configured period, or null if none is configured
+     * @return the parsed period, or two years if the value is missing, malformed or not positive
      */
-    public static void serializeChange(ChangeLogHolder change) {
-        List<ChangeLogHolder> existingChanges = deserializeChanges();
-        existingChanges.add(change);
-
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(FILE_PATH_LOG))) {
-            oos.writeObject(existingChanges);
-        } catch (IOException e) {
-            log.error("Error occurred while serializing changes", e);
+    static Period retention(String value) {
+        if (value == null || value.isBlank()) {
+            return DEFAULT_RETENTION;
         }
+        try {
+            Period retention = Period.parse(value.trim());
+            if (!retention.isNegative() && !retention.isZero()) {
+                return retention;
+            }
+            log.warn("Ignoring non-positive change log retention {}", value);
+        } catch (DateTimeParseException e) {
+            log.warn("Ignoring malformed change log retention {}", value, e);
+        }
+        return DEFAULT_RETENTION;
+    }
+
+    /**
+     * Records a new change by queueing it for the background audit writer.
+     * Blocks only while the writer's queue is full.
+     *
+     * @param change the {@link ChangeLogHolder} object to store
+     */
+    public static void serializeChange(ChangeLogHolder change) {
+        writer.submit(change);
     }
 
     /**
-     * Deserializes the list of changes from the file.
+     * Reads all recorded changes.
      *
-     * @return a list of {@link ChangeLogHolder} objects, or an empty list if an error occurs
+     * @return a list of {@link ChangeLogHolder} objects in the order they were recorded,
+     * or an empty list if an error occurs
      */
     public static List<ChangeLogHolder> deserializeChanges() {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(FILE_PATH_LOG))) {
-            return (List<ChangeLogHolder>) ois.readObject();
-        } catch (IOException | ClassNotFoundException e) {
+        return deserializeChanges(null, null);
+    }
+
+    /**
+     * Reads the changes recorded within the given time range. Only the log segments
+     * overlapping the range are read.
+     *
+     * @param from the earliest change time to include, or null for no lower bound
+     * @param to   the latest change time to include, or null for no upper bound
+     * @return a list of {@link ChangeLogHolder} objects in the order they were recorded,
+     * or an empty list if an error occurs
+     */
+    public static List<ChangeLogHolder> deserializeChanges(LocalDateTime from, LocalDateTime to) {
+        writer.flush();
+        try {
+            return changeLog.read(from, to);
+        } catch (IOException e) {
             log.error("Error occurred while deserializing changes", e);
             return new ArrayList<>();
         }
     }
+
+    /**
+     * Returns one page of the recorded changes matching the given criteria, in the order they
+     * were recorded. Matching uses the log's offset index, so only the changes on the page are
+     * decoded.
+     *
+     * @param fromTime the earliest change time to include, or null for no lower bound
+     * @param toTime   the latest change time to include, or null for no upper bound
+     * @param field    the changed field to match ignoring case, or null for any field
+     * @param role     the role to match ignoring case, or null for any role
+     * @param offset   the number of matching changes to skip
+     * @param limit    the maximum number of changes to return
+     * @return the page with the total number of matches, or an empty page if an error occurs
+     */
+    public static ChangeLogPage query(LocalDateTime fromTime, LocalDateTime toTime, String field, String role,
+                                      int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit must not be negative");
+        }
+        writer.flush();
+        try {
+            return changeLog.query(fromTime, toTime, field, role, offset, limit);
+        } catch (IOException e) {
+            log.error("Error occurred while querying changes", e);
+            return new ChangeLogPage(List.of(), 0);
+        }
+    }
+
+    /**
+     * Returns the audit writer's queue and flush statistics.
+     *
+     * @return the current writer statistics
+     */
+    public static AuditWriterStats getWriterStats() {
+        return writer.stats();
+    }
+
+    /**
+     * Writes the queued changes, stops the audit writer and closes the change log.
+     * Changes recorded afterwards are written directly.
+     */
+    public static void shutdown() {
+        writer.close();
+        try {
+            changeLog.close();
+        } catch (IOException e) {
+            log.error("Error occurred while closing the change log", e);
+        }
+    }
 }
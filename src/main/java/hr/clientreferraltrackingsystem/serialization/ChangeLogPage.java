@@ -0,0 +1,12 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import java.util.List;
+
+/**
+ * One page of a change log query.
+ *
+ * @param items      the changes on this page, in the order they were recorded
+ * @param totalCount the number of changes matching the query across all pages
+ */
+public record ChangeLogPage(List<ChangeLogHolder> items, int totalCount) {
+}
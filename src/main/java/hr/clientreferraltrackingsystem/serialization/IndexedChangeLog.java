@@ -0,0 +1,28 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Change log file whose records can be located through a {@link ChangeLogIndex} and read individually.
+ */
+interface IndexedChangeLog {
+
+    /**
+     * Returns the offset index of the file's records.
+     *
+     * @return the index
+     * @throws IOException if the file cannot be read
+     */
+    ChangeLogIndex index() throws IOException;
+
+    /**
+     * Reads and decodes the records at the given offsets.
+     *
+     * @param offsets the file offsets of the records, as returned by {@link ChangeLogIndex#offset(int)}
+     * @param count   the number of offsets to read from the start of the array
+     * @return the decoded records in the order of the offsets
+     * @throws IOException if a record cannot be read
+     */
+    List<ChangeLogHolder> read(long[] offsets, int count) throws IOException;
+}
@@ -0,0 +1,496 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Change log split into one segment per calendar month.
+ * <p>
+ * Changes are appended to the journal of the current month. When a change from a later month
+ * arrives, or the log is opened in a later month, the current segment is sealed: a gzip-compressed
+ * copy replaces its journal. A manifest file lists the sealed segments together with the time
+ * range and number of changes they hold, so a date range query opens only the segments that
+ * overlap it. Sealed segments whose newest change is older than the retention period are deleted.
+ * <p>
+ * Paged queries match and count records through the segments' offset indexes and decode only the
+ * records on the requested page. The indexes of recently queried sealed segments are kept in memory
+ * together with their decompressed contents.
+ * <p>
+ * The manifest is replaced atomically and always written before the files it no longer
+ * references are removed, so an interrupted rotation leaves at most a stray file behind.
+ * <p>
+ * When the log directory has no manifest yet, the changes of the previous single-file journal
+ * (which itself takes over the serialized change list) are split into segments.
+ */
+class SegmentedChangeLog {
+    private static final Logger log = LoggerFactory.getLogger(SegmentedChangeLog.class);
+
+    private static final String MANIFEST_FILE = "manifest";
+    private static final String SEGMENT_PREFIX = "changes-";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String COMPRESSED_SUFFIX = ".journal.gz";
+    private static final String ACTIVE = "active";
+    private static final String SEALED = "sealed";
+    private static final int LOADED_SEGMENT_CACHE_SIZE = 12;
+
+    private final Path directory;
+    private final Path legacyJournalPath;
+    private final Path legacyListPath;
+    private final Period retention;
+
+    private final List<Segment> sealed = new ArrayList<>();
+    private final Map<YearMonth, IndexedChangeLog> loadedSegments = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<YearMonth, IndexedChangeLog> eldest) {
+            return size() > LOADED_SEGMENT_CACHE_SIZE;
+        }
+    };
+    private boolean opened;
+    private YearMonth activeMonth;
+    private ChangeLogJournal active;
+    private int activeCount;
+    private LocalDateTime activeFirst;
+    private LocalDateTime activeLast;
+
+    /**
+     * Creates a segmented change log in the given directory. The log is opened on first use.
+     *
+     * @param directory         the directory holding the segments and the manifest
+     * @param legacyJournalPath the path of the single-file journal split into segments on first open
+     * @param legacyListPath    the path of the serialized change list the single-file journal takes over
+     * @param retention         how long sealed segments are kept after their newest change
+     */
+    SegmentedChangeLog(Path directory, Path legacyJournalPath, Path legacyListPath, Period retention) {
+        this.directory = directory;
+        this.legacyJournalPath = legacyJournalPath;
+        this.legacyListPath = legacyListPath;
+        this.retention = retention;
+    }
+
+    /**
+     * Appends one change.
+     *
+     * @param change the change to append
+     * @throws IOException if the change cannot be written
+     */
+    void append(ChangeLogHolder change) throws IOException {
+        appendAll(List.of(change));
+    }
+
+    /**
+     * Appends the changes, starting a new segment whenever a change belongs to a later month
+     * than the current segment. Changes of one segment are written with a single flush.
+     *
+     * @param changes the changes to append, in order
+     * @throws IOException if the changes cannot be written
+     */
+    synchronized void appendAll(Collection<ChangeLogHolder> changes) throws IOException {
+        open();
+        List<ChangeLogHolder> run = new ArrayList<>();
+        for (ChangeLogHolder change : changes) {
+            YearMonth month = monthOf(change);
+            if (month.isAfter(activeMonth)) {
+                writeToActive(run);
+                run.clear();
+                rotate(month);
+            }
+            run.add(change);
+        }
+        writeToActive(run);
+    }
+
+    /**
+     * Reads the changes made within the given time range, in the order they were recorded.
+     * Only the segments overlapping the range are opened.
+     *
+     * @param from the earliest change time to include, or null for no lower bound
+     * @param to   the latest change time to include, or null for no upper bound
+     * @return the matching changes
+     * @throws IOException if a segment cannot be read
+     */
+    synchronized List<ChangeLogHolder> read(LocalDateTime from, LocalDateTime to) throws IOException {
+        open();
+        List<ChangeLogHolder> changes = new ArrayList<>();
+        Consumer<ChangeLogHolder> collector = change -> {
+            if (isWithin(change.getChangeDateTime(), from, to)) {
+                changes.add(change);
+            }
+        };
+        for (Segment segment : sealed) {
+            if (overlaps(segment.first(), segment.last(), from, to)) {
+                ChangeLogJournal.readCompressed(segmentPath(segment.month(), true), collector);
+            }
+        }
+        if (activeCount > 0 && overlaps(activeFirst, activeLast, from, to)) {
+            active.forEach(collector);
+        }
+        return changes;
+    }
+
+    /**
+     * Returns one page of the changes matching the criteria, in the order they were recorded,
+     * together with the total number of matches.
+     * <p>
+     * Without any criteria the sealed segments are counted from the manifest and only the
+     * segments the page falls into are opened. Otherwise the segments overlapping the time range
+     * are matched through their indexes, without decoding records that are not on the page.
+     *
+     * @param from   the earliest change time to include, or null for no lower bound
+     * @param to     the latest change time to include, or null for no upper bound
+     * @param field  the changed field to match ignoring case, or null for any field
+     * @param role   the role to match ignoring case, or null for any role
+     * @param offset the number of matching changes to skip
+     * @param limit  the maximum number of changes on the page
+     * @return the page of matching changes
+     * @throws IOException if a segment cannot be read
+     */
+    synchronized ChangeLogPage query(LocalDateTime from, LocalDateTime to, String field, String role,
+                                     int offset, int limit) throws IOException {
+        open();
+        boolean unfiltered = from == null && to == null && field == null && role == null;
+        long windowEnd = (long) offset + limit;
+        List<ChangeLogHolder> items = new ArrayList<>();
+        int total = 0;
+
+        for (Segment segment : sealed) {
+            if (unfiltered) {
+                if (total + segment.count() > offset && total < windowEnd) {
+                    IndexedChangeLog file = loadSegment(segment.month());
+                    ChangeLogIndex index = file.index();
+                    int first = Math.max(0, offset - total);
+                    int end = (int) Math.min(index.size(), windowEnd - total);
+                    if (end > first) {
+                        items.addAll(file.read(offsetsBetween(index, first, end), end - first));
+                    }
+                }
+                total += segment.count();
+            } else if (overlaps(segment.first(), segment.last(), from, to)) {
+                total = collectMatches(loadSegment(segment.month()), from, to, field, role, offset, windowEnd, total, items);
+            }
+        }
+        if (activeCount > 0 && (unfiltered || overlaps(activeFirst, activeLast, from, to))) {
+            total = collectMatches(active, from, to, field, role, offset, windowEnd, total, items);
+        }
+        return new ChangeLogPage(items, total);
+    }
+
+    /**
+     * Closes the current segment. The log reopens it on next use.
+     *
+     * @throws IOException if the segment cannot be closed
+     */
+    synchronized void close() throws IOException {
+        if (active != null) {
+            active.close();
+        }
+    }
+
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+        Files.createDirectories(directory);
+        if (Files.exists(directory.resolve(MANIFEST_FILE))) {
+            readManifest();
+        } else {
+            migrateLegacyJournal();
+        }
+        active = new ChangeLogJournal(segmentPath(activeMonth, false), null);
+        active.forEach(this::trackActive);
+        removeStrayFiles();
+        opened = true;
+
+        YearMonth currentMonth = YearMonth.now();
+        if (currentMonth.isAfter(activeMonth)) {
+            rotate(currentMonth);
+        } else {
+            applyRetention();
+        }
+    }
+
+    /**
+     * Adds the matching records of one file that fall into the page window to the items.
+     *
+     * @return the number of matches seen so far, including this file's
+     */
+    private static int collectMatches(IndexedChangeLog file, LocalDateTime from, LocalDateTime to, String field,
+                                      String role, int offset, long windowEnd, int total,
+                                      List<ChangeLogHolder> items) throws IOException {
+        ChangeLogIndex index = file.index();
+        ChangeLogIndex.Matcher matcher = index.matcher(from, to, field, role);
+        long[] pageOffsets = new long[16];
+        int pageCount = 0;
+        for (int position = 0; position < index.size(); position++) {
+            if (!matcher.matches(position)) {
+                continue;
+            }
+            if (total >= offset && total < windowEnd) {
+                if (pageCount == pageOffsets.length) {
+                    pageOffsets = Arrays.copyOf(pageOffsets, pageCount * 2);
+                }
+                pageOffsets[pageCount++] = index.offset(position);
+            }
+            total++;
+        }
+        if (pageCount > 0) {
+            items.addAll(file.read(pageOffsets, pageCount));
+        }
+        return total;
+    }
+
+    private static long[] offsetsBetween(ChangeLogIndex index, int first, int end) {
+        long[] offsets = new long[end - first];
+        for (int position = first; position < end; position++) {
+            offsets[position - first] = index.offset(position);
+        }
+        return offsets;
+    }
+
+    private IndexedChangeLog loadSegment(YearMonth month) throws IOException {
+        IndexedChangeLog file = loadedSegments.get(month);
+        if (file == null) {
+            file = ChangeLogJournal.loadCompressed(segmentPath(month, true));
+            loadedSegments.put(month, file);
+        }
+        return file;
+    }
+
+    private void writeToActive(List<ChangeLogHolder> changes) throws IOException {
+        if (changes.isEmpty()) {
+            return;
+        }
+        active.appendAll(changes);
+        changes.forEach(this::trackActive);
+    }
+
+    private void trackActive(ChangeLogHolder change) {
+        activeCount++;
+        LocalDateTime changeDateTime = change.getChangeDateTime();
+        if (changeDateTime != null) {
+            activeFirst = activeFirst == null || changeDateTime.isBefore(activeFirst) ? changeDateTime : activeFirst;
+            activeLast = activeLast == null || changeDateTime.isAfter(activeLast) ? changeDateTime : activeLast;
+        }
+    }
+
+    /**
+     * Seals the current segment and starts an empty one for the given month.
+     */
+    private void rotate(YearMonth month) throws IOException {
+        Path previous = active.getPath();
+        if (activeCount > 0) {
+            active.writeCompressedCopy(segmentPath(activeMonth, true));
+            sealed.add(new Segment(activeMonth, activeCount, activeFirst, activeLast));
+            log.info("Sealed change log segment {} with {} changes", activeMonth, activeCount);
+        }
+        active.close();
+
+        activeMonth = month;
+        active = new ChangeLogJournal(segmentPath(month, false), null);
+        activeCount = 0;
+        activeFirst = null;
+        activeLast = null;
+        writeManifest();
+        Files.deleteIfExists(previous);
+        applyRetention();
+    }
+
+    /**
+     * Deletes the sealed segments whose newest change is older than the retention period.
+     */
+    private void applyRetention() throws IOException {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        List<Segment> expired = new ArrayList<>();
+        for (Iterator<Segment> iterator = sealed.iterator(); iterator.hasNext(); ) {
+            Segment segment = iterator.next();
+            if (segment.last() != null && segment.last().isBefore(cutoff)) {
+                expired.add(segment);
+                iterator.remove();
+            }
+        }
+        if (expired.isEmpty()) {
+            return;
+        }
+        writeManifest();
+        for (Segment segment : expired) {
+            loadedSegments.remove(segment.month());
+            Files.deleteIfExists(segmentPath(segment.month(), true));
+            log.info("Deleted change log segment {} past the retention period", segment.month());
+        }
+    }
+
+    /**
+     * Splits the changes of the single-file journal into segments and writes the first manifest.
+     * Segment files left over from an interrupted earlier attempt are discarded first.
+     */
+    private void migrateLegacyJournal() throws IOException {
+        deleteSegmentFiles();
+        activeMonth = YearMonth.now();
+        if (Files.notExists(legacyJournalPath) && Files.notExists(legacyListPath)) {
+            writeManifest();
+            return;
+        }
+
+        ChangeLogJournal legacyJournal = new ChangeLogJournal(legacyJournalPath, legacyListPath);
+        Map<YearMonth, List<ChangeLogHolder>> changesByMonth = new TreeMap<>();
+        try {
+            legacyJournal.forEach(change -> {
+                YearMonth month = monthOf(change);
+                changesByMonth.computeIfAbsent(month.isAfter(activeMonth) ? activeMonth : month,
+                        _ -> new ArrayList<>()).add(change);
+            });
+        } finally {
+            legacyJournal.close();
+        }
+
+        for (Map.Entry<YearMonth, List<ChangeLogHolder>> entry : changesByMonth.entrySet()) {
+            ChangeLogJournal journal = new ChangeLogJournal(segmentPath(entry.getKey(), false), null);
+            try {
+                journal.appendAll(entry.getValue());
+                if (entry.getKey().isBefore(activeMonth)) {
+                    journal.writeCompressedCopy(segmentPath(entry.getKey(), true));
+                }
+            } finally {
+                journal.close();
+            }
+            if (entry.getKey().isBefore(activeMonth)) {
+                Files.delete(journal.getPath());
+                sealed.add(bounds(entry.getKey(), entry.getValue()));
+            }
+        }
+        writeManifest();
+        Files.move(legacyJournalPath, legacyJournalPath.resolveSibling(legacyJournalPath.getFileName() + ".migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+        log.info("Split {} into {} change log segments", legacyJournalPath, changesByMonth.size());
+    }
+
+    private void readManifest() throws IOException {
+        sealed.clear();
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve(MANIFEST_FILE), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";", -1);
+                if (parts[0].equals(ACTIVE)) {
+                    activeMonth = YearMonth.parse(parts[1]);
+                } else if (parts[0].equals(SEALED)) {
+                    sealed.add(new Segment(YearMonth.parse(parts[1]), Integer.parseInt(parts[2]),
+                            parseDateTime(parts[3]), parseDateTime(parts[4])));
+                }
+            }
+        }
+        if (activeMonth == null) {
+            throw new IOException("Change log manifest without an active segment in " + directory);
+        }
+    }
+
+    private void writeManifest() throws IOException {
+        ChangeLogJournal.writeAtomically(directory.resolve(MANIFEST_FILE), out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (Segment segment : sealed) {
+                writer.write(String.join(";", SEALED, segment.month().toString(), String.valueOf(segment.count()),
+                        String.valueOf(segment.first()), String.valueOf(segment.last())));
+                writer.write('\n');
+            }
+            writer.write(ACTIVE + ";" + activeMonth + "\n");
+            writer.flush();
+        });
+    }
+
+    /**
+     * Deletes segment files the manifest does not reference: the journal of a segment whose
+     * compressed copy is already listed, or a compressed or temporary copy that never made it
+     * into the manifest, all left behind by an interrupted rotation.
+     */
+    private void removeStrayFiles() throws IOException {
+        List<Path> referenced = new ArrayList<>(List.of(active.getPath()));
+        sealed.forEach(segment -> referenced.add(segmentPath(segment.month(), true)));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                if (!referenced.contains(file)) {
+                    log.warn("Removing stray change log segment file {}", file);
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*")) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private Path segmentPath(YearMonth month, boolean compressed) {
+        return directory.resolve(SEGMENT_PREFIX + month + (compressed ? COMPRESSED_SUFFIX : JOURNAL_SUFFIX));
+    }
+
+    private static Segment bounds(YearMonth month, List<ChangeLogHolder> changes) {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (ChangeLogHolder change : changes) {
+            LocalDateTime changeDateTime = change.getChangeDateTime();
+            if (changeDateTime != null) {
+                first = first == null || changeDateTime.isBefore(first) ? changeDateTime : first;
+                last = last == null || changeDateTime.isAfter(last) ? changeDateTime : last;
+            }
+        }
+        return new Segment(month, changes.size(), first, last);
+    }
+
+    private static YearMonth monthOf(ChangeLogHolder change) {
+        return change.getChangeDateTime() != null ? YearMonth.from(change.getChangeDateTime()) : YearMonth.now();
+    }
+
+    private static boolean isWithin(LocalDateTime changeDateTime, LocalDateTime from, LocalDateTime to) {
+        if (changeDateTime == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !changeDateTime.isBefore(from)) && (to == null || !changeDateTime.isAfter(to));
+    }
+
+    private static boolean overlaps(LocalDateTime first, LocalDateTime last, LocalDateTime from, LocalDateTime to) {
+        if (first == null) {
+            return from == null && to == null;
+        }
+        return (from == null || !last.isBefore(from)) && (to == null || !first.isAfter(to));
+    }
+
+    private static LocalDateTime parseDateTime(String value) {
+        return value.equals("null") ? null : LocalDateTime.parse(value);
+    }
+
+    /**
+     * Sealed segment as listed in the manifest.
+     *
+     * @param month the month the segment covers
+     * @param count the number of changes in the segment
+     * @param first the time of the earliest change, or null if no change has a time
+     * @param last  the time of the latest change, or null if no change has a time
+     */
+    private record Segment(YearMonth month, int count, LocalDateTime first, LocalDateTime last) {
+    }
+}
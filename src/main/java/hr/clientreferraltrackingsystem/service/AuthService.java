@@ -1,6 +1,7 @@
 package hr.clientreferraltrackingsystem.service;
 
 import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.database.UserCredentials;
 import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
 import org.mindrot.jbcrypt.BCrypt;
 
@@ -8,8 +9,21 @@ import java.util.Optional;
 
 /**
  * Service class responsible for user authentication.
+ * <p>
+ * Logging in first loads only the credentials of the given username through the unique
+ * username index. The full user is loaded once the password has been verified. Unknown
+ * usernames are checked against a dummy hash of the same cost, so a failed login takes as
+ * long whether or not the username exists. The dummy hash is computed by {@link #warmUp()} at
+ * startup, so the first unknown username does not pay for hashing it. BCrypt is slow by design;
+ * callers should run {@link #login(String, String)} off the JavaFX Application Thread.
  */
 public class AuthService {
+    /**
+     * The BCrypt cost factor of new password hashes and of the dummy hash. It matches the
+     * cost of the seeded accounts.
+     */
+    private static final int BCRYPT_LOG_ROUNDS = 12;
+
     private final UserDatabaseRepository userDatabaseRepository = new UserDatabaseRepository();
 
     /**
@@ -21,18 +35,27 @@ public class AuthService {
      *         or empty if authentication fails
      */
     public Optional<User> login(String username, String password) {
-        Optional<User> userOptional = userDatabaseRepository.findByUsername(username);
+        Optional<UserCredentials> credentials = userDatabaseRepository.findCredentialsByUsername(username);
+
+        String passwordHash = credentials.map(UserCredentials::passwordHash).orElseGet(DummyHash::get);
+        boolean passwordMatches = BCrypt.checkpw(password, passwordHash);
 
-        if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            if (BCrypt.checkpw(password, user.getPassword())) {
-                return Optional.of(user);
-            }
+        if (credentials.isPresent() && passwordMatches) {
+            return userDatabaseRepository.findById(credentials.get().userId());
         }
 
         return Optional.empty();
     }
 
+    /**
+     * Computes the dummy hash checked for unknown usernames. Called once at startup off the
+     * JavaFX Application Thread, so that no login has to compute it; a login that arrives
+     * earlier waits until it is ready.
+     */
+    public static void warmUp() {
+        DummyHash.get();
+    }
+
     /**
      * Hashes a plaintext password using BCrypt.
      *
@@ -40,6 +63,18 @@ public class AuthService {
      * @return the hashed password
      */
     public static String hashPassword(String password) {
-        return BCrypt.hashpw(password, BCrypt.gensalt());
+        return BCrypt.hashpw(password, BCrypt.gensalt(BCRYPT_LOG_ROUNDS));
+    }
+
+    /**
+     * Holder of the hash checked for unknown usernames, computed when {@link #warmUp()} runs
+     * at startup rather than on the FX thread when the login screen creates the service.
+     */
+    private static class DummyHash {
+        private static final String HASH = hashPassword("dummy password for unknown usernames");
+
+        private static String get() {
+            return HASH;
+        }
     }
 }
@@ -1,37 +1,56 @@
 package hr.clientreferraltrackingsystem.threads;
 
 import hr.clientreferraltrackingsystem.model.Referral;
-import hr.clientreferraltrackingsystem.repository.database.ReferralDatabaseRepository;
+import hr.clientreferraltrackingsystem.repository.database.ReferralFeed;
+import javafx.application.Platform;
 import javafx.scene.control.Label;
 
-import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
- * Runnable implementation that fetches the latest referral from the database
- * and updates a JavaFX Label with its information.
+ * {@link ReferralFeed} subscriber that shows each newly created referral in a JavaFX Label.
+ * <p>
+ * The feed calls it from a background thread, so the label is updated on the
+ * JavaFX Application Thread. The subscriber removes itself from the feed once
+ * the label is no longer shown.
  */
-public class DisplayLatestReferral implements Runnable {
-    private ReferralDatabaseRepository repository;
-    private Label label;
+public class DisplayLatestReferral implements Consumer<Referral> {
+    private final Label label;
 
     /**
-     * Constructs a new DisplayLatestReferral runnable.
+     * Constructs a new DisplayLatestReferral subscriber.
      *
-     * @param repository the repository used to fetch referrals
      * @param label the JavaFX Label to update with referral information
      */
-    public DisplayLatestReferral(ReferralDatabaseRepository repository, Label label) {
-        this.repository = repository;
+    public DisplayLatestReferral(Label label) {
         this.label = label;
     }
 
     /**
-     * Fetches the latest referral from the database and updates the label
-     * with the referral's string representation if present.
+     * Subscribes to the referral feed until the label's scene is detached from its window,
+     * which happens when another view replaces the scene.
+     */
+    public void start() {
+        label.sceneProperty().addListener((sceneObservable, oldScene, newScene) -> {
+            if (newScene != null) {
+                newScene.windowProperty().addListener((windowObservable, oldWindow, newWindow) -> {
+                    if (newWindow == null) {
+                        ReferralFeed.unsubscribe(this);
+                    }
+                });
+            }
+        });
+        ReferralFeed.subscribe(this);
+    }
+
+    /**
+     * Updates the label with the referral's string representation.
+     *
+     * @param referral the newly created referral
      */
     @Override
-    public void run() {
-        Optional<Referral> latestReferral = repository.findLatestReferralFromDb();
-        latestReferral.ifPresent(referral -> label.setText(referral.threadPrint()));
+    public void accept(Referral referral) {
+        String text = referral.threadPrint();
+        Platform.runLater(() -> label.setText(text));
     }
 }
@@ -0,0 +1,61 @@
+package hr.clientreferraltrackingsystem.utils;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn;
+
+import java.util.function.Function;
+
+/**
+ * Utility methods for binding table columns to immutable row projections.
+ */
+public class TableCells {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TableCells() {}
+
+    /**
+     * Shows a preformatted text of the row in a column.
+     * <p>
+     * The rows are immutable, so the cell values are wrapped in a constant observable value
+     * instead of a new {@link javafx.beans.property.SimpleStringProperty} with its listener
+     * bookkeeping on every render, and the text itself is never formatted while scrolling.
+     *
+     * @param column the column to fill
+     * @param text   returns the row's preformatted text for the column
+     * @param <R>    the type of the table rows
+     */
+    public static <R> void bindText(TableColumn<R, String> column, Function<R, String> text) {
+        column.setCellValueFactory(cellData -> new ConstantValue(text.apply(cellData.getValue())));
+    }
+
+    /**
+     * Observable value that never changes, so listeners are never called and need not be kept.
+     */
+    private record ConstantValue(String value) implements ObservableValue<String> {
+
+        @Override
+        public String getValue() {
+            return value;
+        }
+
+        @Override
+        public void addListener(ChangeListener<? super String> listener) {
+        }
+
+        @Override
+        public void removeListener(ChangeListener<? super String> listener) {
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package hr.clientreferraltrackingsystem.utils;
+
+import hr.clientreferraltrackingsystem.repository.database.query.KeysetCursor;
+import hr.clientreferraltrackingsystem.repository.database.query.OffsetPage;
+import hr.clientreferraltrackingsystem.repository.database.query.Page;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Fills a {@link TableView} page by page as the user scrolls.
+ * <p>
+ * The first page is loaded when {@link #load(Function)} or {@link #loadByOffset(IntFunction)} is called
+ * and every further page is requested once the vertical scroll bar gets close to the end of the loaded rows.
+ * Pages are loaded asynchronously and appended when they arrive; a page that arrives after
+ * the table was reloaded is discarded. Methods must be called on the JavaFX Application Thread.
+ *
+ * @param <T> the type of the table items
+ */
+public class TablePager<T> {
+    private static final double LOAD_THRESHOLD = 0.9;
+
+    private final TableView<T> table;
+    private final ObservableList<T> items = FXCollections.observableArrayList();
+    private Function<KeysetCursor, CompletableFuture<LoadedPage<T>>> pageLoader;
+    private KeysetCursor nextCursor;
+    private boolean exhausted = true;
+    private boolean loading;
+    private int generation;
+
+    /**
+     * Creates a pager for the given table and starts watching its vertical scroll bar.
+     *
+     * @param table the table to fill
+     */
+    public TablePager(TableView<T> table) {
+        this.table = table;
+        table.skinProperty().addListener((_, _, skin) -> {
+            if (skin != null) {
+                attachScrollListener();
+            }
+        });
+        if (table.getSkin() != null) {
+            attachScrollListener();
+        }
+    }
+
+    /**
+     * Clears the table and loads the first page using the given loader.
+     * The loader is kept and called with the cursor of the previous page for every further page.
+     *
+     * @param pageLoader loads the page after the given cursor, or the first page for a null cursor,
+     *                   completing on the JavaFX Application Thread
+     */
+    public void load(Function<KeysetCursor, CompletableFuture<Page<T>>> pageLoader) {
+        start(cursor -> pageLoader.apply(cursor)
+                .thenApply(page -> new LoadedPage<>(page.items(), page.nextCursor(), page.hasNext())));
+    }
+
+    /**
+     * Clears the table and loads the first page of a result paginated by position.
+     * The loader is kept and called with the number of rows loaded so far for every further page.
+     *
+     * @param pageLoader loads the page starting at the given offset, completing on the JavaFX Application Thread
+     */
+    public void loadByOffset(IntFunction<CompletableFuture<OffsetPage<T>>> pageLoader) {
+        start(_ -> {
+            int offset = items.size();
+            return pageLoader.apply(offset).thenApply(page -> new LoadedPage<>(page.items(), null,
+                    !page.items().isEmpty() && offset + page.items().size() < page.totalCount()));
+        });
+    }
+
+    /**
+     * Resets the pager to the given loader and requests the first page.
+     */
+    private void start(Function<KeysetCursor, CompletableFuture<LoadedPage<T>>> pageLoader) {
+        this.pageLoader = pageLoader;
+        this.nextCursor = null;
+        this.exhausted = false;
+        this.loading = false;
+        generation++;
+        items.clear();
+        table.setItems(items);
+        loadNextPage();
+    }
+
+    /**
+     * Requests the next page, if there is one, no page is being loaded and the table still shows this pager's rows.
+     */
+    public void loadNextPage() {
+        if (exhausted || loading || pageLoader == null || table.getItems() != items) {
+            return;
+        }
+        loading = true;
+        int requestGeneration = generation;
+        pageLoader.apply(nextCursor).whenComplete((page, _) -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            loading = false;
+            if (page == null) {
+                return;
+            }
+            items.addAll(page.items());
+            nextCursor = page.nextCursor();
+            exhausted = !page.hasNext();
+        });
+    }
+
+    /**
+     * A loaded page together with the position the next page starts at, whichever way the result is paginated.
+     */
+    private record LoadedPage<T>(List<T> items, KeysetCursor nextCursor, boolean hasNext) {
+    }
+
+    /**
+     * Registers a listener on the table's vertical scroll bar that loads the next page near the end.
+     */
+    private void attachScrollListener() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((_, _, value) -> {
+                    if (value.doubleValue() >= scrollBar.getMax() * LOAD_THRESHOLD) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
+    }
+}
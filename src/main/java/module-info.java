@@ -1,9 +1,12 @@
+// jbcrypt and H2 ship as automatic modules; H2 is required for the in-process TCP server
+@SuppressWarnings("requires-automatic")
 module hr.clientreferraltrackingsystem {
     requires javafx.controls;
     requires javafx.fxml;
     requires org.slf4j;
     requires java.sql;
     requires jbcrypt;
+    requires com.h2database;
 
 
     exports hr.clientreferraltrackingsystem.main;
@@ -0,0 +1,2 @@
+-- Optimistic locking column for referral status changes, for databases created before it was added to database.sql.
+ALTER TABLE referral ADD COLUMN IF NOT EXISTS version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,17 @@
+-- referral.referrer_user_id and referral.referred_client_id are already indexed by their foreign key constraints.
+
+-- Admin status filter.
+CREATE INDEX IF NOT EXISTS idx_referral_status ON referral (status);
+
+-- Latest-referral poll (ORDER BY created_at DESC, id DESC LIMIT 1) and keyset pages of referrals
+-- in either direction; H2 reads the index backwards for ascending pages.
+CREATE INDEX IF NOT EXISTS idx_referral_created_at_desc ON referral (created_at DESC, id DESC);
+
+-- User dashboard: clients created by the logged-in user.
+CREATE INDEX IF NOT EXISTS idx_referred_client_created_by ON referred_client (created_by);
+
+-- Clients that are not currently recommended.
+CREATE INDEX IF NOT EXISTS idx_referred_client_recommended ON referred_client (is_currently_recommended);
+
+-- Keyset pages of clients ordered by last_name, id.
+CREATE INDEX IF NOT EXISTS idx_referred_client_last_name ON referred_client (last_name, id);
@@ -0,0 +1,8 @@
+-- reward.referral_id is already indexed by its foreign key constraint; rewards of one referrer
+-- are found through the referral's referrer_user_id foreign key index.
+
+-- Rewards issued within a date range.
+CREATE INDEX IF NOT EXISTS idx_reward_issued_date ON reward (issued_date);
+
+-- Rewards within an amount range.
+CREATE INDEX IF NOT EXISTS idx_reward_amount ON reward (amount);
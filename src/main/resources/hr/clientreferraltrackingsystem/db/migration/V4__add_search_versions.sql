@@ -0,0 +1,12 @@
+-- Change counter read by the search index refresh: every insert and update of a searched row takes
+-- the next value, so rows written by any application instance are found by search_version > ?.
+-- Existing rows are numbered when the column is added.
+CREATE SEQUENCE IF NOT EXISTS search_version_seq;
+
+ALTER TABLE referred_client ADD COLUMN IF NOT EXISTS search_version BIGINT
+    DEFAULT NEXT VALUE FOR search_version_seq ON UPDATE NEXT VALUE FOR search_version_seq;
+CREATE INDEX IF NOT EXISTS idx_referred_client_search_version ON referred_client (search_version);
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS search_version BIGINT
+    DEFAULT NEXT VALUE FOR search_version_seq ON UPDATE NEXT VALUE FOR search_version_seq;
+CREATE INDEX IF NOT EXISTS idx_users_search_version ON users (search_version);
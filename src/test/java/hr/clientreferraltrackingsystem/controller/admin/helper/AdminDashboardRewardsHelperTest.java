@@ -0,0 +1,131 @@
+package hr.clientreferraltrackingsystem.controller.admin.helper;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.database.row.RewardRow;
+import hr.clientreferraltrackingsystem.utils.InputValidator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the compiled reward filters with the chained {@code filterBy*} methods they replaced.
+ */
+class AdminDashboardRewardsHelperTest {
+    private static final String[] FIRST_NAMES = {"Ana", "Ivan", "Marin", "Lovro"};
+    private static final String[] LAST_NAMES = {"Horvat", "Kovac", "Vidovic"};
+    private static final String[] DESCRIPTIONS = {"Bonus", "Hvala na preporuci!", "Gift card", "bonus za klijenta"};
+    private static final String[] NAME_FILTERS = {"", "an", "AN HOR", "vidovic", "marin kovac", "zzz"};
+    private static final String[] DESCRIPTION_FILTERS = {"", "bonus", "HVALA", "card", "x"};
+    private static final String[] VALUE_FILTERS = {"", "10", "55.5", ".5", "abc", "-3", "1e3"};
+
+    private final Random random = new Random(7);
+
+    @Test
+    void compiledFilterMatchesTheChainedFilters() {
+        List<Reward> rewards = rewards(1_000);
+
+        for (int i = 0; i < 500; i++) {
+            String[] texts = randomTexts();
+            LocalDateTime from = randomDate();
+            LocalDateTime to = randomDate();
+
+            assertEquals(chained(rewards, texts, from, to),
+                    AdminDashboardRewardsHelper.compileFilter(texts[0], texts[1], texts[2], texts[3], from, to).apply(rewards),
+                    () -> String.join(" | ", texts) + " | " + from + " | " + to);
+        }
+    }
+
+    @Test
+    void rowFilterSelectsTheSameRewardsAsTheEntityFilter() {
+        List<Reward> rewards = rewards(1_000);
+        List<RewardRow> rows = rewards.stream().map(AdminDashboardRewardsHelperTest::row).toList();
+
+        for (int i = 0; i < 200; i++) {
+            String[] texts = randomTexts();
+            LocalDateTime from = randomDate();
+            LocalDateTime to = randomDate();
+
+            List<Integer> expected = AdminDashboardRewardsHelper.compileFilter(texts[0], texts[1], texts[2], texts[3], from, to)
+                    .apply(rewards).stream().map(Reward::getId).toList();
+            List<Integer> actual = AdminDashboardRewardsHelper.compileRowFilter(texts[0], texts[1], texts[2], texts[3], from, to)
+                    .apply(rows).stream().map(RewardRow::id).toList();
+
+            assertEquals(expected, actual);
+        }
+    }
+
+    /**
+     * The reward filters as the dashboards chained them before they were compiled.
+     */
+    private static List<Reward> chained(List<Reward> rewards, String[] texts, LocalDateTime dateFrom, LocalDateTime dateTo) {
+        List<Reward> result = rewards;
+        if (!texts[0].isEmpty()) {
+            String lowerFilter = texts[0].toLowerCase();
+            result = result.stream().filter(r -> r.getReferral() != null && r.getReferral().getRefferedClient() != null
+                    && r.getReferral().getRefferedClient().getFullName().toLowerCase().contains(lowerFilter)).toList();
+        }
+        if (!texts[1].isEmpty()) {
+            String lowerFilter = texts[1].toLowerCase();
+            result = result.stream().filter(r -> r.getDescription() != null && r.getDescription().toLowerCase().contains(lowerFilter)).toList();
+        }
+        if (InputValidator.isValidBigDecimal(texts[2])) {
+            BigDecimal valueFrom = new BigDecimal(texts[2].trim());
+            result = result.stream().filter(r -> r.getValue() != null && r.getValue().compareTo(valueFrom) >= 0).toList();
+        }
+        if (InputValidator.isValidBigDecimal(texts[3])) {
+            BigDecimal valueTo = new BigDecimal(texts[3].trim());
+            result = result.stream().filter(r -> r.getValue() != null && r.getValue().compareTo(valueTo) <= 0).toList();
+        }
+        if (dateFrom != null) {
+            result = result.stream().filter(r -> r.getRewardDate() != null && !r.getRewardDate().isBefore(dateFrom)).toList();
+        }
+        if (dateTo != null) {
+            result = result.stream().filter(r -> r.getRewardDate() != null && !r.getRewardDate().isAfter(dateTo)).toList();
+        }
+        return result;
+    }
+
+    private List<Reward> rewards(int count) {
+        List<Reward> rewards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Client client = new Client(i, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)],
+                    LAST_NAMES[random.nextInt(LAST_NAMES.length)], "client" + i + "@example.com", "0910000000", null);
+            Referral referral = new Referral(i, null, client, LocalDateTime.of(2025, 1, 1, 0, 0), ReferralStatus.APPROVED);
+            rewards.add(new Reward.Builder()
+                    .id(i)
+                    .referral(referral)
+                    .description(DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)])
+                    .rewardDate(LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(random.nextInt(365)))
+                    .value(BigDecimal.valueOf(random.nextInt(20_000), 2))
+                    .build());
+        }
+        return rewards;
+    }
+
+    private static RewardRow row(Reward reward) {
+        Client client = reward.getReferral().getRefferedClient();
+        return new RewardRow(reward.getId(), String.valueOf(reward.getId()), client.getFullName(), reward.getDescription(),
+                reward.getValue(), reward.getValue().toPlainString(), reward.getRewardDate(), "");
+    }
+
+    private String[] randomTexts() {
+        return new String[] {
+                NAME_FILTERS[random.nextInt(NAME_FILTERS.length)],
+                DESCRIPTION_FILTERS[random.nextInt(DESCRIPTION_FILTERS.length)],
+                VALUE_FILTERS[random.nextInt(VALUE_FILTERS.length)],
+                VALUE_FILTERS[random.nextInt(VALUE_FILTERS.length)]};
+    }
+
+    private LocalDateTime randomDate() {
+        return random.nextBoolean() ? LocalDateTime.of(2025, 1, 1, 0, 0).plusDays(random.nextInt(365)) : null;
+    }
+}
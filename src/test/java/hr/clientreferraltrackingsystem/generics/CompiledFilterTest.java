@@ -0,0 +1,153 @@
+package hr.clientreferraltrackingsystem.generics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares {@link CompiledFilter} with the chained list filters it replaced, which built
+ * one intermediate list per criterion.
+ */
+class CompiledFilterTest {
+    private static final String[] NAMES = {"Ana", "ANITA", "Ivan", "ivana", "Marin", null};
+    private static final String[] TEXTS = {"", "an", "AN", "ivan", "x", "MARIN"};
+    private static final String[] STATUSES = {"PENDING", "APPROVED", "REJECTED"};
+
+    private final Random random = new Random(42);
+
+    @Test
+    void matchesTheChainedFiltersForRandomCriteria() {
+        List<Row> rows = rows(2_000);
+
+        for (int i = 0; i < 500; i++) {
+            Criteria criteria = randomCriteria();
+
+            assertEquals(chained(rows, criteria), compile(criteria, false).apply(rows), criteria::toString);
+        }
+    }
+
+    @Test
+    void parallelEvaluationOfLargeListsKeepsTheRowOrder() {
+        List<Row> rows = rows(CompiledFilter.PARALLEL_THRESHOLD * 3);
+
+        for (int i = 0; i < 20; i++) {
+            Criteria criteria = randomCriteria();
+
+            assertEquals(chained(rows, criteria), compile(criteria, true).apply(rows), criteria::toString);
+        }
+    }
+
+    @Test
+    void filterWithoutCriteriaReturnsTheRowsThemselves() {
+        List<Row> rows = rows(10);
+
+        assertSame(rows, compile(new Criteria("", "", null, null, null, null), false).apply(rows));
+    }
+
+    @Test
+    void equalityAndRangesAreCheckedBeforeTextIsLowercased() {
+        AtomicInteger nameReads = new AtomicInteger();
+        List<Row> rows = rows(1_000);
+        CompiledFilter<Row> filter = new CompiledFilter.Builder<Row>()
+                .contains(row -> {
+                    nameReads.incrementAndGet();
+                    return row.name();
+                }, "an")
+                .equalTo(Row::status, "APPROVED")
+                .atLeast(Row::amount, 50)
+                .build();
+
+        List<Row> matching = filter.apply(rows);
+
+        long passingCheapClauses = rows.stream().filter(row -> "APPROVED".equals(row.status())
+                && row.amount() != null && row.amount() >= 50).count();
+        assertEquals(passingCheapClauses, nameReads.get());
+        assertTrue(matching.size() <= passingCheapClauses);
+    }
+
+    @Test
+    void rowsWithNullFieldsNeverMatchACriterionOnThem() {
+        List<Row> rows = List.of(new Row(null, null, null, null), new Row("Ana", "PENDING", 5, LocalDate.of(2025, 1, 1)));
+
+        assertEquals(List.of(rows.get(1)), new CompiledFilter.Builder<Row>().contains(Row::name, "a").build().apply(rows));
+        assertEquals(List.of(rows.get(1)), new CompiledFilter.Builder<Row>().atMost(Row::amount, 10).build().apply(rows));
+        assertEquals(List.of(rows.get(1)), new CompiledFilter.Builder<Row>().equalTo(Row::status, "PENDING").build().apply(rows));
+    }
+
+    private static CompiledFilter<Row> compile(Criteria criteria, boolean parallel) {
+        return new CompiledFilter.Builder<Row>()
+                .contains(Row::name, criteria.name())
+                .contains(Row::status, criteria.statusText())
+                .equalTo(Row::status, criteria.status())
+                .atLeast(Row::amount, criteria.minAmount())
+                .atMost(Row::amount, criteria.maxAmount())
+                .atLeast(Row::date, criteria.from())
+                .parallel(parallel)
+                .build();
+    }
+
+    /**
+     * The filters as the dashboards chained them before they were compiled.
+     */
+    private static List<Row> chained(List<Row> rows, Criteria criteria) {
+        List<Row> result = rows;
+        if (!criteria.name().isEmpty()) {
+            String lowerFilter = criteria.name().toLowerCase();
+            result = result.stream().filter(row -> row.name() != null && row.name().toLowerCase().contains(lowerFilter)).toList();
+        }
+        if (!criteria.statusText().isEmpty()) {
+            String lowerFilter = criteria.statusText().toLowerCase();
+            result = result.stream().filter(row -> row.status() != null && row.status().toLowerCase().contains(lowerFilter)).toList();
+        }
+        if (criteria.status() != null) {
+            result = result.stream().filter(row -> criteria.status().equals(row.status())).toList();
+        }
+        if (criteria.minAmount() != null) {
+            result = result.stream().filter(row -> row.amount() != null && row.amount() >= criteria.minAmount()).toList();
+        }
+        if (criteria.maxAmount() != null) {
+            result = result.stream().filter(row -> row.amount() != null && row.amount() <= criteria.maxAmount()).toList();
+        }
+        if (criteria.from() != null) {
+            result = result.stream().filter(row -> row.date() != null && !row.date().isBefore(criteria.from())).toList();
+        }
+        return result;
+    }
+
+    private List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Row(
+                    NAMES[random.nextInt(NAMES.length)],
+                    random.nextInt(10) == 0 ? null : STATUSES[random.nextInt(STATUSES.length)],
+                    random.nextInt(10) == 0 ? null : random.nextInt(100),
+                    random.nextInt(10) == 0 ? null : LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365))));
+        }
+        return rows;
+    }
+
+    private Criteria randomCriteria() {
+        return new Criteria(
+                TEXTS[random.nextInt(TEXTS.length)],
+                random.nextBoolean() ? "" : STATUSES[random.nextInt(STATUSES.length)].substring(0, 3).toLowerCase(),
+                random.nextInt(3) == 0 ? STATUSES[random.nextInt(STATUSES.length)] : null,
+                random.nextBoolean() ? random.nextInt(100) : null,
+                random.nextBoolean() ? random.nextInt(100) : null,
+                random.nextBoolean() ? LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365)) : null);
+    }
+
+    private record Row(String name, String status, Integer amount, LocalDate date) {
+    }
+
+    private record Criteria(String name, String statusText, String status, Integer minAmount, Integer maxAmount,
+                            LocalDate from) {
+    }
+}
@@ -0,0 +1,60 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import hr.clientreferraltrackingsystem.model.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that loads racing with invalidations never put stale entities back into an {@link EntityCache}.
+ */
+class EntityCacheTest {
+    private final EntityCache<User> cache = new EntityCache<>("users", 10);
+
+    @Test
+    void loadStartedBeforeInvalidationIsNotCached() {
+        long modificationCount = cache.modificationCount();
+        cache.invalidate(1);
+
+        cache.put(user(1, "stale"), modificationCount);
+
+        assertFalse(cache.get(1).isPresent());
+    }
+
+    @Test
+    void internStartedBeforeInvalidationReturnsLoadedEntityWithoutCachingIt() {
+        long modificationCount = cache.modificationCount();
+        cache.clear();
+        User loaded = user(1, "stale");
+
+        assertSame(loaded, cache.intern(loaded, modificationCount));
+        assertFalse(cache.get(1).isPresent());
+    }
+
+    @Test
+    void loadWithoutConcurrentInvalidationIsCachedAndShared() {
+        long modificationCount = cache.modificationCount();
+        User loaded = user(1, "fresh");
+
+        cache.put(loaded, modificationCount);
+
+        assertTrue(cache.get(1).isPresent());
+        assertSame(loaded, cache.intern(user(1, "fresh"), modificationCount));
+    }
+
+    @Test
+    void internOfAChangedRowReplacesTheCachedEntity() {
+        long modificationCount = cache.modificationCount();
+        cache.put(user(1, "before"), modificationCount);
+        User changed = user(1, "after");
+
+        assertSame(changed, cache.intern(changed, modificationCount));
+        assertSame(changed, cache.get(1).orElseThrow());
+    }
+
+    private static User user(int id, String username) {
+        return new User.UserBuilder().id(id).username(username).build();
+    }
+}
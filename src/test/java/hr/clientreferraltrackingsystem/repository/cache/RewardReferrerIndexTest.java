@@ -0,0 +1,65 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that a {@link RewardReferrerIndex} only serves a referrer's reward IDs for a bounded time,
+ * so that rewards written by other instances are picked up by the next database load.
+ */
+class RewardReferrerIndexTest {
+    private static final Duration MAX_AGE = Duration.ofSeconds(30);
+
+    private final AtomicLong now = new AtomicLong();
+    private final RewardReferrerIndex index = new RewardReferrerIndex(10, MAX_AGE, now::get);
+
+    @Test
+    void loadedEntryIsServedUntilItIsOlderThanTheMaximumAge() {
+        index.load(1, List.of(10, 11), index.modificationCount());
+
+        now.addAndGet(MAX_AGE.toNanos());
+        assertEquals(List.of(10, 11), index.get(1).orElseThrow());
+
+        now.incrementAndGet();
+        assertFalse(index.get(1).isPresent());
+    }
+
+    @Test
+    void localAdditionsDoNotExtendTheEntryAge() {
+        index.load(1, List.of(10), index.modificationCount());
+        now.addAndGet(MAX_AGE.toNanos());
+
+        index.add(1, 12);
+        assertEquals(List.of(10, 12), index.get(1).orElseThrow());
+
+        now.incrementAndGet();
+        assertFalse(index.get(1).isPresent());
+    }
+
+    @Test
+    void reloadAfterExpiryIsServedAgain() {
+        index.load(1, List.of(10), index.modificationCount());
+        now.addAndGet(MAX_AGE.toNanos() + 1);
+        assertFalse(index.get(1).isPresent());
+
+        index.load(1, List.of(10, 13), index.modificationCount());
+
+        assertEquals(List.of(10, 13), index.get(1).orElseThrow());
+    }
+
+    @Test
+    void loadStartedBeforeARemovalIsNotIndexed() {
+        long modificationCount = index.modificationCount();
+        index.remove(10);
+
+        index.load(1, List.of(10), modificationCount);
+
+        assertFalse(index.get(1).isPresent());
+    }
+}
@@ -0,0 +1,148 @@
+package hr.clientreferraltrackingsystem.repository.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Refreshes a {@link TrigramIndex} from an in-memory table whose rows carry a search version,
+ * like the database columns the real loaders read.
+ */
+class TrigramIndexTest {
+    private static final Duration MAX_AGE = Duration.ofSeconds(15);
+
+    private final AtomicLong now = new AtomicLong();
+    private final TrigramIndex index = new TrigramIndex("test", 1, MAX_AGE, now::get);
+    private final List<Row> table = new ArrayList<>();
+    private final List<Long> requestedVersions = new ArrayList<>();
+    private long nextVersion = 1;
+
+    @Test
+    void firstRefreshLoadsEveryRow() throws Exception {
+        write(1, "Horvat");
+        write(2, "Kovac");
+
+        index.refresh(this::load);
+
+        assertArrayEquals(new int[] {1}, index.search(0, "horv").orElseThrow());
+        assertEquals(List.of(0L), requestedVersions);
+    }
+
+    @Test
+    void laterRefreshesReadOnlyRowsWithNewerVersions() throws Exception {
+        write(1, "Horvat");
+        index.refresh(this::load);
+        write(2, "Kovac");
+
+        index.refresh(this::load);
+
+        assertEquals(List.of(0L, 1L), requestedVersions);
+        assertArrayEquals(new int[] {2}, index.search(0, "kova").orElseThrow());
+    }
+
+    @Test
+    void rowsUpdatedByAnotherInstanceAreFoundAfterTheNextRefresh() throws Exception {
+        write(1, "Horvat");
+        index.refresh(this::load);
+        write(1, "Zrinski");
+
+        index.refresh(this::load);
+
+        assertArrayEquals(new int[] {1}, index.search(0, "zrinski").orElseThrow());
+        assertArrayEquals(new int[] {1}, index.search(0, "horvat").orElseThrow());
+    }
+
+    @Test
+    void searchesScanOnceTheLastRefreshIsOlderThanTheMaximumAge() throws Exception {
+        write(1, "Horvat");
+        index.refresh(this::load);
+
+        now.addAndGet(MAX_AGE.toNanos());
+        assertArrayEquals(new int[] {1}, index.search(0, "horvat").orElseThrow());
+
+        now.incrementAndGet();
+        assertFalse(index.search(0, "horvat").isPresent());
+
+        index.refresh(this::load);
+        assertArrayEquals(new int[] {1}, index.search(0, "horvat").orElseThrow());
+    }
+
+    @Test
+    void databaseIsReadWithoutBlockingSearchesOrLocalWrites() throws Exception {
+        write(1, "Horvat");
+        index.refresh(this::load);
+        write(2, "Kovac");
+        List<Optional<int[]>> searchedDuringRefresh = new ArrayList<>();
+
+        index.refresh((rows, afterVersion) -> {
+            onAnotherThread(() -> {
+                searchedDuringRefresh.add(index.search(0, "horvat"));
+                index.add(3, "Vidovic");
+            });
+            load(rows, afterVersion);
+        });
+
+        assertArrayEquals(new int[] {1}, searchedDuringRefresh.getFirst().orElseThrow());
+        assertArrayEquals(new int[] {2}, index.search(0, "kovac").orElseThrow());
+        assertArrayEquals(new int[] {3}, index.search(0, "vidovic").orElseThrow());
+    }
+
+    @Test
+    void rowsWrittenLocallyWhileTheIndexLoadsAreIndexed() throws Exception {
+        write(1, "Horvat");
+
+        index.refresh((rows, afterVersion) -> {
+            onAnotherThread(() -> index.add(2, "Kovac"));
+            load(rows, afterVersion);
+        });
+
+        assertArrayEquals(new int[] {1}, index.search(0, "horvat").orElseThrow());
+        assertArrayEquals(new int[] {2}, index.search(0, "kovac").orElseThrow());
+    }
+
+    @Test
+    void clearedIndexIsLoadedAgainByTheNextRefresh() throws Exception {
+        write(1, "Horvat");
+        index.refresh(this::load);
+
+        index.clear();
+        assertFalse(index.search(0, "horvat").isPresent());
+
+        index.refresh(this::load);
+        assertEquals(List.of(0L, 0L), requestedVersions);
+        assertArrayEquals(new int[] {1}, index.search(0, "horvat").orElseThrow());
+    }
+
+    /**
+     * Inserts or updates a row the way the database does, giving it the next search version.
+     */
+    private void write(int id, String value) {
+        table.removeIf(row -> row.id() == id);
+        table.add(new Row(id, nextVersion++, value));
+    }
+
+    private void load(TrigramIndex.RowSink rows, long afterVersion) {
+        requestedVersions.add(afterVersion);
+        table.stream().filter(row -> row.version() > afterVersion).forEach(row -> rows.add(row.id(), row.version(), row.value()));
+    }
+
+    /**
+     * Runs the action on another thread and waits for it, failing if it blocks on the index lock.
+     */
+    private static void onAnotherThread(Runnable action) {
+        CompletableFuture.runAsync(action).orTimeout(5, TimeUnit.SECONDS).join();
+    }
+
+    private record Row(int id, long version, String value) {
+    }
+}
@@ -0,0 +1,185 @@
+package hr.clientreferraltrackingsystem.repository.dat;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reads hand-written reward logs and text files with {@link RewardLogReader}.
+ */
+class RewardLogReaderTest {
+    private static final LocalDate DATE = LocalDate.of(2025, 7, 6);
+
+    private Path directory;
+    private Path logPath;
+    private Path textPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("rewards");
+        logPath = directory.resolve("rewards.log");
+        textPath = directory.resolve("rewards.txt");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void lastRecordOfARewardWinsAndTombstonesRemoveIt() throws Exception {
+        ByteArrayOutputStream log = header();
+        log.write(put(1, 10, "first", "5"));
+        log.write(put(2, 20, "deleted", "7"));
+        log.write(put(1, 10, "updated", "6.50"));
+        log.write(delete(2));
+        log.write(put(3, 30, "third", "8"));
+        Files.write(logPath, log.toByteArray());
+
+        List<RewardLogReader.RewardRecord> records = read();
+
+        assertEquals(List.of(
+                new RewardLogReader.RewardRecord(1, 10, "updated", DATE, new BigDecimal("6.50")),
+                new RewardLogReader.RewardRecord(3, 30, "third", DATE, new BigDecimal("8"))), records);
+    }
+
+    @Test
+    void recordsArePassedOnInFileOrder() throws Exception {
+        ByteArrayOutputStream log = header();
+        log.write(put(2, 20, "second", "7"));
+        log.write(put(1, 10, "first", "5"));
+        log.write(delete(2));
+        Files.write(logPath, log.toByteArray());
+        List<String> received = new ArrayList<>();
+
+        RewardLogReader.readAll(logPath, textPath, new RewardLogReader.RecordSink() {
+            @Override
+            public void put(RewardLogReader.RewardRecord rewardRecord) {
+                received.add("put " + rewardRecord.id());
+            }
+
+            @Override
+            public void delete(int id) {
+                received.add("delete " + id);
+            }
+        });
+
+        assertEquals(List.of("put 2", "put 1", "delete 2"), received);
+    }
+
+    @Test
+    void tornOrCorruptTailIsIgnored() throws Exception {
+        ByteArrayOutputStream log = header();
+        log.write(put(1, 10, "kept", "5"));
+        byte[] corrupt = put(2, 20, "corrupt", "7");
+        corrupt[corrupt.length - 1] ^= 1;
+        log.write(corrupt);
+        log.write(put(3, 30, "after corruption", "8"));
+        byte[] torn = put(4, 40, "torn", "9");
+        log.write(torn, 0, torn.length - 3);
+        Files.write(logPath, log.toByteArray());
+
+        List<RewardLogReader.RewardRecord> records = read();
+
+        assertEquals(List.of(new RewardLogReader.RewardRecord(1, 10, "kept", DATE, new BigDecimal("5"))), records);
+    }
+
+    @Test
+    void legacyTextFileIsReadWhenThereIsNoLog() throws Exception {
+        Files.write(textPath, List.of("1", "1", "deskripcija", "06.07.2025.", "222.23",
+                "2", "4", "Cestitke!", "06.07.2025.", "11"));
+
+        List<RewardLogReader.RewardRecord> records = read();
+
+        assertEquals(List.of(
+                new RewardLogReader.RewardRecord(1, 1, "deskripcija", DATE, new BigDecimal("222.23")),
+                new RewardLogReader.RewardRecord(2, 4, "Cestitke!", DATE, new BigDecimal("11"))), records);
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Files.write(logPath, new byte[] {0, 1, 2, 3, 4, 5, 6, 7});
+
+        assertThrows(IOException.class, () -> read());
+    }
+
+    /**
+     * Reads the reward files and applies their records the way the importer does.
+     */
+    private List<RewardLogReader.RewardRecord> read() throws Exception {
+        Map<Integer, RewardLogReader.RewardRecord> live = new TreeMap<>();
+        RewardLogReader.readAll(logPath, textPath, new RewardLogReader.RecordSink() {
+            @Override
+            public void put(RewardLogReader.RewardRecord rewardRecord) {
+                live.put(rewardRecord.id(), rewardRecord);
+            }
+
+            @Override
+            public void delete(int id) {
+                live.remove(id);
+            }
+        });
+        return new ArrayList<>(live.values());
+    }
+
+    private static ByteArrayOutputStream header() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0x52574C32);
+        out.writeInt(0);
+        return bytes;
+    }
+
+    private static byte[] put(int id, int referralId, String description, String value) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(1);
+        out.writeInt(id);
+        out.writeInt(referralId);
+        out.writeUTF(description);
+        out.writeLong(DATE.toEpochDay());
+        out.writeUTF(value);
+        return frame(body.toByteArray());
+    }
+
+    private static byte[] delete(int id) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(2);
+        out.writeInt(id);
+        return frame(body.toByteArray());
+    }
+
+    private static byte[] frame(byte[] body) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+        ByteArrayOutputStream framed = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(framed);
+        out.writeInt(body.length);
+        out.writeInt((int) crc.getValue());
+        out.write(body);
+        return framed.toByteArray();
+    }
+}
@@ -0,0 +1,200 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralSortKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the migrations on an in-memory database and checks with {@code EXPLAIN} that the hot
+ * queries read through the migration indexes instead of scanning a table.
+ * <p>
+ * The database is filled with many referrals for the few seeded users and analyzed, so that
+ * H2 plans with the same statistics it collects on its own in a long-running database.
+ */
+class QueryPlanTest {
+    private static final int ROWS = 5_000;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        try (Connection connection = TestDatabase.connect(); Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO referred_client (first_name, last_name, email, phone_number, created_by) " +
+                    "SELECT 'First' || x, 'Last' || x, 'c' || x || '@example.com', '091' || x, 1 + MOD(x, 5) " +
+                    "FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            statement.execute("INSERT INTO referral (referrer_user_id, referred_client_id, status, created_at) " +
+                    "SELECT 1 + MOD(x, 5), x, CASE MOD(x, 3) WHEN 0 THEN 'PENDING' WHEN 1 THEN 'APPROVED' ELSE 'REJECTED' END, " +
+                    "DATEADD(MINUTE, x, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            statement.execute("INSERT INTO reward (referral_id, description, issued_date, amount) " +
+                    "SELECT x, 'Reward ' || x, DATEADD(DAY, MOD(x, 365), DATE '2024-01-01'), MOD(x, 500) " +
+                    "FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void migrationsAreRecordedOnce() throws Exception {
+        assertEquals((long) MigrationRunner.MIGRATIONS.size(), TestDatabase.queryValue("SELECT COUNT(*) FROM schema_version"));
+
+        DatabaseManager.initializeDatabase();
+
+        assertEquals((long) MigrationRunner.MIGRATIONS.size(), TestDatabase.queryValue("SELECT COUNT(*) FROM schema_version"));
+    }
+
+    @Test
+    void latestReferralPollReadsCreatedAtIndex() throws Exception {
+        String plan = explain(ReferralDatabaseRepository.LATEST_REFERRAL_QUERY);
+
+        assertUsesIndex(plan, "IDX_REFERRAL_CREATED_AT_DESC");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void referralPagesReadCreatedAtIndexInBothDirections() throws Exception {
+        for (ReferralSortKey sortKey : ReferralSortKey.values()) {
+            String plan = explain(referralPage(ReferralQuery.all(), sortKey, "(r.created_at, r.id) " +
+                    (sortKey.isDescending() ? "<" : ">") + " (?, ?)"), Timestamp.valueOf(LocalDateTime.of(2024, 1, 2, 0, 0)), 100, 51);
+
+            assertUsesIndex(plan, "IDX_REFERRAL_CREATED_AT_DESC");
+            assertTrue(plan.contains("index sorted"), plan);
+        }
+    }
+
+    @Test
+    void referralStatusFilterReadsAnIndex() throws Exception {
+        ReferralQuery filter = new ReferralQuery.Builder().status(ReferralStatus.PENDING).build();
+
+        String plan = explain(referralPage(filter, ReferralSortKey.CREATED_AT_DESC, "r.status = ?"),
+                ReferralStatus.PENDING.name(), 51);
+
+        assertNoTableScan(plan);
+    }
+
+    @Test
+    void referralsOfOneReferrerReadReferrerForeignKeyIndex() throws Exception {
+        ReferralQuery filter = new ReferralQuery.Builder().referrerUserId(1).build();
+
+        assertUsesIndexOn(explain(referralPage(filter, ReferralSortKey.CREATED_AT_DESC, "r.referrer_user_id = ?"), 1, 51),
+                "REFERRER_USER_ID = ?1");
+        assertUsesIndexOn(explain(ReferralGraphMapper.REFERRAL_GRAPH_SELECT + " WHERE r.referrer_user_id = ?", 1),
+                "REFERRER_USER_ID = ?1");
+    }
+
+    @Test
+    void credentialsLookupReadsUniqueUsernameIndex() throws Exception {
+        assertUsesIndexOn(explain("SELECT id, password FROM users WHERE username = ?", "deaan"), "USERNAME = ?1");
+    }
+
+    @Test
+    void clientsOfOneUserReadCreatedByIndex() throws Exception {
+        String plan = explain("SELECT id, first_name, last_name, email, phone_number, created_by, is_currently_recommended " +
+                "FROM referred_client WHERE created_by = ?", 1);
+
+        assertUsesIndex(plan, "IDX_REFERRED_CLIENT_CREATED_BY");
+    }
+
+    @Test
+    void clientPagesReadLastNameIndex() throws Exception {
+        String plan = explain(ClientsDatabaseRepository.CLIENTS_WITH_CREATOR_SELECT +
+                " WHERE (c.last_name, c.id) > (?, ?) ORDER BY c.last_name ASC, c.id ASC LIMIT ?", "Last2000", 2000, 51);
+
+        assertUsesIndex(plan, "IDX_REFERRED_CLIENT_LAST_NAME");
+        assertTrue(plan.contains("index sorted"), plan);
+    }
+
+    @Test
+    void clientRecommendationFilterReadsAnIndex() throws Exception {
+        String plan = explain(ClientsDatabaseRepository.CLIENTS_WITH_CREATOR_SELECT +
+                " WHERE c.is_currently_recommended = ? ORDER BY c.last_name ASC, c.id ASC LIMIT ?", true, 51);
+
+        assertNoTableScan(plan);
+    }
+
+    @Test
+    void rewardRangesReadTheirIndexes() throws Exception {
+        assertUsesIndex(explain(RewardDatabaseRepository.REWARD_SELECT + " WHERE w.issued_date >= ? AND w.issued_date <= ?",
+                Date.valueOf(LocalDate.of(2024, 3, 1)), Date.valueOf(LocalDate.of(2024, 3, 31))), "IDX_REWARD_ISSUED_DATE");
+        assertUsesIndex(explain(RewardDatabaseRepository.REWARD_SELECT + " WHERE w.amount >= ? AND w.amount <= ?",
+                new BigDecimal("10"), new BigDecimal("20")), "IDX_REWARD_AMOUNT");
+    }
+
+    @Test
+    void rewardsOfOneReferrerReadForeignKeyIndexes() throws Exception {
+        String plan = explain(RewardDatabaseRepository.REWARD_SELECT + " WHERE r.referrer_user_id = ?", 1);
+
+        assertUsesIndexOn(plan, "REFERRER_USER_ID = ?1");
+        assertUsesIndexOn(plan, "REFERRAL_ID = R.ID");
+    }
+
+    @Test
+    void searchIndexRefreshesReadSearchVersionIndexes() throws Exception {
+        long maxVersion = (Long) TestDatabase.queryValue("SELECT MAX(search_version) FROM referred_client");
+
+        assertUsesIndex(explain(ClientsDatabaseRepository.SEARCH_ROWS_QUERY, maxVersion - 10),
+                "IDX_REFERRED_CLIENT_SEARCH_VERSION");
+        assertUsesIndex(explain(UserDatabaseRepository.SEARCH_ROWS_QUERY, maxVersion), "IDX_USERS_SEARCH_VERSION");
+    }
+
+    /**
+     * Builds a referral page query the way {@link ReferralDatabaseRepository} does.
+     */
+    private static String referralPage(ReferralQuery filter, ReferralSortKey sortKey, String condition) {
+        String direction = sortKey.isDescending() ? " DESC" : " ASC";
+        return "SELECT " + ReferralGraphMapper.REFERRAL_GRAPH_COLUMNS +
+                " FROM " + ReferralDatabaseRepository.referralsFrom(filter, sortKey) + " " + ReferralGraphMapper.REFERRAL_GRAPH_JOINS +
+                " WHERE " + condition + " ORDER BY r.created_at" + direction + ", r.id" + direction + " LIMIT ?";
+    }
+
+    private static String explain(String sql, Object... parameters) throws Exception {
+        try (Connection connection = TestDatabase.connect(); PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                List<String> lines = new ArrayList<>();
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+                return String.join("\n", lines);
+            }
+        }
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.contains("/* PUBLIC." + indexName), () -> "expected " + indexName + " in:\n" + plan);
+        assertNoTableScan(plan);
+    }
+
+    private static void assertUsesIndexOn(String plan, String indexCondition) {
+        assertTrue(plan.matches("(?s).*/\\* PUBLIC\\.\\w+: " + java.util.regex.Pattern.quote(indexCondition) + ".*"),
+                () -> "expected an index lookup on " + indexCondition + " in:\n" + plan);
+        assertNoTableScan(plan);
+    }
+
+    private static void assertNoTableScan(String plan) {
+        assertFalse(plan.contains("tableScan"), () -> "table scan in:\n" + plan);
+    }
+}
@@ -0,0 +1,148 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.enumeration.ReferralStatus;
+import hr.clientreferraltrackingsystem.enumeration.UpdateResult;
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ReferralSortKey;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs concurrent writers and readers against {@link ReferralDatabaseRepository} on an
+ * in-memory database to check its optimistic versioning.
+ */
+class ReferralDatabaseRepositoryConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int REFERRER_ID = 1;
+
+    private final ReferralDatabaseRepository referralRepository = new ReferralDatabaseRepository();
+    private User referrer;
+    private Client client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        int clientId = TestDatabase.insertClient("Ana", "Horvat", REFERRER_ID);
+        referrer = new UserDatabaseRepository().findById(REFERRER_ID).orElseThrow();
+        client = new ClientsDatabaseRepository().findById(clientId).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void concurrentStatusChangesOfOneReferralLetExactlyOneSucceed() throws Exception {
+        int referralId = TestDatabase.insertReferral(REFERRER_ID, client.getId());
+
+        List<Callable<UpdateResult>> writers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            ReferralStatus newStatus = i % 2 == 0 ? ReferralStatus.APPROVED : ReferralStatus.REJECTED;
+            Referral loaded = new Referral(referralId, referrer, client, LocalDateTime.now(), ReferralStatus.PENDING);
+            writers.add(() -> referralRepository.updateStatus(loaded, newStatus));
+        }
+        List<UpdateResult> results = runTogether(writers);
+
+        assertEquals(1, results.stream().filter(result -> result == UpdateResult.UPDATED).count());
+        assertEquals(THREADS - 1, results.stream().filter(result -> result == UpdateResult.CONFLICT).count());
+        assertEquals(1, TestDatabase.queryValue("SELECT version FROM referral WHERE id = ?", referralId));
+        int winner = results.indexOf(UpdateResult.UPDATED);
+        ReferralStatus expectedStatus = winner % 2 == 0 ? ReferralStatus.APPROVED : ReferralStatus.REJECTED;
+        assertEquals(expectedStatus.name(), TestDatabase.queryValue("SELECT status FROM referral WHERE id = ?", referralId));
+    }
+
+    @Test
+    void failedApprovalIsReportedAsAnErrorAndStoresNothing() throws Exception {
+        int referralId = TestDatabase.insertReferral(REFERRER_ID, client.getId());
+        Referral loaded = new Referral(referralId, referrer, client, LocalDateTime.now(), ReferralStatus.PENDING);
+        Reward tooLarge = new Reward.Builder()
+                .referral(loaded)
+                .description("Bonus")
+                .value(new BigDecimal("1000000000000"))
+                .rewardDate(LocalDateTime.now())
+                .build();
+
+        assertEquals(UpdateResult.ERROR, referralRepository.approveWithReward(loaded, tooLarge));
+        assertEquals(ReferralStatus.PENDING.name(), TestDatabase.queryValue("SELECT status FROM referral WHERE id = ?", referralId));
+        assertEquals(0L, TestDatabase.queryValue("SELECT COUNT(*) FROM reward"));
+        assertEquals(UpdateResult.UPDATED, referralRepository.updateStatus(loaded, ReferralStatus.REJECTED));
+    }
+
+    @Test
+    void concurrentSavesAndReadsKeepEveryReferral() throws Exception {
+        int savesPerWriter = 25;
+        Set<Integer> savedIds = ConcurrentHashMap.newKeySet();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            if (i % 2 == 0) {
+                tasks.add(() -> {
+                    for (int j = 0; j < savesPerWriter; j++) {
+                        Referral referral = new Referral(referrer, client, LocalDateTime.now(), ReferralStatus.PENDING);
+                        referralRepository.save(referral);
+                        savedIds.add(referral.getId());
+                    }
+                    return true;
+                });
+            } else {
+                tasks.add(() -> {
+                    for (int j = 0; j < savesPerWriter; j++) {
+                        referralRepository.findPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC, null, 50);
+                    }
+                    return true;
+                });
+            }
+        }
+        runTogether(tasks);
+
+        long expected = THREADS / 2 * savesPerWriter;
+        assertEquals(expected, savedIds.size());
+        assertEquals(expected, TestDatabase.queryValue("SELECT COUNT(*) FROM referral"));
+        assertEquals(expected, referralRepository.findPage(ReferralQuery.all(), ReferralSortKey.CREATED_AT_DESC,
+                null, (int) expected).items().size());
+    }
+
+    /**
+     * Starts all tasks at the same moment and waits for their results, in task order.
+     */
+    private static <T> List<T> runTogether(List<Callable<T>> tasks) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Client;
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that {@link ReferralDatabaseRepository} loads referrals together with their referrers,
+ * clients and client creators in a single query and shares those instances between referrals.
+ */
+class ReferralGraphLoadingTest {
+    private final ReferralDatabaseRepository referralRepository = new ReferralDatabaseRepository();
+    private int anaId;
+    private int ivoId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        anaId = TestDatabase.insertClient("Ana", "Horvat", 2);
+        ivoId = TestDatabase.insertClient("Ivo", "Kovac", 1);
+        TestDatabase.insertReferral(1, anaId);
+        TestDatabase.insertReferral(1, ivoId);
+        TestDatabase.insertReferral(2, anaId);
+        TestDatabase.insertReferral(3, ivoId);
+        EntityCaches.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void findAllLoadsTheWholeGraphWithOneQuery() throws Exception {
+        List<Referral> referrals = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> referrals.addAll(referralRepository.findAll()));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertEquals(1L, statements.values().iterator().next());
+        assertEquals(4, referrals.size());
+        for (Referral referral : referrals) {
+            Client client = referral.getRefferedClient();
+            assertTrue(client.getId() == anaId || client.getId() == ivoId);
+            assertEquals(client.getId() == anaId ? "Ana" : "Ivo", client.getFirstName());
+            assertEquals(client.getId() == anaId ? 2 : 1, client.getCreatedBy().getId());
+        }
+    }
+
+    @Test
+    void referralsShareTheirReferrersClientsAndCreators() {
+        Set<Referral> referrals = referralRepository.findAll();
+
+        for (Referral referral : referrals) {
+            assertSame(referrer(referrals, referral.getRefferer().getId()), referral.getRefferer());
+            assertSame(client(referrals, referral.getRefferedClient().getId()), referral.getRefferedClient());
+        }
+        assertSame(referrer(referrals, 2), client(referrals, anaId).getCreatedBy());
+        assertSame(referrer(referrals, 1), client(referrals, ivoId).getCreatedBy());
+    }
+
+    @Test
+    void referralsOfOneReferrerLoadWithOneQuery() throws Exception {
+        List<Referral> referrals = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> referrals.addAll(referralRepository.findAllByReferral(1)));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertEquals(2, referrals.size());
+        assertSame(referrals.get(0).getRefferer(), referrals.get(1).getRefferer());
+    }
+
+    @Test
+    void referralLoadedOnceIsServedFromTheCache() throws Exception {
+        Integer id = referralRepository.findAllByReferral(3).iterator().next().getId();
+        EntityCaches.clear();
+
+        Referral[] loaded = new Referral[2];
+        Map<String, Long> firstLoad = TestDatabase.statementsRunBy(() -> loaded[0] = referralRepository.findById(id));
+        Map<String, Long> secondLoad = TestDatabase.statementsRunBy(() -> loaded[1] = referralRepository.findById(id));
+
+        assertEquals(1, firstLoad.size(), firstLoad::toString);
+        assertTrue(secondLoad.isEmpty(), secondLoad::toString);
+        assertSame(loaded[0], loaded[1]);
+        assertEquals(ivoId, loaded[0].getRefferedClient().getId());
+    }
+
+    @Test
+    void rowsChangedBehindTheCacheReplaceTheCachedInstancesOnReload() throws Exception {
+        Set<Referral> before = referralRepository.findAll();
+        TestDatabase.update("UPDATE referred_client SET first_name = 'Anamarija', is_currently_recommended = TRUE WHERE id = ?", anaId);
+        TestDatabase.update("UPDATE users SET first_name = 'Changed' WHERE id = 2");
+
+        Set<Referral> after = referralRepository.findAll();
+
+        assertEquals("Anamarija", client(after, anaId).getFirstName());
+        assertTrue(client(after, anaId).getCurrentlyRecommended());
+        assertEquals("Changed", referrer(after, 2).getFirstName());
+        assertSame(referrer(after, 2), client(after, anaId).getCreatedBy());
+        assertSame(client(before, ivoId), client(after, ivoId));
+    }
+
+    private static User referrer(Set<Referral> referrals, int userId) {
+        return referrals.stream().map(Referral::getRefferer).filter(user -> user.getId() == userId).findFirst().orElseThrow();
+    }
+
+    private static Client client(Set<Referral> referrals, int clientId) {
+        return referrals.stream().map(Referral::getRefferedClient).filter(client -> client.getId() == clientId).findFirst().orElseThrow();
+    }
+}
@@ -0,0 +1,62 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Replays reward records into an in-memory database with {@link RewardImporter}.
+ */
+class RewardImporterTest {
+    private static final LocalDate DATE = LocalDate.of(2025, 7, 6);
+
+    private final RewardDatabaseRepository rewardRepository = new RewardDatabaseRepository();
+    private int referralId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        referralId = TestDatabase.insertReferral(1, TestDatabase.insertClient("Ana", "Horvat", 1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void laterRecordsReplaceAndRemoveEarlierOnes() throws Exception {
+        int imported;
+        try (RewardImporter importer = rewardRepository.openImporter()) {
+            importer.put(1, referralId, "first", DATE, new BigDecimal("5.00"));
+            importer.put(2, referralId, "deleted", DATE, new BigDecimal("7.00"));
+            importer.put(1, referralId, "updated", DATE, new BigDecimal("6.50"));
+            importer.delete(2);
+            importer.put(2, referralId, "put again", DATE, new BigDecimal("8.00"));
+            importer.put(3, referralId + 1, "no referral", DATE, new BigDecimal("9.00"));
+            imported = importer.commit();
+
+            assertEquals(1, importer.getSkipped());
+        }
+
+        assertEquals(2, imported);
+        assertEquals("updated", TestDatabase.queryValue("SELECT description FROM reward WHERE id = 1"));
+        assertEquals(new BigDecimal("6.50"), TestDatabase.queryValue("SELECT amount FROM reward WHERE id = 1"));
+        assertEquals("put again", TestDatabase.queryValue("SELECT description FROM reward WHERE id = 2"));
+        assertEquals(4, TestDatabase.insert("INSERT INTO reward (referral_id, issued_date) VALUES (?, ?)", referralId, DATE));
+    }
+
+    @Test
+    void nothingIsImportedWithoutCommit() throws Exception {
+        try (RewardImporter importer = rewardRepository.openImporter()) {
+            importer.put(1, referralId, "first", DATE, new BigDecimal("5.00"));
+        }
+
+        assertEquals(0L, TestDatabase.queryValue("SELECT COUNT(*) FROM reward"));
+    }
+}
@@ -0,0 +1,98 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.model.Referral;
+import hr.clientreferraltrackingsystem.model.Reward;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that loading rewards resolves their referrals in batches instead of one lookup per reward.
+ */
+class RewardReferralResolutionTest {
+    private static final int REFERRALS = 4;
+    private static final int REWARDS_PER_REFERRAL = 5;
+
+    private final RewardDatabaseRepository rewardRepository = new RewardDatabaseRepository();
+    private final ReferralDatabaseRepository referralRepository = new ReferralDatabaseRepository();
+    private final List<Integer> referralIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        for (int i = 0; i < REFERRALS; i++) {
+            int clientId = TestDatabase.insertClient("Client" + i, "Last" + i, 1);
+            int referralId = TestDatabase.insertReferral(1 + i % 2, clientId);
+            referralIds.add(referralId);
+            for (int j = 0; j < REWARDS_PER_REFERRAL; j++) {
+                TestDatabase.insert("INSERT INTO reward (referral_id, description, issued_date, amount) " +
+                        "VALUES (?, ?, CURRENT_DATE, 10)", referralId, "Reward " + i + "/" + j);
+            }
+        }
+        EntityCaches.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void rewardsResolveTheirReferralsInTheSameQuery() throws Exception {
+        List<Reward> rewards = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> rewards.addAll(rewardRepository.findAll()));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertEquals(REFERRALS * REWARDS_PER_REFERRAL, rewards.size());
+        for (Reward reward : rewards) {
+            int referralIndex = referralIds.indexOf(reward.getReferral().getId());
+            assertTrue(reward.getDescription().startsWith("Reward " + referralIndex + "/"), reward.getDescription());
+            assertEquals(1 + referralIndex % 2, reward.getReferral().getRefferer().getId());
+        }
+    }
+
+    @Test
+    void rewardsOfOneReferrerResolveTheirReferralsInTheSameQuery() throws Exception {
+        List<Reward> rewards = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> rewards.addAll(rewardRepository.findAllById(2)));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertEquals(REFERRALS / 2 * REWARDS_PER_REFERRAL, rewards.size());
+        assertTrue(rewards.stream().allMatch(reward -> reward.getReferral().getRefferer().getId() == 2));
+    }
+
+    @Test
+    void referralLookupByIdsResolvesUncachedReferralsInOneQuery() throws Exception {
+        referralRepository.findById(referralIds.get(0));
+        Set<Referral> referrals = new HashSet<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> referrals.addAll(referralRepository.findAllByIds(referralIds)));
+        Map<String, Long> cachedStatements = TestDatabase.statementsRunBy(() -> referralRepository.findAllByIds(referralIds));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertEquals(1L, statements.values().iterator().next());
+        assertEquals(Set.copyOf(referralIds), referrals.stream().map(Referral::getId).collect(Collectors.toSet()));
+        assertTrue(cachedStatements.isEmpty(), cachedStatements::toString);
+    }
+
+    @Test
+    void referralLookupByIdsSkipsMissingReferrals() {
+        List<Integer> ids = new ArrayList<>(referralIds);
+        ids.add(999_999);
+
+        assertEquals(REFERRALS, referralRepository.findAllByIds(ids).size());
+    }
+}
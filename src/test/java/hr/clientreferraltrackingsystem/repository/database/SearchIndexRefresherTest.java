@@ -0,0 +1,88 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import hr.clientreferraltrackingsystem.repository.database.query.ClientQuery;
+import hr.clientreferraltrackingsystem.repository.database.query.ClientSortKey;
+import hr.clientreferraltrackingsystem.repository.database.row.ClientRow;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that client searches pick up rows written past the repository, as another instance of
+ * the application would, once the search index has been refreshed.
+ */
+class SearchIndexRefresherTest {
+    private static final int CLIENTS = 300;
+
+    private final ClientsDatabaseRepository clientRepository = new ClientsDatabaseRepository();
+    private final List<Integer> clientIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        for (int i = 0; i < CLIENTS; i++) {
+            clientIds.add(TestDatabase.insertClient("First" + i, "Last" + i, 1));
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void searchesScanUntilTheIndexIsLoaded() throws Exception {
+        List<ClientRow> rows = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> rows.addAll(searchLastName("last17")));
+
+        assertFalse(statements.keySet().stream().anyMatch(sql -> sql.contains("ANY(?)")), statements::toString);
+        assertEquals(11, rows.size());
+        assertEquals(clientIds.get(17), rows.getFirst().id());
+    }
+
+    @Test
+    void searchesReadTheCandidatesOfTheLoadedIndex() throws Exception {
+        SearchIndexRefresher.refreshAll();
+        List<ClientRow> rows = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> rows.addAll(searchLastName("last170")));
+
+        assertTrue(statements.keySet().stream().anyMatch(sql -> sql.contains("ANY(?)")), statements::toString);
+        assertEquals(List.of(clientIds.get(170)), rows.stream().map(ClientRow::id).toList());
+    }
+
+    @Test
+    void clientsInsertedByAnotherInstanceAreFoundAfterTheNextRefresh() throws Exception {
+        SearchIndexRefresher.refreshAll();
+        int clientId = TestDatabase.insertClient("Ana", "Zrinski", 1);
+
+        SearchIndexRefresher.refreshAll();
+
+        assertEquals(List.of(clientId), searchLastName("zrinski").stream().map(ClientRow::id).toList());
+    }
+
+    @Test
+    void clientsUpdatedByAnotherInstanceAreFoundAfterTheNextRefresh() throws Exception {
+        SearchIndexRefresher.refreshAll();
+        TestDatabase.update("UPDATE referred_client SET last_name = 'Frankopan' WHERE id = ?", clientIds.get(42));
+
+        SearchIndexRefresher.refreshAll();
+
+        assertEquals(List.of(clientIds.get(42)), searchLastName("frankopan").stream().map(ClientRow::id).toList());
+        assertTrue(searchLastName("last42").isEmpty());
+    }
+
+    private List<ClientRow> searchLastName(String lastName) {
+        return clientRepository.findRowPage(new ClientQuery.Builder().lastName(lastName).build(),
+                ClientSortKey.LAST_NAME_ASC, null, 50).items();
+    }
+}
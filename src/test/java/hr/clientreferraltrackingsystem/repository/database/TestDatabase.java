@@ -0,0 +1,194 @@
+package hr.clientreferraltrackingsystem.repository.database;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Creates a fresh in-memory H2 database for a test, with the schema from {@code database.sql}
+ * and every migration applied, and points the shared connection pool at it.
+ */
+public class TestDatabase {
+
+    private TestDatabase() {}
+
+    /**
+     * Creates a new, empty in-memory database and makes it the application's database.
+     *
+     * @throws IOException  if the schema script or a migration script cannot be read
+     * @throws SQLException if the schema cannot be created
+     */
+    public static void start() throws IOException, SQLException {
+        String url = "jdbc:h2:mem:test-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        DatabaseManager.useConfig(new DatabaseConfig(DatabaseMode.EMBEDDED, url, 0, "database.sql",
+                "sa", "", 20, 5000L, 0L, 2, 5000L));
+        DatabaseManager.initializeDatabase();
+    }
+
+    /**
+     * Drops the in-memory database and closes the shared connection pool.
+     *
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the database cannot be shut down
+     */
+    public static void stop() throws IOException, SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SHUTDOWN");
+        } finally {
+            DatabaseManager.shutdown();
+        }
+    }
+
+    /**
+     * Borrows a connection to the test database from the shared pool.
+     *
+     * @return the connection
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if no connection is available
+     */
+    public static Connection connect() throws IOException, SQLException {
+        return new DatabaseManager().connectToDatabase();
+    }
+
+    /**
+     * Inserts a referred client created by the given user.
+     *
+     * @param firstName the client's first name
+     * @param lastName  the client's last name
+     * @param createdBy the ID of the creating user
+     * @return the ID of the new client
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the insert fails
+     */
+    public static int insertClient(String firstName, String lastName, int createdBy) throws IOException, SQLException {
+        return insert("INSERT INTO referred_client (first_name, last_name, email, phone_number, created_by) VALUES (?, ?, ?, ?, ?)",
+                firstName, lastName, firstName.toLowerCase() + "@example.com", "0910000000", createdBy);
+    }
+
+    /**
+     * Inserts a pending referral.
+     *
+     * @param referrerId the ID of the referring user
+     * @param clientId   the ID of the referred client
+     * @return the ID of the new referral
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the insert fails
+     */
+    public static int insertReferral(int referrerId, int clientId) throws IOException, SQLException {
+        return insert("INSERT INTO referral (referrer_user_id, referred_client_id, status) VALUES (?, ?, 'PENDING')",
+                referrerId, clientId);
+    }
+
+    /**
+     * Runs an insert statement and returns the generated ID.
+     *
+     * @param sql        the insert statement
+     * @param parameters the values of its parameters
+     * @return the generated ID
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the insert fails
+     */
+    public static int insert(String sql, Object... parameters) throws IOException, SQLException {
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.executeUpdate();
+            try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                generatedKeys.next();
+                return generatedKeys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Runs an update statement.
+     *
+     * @param sql        the statement
+     * @param parameters the values of its parameters
+     * @return the number of changed rows
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the statement fails
+     */
+    public static int update(String sql, Object... parameters) throws IOException, SQLException {
+        try (Connection connection = connect(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            return statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Runs a query returning a single value.
+     *
+     * @param sql        the query
+     * @param parameters the values of its parameters
+     * @return the value of the first column of the first row, or null if there is no row
+     * @throws IOException  if the configuration cannot be read
+     * @throws SQLException if the query fails
+     */
+    public static Object queryValue(String sql, Object... parameters) throws IOException, SQLException {
+        try (Connection connection = connect(); PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getObject(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Runs an action and returns the statements it sent to the database, with how often each ran.
+     * Settings applied by newly opened connections are left out.
+     *
+     * @param action the action to observe
+     * @return the number of executions by SQL text
+     * @throws Exception if the action or reading the statistics fails
+     */
+    public static Map<String, Long> statementsRunBy(ThrowingRunnable action) throws Exception {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SET QUERY_STATISTICS TRUE");
+            Map<String, Long> before = executionCounts(statement);
+            action.run();
+            Map<String, Long> executed = executionCounts(statement);
+            before.forEach((sql, count) -> executed.computeIfPresent(sql, (_, total) -> total.equals(count) ? null : total - count));
+            executed.keySet().removeIf(sql -> sql.startsWith("SET ") || sql.contains("INFORMATION_SCHEMA.QUERY_STATISTICS"));
+            statement.execute("SET QUERY_STATISTICS FALSE");
+            return executed;
+        }
+    }
+
+    private static Map<String, Long> executionCounts(Statement statement) throws SQLException {
+        Map<String, Long> counts = new HashMap<>();
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT sql_statement, execution_count FROM INFORMATION_SCHEMA.QUERY_STATISTICS")) {
+            while (resultSet.next()) {
+                counts.put(resultSet.getString(1), resultSet.getLong(2));
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Action observed by {@link #statementsRunBy(ThrowingRunnable)}.
+     */
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+
+        /**
+         * Runs the action.
+         *
+         * @throws Exception if the action fails
+         */
+        void run() throws Exception;
+    }
+}
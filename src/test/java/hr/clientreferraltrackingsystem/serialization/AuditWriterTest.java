@@ -0,0 +1,146 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks that the {@link AuditWriter} keeps writing after an entry fails to be written
+ * and loses no entry when it is closed while callers are still submitting.
+ */
+class AuditWriterTest {
+    private static final int CAPACITY = 4;
+
+    private Path directory;
+    private SegmentedChangeLog changeLog;
+    private AuditWriter writer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("audit");
+        changeLog = new SegmentedChangeLog(directory.resolve("segments"), directory.resolve("changes.journal"),
+                directory.resolve("changes.dat"), Period.ofYears(1));
+        writer = new AuditWriter.Builder(changeLog).capacity(CAPACITY).maxBatchSize(2).maxLatency(Duration.ZERO).build();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        writer.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void failingEntryIsDroppedAndTheRestOfItsBatchIsWritten() throws IOException {
+        writer.submit(change("before"));
+        writer.submit(failingChange());
+        writer.submit(change("after"));
+        writer.flush();
+
+        assertEquals(List.of("before", "after"), newValues(changeLog.read(null, null)));
+        assertEquals(2, writer.stats().writtenCount());
+        assertEquals(1, writer.stats().failedCount());
+    }
+
+    @Test
+    void writerKeepsFreeingQueueSlotsAfterFailures() throws IOException {
+        CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < CAPACITY * 5; i++) {
+                writer.submit(i % 3 == 0 ? failingChange() : change("value" + i));
+            }
+            writer.flush();
+        }).orTimeout(10, TimeUnit.SECONDS).join();
+
+        assertEquals(CAPACITY * 5 - 7, changeLog.read(null, null).size());
+    }
+
+    @Test
+    void closingWhileCallersSubmitLosesNoEntry() throws Exception {
+        int submitters = 8;
+        int changesPerSubmitter = 50;
+        for (int round = 0; round < 20; round++) {
+            AuditWriter closing = new AuditWriter.Builder(changeLog).capacity(CAPACITY).maxBatchSize(2)
+                    .maxLatency(Duration.ZERO).build();
+            int before = changeLog.read(null, null).size();
+            CountDownLatch started = new CountDownLatch(submitters);
+            List<CompletableFuture<Void>> running = new ArrayList<>();
+            for (int i = 0; i < submitters; i++) {
+                running.add(CompletableFuture.runAsync(() -> {
+                    started.countDown();
+                    for (int j = 0; j < changesPerSubmitter; j++) {
+                        closing.submit(change("value" + j));
+                    }
+                }));
+            }
+            started.await();
+            closing.close();
+            CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).orTimeout(30, TimeUnit.SECONDS).join();
+
+            assertEquals(submitters * changesPerSubmitter, changeLog.read(null, null).size() - before);
+        }
+    }
+
+    @Test
+    void blockedCallersWriteDirectlyOnceTheWriterThreadHasDied() throws IOException {
+        writer.submit(fatalChange());
+        CompletableFuture.runAsync(() -> {
+            for (int i = 0; i < CAPACITY * 5; i++) {
+                writer.submit(change("value" + i));
+            }
+        }).orTimeout(10, TimeUnit.SECONDS).join();
+        writer.close();
+
+        assertEquals(CAPACITY * 5, changeLog.read(null, null).size());
+    }
+
+    private static ChangeLogHolder change(String newValue) {
+        return new ChangeLogHolder("Status", "old", newValue, "ADMIN", LocalDateTime.of(2025, 7, 6, 14, 30));
+    }
+
+    /**
+     * A change whose time cannot be read, so writing it fails with a runtime exception.
+     */
+    private static ChangeLogHolder failingChange() {
+        return new ChangeLogHolder("Status", "old", "failing", "ADMIN", null) {
+            @Override
+            public LocalDateTime getChangeDateTime() {
+                throw new IllegalStateException("unreadable change time");
+            }
+        };
+    }
+
+    /**
+     * A change that makes the writer thread end with an error instead of a runtime exception.
+     */
+    private static ChangeLogHolder fatalChange() {
+        return new ChangeLogHolder("Status", "old", "fatal", "ADMIN", null) {
+            @Override
+            public LocalDateTime getChangeDateTime() {
+                throw new AssertionError("writer thread ends");
+            }
+        };
+    }
+
+    private static List<String> newValues(List<ChangeLogHolder> changes) {
+        return changes.stream().map(ChangeLogHolder::getNewValue).toList();
+    }
+}
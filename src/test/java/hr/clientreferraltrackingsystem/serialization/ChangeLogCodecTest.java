@@ -0,0 +1,113 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Encodes and decodes change log entries with {@link ChangeLogCodec}.
+ */
+class ChangeLogCodecTest {
+
+    @Test
+    void entriesSurviveARoundTrip() throws IOException {
+        List<ChangeLogHolder> changes = List.of(
+                new ChangeLogHolder("Status", "PENDING", "APPROVED", "ADMIN", LocalDateTime.of(2025, 7, 6, 14, 30, 15, 123_000_000)),
+                new ChangeLogHolder("Status", null, "", "ADMIN", null),
+                new ChangeLogHolder(null, "Čestitke na nagradi! 🎉", "x".repeat(5_000), null, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 1_000_000)),
+                new ChangeLogHolder("Email", "ana@example.com", "ana.horvat@example.com", "USER", LocalDateTime.of(2025, 1, 1, 0, 0)));
+
+        List<ChangeLogHolder> decoded = roundTrip(changes);
+
+        for (int i = 0; i < changes.size(); i++) {
+            assertEntryEquals(changes.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    void repeatedFieldAndRoleNamesAreDecodedToSharedInstances() throws IOException {
+        List<ChangeLogHolder> decoded = roundTrip(List.of(
+                new ChangeLogHolder("Status", "PENDING", "APPROVED", "ADMIN", null),
+                new ChangeLogHolder("Status", "PENDING", "REJECTED", "ADMIN", null)));
+
+        assertSame(decoded.get(0).getFieldChanged(), decoded.get(1).getFieldChanged());
+        assertSame(decoded.get(0).getRole(), decoded.get(1).getRole());
+    }
+
+    @Test
+    void encodedEntriesAreLessThanHalfTheSizeOfJavaSerialization() throws IOException {
+        List<ChangeLogHolder> changes = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            changes.add(new ChangeLogHolder("Status", "PENDING", "APPROVED", "ADMIN", LocalDateTime.of(2025, 7, 6, 14, i)));
+        }
+        ChangeLogCodec codec = new ChangeLogCodec();
+        int encodedBytes = 0;
+        for (ChangeLogHolder change : changes) {
+            encodedBytes += codec.encode(change);
+        }
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+            out.writeObject(changes);
+        }
+
+        assertTrue(encodedBytes * 2 < serialized.size(), encodedBytes + " vs " + serialized.size());
+    }
+
+    @Test
+    void readOnlyCopyDecodesEntriesInAnyOrder() throws IOException {
+        ChangeLogCodec codec = new ChangeLogCodec();
+        List<byte[]> bodies = new ArrayList<>();
+        for (String role : List.of("ADMIN", "USER", "ADMIN")) {
+            int length = codec.encode(new ChangeLogHolder("Status", "a", "b", role, null));
+            bodies.add(Arrays.copyOf(codec.buffer(), length));
+        }
+        ChangeLogCodec reader = new ChangeLogCodec();
+        for (byte[] body : bodies) {
+            reader.decode(body, body.length);
+        }
+        ChangeLogCodec copy = reader.readOnlyCopy();
+
+        assertEquals("ADMIN", copy.decode(bodies.get(2), bodies.get(2).length).getRole());
+        assertEquals("USER", copy.decode(bodies.get(1), bodies.get(1).length).getRole());
+    }
+
+    @Test
+    void truncatedEntriesAreRejected() {
+        ChangeLogCodec codec = new ChangeLogCodec();
+        int length = codec.encode(new ChangeLogHolder("Status", "PENDING", "APPROVED", "ADMIN", LocalDateTime.of(2025, 7, 6, 14, 30)));
+        byte[] truncated = Arrays.copyOf(codec.buffer(), length - 1);
+
+        assertThrows(IOException.class, () -> new ChangeLogCodec().decode(truncated, truncated.length));
+    }
+
+    private static List<ChangeLogHolder> roundTrip(List<ChangeLogHolder> changes) throws IOException {
+        ChangeLogCodec encoder = new ChangeLogCodec();
+        ChangeLogCodec decoder = new ChangeLogCodec();
+        List<ChangeLogHolder> decoded = new ArrayList<>();
+        for (ChangeLogHolder change : changes) {
+            int length = encoder.encode(change);
+            byte[] body = Arrays.copyOf(encoder.buffer(), length);
+            decoded.add(decoder.decode(body, body.length));
+        }
+        return decoded;
+    }
+
+    static void assertEntryEquals(ChangeLogHolder expected, ChangeLogHolder actual) {
+        assertEquals(expected.getFieldChanged(), actual.getFieldChanged());
+        assertEquals(expected.getOldValue(), actual.getOldValue());
+        assertEquals(expected.getNewValue(), actual.getNewValue());
+        assertEquals(expected.getRole(), actual.getRole());
+        assertEquals(expected.getChangeDateTime(), actual.getChangeDateTime());
+    }
+}
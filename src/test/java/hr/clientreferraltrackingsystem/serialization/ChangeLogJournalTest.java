@@ -0,0 +1,134 @@
+package hr.clientreferraltrackingsystem.serialization;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static hr.clientreferraltrackingsystem.serialization.ChangeLogCodecTest.assertEntryEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Writes, reopens and compresses {@link ChangeLogJournal} files.
+ */
+class ChangeLogJournalTest {
+    private Path directory;
+    private Path journalPath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        journalPath = directory.resolve("changes.journal");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    void reopenedJournalRebuildsItsDictionaryAndKeepsAppending() throws IOException {
+        List<ChangeLogHolder> changes = changes(20);
+        ChangeLogJournal journal = new ChangeLogJournal(journalPath, null);
+        journal.appendAll(changes.subList(0, 10));
+        journal.close();
+
+        ChangeLogJournal reopened = new ChangeLogJournal(journalPath, null);
+        reopened.appendAll(changes.subList(10, 20));
+        List<ChangeLogHolder> read = new ChangeLogJournal(journalPath, null).readAll();
+
+        assertEquals(changes.size(), read.size());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEntryEquals(changes.get(i), read.get(i));
+        }
+        reopened.close();
+    }
+
+    @Test
+    void tornLastRecordIsDroppedOnOpen() throws IOException {
+        List<ChangeLogHolder> changes = changes(3);
+        ChangeLogJournal journal = new ChangeLogJournal(journalPath, null);
+        journal.appendAll(changes);
+        journal.close();
+        long intactSize = Files.size(journalPath);
+        Files.write(journalPath, new byte[] {0, 0, 0, 40, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+        List<ChangeLogHolder> read = new ChangeLogJournal(journalPath, null).readAll();
+
+        assertEquals(3, read.size());
+        assertEquals(intactSize, Files.size(journalPath));
+    }
+
+    @Test
+    void legacySerializedListIsMigratedOnFirstOpen() throws IOException {
+        Path legacyPath = directory.resolve("changes.dat");
+        List<ChangeLogHolder> changes = changes(4);
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(legacyPath))) {
+            out.writeObject(new ArrayList<>(changes));
+        }
+
+        List<ChangeLogHolder> read = new ChangeLogJournal(journalPath, legacyPath).readAll();
+
+        assertEquals(changes.size(), read.size());
+        assertEntryEquals(changes.get(3), read.get(3));
+        assertTrue(Files.exists(directory.resolve("changes.dat.migrated")));
+    }
+
+    @Test
+    void compressedCopyIsReadSequentiallyAndByOffset() throws IOException {
+        List<ChangeLogHolder> changes = changes(50);
+        ChangeLogJournal journal = new ChangeLogJournal(journalPath, null);
+        journal.appendAll(changes);
+        Path compressedPath = directory.resolve("changes.journal.gz");
+        journal.writeCompressedCopy(compressedPath);
+        journal.close();
+
+        List<ChangeLogHolder> streamed = new ArrayList<>();
+        ChangeLogJournal.readCompressed(compressedPath, streamed::add);
+        IndexedChangeLog loaded = ChangeLogJournal.loadCompressed(compressedPath);
+        long[] offsets = new long[loaded.index().size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = loaded.index().offset(i);
+        }
+        List<ChangeLogHolder> byOffset = loaded.read(offsets, offsets.length);
+
+        assertEquals(changes.size(), streamed.size());
+        assertEquals(changes.size(), byOffset.size());
+        for (int i = 0; i < changes.size(); i++) {
+            assertEntryEquals(changes.get(i), streamed.get(i));
+            assertEntryEquals(changes.get(i), byOffset.get(i));
+        }
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Files.write(journalPath, new byte[] {0x43, 0x48, 0x4A, 0x31, 0, 0, 0, 0});
+
+        assertThrows(IOException.class, () -> new ChangeLogJournal(journalPath, null).readAll());
+    }
+
+    private static List<ChangeLogHolder> changes(int count) {
+        List<ChangeLogHolder> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            changes.add(new ChangeLogHolder(i % 2 == 0 ? "Status" : "Email", "old " + i, "new " + i,
+                    i % 3 == 0 ? "ADMIN" : "USER", LocalDateTime.of(2025, 7, 6, 10, 0).plusMinutes(i)));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,96 @@
+package hr.clientreferraltrackingsystem.service;
+
+import hr.clientreferraltrackingsystem.model.User;
+import hr.clientreferraltrackingsystem.repository.cache.EntityCaches;
+import hr.clientreferraltrackingsystem.repository.database.TestDatabase;
+import hr.clientreferraltrackingsystem.repository.database.UserCredentials;
+import hr.clientreferraltrackingsystem.repository.database.UserDatabaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Logs in through {@link AuthService} against an in-memory database.
+ * The test user's password is hashed with the lowest BCrypt cost to keep the tests fast.
+ */
+class AuthServiceTest {
+    private static final String USERNAME = "ana";
+    private static final String PASSWORD = "Ana123!";
+
+    private final AuthService authService = new AuthService();
+    private final UserDatabaseRepository userRepository = new UserDatabaseRepository();
+    private int userId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.start();
+        userId = TestDatabase.insert("INSERT INTO users (username, password, email, first_name, last_name, phone_number, role) " +
+                "VALUES (?, ?, 'ana@example.com', 'Ana', 'Horvat', '0910000000', 'USER')",
+                USERNAME, BCrypt.hashpw(PASSWORD, BCrypt.gensalt(4)));
+        EntityCaches.clear();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        TestDatabase.stop();
+    }
+
+    @Test
+    void credentialsAreLoadedByUsernameWithOneQuery() throws Exception {
+        List<Optional<UserCredentials>> credentials = new ArrayList<>();
+
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> credentials.add(userRepository.findCredentialsByUsername(USERNAME)));
+
+        assertEquals(1, statements.size(), statements::toString);
+        assertTrue(statements.keySet().iterator().next().contains("WHERE username = ?"));
+        assertEquals(userId, credentials.getFirst().orElseThrow().userId());
+        assertTrue(BCrypt.checkpw(PASSWORD, credentials.getFirst().orElseThrow().passwordHash()));
+    }
+
+    @Test
+    void unknownUsernameHasNoCredentials() {
+        assertFalse(userRepository.findCredentialsByUsername("nobody").isPresent());
+    }
+
+    @Test
+    void correctPasswordReturnsTheFullUser() {
+        User user = authService.login(USERNAME, PASSWORD).orElseThrow();
+
+        assertEquals(userId, user.getId());
+        assertEquals(USERNAME, user.getUsername());
+        assertEquals("ana@example.com", user.getEmail());
+    }
+
+    @Test
+    void loginReadsOnlyTheCredentialsAndThenTheUserById() throws Exception {
+        Map<String, Long> statements = TestDatabase.statementsRunBy(() -> authService.login(USERNAME, PASSWORD));
+
+        assertEquals(2, statements.size(), statements::toString);
+        assertTrue(statements.keySet().stream().allMatch(sql -> sql.contains("WHERE")), statements::toString);
+    }
+
+    @Test
+    void wrongPasswordIsRejected() {
+        assertFalse(authService.login(USERNAME, "wrong").isPresent());
+    }
+
+    @Test
+    void unknownUsernameIsRejected() {
+        assertFalse(authService.login("nobody", PASSWORD).isPresent());
+    }
+
+    @Test
+    void seededAccountsStillLogIn() {
+        assertTrue(authService.login("deaan", "Dean123!").isPresent());
+    }
+}